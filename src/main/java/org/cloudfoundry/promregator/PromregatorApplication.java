@@ -17,9 +17,16 @@ import org.cloudfoundry.promregator.cfaccessor.CFAccessorSimulator;
 import org.cloudfoundry.promregator.cfaccessor.CFWatchdog;
 import org.cloudfoundry.promregator.cfaccessor.ReactiveCFAccessorImpl;
 import org.cloudfoundry.promregator.config.ConfigurationValidations;
+import org.cloudfoundry.promregator.discovery.AuditEventDiscoveryUpdater;
 import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer;
+import org.cloudfoundry.promregator.endpoint.DiscoveryDocumentCache;
+import org.cloudfoundry.promregator.fetcher.AdaptiveTimeoutPolicy;
+import org.cloudfoundry.promregator.fetcher.BulkheadRegistry;
+import org.cloudfoundry.promregator.fetcher.CircuitBreakerRegistry;
+import org.cloudfoundry.promregator.fetcher.HedgingPolicy;
 import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
 import org.cloudfoundry.promregator.lifecycle.InstanceLifecycleHandler;
+import org.cloudfoundry.promregator.messagebus.InstanceLifecycleEventBus;
 import org.cloudfoundry.promregator.scanner.AppInstanceScanner;
 import org.cloudfoundry.promregator.scanner.CachingTargetResolver;
 import org.cloudfoundry.promregator.scanner.ReactiveAppInstanceScanner;
@@ -29,6 +36,7 @@ import org.cloudfoundry.promregator.springconfig.AuthenticatorSpringConfiguratio
 import org.cloudfoundry.promregator.springconfig.BasicAuthenticationSpringConfiguration;
 import org.cloudfoundry.promregator.springconfig.ErrorSpringConfiguration;
 import org.cloudfoundry.promregator.springconfig.JMSSpringConfiguration;
+import org.cloudfoundry.promregator.textformat004.LabelDictionary;
 import org.cloudfoundry.promregator.websecurity.SecurityConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,6 +81,9 @@ public class PromregatorApplication {
 	// NB: Spring supports configuration values for enums to be both upper- and lowercased
 	private AccessorCacheType cacheType;
 	
+	@Value("${promregator.scraping.labelDictionary.maxSize:" + LabelDictionary.DEFAULT_MAX_SIZE + "}")
+	private int labelDictionaryMaxSize;
+	
 	public static void main(String[] args) {
 		SpringApplication.run(PromregatorApplication.class, args);
 	}
@@ -156,6 +167,41 @@ public class PromregatorApplication {
 		return new CFMultiDiscoverer();
 	}
 	
+	@Bean
+	public DiscoveryDocumentCache discoveryDocumentCache() {
+		return new DiscoveryDocumentCache();
+	}
+	
+	@Bean
+	public AuditEventDiscoveryUpdater auditEventDiscoveryUpdater() {
+		return new AuditEventDiscoveryUpdater();
+	}
+	
+	@Bean
+	public InstanceLifecycleEventBus instanceLifecycleEventBus() {
+		return new InstanceLifecycleEventBus();
+	}
+	
+	@Bean
+	public CircuitBreakerRegistry circuitBreakerRegistry() {
+		return new CircuitBreakerRegistry();
+	}
+	
+	@Bean
+	public AdaptiveTimeoutPolicy adaptiveTimeoutPolicy() {
+		return new AdaptiveTimeoutPolicy();
+	}
+	
+	@Bean
+	public HedgingPolicy hedgingPolicy() {
+		return new HedgingPolicy();
+	}
+	
+	@Bean
+	public BulkheadRegistry bulkheadRegistry() {
+		return new BulkheadRegistry();
+	}
+	
 	@Bean
 	public InstanceLifecycleHandler instanceLifecycleHandler() {
 		return new InstanceLifecycleHandler();
@@ -249,4 +295,13 @@ public class PromregatorApplication {
 			java.security.Security.setProperty("networkaddress.cache.ttl", this.javaDnsCacheWorkaroundTimeout+"");
 		}
 	}
+	
+	@PostConstruct
+	public void configureLabelDictionary() {
+		if (this.labelDictionaryMaxSize != LabelDictionary.DEFAULT_MAX_SIZE) {
+			log.info(String.format("Setting the maximal size of the label dictionary to %d", this.labelDictionaryMaxSize));
+		}
+		
+		LabelDictionary.getShared().setMaxSize(this.labelDictionaryMaxSize);
+	}
 }
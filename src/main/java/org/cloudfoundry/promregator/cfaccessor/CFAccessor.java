@@ -1,6 +1,10 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
+import java.util.List;
+
 import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
 import org.cloudfoundry.client.v2.spaces.GetSpaceSummaryResponse;
@@ -23,5 +27,9 @@ public interface CFAccessor {
 
 	Mono<GetSpaceSummaryResponse> retrieveSpaceSummary(String spaceId);
 	
+	Mono<SummaryApplicationResponse> retrieveApplicationSummary(String applicationId);
+	
+	Mono<ListEventsResponse> retrieveEvents(String sinceTimestamp, List<String> eventTypes);
+	
 	void reset();
 }
\ No newline at end of file
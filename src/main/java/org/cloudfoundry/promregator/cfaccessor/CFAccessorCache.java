@@ -6,5 +6,13 @@ public interface CFAccessorCache extends CFAccessor {
 	void invalidateCacheSpace();
 
 	void invalidateCacheOrg();
+	
+	/**
+	 * invalidates all cached records, which are affected by a change of a single application
+	 * @param orgId the id of the organization in which the application is located
+	 * @param spaceId the id of the space in which the application is located
+	 * @param applicationId the id of the application which has changed
+	 */
+	void invalidateCacheApplication(String orgId, String spaceId, String applicationId);
 
 }
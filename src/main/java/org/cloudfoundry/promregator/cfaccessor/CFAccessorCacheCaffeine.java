@@ -1,5 +1,6 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -9,6 +10,8 @@ import javax.annotation.PostConstruct;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
 import org.cloudfoundry.client.v2.spaces.GetSpaceSummaryResponse;
@@ -36,6 +39,7 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	private AsyncLoadingCache<String, ListSpacesResponse> spaceIdInOrgCache;
 	private AsyncLoadingCache<CacheKeyAppsInSpace, ListApplicationsResponse> appsInSpaceCache;
 	private AsyncLoadingCache<String, GetSpaceSummaryResponse> spaceSummaryCache;
+	private AsyncLoadingCache<String, SummaryApplicationResponse> appSummaryCache;
 	
 	@Value("${cf.cache.timeout.org:3600}")
 	private int refreshCacheOrgLevelInSeconds;
@@ -134,6 +138,17 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 		}
 	}
 	
+	private class AppSummaryCacheLoader implements AsyncCacheLoader<String, SummaryApplicationResponse> {
+		@Override
+		public @NonNull CompletableFuture<SummaryApplicationResponse> asyncLoad(@NonNull String key,
+				@NonNull Executor executor) {
+			Mono<SummaryApplicationResponse> mono = parent.retrieveApplicationSummary(key)
+					.subscribeOn(Schedulers.fromExecutor(executor))
+					.cache();
+			return mono.toFuture();
+		}
+	}
+	
 	@PostConstruct
 	public void setupCaches() {
 		log.info(String.format("Cache refresh timings: org cache: %ds, space cache: %ds, app cache: %ds, app summary cache: %ds", 
@@ -190,6 +205,14 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 				.scheduler(caffeineScheduler)
 				.buildAsync(new SpaceSummaryCacheLoader());
 		this.internalMetrics.addCaffeineCache("spaceSummary", this.spaceSummaryCache);
+		
+		this.appSummaryCache = Caffeine.newBuilder()
+				.expireAfterAccess(this.expiryCacheApplicationLevelInSeconds, TimeUnit.SECONDS)
+				.refreshAfterWrite(this.refreshCacheApplicationLevelInSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.scheduler(caffeineScheduler)
+				.buildAsync(new AppSummaryCacheLoader());
+		this.internalMetrics.addCaffeineCache("appSummary", this.appSummaryCache);
 	}
 
 	@Override
@@ -223,6 +246,11 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	public Mono<GetSpaceSummaryResponse> retrieveSpaceSummary(String spaceId) {
 		return Mono.fromFuture(this.spaceSummaryCache.get(spaceId));
 	}
+	
+	@Override
+	public Mono<SummaryApplicationResponse> retrieveApplicationSummary(String applicationId) {
+		return Mono.fromFuture(this.appSummaryCache.get(applicationId));
+	}
 
 	
 	@Override
@@ -236,12 +264,31 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	}
 
 
+	@Override
+	public Mono<ListEventsResponse> retrieveEvents(String sinceTimestamp, List<String> eventTypes) {
+		/*
+		 * special case: we don't cache the result here in an own cache,
+		 * as we always want to have "fresh data".
+		 */
+		return this.parent.retrieveEvents(sinceTimestamp, eventTypes);
+	}
+
 	@Override
 	public void invalidateCacheApplications() {
 		log.info("Invalidating application cache");
 		
 		this.appsInSpaceCache.synchronous().invalidateAll();
 		this.spaceSummaryCache.synchronous().invalidateAll();
+		this.appSummaryCache.synchronous().invalidateAll();
+	}
+
+	@Override
+	public void invalidateCacheApplication(String orgId, String spaceId, String applicationId) {
+		log.debug(String.format("Invalidating application cache for application %s in space %s", applicationId, spaceId));
+		
+		this.appSummaryCache.synchronous().invalidate(applicationId);
+		this.spaceSummaryCache.synchronous().invalidate(spaceId);
+		this.appsInSpaceCache.synchronous().invalidate(new CacheKeyAppsInSpace(orgId, spaceId));
 	}
 
 	@Override
@@ -1,11 +1,14 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 
 import javax.annotation.PostConstruct;
 
 import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
 import org.cloudfoundry.client.v2.spaces.GetSpaceSummaryResponse;
@@ -26,6 +29,7 @@ public class CFAccessorCacheClassic implements CFAccessorCache {
 	private AutoRefreshingCacheMap<CacheKeySpace, Mono<ListSpacesResponse>> spaceCache;
 	private AutoRefreshingCacheMap<CacheKeyAppsInSpace, Mono<ListApplicationsResponse>> appsInSpaceCache;
 	private AutoRefreshingCacheMap<String, Mono<GetSpaceSummaryResponse>> spaceSummaryCache;
+	private AutoRefreshingCacheMap<String, Mono<SummaryApplicationResponse>> appSummaryCache;
 
 	@Value("${cf.cache.timeout.org:3600}")
 	private int refreshCacheOrgLevelInSeconds;
@@ -68,6 +72,7 @@ public class CFAccessorCacheClassic implements CFAccessorCache {
 		this.spaceCache = new AutoRefreshingCacheMap<>("space", this.internalMetrics, Duration.ofSeconds(this.expiryCacheSpaceLevelInSeconds), Duration.ofSeconds(refreshCacheSpaceLevelInSeconds), this::spaceCacheLoader);
 		this.appsInSpaceCache = new AutoRefreshingCacheMap<>("appsInSpace", this.internalMetrics, Duration.ofSeconds(this.expiryCacheApplicationLevelInSeconds), Duration.ofSeconds(refreshCacheApplicationLevelInSeconds), this::appsInSpaceCacheLoader);
 		this.spaceSummaryCache = new AutoRefreshingCacheMap<>("spaceSummary", this.internalMetrics, Duration.ofSeconds(this.expiryCacheApplicationLevelInSeconds), Duration.ofSeconds(refreshCacheApplicationLevelInSeconds), this::spaceSummaryCacheLoader);
+		this.appSummaryCache = new AutoRefreshingCacheMap<>("appSummary", this.internalMetrics, Duration.ofSeconds(this.expiryCacheApplicationLevelInSeconds), Duration.ofSeconds(refreshCacheApplicationLevelInSeconds), this::appSummaryCacheLoader);
 	}
 
 	private Mono<ListOrganizationsResponse> orgCacheLoader(String orgName) {
@@ -325,6 +330,32 @@ public class CFAccessorCacheClassic implements CFAccessorCache {
 		return mono;
 	}
 
+	private Mono<SummaryApplicationResponse> appSummaryCacheLoader(String applicationId) {
+		Mono<SummaryApplicationResponse> mono = this.parent.retrieveApplicationSummary(applicationId).cache();
+		
+		/*
+		 * Note that the mono does not have any subscriber, yet! 
+		 * For the reasoning of the subscription and the error handling below,
+		 * see spaceSummaryCacheLoader.
+		 */
+		mono.subscribe();
+		
+		mono = mono.doOnError(e -> {
+			if (e instanceof TimeoutException) {
+				log.warn(String.format("Timed-out entry using key %s detected, which would get stuck in our appSummary cache; "
+						+ "displacing it now to prevent further harm", applicationId), e);
+				this.appSummaryCache.remove(applicationId);
+				
+				// Notify metrics of this case
+				if (this.internalMetrics != null) {
+					this.internalMetrics.countAutoRefreshingCacheMapErroneousEntriesDisplaced(this.appSummaryCache.getName());
+				}
+			}
+		});
+		
+		return mono;
+	}
+
 	@Override
 	public Mono<GetInfoResponse> getInfo() {
 		return this.parent.getInfo();
@@ -374,14 +405,37 @@ public class CFAccessorCacheClassic implements CFAccessorCache {
 	public Mono<GetSpaceSummaryResponse> retrieveSpaceSummary(String spaceId) {
 		return this.spaceSummaryCache.get(spaceId);
 	}
+	
+	@Override
+	public Mono<SummaryApplicationResponse> retrieveApplicationSummary(String applicationId) {
+		return this.appSummaryCache.get(applicationId);
+	}
+
+	@Override
+	public Mono<ListEventsResponse> retrieveEvents(String sinceTimestamp, List<String> eventTypes) {
+		/*
+		 * special case: we don't cache the result here in an own cache,
+		 * as we always want to have "fresh data".
+		 */
+		return this.parent.retrieveEvents(sinceTimestamp, eventTypes);
+	}
 
 	@Override
 	public void invalidateCacheApplications() {
 		log.info("Invalidating application cache");
 		this.spaceSummaryCache.clear();
+		this.appSummaryCache.clear();
 		// TODO why is appsInSpaceCache not cleared here?
 	}
 	
+	@Override
+	public void invalidateCacheApplication(String orgId, String spaceId, String applicationId) {
+		log.debug(String.format("Invalidating application cache for application %s in space %s", applicationId, spaceId));
+		this.appSummaryCache.remove(applicationId);
+		this.spaceSummaryCache.remove(spaceId);
+		this.appsInSpaceCache.remove(new CacheKeyAppsInSpace(orgId, spaceId));
+	}
+	
 	@Override
 	public void invalidateCacheSpace() {
 		log.info("Invalidating space cache");
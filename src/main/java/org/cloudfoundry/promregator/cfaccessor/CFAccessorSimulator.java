@@ -10,10 +10,14 @@ import org.cloudfoundry.client.v2.Metadata;
 import org.cloudfoundry.client.v2.applications.ApplicationEntity;
 import org.cloudfoundry.client.v2.applications.ApplicationResource;
 import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
+import org.cloudfoundry.client.v2.domains.Domain;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
 import org.cloudfoundry.client.v2.organizations.OrganizationEntity;
 import org.cloudfoundry.client.v2.organizations.OrganizationResource;
+import org.cloudfoundry.client.v2.routes.Route;
 import org.cloudfoundry.client.v2.spaces.GetSpaceSummaryResponse;
 import org.cloudfoundry.client.v2.spaces.ListSpacesResponse;
 import org.cloudfoundry.client.v2.spaces.SpaceApplicationSummary;
@@ -157,6 +161,37 @@ public class CFAccessorSimulator implements CFAccessor {
 		log.error("Invalid retrieveSpaceSummary request");
 		return null;
 	}
+	
+	@Override
+	public Mono<SummaryApplicationResponse> retrieveApplicationSummary(String applicationId) {
+		if (applicationId.startsWith(APP_UUID_PREFIX)) {
+			String appNumber = applicationId.substring(APP_UUID_PREFIX.length());
+			
+			Route route = Route.builder()
+					.host(APP_HOST_PREFIX+appNumber)
+					.domain(Domain.builder().name(SHARED_DOMAIN).build())
+					.build();
+			
+			SummaryApplicationResponse resp = SummaryApplicationResponse.builder()
+					.id(applicationId)
+					.name("testapp"+appNumber)
+					.route(route)
+					.instances(this.amountInstances)
+					.state("STARTED")
+					.build();
+			
+			return Mono.just(resp).delayElement(this.getSleepRandomDuration());
+		}
+		
+		log.error("Invalid retrieveApplicationSummary request");
+		return null;
+	}
+
+	@Override
+	public Mono<ListEventsResponse> retrieveEvents(String sinceTimestamp, List<String> eventTypes) {
+		// the simulated platform never changes
+		return Mono.just(ListEventsResponse.builder().build()).delayElement(this.getSleepRandomDuration());
+	}
 
 	@Override
 	public Mono<GetInfoResponse> getInfo() {
@@ -3,6 +3,7 @@ package org.cloudfoundry.promregator.cfaccessor;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.time.Duration;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import javax.annotation.PostConstruct;
@@ -11,6 +12,11 @@ import org.apache.http.conn.util.InetAddressUtils;
 import org.cloudfoundry.client.v2.applications.ApplicationResource;
 import org.cloudfoundry.client.v2.applications.ListApplicationsRequest;
 import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.applications.SummaryApplicationRequest;
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
+import org.cloudfoundry.client.v2.events.EventResource;
+import org.cloudfoundry.client.v2.events.ListEventsRequest;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
 import org.cloudfoundry.client.v2.info.GetInfoRequest;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsRequest;
@@ -87,6 +93,12 @@ public class ReactiveCFAccessorImpl implements CFAccessor {
 	@Value("${cf.request.timeout.appSummary:4000}")
 	private int requestTimeoutAppSummary;
 	
+	@Value("${cf.request.timeout.singleAppSummary:2500}")
+	private int requestTimeoutSingleAppSummary;
+	
+	@Value("${cf.request.timeout.events:2500}")
+	private int requestTimeoutEvents;
+	
 	@Value("${cf.connectionPool.size:#{null}}")
 	private Integer connectionPoolSize;
 	
@@ -378,5 +390,43 @@ public class ReactiveCFAccessorImpl implements CFAccessor {
 				request, r -> this.cloudFoundryClient.spaces().getSummary(r), this.requestTimeoutAppSummary);
 
 	}
+	
+	/* (non-Javadoc)
+	 * @see org.cloudfoundry.promregator.cfaccessor.CFAccessor#retrieveApplicationSummary(java.lang.String)
+	 */
+	@Override
+	public Mono<SummaryApplicationResponse> retrieveApplicationSummary(String applicationId) {
+		// Note that SummaryApplicationRequest is not paginated
+		
+		SummaryApplicationRequest request = SummaryApplicationRequest.builder().applicationId(applicationId).build();
+		
+		return this.paginatedRequestFetcher.performGenericRetrieval(RequestType.APP_SUMMARY, applicationId, 
+				request, r -> this.cloudFoundryClient.applicationsV2().summary(r), this.requestTimeoutSingleAppSummary);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.cloudfoundry.promregator.cfaccessor.CFAccessor#retrieveEvents(java.lang.String, java.util.List)
+	 */
+	@Override
+	public Mono<ListEventsResponse> retrieveEvents(String sinceTimestamp, List<String> eventTypes) {
+		PaginatedRequestGeneratorFunction<ListEventsRequest> requestGenerator = (orderDirection, resultsPerPage, pageNumber) ->
+			ListEventsRequest.builder()
+				.timestamp(sinceTimestamp)
+				.addAllTypes(eventTypes)
+				.orderDirection(orderDirection)
+				.resultsPerPage(resultsPerPage)
+				.page(pageNumber)
+				.build();
+		
+		PaginatedResponseGeneratorFunction<EventResource, ListEventsResponse> responseGenerator = (list, numberOfPages) ->
+				ListEventsResponse.builder()
+				.addAllResources(list)
+				.totalPages(numberOfPages)
+				.totalResults(list.size())
+				.build();
+		
+		return this.paginatedRequestFetcher.performGenericPagedRetrieval(RequestType.EVENTS, sinceTimestamp, requestGenerator, 
+				r -> this.cloudFoundryClient.events().list(r), this.requestTimeoutEvents, responseGenerator);
+	}
 
 }
@@ -7,6 +7,8 @@ public enum RequestType {
 	SPACE_IN_ORG("space", "retrieveAllSpaceIdsInOrg"),
 	ALL_APPS_IN_SPACE("allApps", "retrieveAllApplicationIdsInSpace"),
 	SPACE_SUMMARY("spaceSummary", "retrieveSpaceSummary"),
+	APP_SUMMARY("appSummary", "retrieveApplicationSummary"),
+	EVENTS("events", "retrieveEvents"),
 	OTHER("other", "other"); // used for unit testing only
 	
 	private final String metricName;
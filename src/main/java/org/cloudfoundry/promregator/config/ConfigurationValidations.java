@@ -3,6 +3,7 @@ package org.cloudfoundry.promregator.config;
 import javax.annotation.PostConstruct;
 
 import org.cloudfoundry.promregator.config.validations.ConfigurationValidation;
+import org.cloudfoundry.promregator.config.validations.MetricFilterRegexMustBeCompilable;
 import org.cloudfoundry.promregator.config.validations.PreferredRouteRegexMustBeCompilable;
 import org.cloudfoundry.promregator.config.validations.TargetsHaveConsistentAuthenticatorId;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +14,8 @@ public class ConfigurationValidations {
 
 	protected ConfigurationValidation[] listOfValidations = {
 			new TargetsHaveConsistentAuthenticatorId(),
-			new PreferredRouteRegexMustBeCompilable()
+			new PreferredRouteRegexMustBeCompilable(),
+			new MetricFilterRegexMustBeCompilable()
 		};
 	
 	@PostConstruct
@@ -5,11 +5,14 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.cloudfoundry.promregator.textformat004.MetricFilter;
 
 public class Target {
 	private static final Logger log = LoggerFactory.getLogger(Target.class);
@@ -35,6 +38,24 @@ public class Target {
 	private List<String> preferredRouteRegex;
 	private List<Pattern> cachedPreferredRouteRegexPattern;
 
+	private List<String> metricNameAllowRegex;
+
+	private List<String> metricNameDenyRegex;
+
+	private Map<String, String> labelValueAllowRegex;
+
+	private Map<String, String> labelValueDenyRegex;
+
+	private MetricFilter cachedMetricFilter;
+
+	private int maxSamples;
+
+	private int maxPayloadSize;
+
+	private int maxSeriesPerFamily;
+
+	private boolean dropTimestamps;
+
 	public Target() {
 		super();
 	}
@@ -60,6 +81,16 @@ public class Target {
 		} else {
 			this.preferredRouteRegex = new ArrayList<>(source.preferredRouteRegex);
 		}
+		
+		this.metricNameAllowRegex = source.getMetricNameAllowRegex();
+		this.metricNameDenyRegex = source.getMetricNameDenyRegex();
+		this.labelValueAllowRegex = source.getLabelValueAllowRegex();
+		this.labelValueDenyRegex = source.getLabelValueDenyRegex();
+		
+		this.maxSamples = source.maxSamples;
+		this.maxPayloadSize = source.maxPayloadSize;
+		this.maxSeriesPerFamily = source.maxSeriesPerFamily;
+		this.dropTimestamps = source.dropTimestamps;
 	}
 
 	public String getOrgName() {
@@ -192,6 +223,171 @@ public class Target {
 		return this.cachedPreferredRouteRegexPattern;
 	}
 	
+	/**
+	 * @return the regular expressions on metric names, of which at least one must match for a metric to be scraped
+	 * This will never return a null value
+	 */
+	public @NonNull List<String> getMetricNameAllowRegex() {
+		if (this.metricNameAllowRegex == null) {
+			return Collections.emptyList();
+		}
+		
+		return new ArrayList<>(metricNameAllowRegex);
+	}
+
+	/**
+	 * @param metricNameAllowRegex the metricNameAllowRegex to set
+	 */
+	public void setMetricNameAllowRegex(List<String> metricNameAllowRegex) {
+		this.metricNameAllowRegex = metricNameAllowRegex;
+		this.cachedMetricFilter = null; // reset cache
+	}
+
+	/**
+	 * @return the regular expressions on metric names, of which none may match for a metric to be scraped
+	 * This will never return a null value
+	 */
+	public @NonNull List<String> getMetricNameDenyRegex() {
+		if (this.metricNameDenyRegex == null) {
+			return Collections.emptyList();
+		}
+		
+		return new ArrayList<>(metricNameDenyRegex);
+	}
+
+	/**
+	 * @param metricNameDenyRegex the metricNameDenyRegex to set
+	 */
+	public void setMetricNameDenyRegex(List<String> metricNameDenyRegex) {
+		this.metricNameDenyRegex = metricNameDenyRegex;
+		this.cachedMetricFilter = null; // reset cache
+	}
+
+	/**
+	 * @return the regular expressions on label values (indexed by the name of the label), which must match for a sample to be scraped
+	 * This will never return a null value
+	 */
+	public @NonNull Map<String, String> getLabelValueAllowRegex() {
+		if (this.labelValueAllowRegex == null) {
+			return Collections.emptyMap();
+		}
+		
+		return new HashMap<>(labelValueAllowRegex);
+	}
+
+	/**
+	 * @param labelValueAllowRegex the labelValueAllowRegex to set
+	 */
+	public void setLabelValueAllowRegex(Map<String, String> labelValueAllowRegex) {
+		this.labelValueAllowRegex = labelValueAllowRegex;
+		this.cachedMetricFilter = null; // reset cache
+	}
+
+	/**
+	 * @return the regular expressions on label values (indexed by the name of the label), which may not match for a sample to be scraped
+	 * This will never return a null value
+	 */
+	public @NonNull Map<String, String> getLabelValueDenyRegex() {
+		if (this.labelValueDenyRegex == null) {
+			return Collections.emptyMap();
+		}
+		
+		return new HashMap<>(labelValueDenyRegex);
+	}
+
+	/**
+	 * @param labelValueDenyRegex the labelValueDenyRegex to set
+	 */
+	public void setLabelValueDenyRegex(Map<String, String> labelValueDenyRegex) {
+		this.labelValueDenyRegex = labelValueDenyRegex;
+		this.cachedMetricFilter = null; // reset cache
+	}
+
+	/**
+	 * @return the filter, which shall be applied when parsing the metrics of this target; 
+	 * <code>null</code>, if no rules for filtering metrics are configured
+	 */
+	public MetricFilter getMetricFilter() {
+		if (this.cachedMetricFilter != null) {
+			return this.cachedMetricFilter;
+		}
+		
+		if (this.getMetricNameAllowRegex().isEmpty() && this.getMetricNameDenyRegex().isEmpty() 
+				&& this.getLabelValueAllowRegex().isEmpty() && this.getLabelValueDenyRegex().isEmpty()) {
+			return null;
+		}
+		
+		try {
+			this.cachedMetricFilter = new MetricFilter(this.getMetricNameAllowRegex(), this.getMetricNameDenyRegex(), 
+					this.getLabelValueAllowRegex(), this.getLabelValueDenyRegex());
+		} catch (PatternSyntaxException e) {
+			log.warn("Invalid regular expression for filtering metrics detected. Fix your configuration; until then, no metrics will be filtered", e);
+			return null;
+		}
+		
+		return this.cachedMetricFilter;
+	}
+	
+	/**
+	 * @return the maximal number of samples, which may be scraped from a single instance of this target; 
+	 * <code>0</code>, if unlimited
+	 */
+	public int getMaxSamples() {
+		return maxSamples;
+	}
+
+	/**
+	 * @param maxSamples the maxSamples to set
+	 */
+	public void setMaxSamples(int maxSamples) {
+		this.maxSamples = maxSamples;
+	}
+
+	/**
+	 * @return the maximal size in bytes of the document, which may be scraped from a single instance of this target; 
+	 * <code>0</code>, if unlimited
+	 */
+	public int getMaxPayloadSize() {
+		return maxPayloadSize;
+	}
+
+	/**
+	 * @param maxPayloadSize the maxPayloadSize to set
+	 */
+	public void setMaxPayloadSize(int maxPayloadSize) {
+		this.maxPayloadSize = maxPayloadSize;
+	}
+
+	/**
+	 * @return the maximal number of series per metric family, which may be scraped from a single instance of this target; 
+	 * <code>0</code>, if unlimited
+	 */
+	public int getMaxSeriesPerFamily() {
+		return maxSeriesPerFamily;
+	}
+
+	/**
+	 * @param maxSeriesPerFamily the maxSeriesPerFamily to set
+	 */
+	public void setMaxSeriesPerFamily(int maxSeriesPerFamily) {
+		this.maxSeriesPerFamily = maxSeriesPerFamily;
+	}
+
+	/**
+	 * @return <code>true</code>, if the timestamps of the samples scraped from the instances of this target
+	 * shall be discarded (i.e. Prometheus shall use the time of the scrape instead)
+	 */
+	public boolean isDropTimestamps() {
+		return dropTimestamps;
+	}
+
+	/**
+	 * @param dropTimestamps the dropTimestamps to set
+	 */
+	public void setDropTimestamps(boolean dropTimestamps) {
+		this.dropTimestamps = dropTimestamps;
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -218,6 +414,22 @@ public class Target {
 		builder.append(authenticatorId);
 		builder.append(", preferredRouteRegex=");
 		builder.append(preferredRouteRegex);
+		builder.append(", metricNameAllowRegex=");
+		builder.append(metricNameAllowRegex);
+		builder.append(", metricNameDenyRegex=");
+		builder.append(metricNameDenyRegex);
+		builder.append(", labelValueAllowRegex=");
+		builder.append(labelValueAllowRegex);
+		builder.append(", labelValueDenyRegex=");
+		builder.append(labelValueDenyRegex);
+		builder.append(", maxSamples=");
+		builder.append(maxSamples);
+		builder.append(", maxPayloadSize=");
+		builder.append(maxPayloadSize);
+		builder.append(", maxSeriesPerFamily=");
+		builder.append(maxSeriesPerFamily);
+		builder.append(", dropTimestamps=");
+		builder.append(dropTimestamps);
 		builder.append("]");
 		return builder.toString();
 	}
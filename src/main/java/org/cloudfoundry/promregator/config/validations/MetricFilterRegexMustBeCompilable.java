@@ -0,0 +1,44 @@
+package org.cloudfoundry.promregator.config.validations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.cloudfoundry.promregator.config.PromregatorConfiguration;
+import org.cloudfoundry.promregator.config.Target;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class MetricFilterRegexMustBeCompilable implements ConfigurationValidation {
+	private static final Logger log = LoggerFactory.getLogger(MetricFilterRegexMustBeCompilable.class);
+	
+	@Override
+	public String validate(PromregatorConfiguration promregatorConfiguration) {
+		boolean failed = false;
+	
+		for (Target target : promregatorConfiguration.getTargets()) {
+			List<String> regexList = new ArrayList<>();
+			regexList.addAll(target.getMetricNameAllowRegex());
+			regexList.addAll(target.getMetricNameDenyRegex());
+			regexList.addAll(target.getLabelValueAllowRegex().values());
+			regexList.addAll(target.getLabelValueDenyRegex().values());
+			
+			for (String regex : regexList) {
+				try {
+					Pattern.compile(regex);
+				} catch (PatternSyntaxException e) {
+					log.error(String.format("There is a regular expression for filtering metrics which cannot be compiled: %s; please fix and restart", regex), e);
+					failed = true;
+				}
+			}
+		}
+			
+		if (failed) {
+			return "There is at least one target configured, which has an invalid regular expression for filtering metrics set; fix it first!";
+		}
+		
+		return null;
+	}
+
+}
@@ -0,0 +1,206 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.cloudfoundry.client.v2.events.EventEntity;
+import org.cloudfoundry.client.v2.events.EventResource;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
+import org.cloudfoundry.promregator.cfaccessor.CFAccessorCache;
+import org.cloudfoundry.promregator.scanner.CachingTargetResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Polls the audit events of the Cloud Controller and applies the changes of applications
+ * reported there to the caches and the discoverer. This allows to keep the refresh timeouts of
+ * the caches high, as changes of the platform are picked up by the audit events.
+ */
+public class AuditEventDiscoveryUpdater {
+	private static final Logger log = LoggerFactory.getLogger(AuditEventDiscoveryUpdater.class);
+
+	/**
+	 * event types, after which the instances of an application are no longer available
+	 */
+	static final List<String> EVENT_TYPES_REMOVAL = Collections.unmodifiableList(Arrays.asList(
+			"audit.app.stop", "audit.app.delete-request"));
+
+	/**
+	 * event types, after which an application may (newly) match a target
+	 */
+	static final List<String> EVENT_TYPES_RESOLUTION = Collections.unmodifiableList(Arrays.asList(
+			"audit.app.create", "audit.app.start", "audit.app.update"));
+
+	/**
+	 * event types, which only change the routes or the number of instances of an application
+	 */
+	static final List<String> EVENT_TYPES_METADATA = Collections.unmodifiableList(Arrays.asList(
+			"audit.app.map-route", "audit.app.unmap-route", "audit.app.process.scale"));
+
+	private static final List<String> EVENT_TYPES_ALL;
+	static {
+		List<String> all = new ArrayList<>();
+		all.addAll(EVENT_TYPES_REMOVAL);
+		all.addAll(EVENT_TYPES_RESOLUTION);
+		all.addAll(EVENT_TYPES_METADATA);
+		EVENT_TYPES_ALL = Collections.unmodifiableList(all);
+	}
+
+	@Value("${promregator.discoverer.auditEvents.enabled:false}")
+	private boolean enabled;
+
+	@Autowired
+	private CFAccessorCache cfAccessorCache;
+
+	@Autowired
+	private CachingTargetResolver cachingTargetResolver;
+
+	@Autowired
+	private CFMultiDiscoverer cfDiscoverer;
+
+	@Autowired
+	private Clock clock;
+
+	/**
+	 * the timestamp of the latest event which has been applied
+	 */
+	private Instant lastTimestamp;
+
+	/**
+	 * the ids of the events having the timestamp <code>lastTimestamp</code>, which have been applied already.
+	 * This is required, as the Cloud Controller only allows to filter events by "greater or equal"
+	 * and its timestamps only have a precision of seconds.
+	 */
+	private Set<String> eventIdsOfLastTimestamp = new HashSet<>();
+
+	@PostConstruct
+	public void setupStartingPoint() {
+		/*
+		 * The initial (full) synchronization is performed by the first discovery, which fills the caches.
+		 * Any change happening from now on needs to be applied.
+		 */
+		this.lastTimestamp = Instant.now(this.clock).truncatedTo(ChronoUnit.SECONDS);
+
+		if (this.enabled) {
+			log.info(String.format("Incremental discovery based on audit events enabled, starting at %s", this.lastTimestamp));
+		}
+	}
+
+	/**
+	 * polls the audit events, which occurred since the last poll, and applies them.
+	 * This method is automatically called by the Spring framework in regular intervals asynchronously.
+	 */
+	@Scheduled(fixedDelayString = "${promregator.discoverer.auditEvents.pollInterval:15}000")
+	public void pollEvents() {
+		if (!this.enabled) {
+			return;
+		}
+
+		final String since = DateTimeFormatter.ISO_INSTANT.format(this.lastTimestamp);
+
+		ListEventsResponse response = null;
+		try {
+			response = this.cfAccessorCache.retrieveEvents(since, EVENT_TYPES_ALL).block();
+		} catch (RuntimeException e) {
+			log.warn(String.format("Unable to retrieve audit events since %s; retrying on next poll", since), e);
+			return;
+		}
+
+		if (response == null || response.getResources() == null) {
+			return;
+		}
+
+		this.applyEvents(response.getResources());
+	}
+
+	private void applyEvents(List<EventResource> events) {
+		Instant newLastTimestamp = this.lastTimestamp;
+		Set<String> newEventIds = new HashSet<>(this.eventIdsOfLastTimestamp);
+
+		for (EventResource event : events) {
+			final String eventId = event.getMetadata() == null ? null : event.getMetadata().getId();
+			final EventEntity entity = event.getEntity();
+			if (entity == null) {
+				continue;
+			}
+
+			Instant timestamp = parseTimestamp(entity.getTimestamp());
+			if (timestamp != null && timestamp.equals(this.lastTimestamp) && this.eventIdsOfLastTimestamp.contains(eventId)) {
+				// already applied during the last poll
+				continue;
+			}
+
+			this.applyEvent(entity);
+
+			if (timestamp == null || eventId == null) {
+				continue;
+			}
+
+			if (timestamp.isAfter(newLastTimestamp)) {
+				newLastTimestamp = timestamp;
+				newEventIds = new HashSet<>();
+			}
+
+			if (timestamp.equals(newLastTimestamp)) {
+				newEventIds.add(eventId);
+			}
+		}
+
+		this.lastTimestamp = newLastTimestamp;
+		this.eventIdsOfLastTimestamp = newEventIds;
+	}
+
+	private void applyEvent(EventEntity entity) {
+		final String applicationId = entity.getActee();
+		if (applicationId == null || entity.getActeeType() != null && !"app".equals(entity.getActeeType())) {
+			return;
+		}
+
+		final String type = entity.getType();
+		log.debug(String.format("Applying audit event %s for application %s (%s)", type, applicationId, entity.getActeeName()));
+
+		this.cfAccessorCache.invalidateCacheApplication(entity.getOrganizationId(), entity.getSpaceId(), applicationId);
+
+		if (EVENT_TYPES_REMOVAL.contains(type)) {
+			this.cachingTargetResolver.invalidateCacheForApplication(applicationId, false);
+			this.cfDiscoverer.deregisterApplication(applicationId);
+		} else if (EVENT_TYPES_RESOLUTION.contains(type)) {
+			this.cachingTargetResolver.invalidateCacheForApplication(applicationId, true);
+		}
+		// EVENT_TYPES_METADATA: resolution of targets remains valid; invalidating the application caches is sufficient
+	}
+
+	private static Instant parseTimestamp(String timestamp) {
+		if (timestamp == null) {
+			return null;
+		}
+
+		try {
+			return Instant.parse(timestamp);
+		} catch (DateTimeParseException e) {
+			log.warn(String.format("Unable to parse timestamp '%s' of audit event", timestamp), e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return the timestamp of the latest event which has been applied
+	 */
+	public Instant getLastTimestamp() {
+		return lastTimestamp;
+	}
+}
@@ -7,6 +7,8 @@ import javax.annotation.Nullable;
 
 import org.cloudfoundry.promregator.scanner.Instance;
 
+import reactor.core.publisher.Flux;
+
 public interface CFDiscoverer {
 	
 	/**
@@ -17,4 +19,14 @@ public interface CFDiscoverer {
 	 * @return the list of Instances which were discovered (and registered).
 	 */
 	List<Instance> discover(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter);
+	
+	/**
+	 * performs the discovery like {@link #discover(Predicate, Predicate)}, but without blocking the calling thread.
+	 * The instances are emitted (and registered) as soon as they have been discovered. Errors during the discovery
+	 * are logged and complete the returned flux.
+	 * @param applicationIdFilter the (pre-)filter based on ApplicationIds, allowing to early filter the list of instances to discover
+	 * @param instanceFilter the (pre-)filter based on the Instance instance, allowing to filter the lost if instances to discover
+	 * @return the Instances which were discovered (and registered).
+	 */
+	Flux<Instance> discoverReactive(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter);
 }
@@ -4,17 +4,15 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
 
 import org.cloudfoundry.promregator.config.PromregatorConfiguration;
-import org.cloudfoundry.promregator.messagebus.MessageBusDestination;
+import org.cloudfoundry.promregator.messagebus.InstanceLifecycleEventBus;
 import org.cloudfoundry.promregator.scanner.AppInstanceScanner;
 import org.cloudfoundry.promregator.scanner.Instance;
 import org.cloudfoundry.promregator.scanner.ResolvedTarget;
@@ -23,9 +21,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
 public class CFMultiDiscoverer implements CFDiscoverer {
 	private static final Logger log = LoggerFactory.getLogger(CFMultiDiscoverer.class);
 	
@@ -39,17 +40,45 @@ public class CFMultiDiscoverer implements CFDiscoverer {
 	private PromregatorConfiguration promregatorConfiguration;
 
 	@Autowired
-	private JmsTemplate jmsTemplate;
+	private InstanceLifecycleEventBus instanceLifecycleEventBus;
 	
 
 	@Autowired
 	private Clock clock;
 	
-	private Map<Instance, Instant> instanceExpiryMap = new ConcurrentHashMap<>();
+	private final ExpiryIndex<Instance> instanceExpiryIndex = new ExpiryIndex<>();
+	
+	/**
+	 * the version of the set of registered instances; increased whenever an instance is added or removed
+	 */
+	private final AtomicLong instanceSetVersion = new AtomicLong();
+	
+	/**
+	 * emits the new version on each change of the set of registered instances. Subscribers, which are cancelled
+	 * (e.g. as their wait has timed out), are removed from the sink right away.
+	 */
+	private final Sinks.Many<Long> instanceSetChanges = Sinks.many().multicast().directBestEffort();
 	
 	@Value("${promregator.discoverer.timeout:600}")
 	private int expiryTimeout;
 	
+	@Value("${promregator.sharding.index:0}")
+	private int shardIndex;
+	
+	@Value("${promregator.sharding.count:1}")
+	private int shardCount;
+	
+	private RendezvousSharding sharding;
+	
+	@PostConstruct
+	public void setupSharding() {
+		this.sharding = new RendezvousSharding(this.shardIndex, this.shardCount);
+		
+		if (this.shardCount > 1) {
+			log.info(String.format("Sharding enabled: only discovering applications assigned to shard %d of %d shards", this.shardIndex, this.shardCount));
+		}
+	}
+	
 	/**
 	 * performs the discovery based on the configured set of targets in the configuration, (pre-)filtering the returned set applying the filter criteria supplied.
 	 * The instances discovered are automatically registered at this Discoverer
@@ -59,34 +88,78 @@ public class CFMultiDiscoverer implements CFDiscoverer {
 	 */
 	@Nullable
 	public List<Instance> discover(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
-		log.debug(String.format("We have %d targets configured", this.promregatorConfiguration.getTargets().size()));
-		
-		List<ResolvedTarget> resolvedTargets = this.targetResolver.resolveTargets(this.promregatorConfiguration.getTargets());
-		if (resolvedTargets == null) {
-			log.warn("Target resolved was unable to resolve configured targets");
-			return Collections.emptyList();
-		}
-		log.debug(String.format("Raw list contains %d resolved targets", resolvedTargets.size()));
-		
-		List<Instance> instanceList = this.appInstanceScanner.determineInstancesFromTargets(resolvedTargets, applicationIdFilter, instanceFilter);
+		List<Instance> instanceList = this.discoverReactive(applicationIdFilter, instanceFilter).collectList().block();
 		if (instanceList == null) {
-			log.warn("Instance Scanner unable to determine instances from provided targets");
 			return Collections.emptyList();
 		}
 		log.debug(String.format("Raw list contains %d instances", instanceList.size()));
-
-		// ensure that the instances are registered / touched properly
-		for (Instance instance : instanceList) {
-			this.registerInstance(instance);
-		}
 		
 		return instanceList;
 	}
+	
+	@Override
+	public Flux<Instance> discoverReactive(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
+		log.debug(String.format("We have %d targets configured", this.promregatorConfiguration.getTargets().size()));
+		
+		Flux<List<ResolvedTarget>> resolvedTargetsFlux = this.targetResolver.resolveTargetsReactive(this.promregatorConfiguration.getTargets())
+				.collectList()
+				.doOnNext(resolvedTargets -> log.debug(String.format("Raw list contains %d resolved targets", resolvedTargets.size())))
+				.flux()
+				.onErrorResume(e -> {
+					log.warn("Target resolved was unable to resolve configured targets", e);
+					return Flux.empty();
+				});
+		
+		final Predicate<? super String> effectiveApplicationIdFilter = this.applyShardingToFilter(applicationIdFilter);
+		
+		return resolvedTargetsFlux.flatMap(resolvedTargets -> 
+				this.appInstanceScanner.determineInstancesFromTargetsReactive(resolvedTargets, effectiveApplicationIdFilter, instanceFilter)
+				.onErrorResume(e -> {
+					log.warn("Instance Scanner unable to determine instances from provided targets", e);
+					return Flux.empty();
+				}))
+				// ensure that the instances are registered / touched properly
+				.doOnNext(this::registerInstance);
+	}
 
+	@Nullable
+	private Predicate<? super String> applyShardingToFilter(@Nullable Predicate<? super String> applicationIdFilter) {
+		if (this.sharding == null || this.sharding.getShardCount() == 1) {
+			return applicationIdFilter;
+		}
+		
+		final RendezvousSharding localSharding = this.sharding;
+		if (applicationIdFilter == null) {
+			return (String applicationId) -> localSharding.isResponsibleFor(applicationId);
+		}
+		
+		return (String applicationId) -> localSharding.isResponsibleFor(applicationId) && applicationIdFilter.test(applicationId);
+	}
+	
 	private void registerInstance(Instance instance) {
-		Instant timeout = nextTimeout();
-		this.instanceExpiryMap.put(instance, timeout);
-		// NB: If already in the map, then the timeout is overwritten => refreshing/touching
+		// NB: If already registered, then the timeout is overwritten => refreshing/touching
+		boolean newInstance = this.instanceExpiryIndex.touch(instance, nextTimeout());
+		
+		if (newInstance) {
+			this.instanceSetChanged();
+		}
+	}
+	
+	/**
+	 * deregisters all instances of an application immediately (i.e. without waiting for their expiry)
+	 * @param applicationId the id of the application whose instances shall be deregistered
+	 */
+	public void deregisterApplication(String applicationId) {
+		List<Instance> removedInstances = this.instanceExpiryIndex.removeIf(instance -> applicationId.equals(instance.getApplicationId()));
+		
+		for (Instance instance : removedInstances) {
+			log.info(String.format("Instance %s has been removed on the platform; cleaning up", instance));
+			
+			// broadcast event, that the instance is to be deleted
+			this.instanceLifecycleEventBus.publishInstanceRemoved(instance);
+			
+			this.instanceSetChanged();
+		}
 	}
 	
 	/**
@@ -95,7 +168,49 @@ public class CFMultiDiscoverer implements CFDiscoverer {
 	 * @return <code>true</code> if the instance is registered; <code>false</code> otherwise. Note that the response is independent whether the validity of the instance has already expired or not!
 	 */
 	public boolean isInstanceRegistered(Instance instance) {
-		return this.instanceExpiryMap.containsKey(instance);
+		return this.instanceExpiryIndex.contains(instance);
+	}
+
+	private void instanceSetChanged() {
+		// NB: the version must be increased before the change is emitted; see awaitInstanceSetChange
+		long version = this.instanceSetVersion.incrementAndGet();
+		
+		synchronized (this.instanceSetChanges) {
+			// NB: the sink must not be called concurrently
+			this.instanceSetChanges.tryEmitNext(version);
+		}
+	}
+	
+	/**
+	 * waits (non-blocking) until the set of registered instances differs from a known version
+	 * @param knownVersion the version of the set of registered instances known to the caller
+	 * @return a Mono providing the new version, once the version differs from <code>knownVersion</code>.
+	 * If the version already differs, the current version is provided immediately.
+	 */
+	public Mono<Long> awaitInstanceSetChange(long knownVersion) {
+		/*
+		 * NB: The subscription to the sink is made before the current version is checked.
+		 * Thus, a change happening in between is not missed.
+		 */
+		Mono<Long> changedAlready = Mono.fromSupplier(this.instanceSetVersion::get)
+				.filter(currentVersion -> currentVersion != knownVersion);
+		
+		return Flux.merge(this.instanceSetChanges.asFlux(), changedAlready).next();
+	}
+	
+	/**
+	 * @return the number of subscribers currently waiting for a change of the set of registered instances
+	 */
+	int getInstanceSetWatcherCount() {
+		return this.instanceSetChanges.currentSubscriberCount();
+	}
+	
+	/**
+	 * @return the version of the set of registered instances. The version is increased whenever 
+	 * an instance is registered, which was not known before, or an instance is removed.
+	 */
+	public long getInstanceSetVersion() {
+		return this.instanceSetVersion.get();
 	}
 
 	private Instant nextTimeout() {
@@ -103,27 +218,21 @@ public class CFMultiDiscoverer implements CFDiscoverer {
 	}
 	
 	/**
-	 * checks the list of registered Instances to be expired.
+	 * removes the registered Instances which have expired.
+	 * Only the instances due are inspected, so this is cheap even for a large number of registered instances.
 	 * This method is automatically called by the Spring framework in regular intervals asynchronously.
 	 */
-	@Scheduled(fixedDelay=60*1000)
+	@Scheduled(fixedDelay=1000)
 	public void cleanup() {
 		Instant now = Instant.now(this.clock);
 		
-		for (Iterator<Entry<Instance, Instant>> it = this.instanceExpiryMap.entrySet().iterator(); it.hasNext();) {
-			Entry<Instance, Instant> entry = it.next();
-			
-			if (entry.getValue().isAfter(now)) {
-				// not ripe yet; skip
-				continue;
-			}
-			
-			log.info(String.format("Instance %s has timed out; cleaning up", entry.getKey()));
+		for (Instance instance : this.instanceExpiryIndex.removeExpired(now)) {
+			log.info(String.format("Instance %s has timed out; cleaning up", instance));
 			
-			// broadcast event to JMS topic, that the instance is to be deleted
-			this.jmsTemplate.convertAndSend(MessageBusDestination.DISCOVERER_INSTANCE_REMOVED, entry.getKey());
+			// broadcast event, that the instance is to be deleted
+			this.instanceLifecycleEventBus.publishInstanceRemoved(instance);
 			
-			it.remove();
+			this.instanceSetChanged();
 		}
 	}
 	
@@ -0,0 +1,158 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * An index of keys, each having an expiry time, which allows to
+ * <ul>
+ * <li>touch (i.e. extend the expiry time of) a known key in constant time without allocating memory, and</li>
+ * <li>determine the expired keys without iterating over all keys known.</li>
+ * </ul>
+ * For this, keys are put into buckets of one second according to their expiry time.
+ * Touching a key only updates its expiry time, but does not move it to another bucket.
+ * Only when the bucket, in which the key is filed, becomes due, the key is
+ * either removed (if its expiry time has passed) or filed again into the bucket of its
+ * current expiry time (lazy invalidation). Thus, a key regularly touched is refiled only
+ * once per expiry period.
+ *
+ * @param <K> the type of the keys
+ */
+class ExpiryIndex<K> {
+	private static final long BUCKET_SIZE_MILLIS = 1000;
+
+	private final Map<K, Entry<K>> entries = new ConcurrentHashMap<>();
+
+	private final ConcurrentNavigableMap<Long, Queue<Entry<K>>> buckets = new ConcurrentSkipListMap<>();
+
+	private static final class Entry<K> {
+		private final K key;
+
+		private volatile long expiryMillis;
+
+		Entry(K key, long expiryMillis) {
+			this.key = key;
+			this.expiryMillis = expiryMillis;
+		}
+	}
+
+	/**
+	 * registers a key or extends the expiry time of an already registered key
+	 * @param key the key to register or touch
+	 * @param expiry the new point in time, when the key expires
+	 * @return <code>true</code>, if the key was not registered before; <code>false</code> otherwise
+	 */
+	public boolean touch(K key, Instant expiry) {
+		final long expiryMillis = expiry.toEpochMilli();
+
+		Entry<K> entry = this.entries.get(key);
+		if (entry != null) {
+			entry.expiryMillis = expiryMillis;
+			return false;
+		}
+
+		Entry<K> newEntry = new Entry<>(key, expiryMillis);
+		entry = this.entries.putIfAbsent(key, newEntry);
+		if (entry != null) {
+			// registered concurrently
+			entry.expiryMillis = expiryMillis;
+			return false;
+		}
+
+		this.file(newEntry);
+		return true;
+	}
+
+	private void file(Entry<K> entry) {
+		final long bucket = Math.floorDiv(entry.expiryMillis, BUCKET_SIZE_MILLIS);
+
+		Queue<Entry<K>> queue;
+		do {
+			queue = this.buckets.computeIfAbsent(bucket, b -> new ConcurrentLinkedQueue<>());
+			queue.add(entry);
+			// NB: if the bucket has been taken for expiry concurrently, the entry might have been missed there
+		} while (this.buckets.get(bucket) != queue);
+	}
+
+	/**
+	 * @param key the key to check
+	 * @return <code>true</code>, if the key is registered (independent whether it has expired already or not)
+	 */
+	public boolean contains(K key) {
+		return this.entries.containsKey(key);
+	}
+
+	/**
+	 * @return the number of keys registered
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * removes all keys matching a predicate immediately (i.e. independent of their expiry time).
+	 * Note that this requires iterating over all keys registered.
+	 * @param predicate the predicate selecting the keys to be removed
+	 * @return the list of keys removed
+	 */
+	public List<K> removeIf(Predicate<? super K> predicate) {
+		List<K> removed = new ArrayList<>();
+
+		for (Entry<K> entry : this.entries.values()) {
+			if (predicate.test(entry.key) && this.entries.remove(entry.key, entry)) {
+				removed.add(entry.key);
+			}
+			// NB: the entry still is filed in its bucket; it is dropped there once the bucket becomes due
+		}
+
+		return removed;
+	}
+
+	/**
+	 * removes all keys whose expiry time is not after a given point in time.
+	 * Only the buckets which are due are inspected.
+	 * @param now the current point in time
+	 * @return the list of keys removed
+	 */
+	public List<K> removeExpired(Instant now) {
+		final long nowMillis = now.toEpochMilli();
+		final long nowBucket = Math.floorDiv(nowMillis, BUCKET_SIZE_MILLIS);
+
+		List<K> removed = new ArrayList<>();
+
+		// NB: entries refiled below may end up in the current bucket again; they are handled on the next call
+		for (Long bucketKey : new ArrayList<>(this.buckets.headMap(nowBucket, true).keySet())) {
+			Queue<Entry<K>> bucket = this.buckets.remove(bucketKey);
+			if (bucket == null) {
+				continue;
+			}
+
+			for (Entry<K> entry : bucket) {
+				if (this.entries.get(entry.key) != entry) {
+					// removed in the meantime (and perhaps registered again with a new entry)
+					continue;
+				}
+
+				if (entry.expiryMillis > nowMillis) {
+					// touched since it was filed
+					this.file(entry);
+					continue;
+				}
+
+				if (this.entries.remove(entry.key, entry)) {
+					removed.add(entry.key);
+				}
+			}
+		}
+
+		return removed;
+	}
+}
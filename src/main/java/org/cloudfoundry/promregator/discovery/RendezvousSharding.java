@@ -0,0 +1,108 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Assigns applications to the shards of a set of Promregator instances using rendezvous hashing
+ * (also known as "highest random weight" hashing): For each shard, a weight is derived from the 
+ * application id and the index of the shard; the application is assigned to the shard with the highest weight.
+ * 
+ * Each instance of Promregator only requires to know its own index and the total number of shards.
+ * If the number of shards changes, only those applications are reassigned, which move to a new shard
+ * respectively which were assigned to a removed shard.
+ */
+public class RendezvousSharding {
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+	
+	private final int shardIndex;
+	private final int shardCount;
+
+	public RendezvousSharding(int shardIndex, int shardCount) {
+		if (shardCount < 1) {
+			throw new IllegalArgumentException(String.format("Number of shards must be at least 1, but is %d", shardCount));
+		}
+		
+		if (shardIndex < 0 || shardIndex >= shardCount) {
+			throw new IllegalArgumentException(String.format("Index of shard must be between 0 and %d, but is %d", shardCount - 1, shardIndex));
+		}
+		
+		this.shardIndex = shardIndex;
+		this.shardCount = shardCount;
+	}
+	
+	/**
+	 * checks whether this shard is responsible for an application
+	 * @param applicationId the id of the application
+	 * @return <code>true</code>, if the application is assigned to this shard; <code>false</code> otherwise.
+	 */
+	public boolean isResponsibleFor(String applicationId) {
+		if (this.shardCount == 1) {
+			return true;
+		}
+		
+		return determineShard(applicationId, this.shardCount) == this.shardIndex;
+	}
+	
+	/**
+	 * determines the shard to which an application is assigned
+	 * @param applicationId the id of the application
+	 * @param shardCount the total number of shards
+	 * @return the index of the shard, to which the application is assigned
+	 */
+	public static int determineShard(String applicationId, int shardCount) {
+		final long hash = hash(applicationId);
+		
+		int bestShard = 0;
+		long bestWeight = Long.MIN_VALUE;
+		for (int shard = 0; shard < shardCount; shard++) {
+			long weight = mix(hash + (shard + 1) * GOLDEN_RATIO);
+			if (weight > bestWeight) {
+				bestWeight = weight;
+				bestShard = shard;
+			}
+		}
+		
+		return bestShard;
+	}
+	
+	/**
+	 * 64-bit FNV-1a hash of the UTF-8 representation of a string
+	 */
+	private static long hash(String value) {
+		long hash = FNV_OFFSET_BASIS;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+	
+	/**
+	 * finalization step of MurmurHash3, ensuring that similar inputs result in uncorrelated weights
+	 */
+	private static long mix(long value) {
+		long h = value;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * @return the shardIndex
+	 */
+	public int getShardIndex() {
+		return shardIndex;
+	}
+
+	/**
+	 * @return the shardCount
+	 */
+	public int getShardCount() {
+		return shardCount;
+	}
+}
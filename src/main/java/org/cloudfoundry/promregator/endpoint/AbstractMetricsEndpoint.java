@@ -1,17 +1,29 @@
 package org.cloudfoundry.promregator.endpoint;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
@@ -21,11 +33,22 @@ import javax.servlet.http.HttpServletRequest;
 import org.cloudfoundry.promregator.auth.AuthenticationEnricher;
 import org.cloudfoundry.promregator.auth.AuthenticatorController;
 import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer;
+import org.cloudfoundry.promregator.fetcher.AdaptiveTimeoutPolicy;
+import org.cloudfoundry.promregator.fetcher.Bulkhead;
+import org.cloudfoundry.promregator.fetcher.BulkheadRegistry;
+import org.cloudfoundry.promregator.fetcher.BulkheadedMetricsFetcher;
 import org.cloudfoundry.promregator.fetcher.CFMetricsFetcher;
 import org.cloudfoundry.promregator.fetcher.CFMetricsFetcherConfig;
+import org.cloudfoundry.promregator.fetcher.CircuitBreaker;
+import org.cloudfoundry.promregator.fetcher.CircuitBreakerRegistry;
+import org.cloudfoundry.promregator.fetcher.CircuitBreakingMetricsFetcher;
+import org.cloudfoundry.promregator.fetcher.HedgedMetricsFetcher;
+import org.cloudfoundry.promregator.fetcher.HedgingPolicy;
+import org.cloudfoundry.promregator.fetcher.LatencyEstimate;
 import org.cloudfoundry.promregator.fetcher.MetricsFetcher;
 import org.cloudfoundry.promregator.fetcher.MetricsFetcherMetrics;
 import org.cloudfoundry.promregator.fetcher.MetricsFetcherSimulator;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
 import org.cloudfoundry.promregator.rewrite.AbstractMetricFamilySamplesEnricher;
 import org.cloudfoundry.promregator.rewrite.CFAllLabelsMetricFamilySamplesEnricher;
 import org.cloudfoundry.promregator.rewrite.GenericMetricFamilySamplesPrefixRewriter;
@@ -37,11 +60,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
 import io.prometheus.client.Collector.MetricFamilySamples;
 import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
 import io.prometheus.client.Gauge;
-import io.prometheus.client.Gauge.Builder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * An abstract class allowing to easily build a spring-framework HTTP REST-server endpoint, 
@@ -56,6 +86,8 @@ public abstract class AbstractMetricsEndpoint {
 	
 	private static final Logger log = LoggerFactory.getLogger(AbstractMetricsEndpoint.class);
 	
+	private static final String METRIC_NAME_SCRAPE_DURATION = "promregator_scrape_duration_seconds";
+	
 	@Value("${promregator.simulation.enabled:false}")
 	private boolean simulationMode;
 	
@@ -70,6 +102,21 @@ public abstract class AbstractMetricsEndpoint {
 
 	@Autowired
 	private AuthenticatorController authenticatorController;
+	
+	@Autowired
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+	
+	@Autowired
+	private InternalMetrics internalMetrics;
+	
+	@Autowired
+	private AdaptiveTimeoutPolicy adaptiveTimeoutPolicy;
+	
+	@Autowired
+	private HedgingPolicy hedgingPolicy;
+	
+	@Autowired
+	private BulkheadRegistry bulkheadRegistry;
 
 	/**
 	 * The hostname of the HTTP proxy based on the deprecated configuration option <pre>cf.proxyHost</pre>.
@@ -117,6 +164,19 @@ public abstract class AbstractMetricsEndpoint {
 	@Value("${promregator.scraping.socketReadTimeout:5000}")
 	private int fetcherSocketReadTimeout;
 	
+	/**
+	 * The memory budget (in kilobytes) which the merged metrics of a single scraping request shall not exceed;
+	 * 0 indicates that there is no such limit.
+	 */
+	@Value("${promregator.scraping.memoryBudget:0}")
+	private long memoryBudget;
+	
+	@Value("${promregator.scraping.openMetrics.enabled:false}")
+	private boolean openMetricsEnabled;
+	
+	@Value("${promregator.scraping.protobuf.enabled:false}")
+	private boolean protobufEnabled;
+	
 	@Autowired
 	private UUID promregatorInstanceIdentifier;
 	
@@ -125,25 +185,16 @@ public abstract class AbstractMetricsEndpoint {
 	
 	private GenericMetricFamilySamplesPrefixRewriter gmfspr = new GenericMetricFamilySamplesPrefixRewriter("promregator");
 	
-	/* own metrics --- specific to this (scraping) request */
-	private CollectorRegistry requestRegistry;
-	
-	// see also https://prometheus.io/docs/instrumenting/writing_exporters/#metrics-about-the-scrape-itself
-	private Gauge up;
-	
-	@PostConstruct
-	public void setupOwnRequestScopedMetrics() {
-		this.requestRegistry = new CollectorRegistry();
-		
-		Builder builder = Gauge.build("promregator_up", "Indicator, whether the target of promregator is available");
-		
+	/**
+	 * creates the samples of the metric "up" specific to a single scraping request.
+	 * @return the (still empty) samples of the metric "up"
+	 */
+	private UpMetricSamples createUpMetricSamples() {
 		if (this.isLabelEnrichmentEnabled()) {
-			builder = builder.labelNames(CFAllLabelsMetricFamilySamplesEnricher.getEnrichingLabelNames());
-		} else {
-			builder = builder.labelNames(NullMetricFamilySamplesEnricher.getEnrichingLabelNames());
+			return new UpMetricSamples(CFAllLabelsMetricFamilySamplesEnricher.getEnrichingLabelNames());
 		}
 		
-		this.up = builder.register(this.requestRegistry);
+		return new UpMetricSamples(NullMetricFamilySamplesEnricher.getEnrichingLabelNames());
 	}
 	
 	@PostConstruct
@@ -171,28 +222,130 @@ public abstract class AbstractMetricsEndpoint {
 		}
 	}
 	
-	public String handleRequest(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) throws ScrapingException {
+	/**
+	 * handles a scraping request; the format of the response is negotiated based on the Accept header
+	 * of the current HTTP request (see {@link #determineExpositionFormat()}).
+	 * @param applicationIdFilter the filter on application ids to apply on discovery; may be <code>null</code>
+	 * @param instanceFilter the filter on instances to apply on discovery; may be <code>null</code>
+	 * @return the response in the format negotiated, encoded in UTF-8
+	 * @throws ScrapingException if no instance to scrape could be determined
+	 */
+	public byte[] handleRequest(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) throws ScrapingException {
+		return this.handleRequest(applicationIdFilter, instanceFilter, this.determineExpositionFormat());
+	}
+	
+	/**
+	 * handles a scraping request
+	 * @param applicationIdFilter the filter on application ids to apply on discovery; may be <code>null</code>
+	 * @param instanceFilter the filter on instances to apply on discovery; may be <code>null</code>
+	 * @param format the format in which the response shall be provided
+	 * @return the response in the format requested, encoded in UTF-8
+	 * @throws ScrapingException if no instance to scrape could be determined
+	 */
+	public byte[] handleRequest(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter, ExpositionFormat format) throws ScrapingException {
+		return serialize(this.scrape(applicationIdFilter, instanceFilter), format);
+	}
+	
+	/**
+	 * handles a scraping request, whose response shall be provided in the delimited protobuf format
+	 * @param applicationIdFilter the filter on application ids to apply on discovery; may be <code>null</code>
+	 * @param instanceFilter the filter on instances to apply on discovery; may be <code>null</code>
+	 * @return the response in the delimited protobuf format
+	 * @throws ScrapingException if no instance to scrape could be determined
+	 */
+	public byte[] handleRequestProtobuf(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) throws ScrapingException {
+		return this.scrape(applicationIdFilter, instanceFilter).toProtobufDelimitedBytes();
+	}
+	
+	private MergableMetricFamilySamples scrape(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) throws ScrapingException {
 		log.debug("Received request to a metrics endpoint");
 		Instant start = Instant.now();
 		
-		this.up.clear();
-		
 		List<Instance> instanceList = this.cfDiscoverer.discover(applicationIdFilter, instanceFilter);
 		
 		if (instanceList == null || instanceList.isEmpty()) {
 			throw new ScrapingException("Unable to determine any instance to scrape");
 		}
 		
-		List<MetricsFetcher> callablesPrep = this.createMetricsFetchers(instanceList);
+		/* own metrics --- specific to this (scraping) request */
+		UpMetricSamples up = this.createUpMetricSamples();
 		
-		List<Future<HashMap<String, MetricFamilySamples>>> futures = this.startMetricsFetchers(callablesPrep);
-		log.debug(String.format("Fetching metrics from %d distinct endpoints", futures.size()));
+		List<MetricsFetcher> callablesPrep = this.createMetricsFetchers(instanceList, up);
 		
-		MergableMetricFamilySamples mmfs = waitForMetricsFetchers(futures);
+		BlockingQueue<Future<FetcherResult>> completionQueue = new LinkedBlockingQueue<>();
+		int numberOfFetchers = this.startMetricsFetchers(completionQueue, callablesPrep, up);
+		log.debug(String.format("Fetching metrics from %d distinct endpoints", numberOfFetchers));
 		
+		MergableMetricFamilySamples mmfs = waitForMetricsFetchers(completionQueue, numberOfFetchers);
+		
+		return this.completeRequest(mmfs, up, start, instanceList);
+	}
+	
+	/**
+	 * handles a scraping request without blocking the calling thread: Discovery is performed reactively,
+	 * the fetchers are run on the metrics fetcher pool and their results are merged as soon as they
+	 * become available. 
+	 * @param applicationIdFilter the filter on application ids to apply on discovery; may be <code>null</code>
+	 * @param instanceFilter the filter on instances to apply on discovery; may be <code>null</code>
+	 * @return a Mono providing the response in text format 0.0.4, encoded in UTF-8; signals a {@link ScrapingException}
+	 * if no instance to scrape could be determined.
+	 */
+	public Mono<byte[]> handleRequestReactive(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
+		return this.handleRequestReactive(applicationIdFilter, instanceFilter, ExpositionFormat.TEXT_004);
+	}
+	
+	/**
+	 * handles a scraping request without blocking the calling thread (see {@link #handleRequestReactive(Predicate, Predicate)}).
+	 * @param applicationIdFilter the filter on application ids to apply on discovery; may be <code>null</code>
+	 * @param instanceFilter the filter on instances to apply on discovery; may be <code>null</code>
+	 * @param format the format in which the response shall be provided
+	 * @return a Mono providing the response in the format requested, encoded in UTF-8; signals a {@link ScrapingException}
+	 * if no instance to scrape could be determined.
+	 */
+	public Mono<byte[]> handleRequestReactive(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter, ExpositionFormat format) {
+		return this.scrapeReactive(applicationIdFilter, instanceFilter)
+				.map(mmfs -> serialize(mmfs, format));
+	}
+	
+	/**
+	 * handles a scraping request without blocking the calling thread (see {@link #handleRequestReactive(Predicate, Predicate)}).
+	 * @param applicationIdFilter the filter on application ids to apply on discovery; may be <code>null</code>
+	 * @param instanceFilter the filter on instances to apply on discovery; may be <code>null</code>
+	 * @return a Mono providing the response in the delimited protobuf format; signals a {@link ScrapingException}
+	 * if no instance to scrape could be determined.
+	 */
+	public Mono<byte[]> handleRequestProtobufReactive(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
+		return this.scrapeReactive(applicationIdFilter, instanceFilter)
+				.map(MergableMetricFamilySamples::toProtobufDelimitedBytes);
+	}
+	
+	private Mono<MergableMetricFamilySamples> scrapeReactive(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
+		return Mono.defer(() -> {
+			log.debug("Received request to a metrics endpoint");
+			Instant start = Instant.now();
+			
+			return this.cfDiscoverer.discoverReactive(applicationIdFilter, instanceFilter)
+					.collectList()
+					.flatMap(instanceList -> {
+						if (instanceList.isEmpty()) {
+							return Mono.error(new ScrapingException("Unable to determine any instance to scrape"));
+						}
+						
+						/* own metrics --- specific to this (scraping) request */
+						UpMetricSamples up = this.createUpMetricSamples();
+						
+						List<MetricsFetcher> callablesPrep = this.createMetricsFetchers(instanceList, up);
+						log.debug(String.format("Fetching metrics from %d distinct endpoints", callablesPrep.size()));
+						
+						return this.runMetricsFetchersReactive(callablesPrep, up)
+								.map(mmfs -> this.completeRequest(mmfs, up, start, instanceList));
+					});
+		});
+	}
+	
+	private MergableMetricFamilySamples completeRequest(MergableMetricFamilySamples mmfs, UpMetricSamples up, Instant start, List<Instance> instanceList) {
 		Instant stop = Instant.now();
 		Duration duration = Duration.between(start, stop);
-		this.handleScrapeDuration(this.requestRegistry, duration);
 		
 		if (this.isIncludeGlobalMetrics()) {
 			// also add our own (global) metrics
@@ -200,20 +353,67 @@ public abstract class AbstractMetricsEndpoint {
 		}
 		
 		// add also our own request-specific metrics
-		mmfs.merge(this.gmfspr.determineEnumerationOfMetricFamilySamples(this.requestRegistry));
+		HashMap<String, MetricFamilySamples> requestMetrics = new HashMap<>();
+		requestMetrics.put(UpMetricSamples.METRIC_NAME, up.toMetricFamilySamples());
 		
-		return mmfs.toType004String();
+		MetricFamilySamples limitExceeded = up.toLimitExceededMetricFamilySamples();
+		if (limitExceeded != null) {
+			requestMetrics.put(limitExceeded.name, limitExceeded);
+		}
+		
+		MetricFamilySamples scrapeDuration = this.createScrapeDurationSamples(duration, instanceList);
+		if (scrapeDuration != null) {
+			requestMetrics.put(scrapeDuration.name, scrapeDuration);
+		}
+		mmfs.merge(requestMetrics);
+		
+		return mmfs;
+	}
+	
+	private static byte[] serialize(MergableMetricFamilySamples mmfs, ExpositionFormat format) {
+		if (format == ExpositionFormat.OPENMETRICS_100) {
+			return mmfs.toOpenMetrics100Bytes();
+		}
+		
+		// NB: the bytes are written directly; there is no need to create a String, which would have to be encoded again
+		return mmfs.toType004Bytes();
+	}
+	
+	/**
+	 * creates the response to a request, which could not be handled
+	 * @param e the exception describing why the request could not be handled
+	 * @param status the HTTP status of the response
+	 * @return the response, which contains the description of the exception as plain text
+	 */
+	protected static ResponseEntity<byte[]> createErrorResponse(ScrapingException e, HttpStatus status) {
+		return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN).body(e.toString().getBytes(StandardCharsets.UTF_8));
 	}
 
 	/**
 	 * called when scraping has been finished; contains the overall duration of the scraping request.
 	 * 
-	 * The implementing class is suggested to write the duration into an own sample for the corresponding
-	 * metric.
-	 * @param requestRegistry the registry to which the metric shall be / is registered.
+	 * The implementing class is suggested to provide the duration as sample of the metric 
+	 * <code>promregator_scrape_duration_seconds</code>.
 	 * @param duration the duration of the just completed scrape request.
+	 * @param instanceList the list of instances which have been scraped
+	 * @return the samples to be added to the response; <code>null</code>, if no samples shall be added
 	 */
-	protected abstract void handleScrapeDuration(CollectorRegistry requestRegistry, Duration duration);
+	@Nullable
+	protected abstract MetricFamilySamples createScrapeDurationSamples(Duration duration, List<Instance> instanceList);
+	
+	/**
+	 * creates the samples of the metric <code>promregator_scrape_duration_seconds</code> 
+	 * @param duration the duration of the scrape request
+	 * @param labelNames the names of the labels of the sample
+	 * @param labelValues the values of the labels of the sample
+	 * @return the samples containing a single sample with the duration in seconds
+	 */
+	protected static MetricFamilySamples createScrapeDurationSamples(Duration duration, List<String> labelNames, List<String> labelValues) {
+		Sample sample = new Sample(METRIC_NAME_SCRAPE_DURATION, labelNames, labelValues, duration.toMillis() / 1000.0);
+		
+		return new MetricFamilySamples(METRIC_NAME_SCRAPE_DURATION, Type.GAUGE, "Duration in seconds indicating how long scraping of all metrics took", 
+				Collections.singletonList(sample));
+	}
 
 	/**
 	 * specifies whether the global metrics provided by Promregator itself
@@ -246,40 +446,54 @@ public abstract class AbstractMetricsEndpoint {
 		return this.labelEnrichment;
 	}
 
-	private MergableMetricFamilySamples waitForMetricsFetchers(List<Future<HashMap<String, MetricFamilySamples>>> futures) {
+	/**
+	 * waits for the metrics fetchers to complete and merges their results in the order of their completion. 
+	 * Thus, a slow fetcher does not delay processing the results of all others, and each result may be 
+	 * released as soon as it has been merged. 
+	 * @param completionQueue the queue to which the futures of the metrics fetchers are added upon their completion
+	 * @param numberOfFetchers the number of metrics fetchers started
+	 * @return the merged results of all fetchers having completed within the maximal processing time
+	 */
+	private MergableMetricFamilySamples waitForMetricsFetchers(BlockingQueue<Future<FetcherResult>> completionQueue, int numberOfFetchers) {
 		long starttime = System.currentTimeMillis();
 		
-		MergableMetricFamilySamples mmfs = new MergableMetricFamilySamples();
+		BudgetedMetricsMerger merger = new BudgetedMetricsMerger(this.memoryBudget * 1024, this.internalMetrics);
 		
-		for (Future<HashMap<String, MetricFamilySamples>> future : futures) {
+		for (int pending = numberOfFetchers; pending > 0; pending--) {
 			long maxWaitTime = starttime + this.getMaxProcessingTime() - System.currentTimeMillis();
 			
-			if (maxWaitTime < 0 && !future.isDone()) {
-				// only process those, which are already completed
-				continue;
-			}
-
+			Future<FetcherResult> future = null;
 			try {
-				HashMap<String, MetricFamilySamples> emfs = future.get(maxWaitTime, TimeUnit.MILLISECONDS);
-				
-				if (emfs != null) {
-					mmfs.merge(emfs);
-				}
+				// NB: if the maximal processing time is already exceeded, only those are processed, which are already completed
+				future = completionQueue.poll(Math.max(0, maxWaitTime), TimeUnit.MILLISECONDS);
 			} catch (InterruptedException e) {
 				log.warn("Interrupted unexpectedly", e);
 				Thread.currentThread().interrupt();
-			} catch (ExecutionException e) {
-				log.warn("Exception thrown while fetching Metrics data from target", e);
-				// continue not necessary here
-			} catch (TimeoutException e) {
+				break;
+			}
+			
+			if (future == null) {
 				log.info("Not all targets could be scraped within the current promregator.scraping.maxProcessingTime. "
 						+ "Consider increasing promregator.scraping.maxProcessingTime or promregator.scraping.threads, "
 						+ "but mind the implications. See also https://github.com/promregator/promregator/wiki/Handling-Timeouts-on-Scraping");
-				// continue not necessary here - other's shall and are still processed
+				break;
 			}
 			
+			try {
+				merger.merge(future.get());
+			} catch (InterruptedException e) {
+				log.warn("Interrupted unexpectedly", e);
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				log.warn("Exception thrown while fetching Metrics data from target", e);
+				// continue not necessary here
+			} catch (CancellationException e) {
+				// e.g. the fetcher had to be dropped by its bulkhead; already logged there
+				log.debug("Metrics fetcher has been cancelled", e);
+			}
 		}
-		return mmfs;
+		
+		return merger.getMergableMetricFamilySamples();
 	}
 
 	private long getMaxProcessingTime() {
@@ -296,18 +510,94 @@ public abstract class AbstractMetricsEndpoint {
 		return this.maxProcessingTime; // must have been the value 4000
 	}
 
-	private List<Future<HashMap<String, MetricFamilySamples>>> startMetricsFetchers(List<MetricsFetcher> callablesPrep) {
-		List<Future<HashMap<String,MetricFamilySamples>>> futures = new LinkedList<>();
+	private int startMetricsFetchers(BlockingQueue<Future<FetcherResult>> completionQueue, List<MetricsFetcher> callablesPrep, UpMetricSamples up) {
+		Map<Executor, CompletionService<FetcherResult>> completionServices = new IdentityHashMap<>();
 		
+		int numberOfFetchers = 0;
 		for (MetricsFetcher mf : callablesPrep) {
-			Future<HashMap<String, MetricFamilySamples>> future = this.metricsFetcherPool.submit(mf);
+			Gauge.Child upChild = up.getChild(mf);
+			
+			CompletionService<FetcherResult> completionService = completionServices.computeIfAbsent(this.determineExecutor(mf), 
+					executor -> new ExecutorCompletionService<>(executor, completionQueue));
 			
-			futures.add(future);
+			try {
+				completionService.submit(() -> new FetcherResult(mf.call(), upChild));
+				numberOfFetchers++;
+			} catch (RejectedExecutionException e) {
+				log.debug("Metrics fetcher has been rejected", e);
+			}
+		}
+		return numberOfFetchers;
+	}
+	
+	/**
+	 * determines the executor on which a metrics fetcher shall be run
+	 * @param mf the metrics fetcher
+	 * @return the bulkhead of the fetcher, if it has one; the metrics fetcher pool otherwise
+	 */
+	private Executor determineExecutor(MetricsFetcher mf) {
+		if (mf instanceof BulkheadedMetricsFetcher) {
+			return ((BulkheadedMetricsFetcher) mf).getBulkhead();
 		}
-		return futures;
+		
+		return this.metricsFetcherPool;
 	}
 
-	protected List<MetricsFetcher> createMetricsFetchers(List<Instance> instanceList) {
+	private Mono<MergableMetricFamilySamples> runMetricsFetchersReactive(List<MetricsFetcher> callablesPrep, UpMetricSamples up) {
+		List<Mono<FetcherResult>> results = new LinkedList<>();
+		
+		for (MetricsFetcher mf : callablesPrep) {
+			Gauge.Child upChild = up.getChild(mf);
+			
+			CompletableFuture<FetcherResult> future = new CompletableFuture<>();
+			
+			/*
+			 * NB: Contrary to CompletableFuture.supplyAsync, the task is a Future itself. Thus, the future also completes,
+			 * if the task is cancelled without ever being run (e.g. if it has to be dropped by a bulkhead).
+			 */
+			FutureTask<FetcherResult> task = new FutureTask<FetcherResult>(() -> new FetcherResult(mf.call(), upChild)) {
+				@Override
+				protected void done() {
+					try {
+						future.complete(this.get());
+					} catch (ExecutionException e) {
+						future.completeExceptionally(e.getCause());
+					} catch (CancellationException e) {
+						future.completeExceptionally(e);
+					} catch (InterruptedException e) {
+						// NB: cannot happen, as the task is done already
+						Thread.currentThread().interrupt();
+						future.completeExceptionally(e);
+					}
+				}
+			};
+			
+			try {
+				this.determineExecutor(mf).execute(task);
+			} catch (RejectedExecutionException e) {
+				log.debug("Metrics fetcher has been rejected", e);
+				continue;
+			}
+			
+			results.add(Mono.fromFuture(future).onErrorResume(e -> {
+				log.warn("Exception thrown while fetching Metrics data from target", e);
+				return Mono.empty();
+			}));
+		}
+		
+		Mono<Long> maxProcessingTimeExceeded = Mono.delay(Duration.ofMillis(this.getMaxProcessingTime()))
+				.doOnNext(e -> log.info("Not all targets could be scraped within the current promregator.scraping.maxProcessingTime. "
+						+ "Consider increasing promregator.scraping.maxProcessingTime or promregator.scraping.threads, "
+						+ "but mind the implications. See also https://github.com/promregator/promregator/wiki/Handling-Timeouts-on-Scraping"));
+		
+		// only process those, which are completed within the maximal processing time
+		return Flux.merge(results)
+				.takeUntilOther(maxProcessingTimeExceeded)
+				.collect(() -> new BudgetedMetricsMerger(this.memoryBudget * 1024, this.internalMetrics), BudgetedMetricsMerger::merge)
+				.map(BudgetedMetricsMerger::getMergableMetricFamilySamples);
+	}
+
+	protected List<MetricsFetcher> createMetricsFetchers(List<Instance> instanceList, UpMetricSamples up) {
 		
 		List<MetricsFetcher> callablesList = new LinkedList<>();
 		for (Instance instance : instanceList) {
@@ -342,7 +632,15 @@ public abstract class AbstractMetricsEndpoint {
 			} else {
 				mfse = new NullMetricFamilySamplesEnricher();
 			}
-			upChild = this.up.labels(mfse.getEnrichedLabelValues(new LinkedList<>()).toArray(new String[0]));
+			upChild = up.labels(mfse.getEnrichedLabelValues(new LinkedList<>()).toArray(new String[0]));
+			
+			CircuitBreaker circuitBreaker = this.circuitBreakerRegistry.getCircuitBreaker(instance);
+			if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+				log.debug(String.format("Circuit breaker of instance %s is open; skipping", instance.getInstanceId()));
+				upChild.set(0.0);
+				this.internalMetrics.countCircuitBreakerRejection();
+				continue;
+			}
 			
 			AuthenticationEnricher ae = this.authenticatorController.getAuthenticationEnricherByTarget(instance.getTarget().getOriginalTarget());
 			
@@ -355,13 +653,49 @@ public abstract class AbstractMetricsEndpoint {
 				cfmfConfig.setMetricFamilySamplesEnricher(mfse);
 				cfmfConfig.setMetricsFetcherMetrics(mfm);
 				cfmfConfig.setUpChild(upChild);
+				final Gauge.Child upChildFinal = upChild;
+				cfmfConfig.setLimitExceededListener(reason -> up.setLimitExceeded(upChildFinal, reason));
 				cfmfConfig.setPromregatorInstanceIdentifier(this.promregatorInstanceIdentifier);
 				cfmfConfig.setConnectionTimeoutInMillis(this.fetcherConnectionTimeout);
-				cfmfConfig.setSocketReadTimeoutInMillis(this.fetcherSocketReadTimeout);
+				cfmfConfig.setOpenMetricsEnabled(this.openMetricsEnabled);
+				cfmfConfig.setProtobufEnabled(this.protobufEnabled);
+				
+				LatencyEstimate latencyEstimate = this.adaptiveTimeoutPolicy.getLatencyEstimate(instance);
+				cfmfConfig.setSocketReadTimeoutInMillis(this.adaptiveTimeoutPolicy.determineSocketReadTimeout(latencyEstimate, this.fetcherSocketReadTimeout));
+				cfmfConfig.setLatencyEstimate(latencyEstimate);
+				if (target.getOriginalTarget() != null) {
+					cfmfConfig.setMetricFilter(target.getOriginalTarget().getMetricFilter());
+					cfmfConfig.setMaxSamples(target.getOriginalTarget().getMaxSamples());
+					cfmfConfig.setMaxPayloadSize(target.getOriginalTarget().getMaxPayloadSize());
+					cfmfConfig.setMaxSeriesPerFamily(target.getOriginalTarget().getMaxSeriesPerFamily());
+					cfmfConfig.setDropTimestamps(target.getOriginalTarget().isDropTimestamps());
+				}
+				
 				this.provideProxyConfiguration(cfmfConfig);
 				
-				mf = new CFMetricsFetcher(accessURL, instance.getInstanceId(), cfmfConfig);
+				Long hedgeDelay = this.hedgingPolicy.determineHedgeDelay(latencyEstimate);
+				if (hedgeDelay != null) {
+					// NB: the result of the two requests is only known to the HedgedMetricsFetcher; it records only the request providing it
+					cfmfConfig.setUpChild(null);
+					cfmfConfig.setRecordingDeferred(true);
+					CFMetricsFetcherConfig hedgeConfig = new CFMetricsFetcherConfig(cfmfConfig);
+					
+					mf = new HedgedMetricsFetcher(new CFMetricsFetcher(accessURL, instance.getInstanceId(), cfmfConfig), 
+							new CFMetricsFetcher(accessURL, instance.getInstanceId(), hedgeConfig), hedgeDelay, upChild, this.hedgingPolicy);
+				} else {
+					mf = new CFMetricsFetcher(accessURL, instance.getInstanceId(), cfmfConfig);
+				}
+			}
+			
+			if (circuitBreaker != null) {
+				mf = new CircuitBreakingMetricsFetcher(mf, circuitBreaker);
+			}
+			
+			Bulkhead bulkhead = this.bulkheadRegistry.getBulkhead(target);
+			if (bulkhead != null) {
+				mf = new BulkheadedMetricsFetcher(mf, bulkhead);
 			}
+			up.assign(mf, upChild);
 			callablesList.add(mf);
 		}
 		
@@ -395,6 +729,18 @@ public abstract class AbstractMetricsEndpoint {
 		}
 	}
 	
+	/**
+	 * determines the format of the response based on the Accept header of the current HTTP request.
+	 * @return the format in which the response shall be provided
+	 */
+	protected ExpositionFormat determineExpositionFormat() {
+		if (this.httpServletRequest == null) {
+			return ExpositionFormat.TEXT_004;
+		}
+		
+		return ExpositionFormat.negotiate(this.httpServletRequest.getHeader(HttpHeaders.ACCEPT));
+	}
+	
 	/**
 	 * verifies if the current HTTP request is coming from the same Promregator instance 
 	 * (and thus we would have a loopback / recursive scraping request). This situation needs to be prohibited
@@ -409,6 +755,18 @@ public abstract class AbstractMetricsEndpoint {
 		}
 		
 		String headerValue = this.httpServletRequest.getHeader(EndpointConstants.HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER);
+		return this.isLoopbackRequest(headerValue);
+	}
+	
+	/**
+	 * verifies if the value of the Promregator instance identifier header of a HTTP request indicates that the 
+	 * request is coming from the same Promregator instance.
+	 * @param headerValue the value of the header {@link EndpointConstants#HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER}; 
+	 * may be <code>null</code>, if the header was not set.
+	 * @return <code>true</code>, if a loopback was detected (which case the current request should be aborted); 
+	 * <code>false</code> otherwise.
+	 */
+	protected boolean isLoopbackRequest(@Nullable String headerValue) {
 		if (headerValue == null) {
 			// the header was not set - so this can't be a Promregator instance anyway
 			return false;
@@ -0,0 +1,135 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.util.HashMap;
+
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.cloudfoundry.promregator.rewrite.MFSUtils;
+import org.cloudfoundry.promregator.rewrite.MergableMetricFamilySamples;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Gauge;
+
+/**
+ * Merges the results of the metrics fetchers of a single scraping request in the order in which they
+ * become available, while keeping the (estimated) size of the merged result within a memory budget.
+ * Results which would exceed the budget are dropped as a whole, such that the response never
+ * contains the metrics of an instance only partially. An instance, whose result has been dropped,
+ * is reported as unavailable by the metric <code>promregator_up</code>.
+ */
+class BudgetedMetricsMerger {
+	private static final Logger log = LoggerFactory.getLogger(BudgetedMetricsMerger.class);
+
+	private final MergableMetricFamilySamples mmfs = new MergableMetricFamilySamples();
+
+	/**
+	 * the memory budget in bytes; a value of zero or less disables the budget
+	 */
+	private final long budget;
+
+	private final InternalMetrics internalMetrics;
+
+	private long mergedSize;
+
+	private int droppedResults;
+
+	/**
+	 * creates a new merger
+	 * @param budget the memory budget in bytes, which the merged result shall not exceed; a value of 0 or less indicates that no budget applies
+	 */
+	BudgetedMetricsMerger(long budget) {
+		this(budget, null);
+	}
+
+	/**
+	 * creates a new merger
+	 * @param budget the memory budget in bytes, which the merged result shall not exceed; a value of 0 or less indicates that no budget applies
+	 * @param internalMetrics the internal metrics to which dropped results are reported; may be <code>null</code>
+	 */
+	BudgetedMetricsMerger(long budget, @Nullable InternalMetrics internalMetrics) {
+		this.budget = budget;
+		this.internalMetrics = internalMetrics;
+	}
+
+	/**
+	 * merges the result of a metrics fetcher, if it fits into the remaining budget
+	 * @param result the result of the metrics fetcher; results of fetchers, which have failed, are skipped
+	 */
+	void merge(FetcherResult result) {
+		if (result.getEmfs() == null) {
+			return;
+		}
+
+		this.merge(result.getEmfs(), result.getUpChild());
+	}
+
+	/**
+	 * merges the result of a metrics fetcher, if it fits into the remaining budget
+	 * @param emfs the result of the metrics fetcher
+	 * @return <code>true</code>, if the result has been merged; <code>false</code>, if it has been dropped
+	 */
+	boolean merge(HashMap<String, MetricFamilySamples> emfs) {
+		return this.merge(emfs, null);
+	}
+
+	/**
+	 * merges the result of a metrics fetcher, if it fits into the remaining budget
+	 * @param emfs the result of the metrics fetcher
+	 * @param upChild the child of the metric <code>promregator_up</code> of the instance scraped; 
+	 * it is set to 0, if the result is dropped. May be <code>null</code>.
+	 * @return <code>true</code>, if the result has been merged; <code>false</code>, if it has been dropped
+	 */
+	boolean merge(HashMap<String, MetricFamilySamples> emfs, @Nullable Gauge.Child upChild) {
+		if (this.budget <= 0) {
+			this.mmfs.merge(emfs);
+			return true;
+		}
+
+		long size = MFSUtils.estimateSize(emfs);
+		if (this.mergedSize + size > this.budget) {
+			if (this.droppedResults == 0) {
+				log.warn(String.format("The metrics scraped exceed the configured memory budget of %d bytes; dropping the metrics of further instances. "
+						+ "Consider increasing promregator.scraping.memoryBudget or switching to Single Target Scraping", this.budget));
+			}
+			this.droppedResults++;
+
+			if (upChild != null) {
+				// NB: the instance has been scraped successfully, but its metrics are not part of the response
+				upChild.set(0.0);
+			}
+
+			if (this.internalMetrics != null) {
+				this.internalMetrics.countMemoryBudgetDrop();
+			}
+			return false;
+		}
+
+		this.mmfs.merge(emfs);
+		this.mergedSize += size;
+		return true;
+	}
+
+	/**
+	 * @return the merged result
+	 */
+	MergableMetricFamilySamples getMergableMetricFamilySamples() {
+		return this.mmfs;
+	}
+
+	/**
+	 * @return the estimated size of the merged result in bytes; only tracked, if a budget applies
+	 */
+	long getMergedSize() {
+		return this.mergedSize;
+	}
+
+	/**
+	 * @return the number of results which have been dropped due to the budget
+	 */
+	int getDroppedResults() {
+		return this.droppedResults;
+	}
+}
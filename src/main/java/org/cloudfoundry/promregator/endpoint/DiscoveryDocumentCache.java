@@ -0,0 +1,378 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+
+import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer;
+import org.cloudfoundry.promregator.endpoint.DiscoveryEndpoint.DiscoveryLabel;
+import org.cloudfoundry.promregator.endpoint.DiscoveryEndpoint.DiscoveryResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches the serialized discovery documents returned by the discovery endpoint.
+ * 
+ * A cached document is reused until the configured timeout has passed or the set of instances 
+ * registered at the discoverer has changed. Each document carries an entity tag, which is 
+ * derived from its content. This allows clients to only retrieve the document, if it has changed,
+ * or to wait until it changes (see {@link #watchDocument(String, int, boolean, String)}).
+ */
+public class DiscoveryDocumentCache {
+	private static final Logger log = LoggerFactory.getLogger(DiscoveryDocumentCache.class);
+	
+	/**
+	 * the time to wait after a change of the set of instances has been detected, before the document is
+	 * determined again; allows the discovery run, which caused the change, to complete
+	 */
+	private static final Duration WATCH_SETTLE_TIME = Duration.ofMillis(500);
+	
+	/**
+	 * the timeout for asynchronous requests, if <code>spring.mvc.async.request-timeout</code> is not set (Tomcat's default)
+	 */
+	private static final Duration DEFAULT_ASYNC_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+	
+	/**
+	 * the part of the timeout for asynchronous requests, which is reserved for determining the document 
+	 * and sending the response after a watch has ended
+	 */
+	private static final Duration WATCH_RESPONSE_RESERVE = Duration.ofSeconds(2);
+	
+	@Value("${promregator.discovery.cacheTimeout:30}")
+	private int cacheTimeout;
+	
+	@Value("${promregator.discovery.watchTimeout:25}")
+	private int watchTimeout;
+	
+	@Value("${promregator.discovery.watchRediscoveryInterval:10}")
+	private int watchRediscoveryInterval;
+	
+	@Value("${spring.mvc.async.request-timeout:#{null}}")
+	private String asyncRequestTimeout;
+	
+	/**
+	 * the maximal time for which a watch waits for a change
+	 */
+	private Duration watchWaitBound;
+	
+	/**
+	 * the maximal time after which a watch must be answered; <code>null</code>, if unbounded
+	 */
+	private Duration watchDeadline;
+	
+	@Autowired
+	private CFMultiDiscoverer cfDiscoverer;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private Clock clock;
+	
+	/**
+	 * the cached documents; the key is the scraping target (hostname and port) used in the document
+	 */
+	private final Map<String, DiscoveryDocument> documents = new ConcurrentHashMap<>();
+	
+	/**
+	 * the documents currently being determined; ensures that concurrent requests share a single discovery run
+	 */
+	private final Map<String, Mono<DiscoveryDocument>> pendingDocuments = new ConcurrentHashMap<>();
+	
+	static class DiscoveryDocument {
+		private final byte[] json;
+		private final String fingerprint;
+		private final long instanceSetVersion;
+		private final Instant expiry;
+		
+		DiscoveryDocument(byte[] json, String fingerprint, long instanceSetVersion, Instant expiry) {
+			this.json = json;
+			this.fingerprint = fingerprint;
+			this.instanceSetVersion = instanceSetVersion;
+			this.expiry = expiry;
+		}
+		
+		String getETag() {
+			return String.format("\"%s\"", this.fingerprint);
+		}
+		
+		/**
+		 * checks whether the document matches the entity tags provided by the client
+		 * @param ifNoneMatch the value of the header <code>If-None-Match</code>; may be <code>null</code>
+		 * @return <code>true</code>, if the client already has the current version of the document
+		 */
+		boolean isMatchedBy(@Nullable String ifNoneMatch) {
+			if (ifNoneMatch == null) {
+				return false;
+			}
+			
+			final String etag = this.getETag();
+			for (String candidate : ifNoneMatch.split(",")) {
+				String tag = candidate.trim();
+				if (tag.startsWith("W/")) {
+					// weak comparison is sufficient for GET requests
+					tag = tag.substring(2);
+				}
+				
+				if ("*".equals(tag) || etag.equals(tag)) {
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		ResponseEntity<byte[]> toResponseEntity(@Nullable String ifNoneMatch) {
+			HttpHeaders headers = new HttpHeaders();
+			headers.setETag(this.getETag());
+			
+			if (this.isMatchedBy(ifNoneMatch)) {
+				return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+			}
+			
+			return new ResponseEntity<>(this.json, headers, HttpStatus.OK);
+		}
+	}
+	
+	/**
+	 * derives the bounds of watches from <code>promregator.discovery.watchTimeout</code> and the timeout 
+	 * for asynchronous requests of the web server, such that a watch is always answered before the 
+	 * web server gives up on the request
+	 */
+	@PostConstruct
+	public void determineWatchBounds() {
+		Duration requestTimeout = DEFAULT_ASYNC_REQUEST_TIMEOUT;
+		if (this.asyncRequestTimeout != null && !this.asyncRequestTimeout.trim().isEmpty()) {
+			requestTimeout = DurationStyle.detectAndParse(this.asyncRequestTimeout.trim(), ChronoUnit.MILLIS);
+		}
+		
+		final Duration configuredWaitBound = Duration.ofSeconds(this.watchTimeout);
+		
+		if (requestTimeout.isZero() || requestTimeout.isNegative()) {
+			// asynchronous requests do not time out
+			this.watchDeadline = null;
+			this.watchWaitBound = configuredWaitBound;
+			return;
+		}
+		
+		this.watchDeadline = requestTimeout.minus(WATCH_RESPONSE_RESERVE);
+		if (this.watchDeadline.isNegative()) {
+			this.watchDeadline = Duration.ZERO;
+		}
+		
+		Duration maximalWaitBound = this.watchDeadline.minus(WATCH_SETTLE_TIME);
+		if (maximalWaitBound.isNegative()) {
+			maximalWaitBound = Duration.ZERO;
+		}
+		
+		this.watchWaitBound = configuredWaitBound;
+		if (configuredWaitBound.compareTo(maximalWaitBound) > 0) {
+			log.warn(String.format("promregator.discovery.watchTimeout (%d seconds) does not fit into the timeout for asynchronous requests (%d ms); "
+					+ "watches are limited to %d ms", this.watchTimeout, requestTimeout.toMillis(), maximalWaitBound.toMillis()));
+			this.watchWaitBound = maximalWaitBound;
+		}
+	}
+	
+	/**
+	 * provides the cached document for a scraping target, if it is still valid
+	 * @param scrapingTarget the scraping target (hostname and port) used in the document
+	 * @return the cached document; <code>null</code>, if there is no valid document in the cache
+	 */
+	@Nullable
+	DiscoveryDocument get(String scrapingTarget) {
+		if (this.cacheTimeout <= 0) {
+			return null;
+		}
+		
+		DiscoveryDocument document = this.documents.get(scrapingTarget);
+		if (document == null) {
+			return null;
+		}
+		
+		if (document.instanceSetVersion != this.cfDiscoverer.getInstanceSetVersion()) {
+			log.debug("Set of instances has changed; cached discovery document is outdated");
+			return null;
+		}
+		
+		if (Instant.now(this.clock).isAfter(document.expiry)) {
+			return null;
+		}
+		
+		return document;
+	}
+	
+	/**
+	 * stores the document for a scraping target in the cache. If the content of the document has not
+	 * changed since it was stored the last time, the serialized document is reused.
+	 * @param scrapingTarget the scraping target (hostname and port) used in the document
+	 * @param responses the content of the document
+	 * @return the document stored; <code>null</code>, if the document could not be serialized
+	 */
+	@Nullable
+	DiscoveryDocument store(String scrapingTarget, DiscoveryResponse[] responses) {
+		final long instanceSetVersion = this.cfDiscoverer.getInstanceSetVersion();
+		final String fingerprint = determineFingerprint(responses);
+		
+		byte[] json = null;
+		DiscoveryDocument previous = this.documents.get(scrapingTarget);
+		if (previous != null && previous.fingerprint.equals(fingerprint)) {
+			// content has not changed; no need to serialize again
+			json = previous.json;
+		} else {
+			try {
+				json = this.objectMapper.writeValueAsBytes(responses);
+			} catch (JsonProcessingException e) {
+				log.error("Unable to serialize discovery document", e);
+				return null;
+			}
+		}
+		
+		DiscoveryDocument document = new DiscoveryDocument(json, fingerprint, instanceSetVersion, Instant.now(this.clock).plusSeconds(this.cacheTimeout));
+		this.documents.put(scrapingTarget, document);
+		
+		return document;
+	}
+	
+	/**
+	 * provides the document for a scraping target; if there is no valid document in the cache, 
+	 * discovery is performed (non-blocking) and the new document is stored in the cache.
+	 * @param localHostname the hostname of the scraping target
+	 * @param localPort the port of the scraping target
+	 * @param includePromregatorMetricsEndpoint <code>true</code>, if Promregator's own metrics endpoint shall be part of the document
+	 * @return a Mono providing the document; empty, if the document could not be serialized
+	 */
+	Mono<DiscoveryDocument> getDocument(String localHostname, int localPort, boolean includePromregatorMetricsEndpoint) {
+		final String scrapingTarget = String.format("%s:%d", localHostname, localPort);
+		
+		return Mono.defer(() -> {
+			DiscoveryDocument cachedDocument = this.get(scrapingTarget);
+			if (cachedDocument != null) {
+				return Mono.just(cachedDocument);
+			}
+			
+			return this.discover(scrapingTarget, localHostname, localPort, includePromregatorMetricsEndpoint);
+		});
+	}
+	
+	/**
+	 * performs discovery (non-blocking) regardless of the cache and stores the new document in the cache. 
+	 * If discovery for the scraping target is already running, its result is shared.
+	 * @param scrapingTarget the scraping target (hostname and port) used in the document
+	 * @param localHostname the hostname of the scraping target
+	 * @param localPort the port of the scraping target
+	 * @param includePromregatorMetricsEndpoint <code>true</code>, if Promregator's own metrics endpoint shall be part of the document
+	 * @return a Mono providing the document; empty, if the document could not be serialized
+	 */
+	private Mono<DiscoveryDocument> discover(String scrapingTarget, String localHostname, int localPort, boolean includePromregatorMetricsEndpoint) {
+		return Mono.defer(() -> 
+			this.pendingDocuments.computeIfAbsent(scrapingTarget, key -> {
+				AtomicReference<Mono<DiscoveryDocument>> pending = new AtomicReference<>();
+				
+				Mono<DiscoveryDocument> document = this.cfDiscoverer.discoverReactive(null, null)
+						.collectList()
+						.map(instances -> DiscoveryEndpoint.createDiscoveryResponse(instances, localHostname, localPort, includePromregatorMetricsEndpoint).getBody())
+						.flatMap(responses -> Mono.justOrEmpty(this.store(key, responses)))
+						.doFinally(signal -> this.pendingDocuments.remove(key, pending.get()))
+						.cache();
+				
+				pending.set(document);
+				return document;
+			})
+		);
+	}
+	
+	/**
+	 * provides the document for a scraping target, once it differs from the one the client already has. 
+	 * If the client's document is still current, the response is held back until the set of instances 
+	 * registered at the discoverer changes or <code>promregator.discovery.watchTimeout</code> has passed.
+	 * While waiting, discovery is performed every <code>promregator.discovery.watchRediscoveryInterval</code>, 
+	 * such that changes are detected even if no other request triggers discovery. In any case, the 
+	 * client's document is provided before the timeout for asynchronous requests of the web server is reached.
+	 * @param localHostname the hostname of the scraping target
+	 * @param localPort the port of the scraping target
+	 * @param includePromregatorMetricsEndpoint <code>true</code>, if Promregator's own metrics endpoint shall be part of the document
+	 * @param ifNoneMatch the value of the header <code>If-None-Match</code> identifying the document the client already has; may be <code>null</code>
+	 * @return a Mono providing the (possibly unchanged) document; empty, if the document could not be serialized
+	 */
+	Mono<DiscoveryDocument> watchDocument(String localHostname, int localPort, boolean includePromregatorMetricsEndpoint, @Nullable String ifNoneMatch) {
+		return this.getDocument(localHostname, localPort, includePromregatorMetricsEndpoint).flatMap(document -> {
+			if (!document.isMatchedBy(ifNoneMatch)) {
+				// the client's document is outdated already
+				return Mono.just(document);
+			}
+			
+			final String scrapingTarget = String.format("%s:%d", localHostname, localPort);
+			
+			Flux<Long> changes = this.cfDiscoverer.awaitInstanceSetChange(document.instanceSetVersion).flux();
+			if (this.watchRediscoveryInterval > 0) {
+				/*
+				 * Discovery registers new instances and thus causes a change on its own.
+				 * NB: Ticks occurring while discovery is still running are dropped.
+				 */
+				Flux<Long> rediscovery = Flux.interval(Duration.ofSeconds(this.watchRediscoveryInterval))
+						.onBackpressureDrop()
+						.concatMap(tick -> this.discover(scrapingTarget, localHostname, localPort, includePromregatorMetricsEndpoint)
+								.onErrorResume(e -> {
+									log.warn("Discovery while watching the discovery document failed", e);
+									return Mono.empty();
+								})
+								.then(Mono.<Long>empty()), 1);
+				changes = Flux.merge(changes, rediscovery);
+			}
+			
+			Mono<DiscoveryDocument> watch = changes.next()
+					.delayElement(WATCH_SETTLE_TIME)
+					.timeout(this.watchWaitBound, Mono.empty())
+					.then(this.getDocument(localHostname, localPort, includePromregatorMetricsEndpoint));
+			
+			if (this.watchDeadline == null) {
+				return watch;
+			}
+			
+			// the client's document is still the most recent one known
+			return watch.timeout(this.watchDeadline, Mono.just(document));
+		});
+	}
+	
+	/**
+	 * determines a hash of the content of a discovery document, which is independent of the order of its entries
+	 * @param responses the content of the document
+	 * @return the hash in hexadecimal notation
+	 */
+	static String determineFingerprint(DiscoveryResponse[] responses) {
+		List<String> entries = new ArrayList<>(responses.length);
+		for (DiscoveryResponse response : responses) {
+			DiscoveryLabel label = response.getLabels();
+			entries.add(String.join("|", String.join(",", response.getTargets()), label.getTargetPath(), 
+					label.getOrgName(), label.getSpaceName(), label.getApplicationName(), 
+					label.getApplicationId(), label.getInstanceNumber(), label.getInstanceId()));
+		}
+		Collections.sort(entries);
+		
+		return DigestUtils.md5DigestAsHex(String.join("\n", entries).getBytes(StandardCharsets.UTF_8));
+	}
+}
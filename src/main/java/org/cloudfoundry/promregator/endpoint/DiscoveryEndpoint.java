@@ -6,23 +6,30 @@ import java.util.List;
 import javax.servlet.http.HttpServletRequest;
 
 import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer;
+import org.cloudfoundry.promregator.endpoint.DiscoveryDocumentCache.DiscoveryDocument;
 import org.cloudfoundry.promregator.scanner.Instance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Scope;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.fasterxml.jackson.annotation.JsonGetter;
 
+import reactor.core.publisher.Mono;
+
 @RestController
+@ConditionalOnProperty(name="promregator.endpoint.reactive.enabled", havingValue="false", matchIfMissing=true)
 @RequestMapping(EndpointConstants.ENDPOINT_PATH_DISCOVERY)
 @Scope(value=WebApplicationContext.SCOPE_REQUEST)
 public class DiscoveryEndpoint {
@@ -41,6 +48,9 @@ public class DiscoveryEndpoint {
 	@Value("${promregator.discovery.ownMetricsEndpoint:true}")
 	private boolean promregatorMetricsEndpoint;
 	
+	@Autowired
+	private DiscoveryDocumentCache discoveryDocumentCache;
+	
 	public static class DiscoveryLabel {
 		private String targetPath;
 		private String orgName;
@@ -128,6 +138,53 @@ public class DiscoveryEndpoint {
 	}
 	
 	@GetMapping(produces=MediaType.APPLICATION_JSON_UTF8_VALUE)
+	public ResponseEntity<byte[]> getDiscoveryDocument(HttpServletRequest request, 
+			@RequestHeader(name=HttpHeaders.IF_NONE_MATCH, required=false) String ifNoneMatch) {
+		
+		String localHostname = this.myHostname != null ? this.myHostname : request.getLocalName();
+		int localPort = this.myPort != 0 ? this.myPort : request.getLocalPort();
+		String scrapingTarget = String.format("%s:%d", localHostname, localPort);
+		
+		DiscoveryDocument document = this.discoveryDocumentCache.get(scrapingTarget);
+		if (document == null) {
+			ResponseEntity<DiscoveryResponse[]> response = this.getDiscovery(request);
+			if (response.getStatusCode() != HttpStatus.OK) {
+				return new ResponseEntity<>(response.getStatusCode());
+			}
+			
+			document = this.discoveryDocumentCache.store(scrapingTarget, response.getBody());
+			if (document == null) {
+				return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+			}
+		}
+		
+		return document.toResponseEntity(ifNoneMatch);
+	}
+	
+	/**
+	 * provides the discovery document, once it differs from the one identified by <code>If-None-Match</code>
+	 * (long polling). The request is held without blocking a thread.
+	 * @param request the HTTP request, for which the document shall be determined
+	 * @param ifNoneMatch the entity tag of the document the client already has
+	 * @return the response containing the document, or indicating that the document has not been modified
+	 */
+	@GetMapping(produces=MediaType.APPLICATION_JSON_VALUE, params="watch")
+	public Mono<ResponseEntity<byte[]>> watchDiscoveryDocument(HttpServletRequest request, 
+			@RequestHeader(name=HttpHeaders.IF_NONE_MATCH, required=false) String ifNoneMatch) {
+		
+		String localHostname = this.myHostname != null ? this.myHostname : request.getLocalName();
+		int localPort = this.myPort != 0 ? this.myPort : request.getLocalPort();
+		
+		return this.discoveryDocumentCache.watchDocument(localHostname, localPort, this.promregatorMetricsEndpoint, ifNoneMatch)
+				.map(document -> document.toResponseEntity(ifNoneMatch))
+				.defaultIfEmpty(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+	}
+	
+	/**
+	 * determines the discovery document, bypassing the cache of serialized documents
+	 * @param request the HTTP request, for which the document shall be determined
+	 * @return the content of the discovery document
+	 */
 	public ResponseEntity<DiscoveryResponse[]> getDiscovery(HttpServletRequest request) {
 		
 		List<Instance> instances = this.cfDiscoverer.discover(null, null);
@@ -138,6 +195,11 @@ public class DiscoveryEndpoint {
 		
 		String localHostname = this.myHostname != null ? this.myHostname : request.getLocalName();
 		int localPort = this.myPort != 0 ? this.myPort : request.getLocalPort();
+		
+		return createDiscoveryResponse(instances, localHostname, localPort, this.promregatorMetricsEndpoint);
+	}
+	
+	static ResponseEntity<DiscoveryResponse[]> createDiscoveryResponse(List<Instance> instances, String localHostname, int localPort, boolean promregatorMetricsEndpoint) {
 		final String[] targets = { String.format("%s:%d", localHostname, localPort) };
 		
 		log.info(String.format("Using scraping target %s in discovery response", targets[0]));
@@ -152,7 +214,7 @@ public class DiscoveryEndpoint {
 			result.add(dr);
 		}
 		
-		if (this.promregatorMetricsEndpoint) {
+		if (promregatorMetricsEndpoint) {
 			// finally, also add our own metrics endpoint
 			DiscoveryLabel dl = new DiscoveryLabel(EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS);
 			result.add(new DiscoveryResponse(targets, dl));
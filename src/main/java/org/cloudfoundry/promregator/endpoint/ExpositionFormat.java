@@ -0,0 +1,81 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.openmetrics.OpenMetricsFormat;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import io.prometheus.client.exporter.common.TextFormat;
+
+/**
+ * The text-based formats in which the metrics endpoints may provide their response,
+ * depending on the content negotiated with the scraping Prometheus server.
+ * The binary protobuf format is served by separate request mappings of the endpoints instead.
+ */
+public enum ExpositionFormat {
+	/**
+	 * Prometheus' text-based exposition format version 0.0.4
+	 */
+	TEXT_004(TextFormat.CONTENT_TYPE_004),
+	
+	/**
+	 * OpenMetrics text format version 1.0.0
+	 */
+	OPENMETRICS_100(OpenMetricsFormat.CONTENT_TYPE_OPENMETRICS_100);
+	
+	private static final MediaType MEDIA_TYPE_OPENMETRICS = new MediaType("application", "openmetrics-text");
+	
+	private final String contentType;
+	
+	private ExpositionFormat(String contentType) {
+		this.contentType = contentType;
+	}
+	
+	/**
+	 * @return the value of the Content-Type header of a response in this format
+	 */
+	public String getContentType() {
+		return contentType;
+	}
+	
+	/**
+	 * determines the format of the response based on the Accept header of the request.
+	 * Note that we may not rely on Spring's content negotiation here, as it considers
+	 * both formats to be equally suitable, if a client accepts any media type.
+	 * @param acceptHeader the value of the Accept header; may be <code>null</code>, if the header was not set
+	 * @return the format preferred by the client; text format 0.0.4, if the client has no preference
+	 */
+	public static ExpositionFormat negotiate(@Nullable String acceptHeader) {
+		if (acceptHeader == null || acceptHeader.isEmpty()) {
+			return TEXT_004;
+		}
+		
+		List<MediaType> mediaTypes = null;
+		try {
+			mediaTypes = MediaType.parseMediaTypes(acceptHeader);
+		} catch (InvalidMediaTypeException e) {
+			return TEXT_004;
+		}
+		
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		
+		for (MediaType mediaType : mediaTypes) {
+			if (mediaType.getQualityValue() == 0.0) {
+				continue;
+			}
+			
+			if (MEDIA_TYPE_OPENMETRICS.equalsTypeAndSubtype(mediaType)) {
+				return OPENMETRICS_100;
+			}
+			
+			if (mediaType.includes(MediaType.TEXT_PLAIN)) {
+				return TEXT_004;
+			}
+		}
+		
+		return TEXT_004;
+	}
+}
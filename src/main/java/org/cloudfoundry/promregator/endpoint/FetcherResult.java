@@ -0,0 +1,45 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.util.HashMap;
+
+import javax.annotation.Nullable;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Gauge;
+
+/**
+ * The result of a metrics fetcher together with the child of the metric <code>promregator_up</code>
+ * of the instance, which has been scraped. Thus, the instance may still be reported as unavailable,
+ * if its result has to be dropped while merging.
+ */
+class FetcherResult {
+	private final HashMap<String, MetricFamilySamples> emfs;
+	
+	private final Gauge.Child upChild;
+
+	/**
+	 * creates a new result
+	 * @param emfs the metric family samples provided by the fetcher; <code>null</code>, if fetching failed
+	 * @param upChild the child of the metric <code>promregator_up</code> of the instance; may be <code>null</code>
+	 */
+	FetcherResult(@Nullable HashMap<String, MetricFamilySamples> emfs, @Nullable Gauge.Child upChild) {
+		this.emfs = emfs;
+		this.upChild = upChild;
+	}
+
+	/**
+	 * @return the emfs
+	 */
+	@Nullable
+	HashMap<String, MetricFamilySamples> getEmfs() {
+		return emfs;
+	}
+
+	/**
+	 * @return the upChild
+	 */
+	@Nullable
+	Gauge.Child getUpChild() {
+		return upChild;
+	}
+}
@@ -1,13 +1,17 @@
 package org.cloudfoundry.promregator.endpoint;
 
 import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
 
 import org.cloudfoundry.promregator.fetcher.MetricsFetcher;
+import org.cloudfoundry.promregator.protobuf.ProtobufFormat;
 import org.cloudfoundry.promregator.scanner.Instance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Scope;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,9 +19,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.WebApplicationContext;
 
-import io.prometheus.client.CollectorRegistry;
-import io.prometheus.client.Gauge;
-import io.prometheus.client.exporter.common.TextFormat;
+import io.prometheus.client.Collector.MetricFamilySamples;
 
 /**
  * A spring-framework HTTP REST-server endpoint, compliant to the specification of a Prometheus text (!) metrics endpoint,
@@ -25,21 +27,40 @@ import io.prometheus.client.exporter.common.TextFormat;
  *
  */
 @RestController
+@ConditionalOnProperty(name="promregator.endpoint.reactive.enabled", havingValue="false", matchIfMissing=true)
 @Scope(value=WebApplicationContext.SCOPE_REQUEST) // see also https://github.com/promregator/promregator/issues/51
 @RequestMapping(EndpointConstants.ENDPOINT_PATH_SINGLE_ENDPOINT_SCRAPING)
 public class MetricsEndpoint extends AbstractMetricsEndpoint {
 	private static final Logger log = LoggerFactory.getLogger(MetricsEndpoint.class);
 
-	@GetMapping(produces=TextFormat.CONTENT_TYPE_004)
-	public ResponseEntity<String> getMetrics() {
+	/*
+	 * NB: This mapping must not restrict the media types it produces; otherwise, requests accepting
+	 * any media type would be ambiguous to the mapping for the protobuf format.
+	 * The format is negotiated by determineExpositionFormat() instead.
+	 */
+	@GetMapping
+	public ResponseEntity<byte[]> getMetrics() {
 		if (this.isLoopbackRequest()) {
 			throw new LoopbackScrapingDetectedException("Erroneous Loopback Scraping request detected");
 		}
 		try {
-			String result = this.handleRequest(null, null /* no filtering intended */);
-			return new ResponseEntity<>(result, HttpStatus.OK);
+			byte[] result = this.handleRequest(null, null /* no filtering intended */);
+			return ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, this.determineExpositionFormat().getContentType()).body(result);
 		} catch (ScrapingException e) {
-			return new ResponseEntity<>(e.toString(), HttpStatus.SERVICE_UNAVAILABLE);
+			return createErrorResponse(e, HttpStatus.SERVICE_UNAVAILABLE);
+		}
+	}
+
+	@GetMapping(produces=ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED)
+	public ResponseEntity<byte[]> getMetricsProtobuf() {
+		if (this.isLoopbackRequest()) {
+			throw new LoopbackScrapingDetectedException("Erroneous Loopback Scraping request detected");
+		}
+		try {
+			byte[] result = this.handleRequestProtobuf(null, null /* no filtering intended */);
+			return ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED).body(result);
+		} catch (ScrapingException e) {
+			return createErrorResponse(e, HttpStatus.SERVICE_UNAVAILABLE);
 		}
 	}
 
@@ -63,16 +84,24 @@ public class MetricsEndpoint extends AbstractMetricsEndpoint {
 	 * @see org.cloudfoundry.promregator.endpoint.AbstractMetricsEndpoint#createMetricsFetchers(java.util.List)
 	 */
 	@Override
-	protected List<MetricsFetcher> createMetricsFetchers(List<Instance> instanceList) {
+	protected List<MetricsFetcher> createMetricsFetchers(List<Instance> instanceList, UpMetricSamples up) {
+		warnOnTooManyTargets(instanceList);
+
+		return super.createMetricsFetchers(instanceList, up);
+	}
+
+	static void warnOnTooManyTargets(List<Instance> instanceList) {
 		if (instanceList.size() > 20) {
 			log.warn(String.format("You are using Single Endpoint Scraping with %d (>20) active targets; to improve scalability it is recommended to switch to Single Target Scraping", instanceList.size()));
 		}
-
-		return super.createMetricsFetchers(instanceList);
 	}
 
 	@Override
-	protected void handleScrapeDuration(CollectorRegistry requestRegistry, Duration duration) {
+	protected MetricFamilySamples createScrapeDurationSamples(Duration duration, List<Instance> instanceList) {
+		return createScrapeDurationSamples(duration);
+	}
+
+	static MetricFamilySamples createScrapeDurationSamples(Duration duration) {
 		/* Note:
 		 * The metric in this method intends to describe how much time has passed 
 		 * for the *entire* scraping process. It's not the intention of this metric
@@ -83,10 +112,7 @@ public class MetricsEndpoint extends AbstractMetricsEndpoint {
 		 * See also the description of "promregator_scrape_duration_seconds" in
 		 * https://github.com/promregator/promregator/blob/4b2ca289b624328e7e0b3838112e31a908a55c58/docs/enrichment.md
 		 */
-		Gauge scrapeDuration = Gauge.build("promregator_scrape_duration_seconds", "Duration in seconds indicating how long scraping of all metrics took")
-				.register(requestRegistry);
-		
-		scrapeDuration.set(duration.toMillis() / 1000.0);
+		return createScrapeDurationSamples(duration, Collections.emptyList(), Collections.emptyList());
 	}
 
 }
@@ -2,18 +2,22 @@ package org.cloudfoundry.promregator.endpoint;
 
 import java.util.HashMap;
 
+import org.cloudfoundry.promregator.protobuf.ProtobufFormat;
 import org.cloudfoundry.promregator.rewrite.GenericMetricFamilySamplesPrefixRewriter;
 import org.cloudfoundry.promregator.rewrite.MergableMetricFamilySamples;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.WebApplicationContext;
 
 import io.prometheus.client.Collector.MetricFamilySamples;
 import io.prometheus.client.CollectorRegistry;
-import io.prometheus.client.exporter.common.TextFormat;
 
 @RestController
 @RequestMapping(EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS)
@@ -24,13 +28,26 @@ public class PromregatorMetricsEndpoint {
 	
 	private GenericMetricFamilySamplesPrefixRewriter gmfspr = new GenericMetricFamilySamplesPrefixRewriter("promregator");
 
-	@GetMapping(produces=TextFormat.CONTENT_TYPE_004)
-	public String getMetrics() {
+	@GetMapping // see MetricsEndpoint
+	public ResponseEntity<byte[]> getMetrics(@RequestHeader(name=HttpHeaders.ACCEPT, required=false) String accept) {
 		HashMap<String, MetricFamilySamples> mfsMap = this.gmfspr.determineEnumerationOfMetricFamilySamples(this.collectorRegistry);
 		
 		MergableMetricFamilySamples mmfs = new MergableMetricFamilySamples();
 		mmfs.merge(mfsMap);
 		
-		return mmfs.toType004String();
+		ExpositionFormat format = ExpositionFormat.negotiate(accept);
+		byte[] result = format == ExpositionFormat.OPENMETRICS_100 ? mmfs.toOpenMetrics100Bytes() : mmfs.toType004Bytes();
+		
+		return ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, format.getContentType()).body(result);
+	}
+	
+	@GetMapping(produces=ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED)
+	public ResponseEntity<byte[]> getMetricsProtobuf() {
+		HashMap<String, MetricFamilySamples> mfsMap = this.gmfspr.determineEnumerationOfMetricFamilySamples(this.collectorRegistry);
+		
+		MergableMetricFamilySamples mmfs = new MergableMetricFamilySamples();
+		mmfs.merge(mfsMap);
+		
+		return ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED).body(mmfs.toProtobufDelimitedBytes());
 	}
 }
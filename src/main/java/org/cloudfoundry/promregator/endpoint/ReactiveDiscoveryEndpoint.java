@@ -0,0 +1,63 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The non-blocking variant of {@link DiscoveryEndpoint}: The endpoint is a singleton and 
+ * the discovery document is provided asynchronously once discovery has completed.
+ * Like {@link DiscoveryEndpoint}, serialized documents are cached in the {@link DiscoveryDocumentCache}.
+ */
+@RestController
+@ConditionalOnProperty(name="promregator.endpoint.reactive.enabled", havingValue="true")
+@RequestMapping(EndpointConstants.ENDPOINT_PATH_DISCOVERY)
+public class ReactiveDiscoveryEndpoint {
+
+	@Value("${promregator.discovery.hostname:#{null}}")
+	private String myHostname;
+	
+	@Value("${promregator.discovery.port:0}")
+	private int myPort;
+	
+	@Value("${promregator.discovery.ownMetricsEndpoint:true}")
+	private boolean promregatorMetricsEndpoint;
+	
+	@Autowired
+	private DiscoveryDocumentCache discoveryDocumentCache;
+	
+	@GetMapping(produces=MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<byte[]>> getDiscovery(HttpServletRequest request, 
+			@RequestHeader(name=HttpHeaders.IF_NONE_MATCH, required=false) String ifNoneMatch) {
+		// NB: the request must not be accessed anymore once the response is provided asynchronously
+		String localHostname = this.myHostname != null ? this.myHostname : request.getLocalName();
+		int localPort = this.myPort != 0 ? this.myPort : request.getLocalPort();
+		
+		return this.discoveryDocumentCache.getDocument(localHostname, localPort, this.promregatorMetricsEndpoint)
+				.map(document -> document.toResponseEntity(ifNoneMatch))
+				.defaultIfEmpty(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+	}
+	
+	@GetMapping(produces=MediaType.APPLICATION_JSON_VALUE, params="watch")
+	public Mono<ResponseEntity<byte[]>> watchDiscovery(HttpServletRequest request, 
+			@RequestHeader(name=HttpHeaders.IF_NONE_MATCH, required=false) String ifNoneMatch) {
+		String localHostname = this.myHostname != null ? this.myHostname : request.getLocalName();
+		int localPort = this.myPort != 0 ? this.myPort : request.getLocalPort();
+		
+		return this.discoveryDocumentCache.watchDocument(localHostname, localPort, this.promregatorMetricsEndpoint, ifNoneMatch)
+				.map(document -> document.toResponseEntity(ifNoneMatch))
+				.defaultIfEmpty(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+	}
+}
@@ -0,0 +1,83 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.cloudfoundry.promregator.fetcher.MetricsFetcher;
+import org.cloudfoundry.promregator.protobuf.ProtobufFormat;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import reactor.core.publisher.Mono;
+
+/**
+ * The non-blocking variant of {@link MetricsEndpoint}: The endpoint is a singleton and 
+ * the response is provided asynchronously, such that no request thread is blocked
+ * while the targets are being scraped.
+ */
+@RestController
+@ConditionalOnProperty(name="promregator.endpoint.reactive.enabled", havingValue="true")
+@RequestMapping(EndpointConstants.ENDPOINT_PATH_SINGLE_ENDPOINT_SCRAPING)
+public class ReactiveMetricsEndpoint extends AbstractMetricsEndpoint {
+
+	@GetMapping // see MetricsEndpoint
+	public Mono<ResponseEntity<byte[]>> getMetrics(
+			@RequestHeader(name=EndpointConstants.HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER, required=false) String promregatorInstanceIdentifier,
+			@RequestHeader(name=HttpHeaders.ACCEPT, required=false) String accept
+			) {
+		if (this.isLoopbackRequest(promregatorInstanceIdentifier)) {
+			throw new LoopbackScrapingDetectedException("Erroneous Loopback Scraping request detected");
+		}
+		
+		ExpositionFormat format = ExpositionFormat.negotiate(accept);
+		
+		return this.handleRequestReactive(null, null /* no filtering intended */, format)
+				.map(result -> ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, format.getContentType()).body(result))
+				.onErrorResume(ScrapingException.class, e -> Mono.just(createErrorResponse(e, HttpStatus.SERVICE_UNAVAILABLE)));
+	}
+
+	@GetMapping(produces=ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED)
+	public Mono<ResponseEntity<byte[]>> getMetricsProtobuf(
+			@RequestHeader(name=EndpointConstants.HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER, required=false) String promregatorInstanceIdentifier
+			) {
+		if (this.isLoopbackRequest(promregatorInstanceIdentifier)) {
+			throw new LoopbackScrapingDetectedException("Erroneous Loopback Scraping request detected");
+		}
+		
+		return this.handleRequestProtobufReactive(null, null /* no filtering intended */)
+				.map(result -> ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED).body(result))
+				.onErrorResume(ScrapingException.class, e -> Mono.just(createErrorResponse(e, HttpStatus.SERVICE_UNAVAILABLE)));
+	}
+
+	@Override
+	protected boolean isIncludeGlobalMetrics() {
+		return true;
+	}
+
+	@Override
+	protected boolean isLabelEnrichmentSuppressable() {
+		// see MetricsEndpoint
+		return false;
+	}
+
+	@Override
+	protected List<MetricsFetcher> createMetricsFetchers(List<Instance> instanceList, UpMetricSamples up) {
+		MetricsEndpoint.warnOnTooManyTargets(instanceList);
+
+		return super.createMetricsFetchers(instanceList, up);
+	}
+
+	@Override
+	protected MetricFamilySamples createScrapeDurationSamples(Duration duration, List<Instance> instanceList) {
+		return MetricsEndpoint.createScrapeDurationSamples(duration);
+	}
+
+}
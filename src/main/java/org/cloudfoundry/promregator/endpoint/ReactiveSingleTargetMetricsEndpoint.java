@@ -0,0 +1,89 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.cloudfoundry.promregator.protobuf.ProtobufFormat;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import reactor.core.publisher.Mono;
+
+/**
+ * The non-blocking variant of {@link SingleTargetMetricsEndpoint}: The endpoint is a singleton and 
+ * the response is provided asynchronously, such that no request thread is blocked
+ * while the target is being scraped.
+ */
+@RestController
+@ConditionalOnProperty(name="promregator.endpoint.reactive.enabled", havingValue="true")
+@RequestMapping(EndpointConstants.ENDPOINT_PATH_SINGLE_TARGET_SCRAPING+"/{applicationId}/{instanceNumber}")
+public class ReactiveSingleTargetMetricsEndpoint extends AbstractMetricsEndpoint {
+	
+	@GetMapping // see SingleTargetMetricsEndpoint
+	public Mono<ResponseEntity<byte[]>> getMetrics(
+			@PathVariable String applicationId, 
+			@PathVariable String instanceNumber,
+			@RequestHeader(name=EndpointConstants.HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER, required=false) String promregatorInstanceIdentifier,
+			@RequestHeader(name=HttpHeaders.ACCEPT, required=false) String accept
+			) {
+		
+		if (this.isLoopbackRequest(promregatorInstanceIdentifier)) {
+			throw new LoopbackScrapingDetectedException("Erroneous Loopback Scraping request detected");
+		}
+		
+		String instanceId = String.format("%s:%s", applicationId, instanceNumber);
+		
+		ExpositionFormat format = ExpositionFormat.negotiate(accept);
+		
+		return this.handleRequestReactive(discoveredApplicationId -> applicationId.equals(discoveredApplicationId), 
+				requestInstance -> requestInstance.getInstanceId().equals(instanceId), format)
+				.map(result -> ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, format.getContentType()).body(result))
+				.onErrorResume(ScrapingException.class, e -> Mono.just(createErrorResponse(e, HttpStatus.NOT_FOUND)));
+	}
+
+	@GetMapping(produces=ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED)
+	public Mono<ResponseEntity<byte[]>> getMetricsProtobuf(
+			@PathVariable String applicationId, 
+			@PathVariable String instanceNumber,
+			@RequestHeader(name=EndpointConstants.HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER, required=false) String promregatorInstanceIdentifier
+			) {
+		
+		if (this.isLoopbackRequest(promregatorInstanceIdentifier)) {
+			throw new LoopbackScrapingDetectedException("Erroneous Loopback Scraping request detected");
+		}
+		
+		String instanceId = String.format("%s:%s", applicationId, instanceNumber);
+		
+		return this.handleRequestProtobufReactive(discoveredApplicationId -> applicationId.equals(discoveredApplicationId), 
+				requestInstance -> requestInstance.getInstanceId().equals(instanceId))
+				.map(result -> ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED).body(result))
+				.onErrorResume(ScrapingException.class, e -> Mono.just(createErrorResponse(e, HttpStatus.NOT_FOUND)));
+	}
+
+	@Override
+	protected boolean isIncludeGlobalMetrics() {
+		// NB: This is done by PromregatorMetricsEndpoint in this scenario instead.
+		return false;
+	}
+
+	@Override
+	protected boolean isLabelEnrichmentSuppressable() {
+		// see SingleTargetMetricsEndpoint
+		return true;
+	}
+	
+	@Override
+	protected MetricFamilySamples createScrapeDurationSamples(Duration duration, List<Instance> instanceList) {
+		return SingleTargetMetricsEndpoint.createScrapeDurationSamples(duration, instanceList, this.isLabelEnrichmentEnabled());
+	}
+	
+}
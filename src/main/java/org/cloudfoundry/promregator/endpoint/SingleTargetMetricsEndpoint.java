@@ -2,8 +2,10 @@ package org.cloudfoundry.promregator.endpoint;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.cloudfoundry.promregator.protobuf.ProtobufFormat;
 import org.cloudfoundry.promregator.rewrite.AbstractMetricFamilySamplesEnricher;
 import org.cloudfoundry.promregator.rewrite.CFAllLabelsMetricFamilySamplesEnricher;
 import org.cloudfoundry.promregator.rewrite.NullMetricFamilySamplesEnricher;
@@ -11,7 +13,9 @@ import org.cloudfoundry.promregator.scanner.Instance;
 import org.cloudfoundry.promregator.scanner.ResolvedTarget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Scope;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,21 +24,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.WebApplicationContext;
 
-import io.prometheus.client.CollectorRegistry;
-import io.prometheus.client.Gauge;
-import io.prometheus.client.exporter.common.TextFormat;
+import io.prometheus.client.Collector.MetricFamilySamples;
 
 @RestController
+@ConditionalOnProperty(name="promregator.endpoint.reactive.enabled", havingValue="false", matchIfMissing=true)
 @Scope(value=WebApplicationContext.SCOPE_REQUEST) // see also https://github.com/promregator/promregator/issues/51
 @RequestMapping(EndpointConstants.ENDPOINT_PATH_SINGLE_TARGET_SCRAPING+"/{applicationId}/{instanceNumber}")
 public class SingleTargetMetricsEndpoint extends AbstractMetricsEndpoint {
 	
 	private static final Logger log = LoggerFactory.getLogger(SingleTargetMetricsEndpoint.class);
 
-	private Instance instance;
-	
-	@GetMapping(produces=TextFormat.CONTENT_TYPE_004)
-	public ResponseEntity<String> getMetrics(
+	@GetMapping // see MetricsEndpoint
+	public ResponseEntity<byte[]> getMetrics(
 			@PathVariable String applicationId, 
 			@PathVariable String instanceNumber
 			) {
@@ -45,22 +46,38 @@ public class SingleTargetMetricsEndpoint extends AbstractMetricsEndpoint {
 		
 		String instanceId = String.format("%s:%s", applicationId, instanceNumber);
 		
-		String response = null;
+		byte[] response = null;
 		try {
 			response = this.handleRequest( discoveredApplicationId -> applicationId.equals(discoveredApplicationId)
-			, requestInstance -> {
-				if (requestInstance.getInstanceId().equals(instanceId)) {
-					this.instance = requestInstance;
-					return true;
-				}
-				
-				return false;
-			});
+			, requestInstance -> requestInstance.getInstanceId().equals(instanceId));
+		} catch (ScrapingException e) {
+			return createErrorResponse(e, HttpStatus.NOT_FOUND);
+		}
+		
+		return ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, this.determineExpositionFormat().getContentType()).body(response);
+	}
+
+	@GetMapping(produces=ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED)
+	public ResponseEntity<byte[]> getMetricsProtobuf(
+			@PathVariable String applicationId, 
+			@PathVariable String instanceNumber
+			) {
+		
+		if (this.isLoopbackRequest()) {
+			throw new LoopbackScrapingDetectedException("Erroneous Loopback Scraping request detected");
+		}
+		
+		String instanceId = String.format("%s:%s", applicationId, instanceNumber);
+		
+		byte[] response = null;
+		try {
+			response = this.handleRequestProtobuf( discoveredApplicationId -> applicationId.equals(discoveredApplicationId)
+			, requestInstance -> requestInstance.getInstanceId().equals(instanceId));
 		} catch (ScrapingException e) {
-			return new ResponseEntity<>(e.toString(), HttpStatus.NOT_FOUND);
+			return createErrorResponse(e, HttpStatus.NOT_FOUND);
 		}
 		
-		return new ResponseEntity<>(response, HttpStatus.OK);
+		return ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CONTENT_TYPE, ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED).body(response);
 	}
 
 	@Override
@@ -79,7 +96,11 @@ public class SingleTargetMetricsEndpoint extends AbstractMetricsEndpoint {
 	}
 	
 	@Override
-	protected void handleScrapeDuration(CollectorRegistry requestRegistry, Duration duration) {
+	protected MetricFamilySamples createScrapeDurationSamples(Duration duration, List<Instance> instanceList) {
+		return createScrapeDurationSamples(duration, instanceList, this.isLabelEnrichmentEnabled());
+	}
+
+	static MetricFamilySamples createScrapeDurationSamples(Duration duration, List<Instance> instanceList, boolean labelEnrichmentEnabled) {
 		/*
 		 * Note: The scrape_duration_seconds metric is being passed on to Prometheus with
 		 * the normal scraping request.
@@ -90,26 +111,23 @@ public class SingleTargetMetricsEndpoint extends AbstractMetricsEndpoint {
 		
 		AbstractMetricFamilySamplesEnricher enricher = null;
 		String[] ownTelemetryLabels = null;
-		if (this.isLabelEnrichmentEnabled()) {
-			if (this.instance == null) {
+		if (labelEnrichmentEnabled) {
+			if (instanceList.size() != 1) {
 				log.warn("Internal inconsistency: Single Target Metrics Endpoint triggered, even though instance could not be detected; skipping scrape_duration");
-				return;
+				return null;
 			}
 			
-			ResolvedTarget t = this.instance.getTarget();
+			Instance instance = instanceList.get(0);
+			ResolvedTarget t = instance.getTarget();
 			ownTelemetryLabels = CFAllLabelsMetricFamilySamplesEnricher.getEnrichingLabelNames();
-			enricher = new CFAllLabelsMetricFamilySamplesEnricher(t.getOrgName(), t.getSpaceName(), t.getApplicationName(), this.instance.getInstanceId());
+			enricher = new CFAllLabelsMetricFamilySamplesEnricher(t.getOrgName(), t.getSpaceName(), t.getApplicationName(), instance.getInstanceId());
 		} else {
 			ownTelemetryLabels = NullMetricFamilySamplesEnricher.getEnrichingLabelNames();
 			enricher = new NullMetricFamilySamplesEnricher();
 		}
 		
-		Gauge scrapeDuration = Gauge.build("promregator_scrape_duration_seconds", "Duration in seconds indicating how long scraping of all metrics took")
-				.labelNames(ownTelemetryLabels)
-				.register(requestRegistry);
-		
 		List<String> labelValues = enricher.getEnrichedLabelValues(new ArrayList<>(0));
-		scrapeDuration.labels(labelValues.toArray(new String[0])).set(duration.toMillis() / 1000.0);
+		return createScrapeDurationSamples(duration, Arrays.asList(ownTelemetryLabels), labelValues);
 	}
 
 	
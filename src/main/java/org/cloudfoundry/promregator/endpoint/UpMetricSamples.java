@@ -0,0 +1,132 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.fetcher.MetricsFetcher;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+import io.prometheus.client.Gauge;
+
+/**
+ * The samples of the metric <code>promregator_up</code>, which is specific to a single scraping request
+ * (see also https://prometheus.io/docs/instrumenting/writing_exporters/#metrics-about-the-scrape-itself).
+ * 
+ * Contrary to a {@link Gauge} registered at a <code>CollectorRegistry</code>, the samples are 
+ * provided directly, such that no registry needs to be created for each scraping request.
+ */
+public class UpMetricSamples {
+	public static final String METRIC_NAME = "promregator_up";
+	
+	private static final String HELP = "Indicator, whether the target of promregator is available";
+	
+	public static final String LIMIT_EXCEEDED_METRIC_NAME = "promregator_scrape_limit_exceeded";
+	
+	private static final String LIMIT_EXCEEDED_HELP = "Indicator, whether the result of the target of promregator was discarded, as it exceeded the limit given by the label reason";
+	
+	private static final String LABEL_REASON = "reason";
+	
+	private final List<String> labelNames;
+	
+	private final ConcurrentHashMap<List<String>, Gauge.Child> children = new ConcurrentHashMap<>();
+	
+	private final ConcurrentHashMap<MetricsFetcher, Gauge.Child> childrenOfFetchers = new ConcurrentHashMap<>();
+	
+	/**
+	 * the reason of each child, whose result has been discarded as it exceeded a limit
+	 */
+	private final ConcurrentHashMap<Gauge.Child, String> limitsExceeded = new ConcurrentHashMap<>();
+
+	public UpMetricSamples(String[] labelNames) {
+		this.labelNames = Collections.unmodifiableList(Arrays.asList(labelNames.clone()));
+	}
+	
+	/**
+	 * returns the child for a given set of label values; the child is created, if it does not exist yet.
+	 * @param labelValues the values of the labels; the number of values must match the number of label names.
+	 * @return the child, whose value is reported by {@link #toMetricFamilySamples()}
+	 */
+	public Gauge.Child labels(String... labelValues) {
+		if (labelValues.length != this.labelNames.size()) {
+			throw new IllegalArgumentException("Incorrect number of labels.");
+		}
+		
+		return this.children.computeIfAbsent(Collections.unmodifiableList(Arrays.asList(labelValues.clone())), key -> new Gauge.Child());
+	}
+	
+	/**
+	 * assigns a child to the metrics fetcher scraping the instance, whose availability the child reports
+	 * @param mf the metrics fetcher
+	 * @param child the child of the instance scraped by the metrics fetcher
+	 */
+	public void assign(MetricsFetcher mf, Gauge.Child child) {
+		this.childrenOfFetchers.put(mf, child);
+	}
+	
+	/**
+	 * @param mf the metrics fetcher
+	 * @return the child assigned to the metrics fetcher; <code>null</code>, if none has been assigned
+	 */
+	@Nullable
+	public Gauge.Child getChild(MetricsFetcher mf) {
+		return this.childrenOfFetchers.get(mf);
+	}
+	
+	/**
+	 * records that the result of the instance, whose availability a child reports, has been discarded as it exceeded a limit.
+	 * <code>up</code> itself must keep the same labels as the metrics scraped; thus, the reason is reported by a separate metric.
+	 * @param child the child of the instance
+	 * @param reason the reason, i.e. the limit exceeded
+	 */
+	public void setLimitExceeded(Gauge.Child child, String reason) {
+		this.limitsExceeded.put(child, reason);
+	}
+	
+	/**
+	 * @return the metric family samples containing the current values of all children
+	 */
+	public MetricFamilySamples toMetricFamilySamples() {
+		List<Sample> samples = new ArrayList<>(this.children.size());
+		for (Entry<List<String>, Gauge.Child> entry : this.children.entrySet()) {
+			samples.add(new Sample(METRIC_NAME, this.labelNames, entry.getKey(), entry.getValue().get()));
+		}
+		
+		return new MetricFamilySamples(METRIC_NAME, Type.GAUGE, HELP, samples);
+	}
+	
+	/**
+	 * @return the metric family samples indicating the reason for each instance, whose result has been discarded 
+	 * as it exceeded a limit; <code>null</code>, if there is no such instance
+	 */
+	@Nullable
+	public MetricFamilySamples toLimitExceededMetricFamilySamples() {
+		if (this.limitsExceeded.isEmpty()) {
+			return null;
+		}
+		
+		List<String> limitExceededLabelNames = new ArrayList<>(this.labelNames);
+		limitExceededLabelNames.add(LABEL_REASON);
+		
+		List<Sample> samples = new ArrayList<>(this.limitsExceeded.size());
+		for (Entry<List<String>, Gauge.Child> entry : this.children.entrySet()) {
+			String reason = this.limitsExceeded.get(entry.getValue());
+			if (reason == null) {
+				continue;
+			}
+			
+			List<String> labelValues = new ArrayList<>(entry.getKey());
+			labelValues.add(reason);
+			samples.add(new Sample(LIMIT_EXCEEDED_METRIC_NAME, limitExceededLabelNames, labelValues, 1.0));
+		}
+		
+		return new MetricFamilySamples(LIMIT_EXCEEDED_METRIC_NAME, Type.GAUGE, LIMIT_EXCEEDED_HELP, samples);
+	}
+}
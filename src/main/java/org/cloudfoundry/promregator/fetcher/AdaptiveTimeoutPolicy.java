@@ -0,0 +1,81 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.messagebus.InstanceLifecycleListener;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Derives the socket read timeout for fetching metrics from the latency observed for the application so far.
+ * Fast applications thus get a short timeout, such that a hanging instance does not use up the 
+ * scraping time available for all others.
+ * The latency estimate of an application is dropped once all of its instances have been removed.
+ */
+public class AdaptiveTimeoutPolicy implements InstanceLifecycleListener {
+	@Value("${promregator.scraping.adaptiveTimeout.enabled:false}")
+	private boolean enabled;
+	
+	@Value("${promregator.scraping.adaptiveTimeout.factor:3.0}")
+	private double factor;
+	
+	@Value("${promregator.scraping.adaptiveTimeout.minimum:1000}")
+	private int minimum;
+	
+	private static class ApplicationLatency {
+		private final LatencyEstimate latencyEstimate = new LatencyEstimate();
+		
+		/* NB: only accessed within the atomic operations on latencyEstimates */
+		private final Set<String> instanceIds = new HashSet<>();
+	}
+	
+	private final Map<String, ApplicationLatency> latencyEstimates = new ConcurrentHashMap<>();
+	
+	/**
+	 * provides the latency estimate of the application of an instance; creates one, if the application is not known yet.
+	 * Note that latencies are tracked independently whether adaptive timeouts are enabled or not,
+	 * as they are also used for hedging requests (see {@link HedgingPolicy}).
+	 * @param instance the instance to be scraped
+	 * @return the latency estimate, to which the latencies of fetching metrics from the application shall be reported
+	 */
+	public LatencyEstimate getLatencyEstimate(Instance instance) {
+		ApplicationLatency applicationLatency = this.latencyEstimates.compute(instance.getApplicationId(), (applicationId, existing) -> {
+			ApplicationLatency result = existing == null ? new ApplicationLatency() : existing;
+			result.instanceIds.add(instance.getInstanceId());
+			return result;
+		});
+		
+		return applicationLatency.latencyEstimate;
+	}
+	
+	@Override
+	public void instanceRemoved(Instance instance) {
+		this.latencyEstimates.computeIfPresent(instance.getApplicationId(), (applicationId, existing) -> {
+			existing.instanceIds.remove(instance.getInstanceId());
+			
+			// NB: the estimate is kept as long as any other instance of the application is still scraped
+			return existing.instanceIds.isEmpty() ? null : existing;
+		});
+	}
+	
+	/**
+	 * determines the socket read timeout for fetching metrics
+	 * @param latencyEstimate the latency estimate of the application; may be <code>null</code>
+	 * @param maximum the configured socket read timeout in milliseconds, which is never exceeded
+	 * @return the socket read timeout in milliseconds, which shall be used
+	 */
+	public int determineSocketReadTimeout(@Nullable LatencyEstimate latencyEstimate, int maximum) {
+		if (!this.enabled || latencyEstimate == null || !latencyEstimate.isAvailable()) {
+			return maximum;
+		}
+		
+		long timeout = Math.round(this.factor * latencyEstimate.getMean());
+		
+		return (int) Math.min(maximum, Math.max(this.minimum, timeout));
+	}
+}
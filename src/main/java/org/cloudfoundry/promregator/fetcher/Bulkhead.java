@@ -0,0 +1,177 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bulkhead limits the share of the (shared) metrics fetcher pool, which may be used by a group of targets.
+ *
+ * At most <code>maxConcurrency</code> tasks of the bulkhead are running on the underlying executor at the same time.
+ * Further tasks are queued in the bulkhead's own overflow queue and are handed over to the underlying executor
+ * as soon as one of its tasks has completed. If the overflow queue is full as well, further tasks are rejected.
+ * Thus, a group of slow targets may only block its own slice of the threads, but never the whole pool.
+ * If the underlying executor rejects a task, which has been waiting in the overflow queue, the task is
+ * cancelled (provided that it is a {@link Future}), as its submitter cannot be informed otherwise.
+ */
+public class Bulkhead implements Executor {
+	private static final Logger log = LoggerFactory.getLogger(Bulkhead.class);
+
+	/**
+	 * Listener being informed about changes of the utilization of a bulkhead
+	 */
+	public interface Listener {
+		/**
+		 * called whenever the utilization of a bulkhead has changed
+		 * @param bulkhead the bulkhead, whose utilization has changed
+		 * @param running the number of tasks currently running
+		 * @param queued the number of tasks currently waiting in the overflow queue
+		 */
+		void utilizationChanged(Bulkhead bulkhead, int running, int queued);
+		
+		/**
+		 * called whenever a task has been rejected, as the overflow queue of the bulkhead was full
+		 * @param bulkhead the bulkhead, which has rejected the task
+		 */
+		void rejected(Bulkhead bulkhead);
+	}
+
+	private final String name;
+	private final int maxConcurrency;
+	private final int maxQueued;
+	private final Executor delegate;
+	private final Listener listener;
+
+	private final Queue<Runnable> overflowQueue = new ArrayDeque<>();
+	private int running;
+
+	/**
+	 * creates a new bulkhead
+	 * @param name the name of the bulkhead
+	 * @param maxConcurrency the maximal number of tasks, which may run at the same time
+	 * @param maxQueued the maximal number of tasks, which may wait in the overflow queue
+	 * @param delegate the executor on which the tasks are run
+	 * @param listener the listener being informed on changes of the utilization
+	 */
+	public Bulkhead(String name, int maxConcurrency, int maxQueued, Executor delegate, Listener listener) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maxConcurrency must be positive");
+		}
+
+		this.name = name;
+		this.maxConcurrency = maxConcurrency;
+		this.maxQueued = maxQueued;
+		this.delegate = delegate;
+		this.listener = listener;
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		synchronized (this) {
+			if (this.running >= this.maxConcurrency) {
+				if (this.overflowQueue.size() >= this.maxQueued) {
+					this.listener.rejected(this);
+					throw new RejectedExecutionException(String.format("Bulkhead %s is saturated", this.name));
+				}
+
+				this.overflowQueue.add(command);
+				this.notifyUtilizationChanged();
+				return;
+			}
+
+			this.running++;
+			this.notifyUtilizationChanged();
+		}
+
+		this.dispatch(command);
+	}
+
+	private void dispatch(Runnable command) {
+		try {
+			this.delegate.execute(this.wrap(command));
+		} catch (RejectedExecutionException e) {
+			this.dispatchNext();
+			throw e;
+		}
+	}
+
+	private Runnable wrap(Runnable command) {
+		return () -> {
+			try {
+				command.run();
+			} finally {
+				this.dispatchNext();
+			}
+		};
+	}
+
+	private void dispatchNext() {
+		while (true) {
+			Runnable next;
+			synchronized (this) {
+				next = this.overflowQueue.poll();
+				if (next == null) {
+					this.running--;
+				}
+				this.notifyUtilizationChanged();
+			}
+
+			if (next == null) {
+				return;
+			}
+
+			try {
+				this.delegate.execute(this.wrap(next));
+				return;
+			} catch (RejectedExecutionException e) {
+				// NB: nobody would catch the exception here (e.g. if called by a worker having completed its task)
+				this.drop(next, e);
+			}
+		}
+	}
+
+	private void drop(Runnable task, RejectedExecutionException e) {
+		log.warn(String.format("Task queued in bulkhead %s has been rejected by the underlying executor; dropping it", this.name), e);
+
+		if (task instanceof Future) {
+			((Future<?>) task).cancel(false);
+		}
+	}
+
+	private void notifyUtilizationChanged() {
+		this.listener.utilizationChanged(this, this.running, this.overflowQueue.size());
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the maxConcurrency
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * @return the number of tasks currently running
+	 */
+	public synchronized int getRunning() {
+		return running;
+	}
+
+	/**
+	 * @return the number of tasks currently waiting in the overflow queue
+	 */
+	public synchronized int getQueued() {
+		return this.overflowQueue.size();
+	}
+}
@@ -0,0 +1,93 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.cloudfoundry.promregator.scanner.ResolvedTarget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Keeps the {@link Bulkhead}s isolating the scraping of the targets of different orgs (or spaces)
+ * from each other.
+ */
+public class BulkheadRegistry implements Bulkhead.Listener {
+	private static final Logger log = LoggerFactory.getLogger(BulkheadRegistry.class);
+
+	private static final String SCOPE_ORG = "org";
+	private static final String SCOPE_SPACE = "space";
+
+	@Value("${promregator.scraping.bulkhead.enabled:false}")
+	private boolean enabled;
+
+	@Value("${promregator.scraping.bulkhead.scope:org}")
+	private String scope;
+
+	@Value("${promregator.scraping.bulkhead.maxConcurrency:2}")
+	private int maxConcurrency;
+
+	@Value("${promregator.scraping.bulkhead.maxQueued:50}")
+	private int maxQueued;
+
+	@Autowired
+	private ExecutorService metricsFetcherPool;
+
+	@Autowired
+	private InternalMetrics internalMetrics;
+
+	private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void validateScope() {
+		this.scope = this.scope.toLowerCase(Locale.ENGLISH);
+
+		if (!SCOPE_ORG.equals(this.scope) && !SCOPE_SPACE.equals(this.scope)) {
+			log.warn(String.format("Invalid value '%s' for promregator.scraping.bulkhead.scope; using '%s' instead", this.scope, SCOPE_ORG));
+			this.scope = SCOPE_ORG;
+		}
+	}
+
+	/**
+	 * provides the bulkhead of a target; creates one, if the bulkhead is not known yet.
+	 * @param target the target to be scraped
+	 * @return the bulkhead to which fetching the metrics of the target shall be submitted;
+	 * <code>null</code>, if bulkheads are disabled
+	 */
+	@Nullable
+	public Bulkhead getBulkhead(ResolvedTarget target) {
+		if (!this.enabled) {
+			return null;
+		}
+
+		String name = target.getOrgName();
+		if (SCOPE_SPACE.equals(this.scope)) {
+			name = String.format("%s/%s", target.getOrgName(), target.getSpaceName());
+		}
+
+		return this.bulkheads.computeIfAbsent(name, this::createBulkhead);
+	}
+
+	private Bulkhead createBulkhead(String name) {
+		return new Bulkhead(name, this.maxConcurrency, this.maxQueued, this.metricsFetcherPool, this);
+	}
+
+	@Override
+	public void utilizationChanged(Bulkhead bulkhead, int running, int queued) {
+		this.internalMetrics.setBulkheadUtilization(bulkhead.getName(), running, queued, bulkhead.getMaxConcurrency());
+	}
+
+	@Override
+	public void rejected(Bulkhead bulkhead) {
+		log.warn(String.format("The overflow queue of bulkhead %s is full; skipping scraping of a target. "
+				+ "Consider increasing promregator.scraping.bulkhead.maxConcurrency or promregator.scraping.bulkhead.maxQueued", bulkhead.getName()));
+		this.internalMetrics.countBulkheadRejection(bulkhead.getName());
+	}
+}
@@ -0,0 +1,31 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.util.HashMap;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+
+/**
+ * A MetricsFetcher, which shall be run on a {@link Bulkhead} instead of the metrics fetcher pool directly.
+ * Fetching itself is performed by the delegate.
+ */
+public class BulkheadedMetricsFetcher implements MetricsFetcher {
+	private final MetricsFetcher delegate;
+	private final Bulkhead bulkhead;
+
+	public BulkheadedMetricsFetcher(MetricsFetcher delegate, Bulkhead bulkhead) {
+		this.delegate = delegate;
+		this.bulkhead = bulkhead;
+	}
+
+	@Override
+	public HashMap<String, MetricFamilySamples> call() throws Exception {
+		return this.delegate.call();
+	}
+
+	/**
+	 * @return the bulkhead on which the fetcher shall be run
+	 */
+	public Bulkhead getBulkhead() {
+		return bulkhead;
+	}
+}
@@ -1,10 +1,21 @@
 package org.cloudfoundry.promregator.fetcher;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.config.RequestConfig;
@@ -12,18 +23,24 @@ import org.apache.http.client.config.RequestConfig.Builder;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.ContentType;
 import org.apache.http.conn.HttpHostConnectException;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.protocol.HTTP;
 import org.apache.http.util.EntityUtils;
 import org.cloudfoundry.promregator.auth.AuthenticationEnricher;
 import org.cloudfoundry.promregator.endpoint.EndpointConstants;
+import org.cloudfoundry.promregator.openmetrics.OpenMetricsParser;
+import org.cloudfoundry.promregator.protobuf.ProtobufParser;
 import org.cloudfoundry.promregator.rewrite.AbstractMetricFamilySamplesEnricher;
+import org.cloudfoundry.promregator.textformat004.MetricFilter;
 import org.cloudfoundry.promregator.textformat004.Parser;
 
 import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
-import io.prometheus.client.Histogram.Timer;
+import io.prometheus.client.Histogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,9 +53,28 @@ import org.slf4j.LoggerFactory;
  * Callable is the Prometheus metrics data upon success. In case retrieving the data failed, <code>null</code> is returned.
  *
  */
-public class CFMetricsFetcher implements MetricsFetcher {
+public class CFMetricsFetcher implements HedgeableMetricsFetcher {
 	
 	private static final String HTTP_HEADER_CF_APP_INSTANCE = "X-CF-APP-INSTANCE";
+	
+	/**
+	 * the value of the Accept header, if OpenMetrics shall be requested; same as sent by Prometheus itself
+	 */
+	private static final String ACCEPT_OPENMETRICS = "application/openmetrics-text;version=1.0.0,application/openmetrics-text;version=0.0.1;q=0.75,text/plain;version=0.0.4;q=0.5,*/*;q=0.1";
+	
+	/**
+	 * the value of the Accept header, if the protobuf format shall be requested
+	 */
+	private static final String ACCEPT_PROTOBUF = "application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited,text/plain;version=0.0.4;q=0.5,*/*;q=0.1";
+	
+	/**
+	 * the value of the Accept header, if both the protobuf format and OpenMetrics shall be requested; same as sent by Prometheus itself
+	 */
+	private static final String ACCEPT_PROTOBUF_OPENMETRICS = "application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited,application/openmetrics-text;version=1.0.0;q=0.8,application/openmetrics-text;version=0.0.1;q=0.75,text/plain;version=0.0.4;q=0.5,*/*;q=0.1";
+	
+	private static final String MIME_TYPE_OPENMETRICS = "application/openmetrics-text";
+	
+	private static final String MIME_TYPE_PROTOBUF = "application/vnd.google.protobuf";
 
 	private static final Logger log = LoggerFactory.getLogger(CFMetricsFetcher.class);
 	
@@ -49,6 +85,8 @@ public class CFMetricsFetcher implements MetricsFetcher {
 	
 	private Gauge.Child up;
 	
+	private Consumer<String> limitExceededListener;
+	
 	private AbstractMetricFamilySamplesEnricher mfse;
 
 	static final CloseableHttpClient httpclient = HttpClients.createDefault();
@@ -56,6 +94,59 @@ public class CFMetricsFetcher implements MetricsFetcher {
 	private MetricsFetcherMetrics mfm;
 
 	private UUID promregatorUUID;
+	
+	private LatencyEstimate latencyEstimate;
+	
+	private MetricFilter metricFilter;
+	
+	private int maxSamples;
+	private int maxPayloadSize;
+	private int maxSeriesPerFamily;
+	private boolean dropTimestamps;
+	
+	private boolean openMetricsEnabled;
+	private boolean protobufEnabled;
+	
+	private final boolean recordingDeferred;
+	private final List<Runnable> deferredRecordings = new ArrayList<>();
+	
+	private volatile boolean aborted;
+	private volatile HttpGet currentRequest;
+
+	/**
+	 * the document received from the target
+	 */
+	private static class Payload {
+		private final byte[] data;
+		private final Charset charset;
+		private final String mimeType;
+
+		public Payload(byte[] data, Charset charset, String mimeType) {
+			this.data = data;
+			this.charset = charset;
+			this.mimeType = mimeType;
+		}
+
+		public boolean isMimeType(String expectedMimeType) {
+			// NB: the parameters (such as the version) are not relevant for us
+			return expectedMimeType.equals(this.mimeType);
+		}
+
+		public String getText() {
+			return new String(this.data, this.charset);
+		}
+	}
+
+	/**
+	 * thrown while reading the document sent by the target, as soon as it exceeds the maximal payload size
+	 */
+	private static class PayloadTooLargeException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		public PayloadTooLargeException(String message) {
+			super(message);
+		}
+	}
 
 	/**
 	 * creates a new Metrics Fetcher by defining the target endpoint where the metrics can be read, the instance identifier
@@ -73,7 +164,17 @@ public class CFMetricsFetcher implements MetricsFetcher {
 		this.mfm = config.getMetricsFetcherMetrics();
 		
 		this.up = config.getUpChild();
+		this.limitExceededListener = config.getLimitExceededListener();
 		this.promregatorUUID = config.getPromregatorInstanceIdentifier();
+		this.latencyEstimate = config.getLatencyEstimate();
+		this.metricFilter = config.getMetricFilter();
+		this.maxSamples = config.getMaxSamples();
+		this.maxPayloadSize = config.getMaxPayloadSize();
+		this.maxSeriesPerFamily = config.getMaxSeriesPerFamily();
+		this.dropTimestamps = config.isDropTimestamps();
+		this.openMetricsEnabled = config.isOpenMetricsEnabled();
+		this.protobufEnabled = config.isProtobufEnabled();
+		this.recordingDeferred = config.isRecordingDeferred();
 
 		Builder requestConfigBuilder = RequestConfig.custom()
 			.setRedirectsEnabled(true)
@@ -94,20 +195,58 @@ public class CFMetricsFetcher implements MetricsFetcher {
 		log.debug(String.format("Reading metrics from %s for instance %s", this.endpointUrl, this.instanceId));
 		
 		HttpGet httpget = setupRequest();
+		
+		this.currentRequest = httpget;
+		if (this.aborted) {
+			log.debug(String.format("Request reading metrics from %s for instance %s has been aborted before sending it", this.endpointUrl, this.instanceId));
+			return null;
+		}
 
-		String result = performRequest(httpget);
-		if (result == null) {
+		Payload payload = performRequest(httpget);
+		if (payload == null) {
 			return null;
 		}
 		
 		log.debug(String.format("Successfully received metrics from %s for instance %s", this.endpointUrl, this.instanceId));
 		
-		if (this.mfm.getRequestSize() != null) {
-			this.mfm.getRequestSize().observe(result.length());
+		Histogram.Child requestSize = this.mfm.getRequestSize();
+		if (requestSize != null) {
+			this.record(() -> requestSize.observe(payload.data.length));
+		}
+		
+		HashMap<String, MetricFamilySamples> emfs = null;
+		int droppedSamples = 0;
+		String exceededLimit = null;
+		if (payload.isMimeType(MIME_TYPE_PROTOBUF)) {
+			ProtobufParser parser = new ProtobufParser(payload.data, this.metricFilter, this.maxSamples, this.maxSeriesPerFamily, this.dropTimestamps);
+			emfs = parser.parse();
+			droppedSamples = parser.getDroppedSamples();
+			exceededLimit = parser.getExceededLimit();
+		} else if (payload.isMimeType(MIME_TYPE_OPENMETRICS)) {
+			OpenMetricsParser parser = new OpenMetricsParser(payload.getText(), this.metricFilter, this.maxSamples, this.maxSeriesPerFamily, this.dropTimestamps);
+			emfs = parser.parse();
+			droppedSamples = parser.getDroppedSamples();
+			exceededLimit = parser.getExceededLimit();
+		} else {
+			Parser parser = new Parser(payload.getText(), this.metricFilter, this.maxSamples, this.maxSeriesPerFamily, this.dropTimestamps);
+			emfs = parser.parse();
+			droppedSamples = parser.getDroppedSamples();
+			exceededLimit = parser.getExceededLimit();
 		}
 		
-		Parser parser = new Parser(result);
-		HashMap<String, MetricFamilySamples> emfs = parser.parse();
+		Counter.Child droppedSamplesCounter = this.mfm.getDroppedSamples();
+		if (droppedSamples > 0 && droppedSamplesCounter != null) {
+			final int droppedSamplesFinal = droppedSamples;
+			this.record(() -> droppedSamplesCounter.inc(droppedSamplesFinal));
+		}
+		
+		if (exceededLimit != null) {
+			log.warn(String.format("Metrics from %s for instance %s exceed the limit on %s; discarding the incomplete result", 
+					this.endpointUrl, this.instanceId, exceededLimit));
+			this.countLimitExceeded(exceededLimit);
+			this.countSuccessOrFailure(false);
+			return null;
+		}
 		
 		emfs = this.mfse.determineEnumerationOfMetricFamilySamples(emfs);
 		
@@ -124,6 +263,12 @@ public class CFMetricsFetcher implements MetricsFetcher {
 		// see also https://docs.cloudfoundry.org/concepts/http-routing.html
 		httpget.setHeader(HTTP_HEADER_CF_APP_INSTANCE, this.instanceId);
 		
+		if (this.protobufEnabled) {
+			httpget.setHeader(HttpHeaders.ACCEPT, this.openMetricsEnabled ? ACCEPT_PROTOBUF_OPENMETRICS : ACCEPT_PROTOBUF);
+		} else if (this.openMetricsEnabled) {
+			httpget.setHeader(HttpHeaders.ACCEPT, ACCEPT_OPENMETRICS);
+		}
+		
 		// provided for recursive scraping / loopback detection
 		httpget.setHeader(EndpointConstants.HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER, this.promregatorUUID.toString());
 		
@@ -133,17 +278,14 @@ public class CFMetricsFetcher implements MetricsFetcher {
 		return httpget;
 	}
 	
-	private String performRequest(HttpGet httpget) {
+	private Payload performRequest(HttpGet httpget) {
 		CloseableHttpResponse response = null;
 		
-		Timer timer = null;
-		if (this.mfm.getLatencyRequest() != null) {
-			timer = this.mfm.getLatencyRequest().startTimer();
-		}
-		
 		boolean available = false;
 		
-		String result = null;
+		final long startTime = System.nanoTime();
+		
+		Payload result = null;
 		try {
 			response = httpclient.execute(httpget);
 
@@ -152,26 +294,41 @@ public class CFMetricsFetcher implements MetricsFetcher {
 				return null;
 			}
 			
-			result = EntityUtils.toString(response.getEntity());
+			HttpEntity entity = response.getEntity();
+			result = new Payload(this.readPayload(entity), determineCharset(entity), determineMimeType(entity));
 			available = true;
+			
+			this.observeLatency(startTime);
 		} catch (HttpHostConnectException hhce) {
 			log.warn(String.format("Unable to connect to server trying to fetch metrics from %s, instance %s", this.endpointUrl, this.instanceId), hhce);
 			return null;
 		} catch (SocketTimeoutException ste) {
+			// NB: the real latency is unknown, but at least as long as the timeout; this makes adaptive timeouts grow again
+			this.observeLatency(startTime);
 			log.warn(String.format("Read timeout for data from socket while trying to fetch metrics from %s, instance %s", this.endpointUrl, this.instanceId), ste);
 			return null;
 		} catch (ConnectTimeoutException cte) {
 			log.warn(String.format("Timeout while trying to connect to %s, instance %s for fetching metrics", this.endpointUrl, this.instanceId), cte);
 			return null;
+		} catch (PayloadTooLargeException ptle) {
+			log.warn(String.format("Metrics from %s for instance %s exceed the limit on the payload size; aborting: %s", this.endpointUrl, this.instanceId, ptle.getMessage()));
+			this.countLimitExceeded(MetricsFetcherMetrics.LIMIT_PAYLOAD_SIZE);
+			return null;
 		} catch (ClientProtocolException e) {
 			log.warn("Client communication error while fetching metrics from target server", e);
 			return null;
 		} catch (IOException e) {
-			log.warn("IO Exception while fetching metrics from target server", e);
+			if (this.aborted) {
+				log.debug(String.format("Request fetching metrics from %s, instance %s has been aborted", this.endpointUrl, this.instanceId), e);
+			} else {
+				log.warn("IO Exception while fetching metrics from target server", e);
+			}
 			return null;
 		} finally {
-			if (timer != null) {
-				timer.observeDuration();
+			Histogram.Child latencyRequest = this.mfm.getLatencyRequest();
+			if (latencyRequest != null) {
+				final double latencyInSeconds = (System.nanoTime() - startTime) / 1.0E9;
+				this.record(() -> latencyRequest.observe(latencyInSeconds));
 			}
 
 			if (response != null) {
@@ -189,13 +346,120 @@ public class CFMetricsFetcher implements MetricsFetcher {
 		return result;
 	}
 
-	private void countSuccessOrFailure(boolean available) {
-		if (this.up != null) {
-			this.up.set(available ? 1.0 : 0.0);
+	private byte[] readPayload(HttpEntity entity) throws IOException {
+		if (this.maxPayloadSize <= 0) {
+			return EntityUtils.toByteArray(entity);
+		}
+		
+		if (entity.getContentLength() > this.maxPayloadSize) {
+			// NB: no need to read anything at all
+			throw new PayloadTooLargeException(String.format("announced content length %d exceeds %d bytes", entity.getContentLength(), this.maxPayloadSize));
+		}
+		
+		/*
+		 * Read the document chunk by chunk, such that a target sending too much
+		 * data never gets hold of more memory than the limit permits.
+		 */
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.min(this.maxPayloadSize, 64 * 1024));
+		byte[] chunk = new byte[8192];
+		try (InputStream is = entity.getContent()) {
+			int read;
+			while ((read = is.read(chunk)) != -1) {
+				if (buffer.size() + read > this.maxPayloadSize) {
+					throw new PayloadTooLargeException(String.format("content exceeds %d bytes", this.maxPayloadSize));
+				}
+				buffer.write(chunk, 0, read);
+			}
+		}
+		
+		return buffer.toByteArray();
+	}
+
+	private static Charset determineCharset(HttpEntity entity) {
+		Charset charset = null;
+		ContentType contentType = ContentType.get(entity);
+		if (contentType != null) {
+			charset = contentType.getCharset();
+		}
+		if (charset == null) {
+			charset = HTTP.DEF_CONTENT_CHARSET;
+		}
+		return charset;
+	}
+
+	private static String determineMimeType(HttpEntity entity) {
+		Header contentType = entity.getContentType();
+		if (contentType == null || contentType.getValue() == null) {
+			return null;
+		}
+		
+		String mimeType = contentType.getValue();
+		int separator = mimeType.indexOf(';');
+		if (separator != -1) {
+			mimeType = mimeType.substring(0, separator);
 		}
+		return mimeType.trim().toLowerCase(Locale.ENGLISH);
+	}
+
+	@Override
+	public void abort() {
+		this.aborted = true;
 		
-		if (!available && this.mfm.getFailedRequests() != null) {
-			this.mfm.getFailedRequests().inc();
+		HttpGet request = this.currentRequest;
+		if (request != null) {
+			// NB: unlike interrupting the thread, this also unblocks reading from the socket
+			request.abort();
 		}
 	}
+
+	@Override
+	public void recordOutcome() {
+		for (Runnable recording : this.deferredRecordings) {
+			recording.run();
+		}
+		this.deferredRecordings.clear();
+	}
+
+	/**
+	 * records the outcome of the request (e.g. into metrics) either immediately or, 
+	 * if recording is deferred, once {@link #recordOutcome()} is called.
+	 * @param recording the recording to perform
+	 */
+	private void record(Runnable recording) {
+		if (this.recordingDeferred) {
+			this.deferredRecordings.add(recording);
+		} else {
+			recording.run();
+		}
+	}
+
+	private void countLimitExceeded(String reason) {
+		Counter.Child counter = this.mfm.getLimitExceeded(reason);
+		if (counter != null) {
+			this.record(counter::inc);
+		}
+		
+		if (this.limitExceededListener != null) {
+			this.record(() -> this.limitExceededListener.accept(reason));
+		}
+	}
+
+	private void observeLatency(long startTime) {
+		if (this.latencyEstimate != null) {
+			final long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+			this.record(() -> this.latencyEstimate.observe(latency));
+		}
+	}
+
+	private void countSuccessOrFailure(boolean available) {
+		this.record(() -> {
+			if (this.up != null) {
+				this.up.set(available ? 1.0 : 0.0);
+			}
+			
+			if (!available && this.mfm.getFailedRequests() != null) {
+				this.mfm.getFailedRequests().inc();
+			}
+		});
+	}
 }
@@ -1,9 +1,11 @@
 package org.cloudfoundry.promregator.fetcher;
 
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.cloudfoundry.promregator.auth.AuthenticationEnricher;
 import org.cloudfoundry.promregator.rewrite.AbstractMetricFamilySamplesEnricher;
+import org.cloudfoundry.promregator.textformat004.MetricFilter;
 
 import io.prometheus.client.Gauge;
 
@@ -16,15 +18,56 @@ public class CFMetricsFetcherConfig {
 	private int proxyPort;
 	
 	private Gauge.Child upChild;
+	private Consumer<String> limitExceededListener;
 	
 	private UUID promregatorInstanceIdentifier;
 	
 	private int connectionTimeoutInMillis;
 	private int socketReadTimeoutInMillis;
 	
+	private LatencyEstimate latencyEstimate;
+	
+	private MetricFilter metricFilter;
+	
+	private int maxSamples;
+	private int maxPayloadSize;
+	private int maxSeriesPerFamily;
+	private boolean dropTimestamps;
+	
+	private boolean openMetricsEnabled;
+	private boolean protobufEnabled;
+	
+	private boolean recordingDeferred;
+	
 	public CFMetricsFetcherConfig() {
 		super();
 	}
+	
+	/**
+	 * creates a copy of a configuration
+	 * @param source the configuration to copy
+	 */
+	public CFMetricsFetcherConfig(CFMetricsFetcherConfig source) {
+		this.authenticationEnricher = source.authenticationEnricher;
+		this.metricFamilySamplesEnricher = source.metricFamilySamplesEnricher;
+		this.metricsFetcherMetrics = source.metricsFetcherMetrics;
+		this.proxyHost = source.proxyHost;
+		this.proxyPort = source.proxyPort;
+		this.upChild = source.upChild;
+		this.limitExceededListener = source.limitExceededListener;
+		this.promregatorInstanceIdentifier = source.promregatorInstanceIdentifier;
+		this.connectionTimeoutInMillis = source.connectionTimeoutInMillis;
+		this.socketReadTimeoutInMillis = source.socketReadTimeoutInMillis;
+		this.latencyEstimate = source.latencyEstimate;
+		this.metricFilter = source.metricFilter;
+		this.maxSamples = source.maxSamples;
+		this.maxPayloadSize = source.maxPayloadSize;
+		this.maxSeriesPerFamily = source.maxSeriesPerFamily;
+		this.dropTimestamps = source.dropTimestamps;
+		this.openMetricsEnabled = source.openMetricsEnabled;
+		this.protobufEnabled = source.protobufEnabled;
+		this.recordingDeferred = source.recordingDeferred;
+	}
 
 	/**
 	 * @return the authenticationEnricher
@@ -110,6 +153,21 @@ public class CFMetricsFetcherConfig {
 		this.upChild = upChild;
 	}
 
+	/**
+	 * @return the limitExceededListener
+	 */
+	public Consumer<String> getLimitExceededListener() {
+		return limitExceededListener;
+	}
+
+	/**
+	 * @param limitExceededListener the listener to be called with the reason (see <code>Parser.LIMIT_*</code> 
+	 * and {@link MetricsFetcherMetrics#LIMIT_PAYLOAD_SIZE}), if the result was discarded as it exceeded a limit
+	 */
+	public void setLimitExceededListener(Consumer<String> limitExceededListener) {
+		this.limitExceededListener = limitExceededListener;
+	}
+
 	/**
 	 * @return the promregatorInstanceIdentifier
 	 */
@@ -151,6 +209,132 @@ public class CFMetricsFetcherConfig {
 	public void setSocketReadTimeoutInMillis(int socketReadTimeoutInMillis) {
 		this.socketReadTimeoutInMillis = socketReadTimeoutInMillis;
 	}
+
+	/**
+	 * @return the latencyEstimate
+	 */
+	public LatencyEstimate getLatencyEstimate() {
+		return latencyEstimate;
+	}
+
+	/**
+	 * @param latencyEstimate the latencyEstimate to set
+	 */
+	public void setLatencyEstimate(LatencyEstimate latencyEstimate) {
+		this.latencyEstimate = latencyEstimate;
+	}
+
+	/**
+	 * @return the metricFilter
+	 */
+	public MetricFilter getMetricFilter() {
+		return metricFilter;
+	}
+
+	/**
+	 * @param metricFilter the metricFilter to set
+	 */
+	public void setMetricFilter(MetricFilter metricFilter) {
+		this.metricFilter = metricFilter;
+	}
+
+	/**
+	 * @return the maxSamples
+	 */
+	public int getMaxSamples() {
+		return maxSamples;
+	}
+
+	/**
+	 * @param maxSamples the maxSamples to set
+	 */
+	public void setMaxSamples(int maxSamples) {
+		this.maxSamples = maxSamples;
+	}
+
+	/**
+	 * @return the maxPayloadSize
+	 */
+	public int getMaxPayloadSize() {
+		return maxPayloadSize;
+	}
+
+	/**
+	 * @param maxPayloadSize the maxPayloadSize to set
+	 */
+	public void setMaxPayloadSize(int maxPayloadSize) {
+		this.maxPayloadSize = maxPayloadSize;
+	}
+
+	/**
+	 * @return the maxSeriesPerFamily
+	 */
+	public int getMaxSeriesPerFamily() {
+		return maxSeriesPerFamily;
+	}
+
+	/**
+	 * @param maxSeriesPerFamily the maxSeriesPerFamily to set
+	 */
+	public void setMaxSeriesPerFamily(int maxSeriesPerFamily) {
+		this.maxSeriesPerFamily = maxSeriesPerFamily;
+	}
+
+	/**
+	 * @return the dropTimestamps
+	 */
+	public boolean isDropTimestamps() {
+		return dropTimestamps;
+	}
+
+	/**
+	 * @param dropTimestamps the dropTimestamps to set
+	 */
+	public void setDropTimestamps(boolean dropTimestamps) {
+		this.dropTimestamps = dropTimestamps;
+	}
+
+	/**
+	 * @return the openMetricsEnabled
+	 */
+	public boolean isOpenMetricsEnabled() {
+		return openMetricsEnabled;
+	}
+
+	/**
+	 * @param openMetricsEnabled the openMetricsEnabled to set
+	 */
+	public void setOpenMetricsEnabled(boolean openMetricsEnabled) {
+		this.openMetricsEnabled = openMetricsEnabled;
+	}
+
+	/**
+	 * @return the protobufEnabled
+	 */
+	public boolean isProtobufEnabled() {
+		return protobufEnabled;
+	}
+
+	/**
+	 * @param protobufEnabled the protobufEnabled to set
+	 */
+	public void setProtobufEnabled(boolean protobufEnabled) {
+		this.protobufEnabled = protobufEnabled;
+	}
+
+	/**
+	 * @return the recordingDeferred
+	 */
+	public boolean isRecordingDeferred() {
+		return recordingDeferred;
+	}
+
+	/**
+	 * @param recordingDeferred the recordingDeferred to set
+	 */
+	public void setRecordingDeferred(boolean recordingDeferred) {
+		this.recordingDeferred = recordingDeferred;
+	}
 	
 	
 }
@@ -0,0 +1,123 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.BiConsumer;
+
+/**
+ * A circuit breaker guarding the scraping of a single instance.
+ *
+ * While the breaker is closed, all scraping attempts are permitted. After a given number of consecutive
+ * failures (including timeouts), the breaker opens and rejects all scraping attempts for a cool-down period.
+ * Afterwards, it is half-open: a single probe is permitted. If the probe succeeds, the breaker
+ * closes again; if it fails, the breaker opens for another cool-down period.
+ */
+public class CircuitBreaker {
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final int failureThreshold;
+	private final Duration coolDown;
+	private final Clock clock;
+	private final BiConsumer<State, State> transitionListener;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+
+	/**
+	 * the point in time when the breaker has been opened respectively the probe has been started
+	 */
+	private Instant stateSince;
+
+	/**
+	 * creates a new (closed) circuit breaker
+	 * @param failureThreshold the number of consecutive failures after which the breaker opens
+	 * @param coolDown the time for which the breaker stays open
+	 * @param clock the clock to use
+	 * @param transitionListener called on each change of the state with the old and the new state
+	 */
+	public CircuitBreaker(int failureThreshold, Duration coolDown, Clock clock, BiConsumer<State, State> transitionListener) {
+		if (failureThreshold < 1) {
+			throw new IllegalArgumentException("failureThreshold must be positive");
+		}
+
+		this.failureThreshold = failureThreshold;
+		this.coolDown = coolDown;
+		this.clock = clock;
+		this.transitionListener = transitionListener;
+	}
+
+	/**
+	 * checks whether a scraping attempt is permitted. If <code>true</code> is returned,
+	 * the caller must report the outcome of the attempt using {@link #recordSuccess()} or {@link #recordFailure()}.
+	 * @return <code>true</code>, if scraping may be performed; <code>false</code>, if it shall be skipped
+	 */
+	public synchronized boolean tryAcquire() {
+		switch (this.state) {
+		case CLOSED:
+			return true;
+		case OPEN:
+			if (this.isCoolDownPending()) {
+				return false;
+			}
+
+			// permit a single probe
+			this.transitionTo(State.HALF_OPEN);
+			return true;
+		case HALF_OPEN:
+		default:
+			if (this.isCoolDownPending()) {
+				// the probe still is running
+				return false;
+			}
+
+			// the probe has not reported back in time; permit another one
+			this.stateSince = Instant.now(this.clock);
+			return true;
+		}
+	}
+
+	private boolean isCoolDownPending() {
+		return Instant.now(this.clock).isBefore(this.stateSince.plus(this.coolDown));
+	}
+
+	/**
+	 * reports that a scraping attempt has succeeded
+	 */
+	public synchronized void recordSuccess() {
+		this.consecutiveFailures = 0;
+
+		if (this.state != State.CLOSED) {
+			this.transitionTo(State.CLOSED);
+		}
+	}
+
+	/**
+	 * reports that a scraping attempt has failed (or has timed out)
+	 */
+	public synchronized void recordFailure() {
+		this.consecutiveFailures++;
+
+		if (this.state == State.HALF_OPEN || this.state == State.CLOSED && this.consecutiveFailures >= this.failureThreshold) {
+			this.transitionTo(State.OPEN);
+		}
+	}
+
+	private void transitionTo(State newState) {
+		State oldState = this.state;
+
+		this.state = newState;
+		this.stateSince = Instant.now(this.clock);
+
+		this.transitionListener.accept(oldState, newState);
+	}
+
+	/**
+	 * @return the state
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+}
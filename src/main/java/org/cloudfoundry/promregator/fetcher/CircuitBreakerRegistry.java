@@ -0,0 +1,79 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.fetcher.CircuitBreaker.State;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.cloudfoundry.promregator.messagebus.InstanceLifecycleListener;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Keeps the {@link CircuitBreaker}s of all instances being scraped.
+ * The circuit breaker of an instance is dropped once the instance has been removed.
+ */
+public class CircuitBreakerRegistry implements InstanceLifecycleListener {
+	private static final Logger log = LoggerFactory.getLogger(CircuitBreakerRegistry.class);
+	
+	@Value("${promregator.scraping.circuitBreaker.enabled:false}")
+	private boolean enabled;
+	
+	@Value("${promregator.scraping.circuitBreaker.failureThreshold:3}")
+	private int failureThreshold;
+	
+	@Value("${promregator.scraping.circuitBreaker.coolDown:60}")
+	private int coolDown;
+	
+	@Autowired
+	private InternalMetrics internalMetrics;
+	
+	@Autowired
+	private Clock clock;
+	
+	private final Map<Instance, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+	
+	/**
+	 * provides the circuit breaker of an instance; creates one, if the instance is not known yet.
+	 * @param instance the instance to be scraped
+	 * @return the circuit breaker of the instance; <code>null</code>, if circuit breaking is disabled
+	 */
+	@Nullable
+	public CircuitBreaker getCircuitBreaker(Instance instance) {
+		if (!this.enabled) {
+			return null;
+		}
+		
+		return this.circuitBreakers.computeIfAbsent(instance, this::createCircuitBreaker);
+	}
+	
+	private CircuitBreaker createCircuitBreaker(Instance instance) {
+		this.internalMetrics.changeCircuitBreakerState(null, State.CLOSED.name());
+		
+		return new CircuitBreaker(this.failureThreshold, Duration.ofSeconds(this.coolDown), this.clock, (oldState, newState) -> {
+			if (newState == State.OPEN) {
+				log.warn(String.format("Scraping instance %s failed repeatedly; skipping it for the next %d seconds", instance, this.coolDown));
+			} else if (newState == State.CLOSED) {
+				log.info(String.format("Scraping instance %s succeeded again", instance));
+			}
+			
+			this.internalMetrics.changeCircuitBreakerState(oldState.name(), newState.name());
+		});
+	}
+	
+	@Override
+	public void instanceRemoved(Instance instance) {
+		CircuitBreaker circuitBreaker = this.circuitBreakers.remove(instance);
+		
+		if (circuitBreaker != null) {
+			this.internalMetrics.changeCircuitBreakerState(circuitBreaker.getState().name(), null);
+		}
+	}
+}
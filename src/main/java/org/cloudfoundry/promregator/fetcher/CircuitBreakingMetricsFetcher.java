@@ -0,0 +1,38 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.util.HashMap;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+
+/**
+ * A MetricsFetcher reporting the outcome of another MetricsFetcher to a {@link CircuitBreaker}.
+ * Fetching is considered failed, if the fetcher throws an exception or does not return any data.
+ */
+public class CircuitBreakingMetricsFetcher implements MetricsFetcher {
+	private final MetricsFetcher delegate;
+	private final CircuitBreaker circuitBreaker;
+	
+	public CircuitBreakingMetricsFetcher(MetricsFetcher delegate, CircuitBreaker circuitBreaker) {
+		this.delegate = delegate;
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	@Override
+	public HashMap<String, MetricFamilySamples> call() throws Exception {
+		HashMap<String, MetricFamilySamples> result;
+		try {
+			result = this.delegate.call();
+		} catch (Exception e) {
+			this.circuitBreaker.recordFailure();
+			throw e;
+		}
+		
+		if (result == null) {
+			this.circuitBreaker.recordFailure();
+		} else {
+			this.circuitBreaker.recordSuccess();
+		}
+		
+		return result;
+	}
+}
@@ -0,0 +1,22 @@
+package org.cloudfoundry.promregator.fetcher;
+
+/**
+ * A MetricsFetcher, which may take part in hedged requests (see {@link HedgedMetricsFetcher}).
+ * 
+ * Its request may be aborted, once the other request has provided the result. Moreover, the outcome of the request
+ * (e.g. its latency or its failure) may be recorded only on demand, such that only the request providing the result
+ * is taken into account.
+ */
+public interface HedgeableMetricsFetcher extends MetricsFetcher {
+	/**
+	 * aborts the request, if it is still in progress; a request, which has not been started yet, is not sent at all.
+	 * The method may be called from any thread.
+	 */
+	void abort();
+	
+	/**
+	 * records the outcome of the request, if recording has been deferred.
+	 * The method must be called on the same thread which has called {@link #call()} before.
+	 */
+	void recordOutcome();
+}
@@ -0,0 +1,127 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Gauge;
+
+/**
+ * A MetricsFetcher, which sends a duplicate ("hedged") request to the same instance, if the original request
+ * has not completed within the given delay. Whichever request succeeds first provides the result.
+ *
+ * As both requests may complete (or fail) independently, the <code>up</code> metric is not set by the
+ * fetchers performing the requests, but only by this class once the result has been determined. Likewise, only the
+ * outcome of the request providing the result is recorded; the other request is aborted.
+ * 
+ * The original request is performed on the calling thread, such that it remains subject to the limits of the caller
+ * (e.g. of a {@link Bulkhead}). Only the hedged request is performed asynchronously (see {@link HedgingPolicy}).
+ */
+public class HedgedMetricsFetcher implements MetricsFetcher {
+	private static final Logger log = LoggerFactory.getLogger(HedgedMetricsFetcher.class);
+
+	private final HedgeableMetricsFetcher original;
+	private final HedgeableMetricsFetcher hedge;
+	private final long hedgeDelayInMillis;
+	private final Gauge.Child up;
+	private final HedgingPolicy hedgingPolicy;
+
+	/**
+	 * creates a new hedging MetricsFetcher
+	 * @param original the fetcher performing the original request; it shall defer recording the outcome of its request
+	 * @param hedge the fetcher performing the hedged request; it must address the same instance as <code>original</code>
+	 * and shall defer recording the outcome of its request
+	 * @param hedgeDelayInMillis the time in milliseconds after which the hedged request is sent
+	 * @param up the child of the <code>up</code> metric of the instance; may be <code>null</code>
+	 * @param hedgingPolicy the policy limiting the number of hedged requests
+	 */
+	public HedgedMetricsFetcher(HedgeableMetricsFetcher original, HedgeableMetricsFetcher hedge, long hedgeDelayInMillis, Gauge.Child up, HedgingPolicy hedgingPolicy) {
+		this.original = original;
+		this.hedge = hedge;
+		this.hedgeDelayInMillis = hedgeDelayInMillis;
+		this.up = up;
+		this.hedgingPolicy = hedgingPolicy;
+	}
+
+	@Override
+	public HashMap<String, MetricFamilySamples> call() throws Exception {
+		this.hedgingPolicy.recordFetch();
+
+		final CompletableFuture<HashMap<String, MetricFamilySamples>> result = new CompletableFuture<>();
+		final AtomicInteger pendingRequests = new AtomicInteger(1);
+
+		ScheduledFuture<?> hedgeTrigger = this.hedgingPolicy.scheduleHedge(() -> this.sendHedge(result, pendingRequests), this.hedgeDelayInMillis);
+
+		try {
+			this.perform(this.original, this.hedge, false, result, pendingRequests);
+			hedgeTrigger.cancel(false);
+
+			// NB: if the original request has failed, a hedged request may still be in progress
+			return this.determineResult(result.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw e;
+		} finally {
+			hedgeTrigger.cancel(false);
+			this.hedge.abort();
+		}
+	}
+
+	private void sendHedge(CompletableFuture<HashMap<String, MetricFamilySamples>> result, AtomicInteger pendingRequests) {
+		if (result.isDone()) {
+			// the original request has completed in the meantime
+			return;
+		}
+
+		pendingRequests.incrementAndGet();
+		boolean sent = this.hedgingPolicy.trySendHedge(() -> this.perform(this.hedge, this.original, true, result, pendingRequests));
+		if (!sent && pendingRequests.decrementAndGet() == 0) {
+			// the original request has failed in the meantime
+			result.complete(null);
+		}
+	}
+
+	private void perform(HedgeableMetricsFetcher fetcher, HedgeableMetricsFetcher other, boolean isHedge, 
+			CompletableFuture<HashMap<String, MetricFamilySamples>> result, AtomicInteger pendingRequests) {
+		HashMap<String, MetricFamilySamples> emfs = null;
+		try {
+			emfs = fetcher.call();
+		} catch (Exception e) {
+			if (result.isDone()) {
+				// the request has been aborted, as the other one has already provided the result
+				log.debug(String.format("Request fetching metrics has been aborted (hedged request: %s)", isHedge), e);
+			} else {
+				log.warn(String.format("Exception while fetching metrics (hedged request: %s)", isHedge), e);
+			}
+		}
+
+		if (emfs != null) {
+			if (result.complete(emfs)) {
+				fetcher.recordOutcome();
+
+				// NB: the request which has lost the race is not needed anymore
+				other.abort();
+
+				if (isHedge) {
+					this.hedgingPolicy.recordHedgeWon();
+				}
+			}
+		} else if (pendingRequests.decrementAndGet() == 0 && result.complete(null)) {
+			// all requests have failed; the failure is recorded only once
+			fetcher.recordOutcome();
+		}
+	}
+
+	private HashMap<String, MetricFamilySamples> determineResult(HashMap<String, MetricFamilySamples> emfs) {
+		if (this.up != null) {
+			this.up.set(emfs != null ? 1.0 : 0.0);
+		}
+
+		return emfs;
+	}
+}
@@ -0,0 +1,166 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Decides whether and when a duplicate ("hedged") request is sent to an instance, if fetching its metrics
+ * takes longer than usual for its application.
+ *
+ * The number of hedged requests is limited by a budget: each fetch adds <code>maxRatio</code> to the budget
+ * (up to a fixed capacity), whilst each hedged request consumes one unit of it. Thus, hedging does not
+ * multiply the load on the targets, if many of them are slow at the same time.
+ * 
+ * Original requests are performed by the threads of the callers; only the hedged requests are performed
+ * by a pool of threads, whose size is bounded by the capacity of the budget.
+ */
+public class HedgingPolicy {
+	/**
+	 * the maximal number of hedged requests, which may be sent in a burst
+	 */
+	private static final double BUDGET_CAPACITY = 10.0;
+
+	/**
+	 * the maximal number of hedged requests, which may be in progress at the same time
+	 */
+	private static final int MAX_CONCURRENT_HEDGES = (int) BUDGET_CAPACITY;
+
+	/**
+	 * the minimal delay before a hedged request is sent; prevents hedging of requests to very fast applications
+	 */
+	private static final long MINIMAL_HEDGE_DELAY_IN_MILLIS = 10;
+
+	@Value("${promregator.scraping.hedging.enabled:false}")
+	private boolean enabled;
+
+	@Value("${promregator.scraping.hedging.maxRatio:0.1}")
+	private double maxRatio;
+
+	@Autowired
+	private InternalMetrics internalMetrics;
+
+	private double budget = BUDGET_CAPACITY;
+
+	private final ThreadPoolExecutor hedgingExecutor = new ThreadPoolExecutor(0, MAX_CONCURRENT_HEDGES, 60L, TimeUnit.SECONDS, 
+			new SynchronousQueue<>(), new HedgingThreadFactory("promregator-hedging-%d"));
+
+	private final ScheduledThreadPoolExecutor hedgingTimer = new ScheduledThreadPoolExecutor(1, new HedgingThreadFactory("promregator-hedging-timer-%d"));
+
+	private static class HedgingThreadFactory implements ThreadFactory {
+		private final String nameFormat;
+		private final AtomicInteger threadNumber = new AtomicInteger(0);
+
+		public HedgingThreadFactory(String nameFormat) {
+			this.nameFormat = nameFormat;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, String.format(this.nameFormat, this.threadNumber.incrementAndGet()));
+			t.setDaemon(true);
+			return t;
+		}
+	}
+
+	public HedgingPolicy() {
+		// NB: most original requests complete in time; their triggers shall not pile up in the queue of the timer
+		this.hedgingTimer.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * determines after which time a hedged request shall be sent
+	 * @param latencyEstimate the latency estimate of the application; may be <code>null</code>
+	 * @return the delay in milliseconds after which a hedged request shall be sent, if the original one has not completed yet;
+	 * <code>null</code>, if no hedged request shall be sent at all (hedging is disabled or no latency has been observed yet)
+	 */
+	@Nullable
+	public Long determineHedgeDelay(@Nullable LatencyEstimate latencyEstimate) {
+		if (!this.enabled || latencyEstimate == null || !latencyEstimate.isAvailable()) {
+			return null;
+		}
+
+		return Math.max(MINIMAL_HEDGE_DELAY_IN_MILLIS, Math.round(latencyEstimate.getTailLatency()));
+	}
+
+	/**
+	 * reports that a fetch is about to start, which might be hedged; this replenishes the budget for hedged requests
+	 */
+	public synchronized void recordFetch() {
+		this.budget = Math.min(BUDGET_CAPACITY, this.budget + this.maxRatio);
+	}
+
+	/**
+	 * checks whether the budget permits sending another hedged request. If so, the budget is consumed accordingly.
+	 * @return <code>true</code>, if a hedged request may be sent; <code>false</code> otherwise
+	 */
+	public synchronized boolean tryAcquireHedge() {
+		if (this.budget < 1.0) {
+			return false;
+		}
+
+		this.budget -= 1.0;
+		return true;
+	}
+
+	private synchronized void releaseHedge() {
+		this.budget = Math.min(BUDGET_CAPACITY, this.budget + 1.0);
+	}
+
+	/**
+	 * schedules the trigger, which decides whether a hedged request is sent
+	 * @param hedgeTrigger the trigger to run
+	 * @param hedgeDelayInMillis the delay in milliseconds after which the trigger shall run
+	 * @return the future of the trigger, which shall be cancelled once the original request has completed
+	 */
+	public ScheduledFuture<?> scheduleHedge(Runnable hedgeTrigger, long hedgeDelayInMillis) {
+		return this.hedgingTimer.schedule(hedgeTrigger, hedgeDelayInMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * sends a hedged request asynchronously, if both the budget and the pool of threads for hedged requests permit it
+	 * @param hedgedRequest the hedged request to perform
+	 * @return <code>true</code>, if the hedged request has been sent; <code>false</code> otherwise
+	 */
+	public boolean trySendHedge(Runnable hedgedRequest) {
+		if (!this.tryAcquireHedge()) {
+			return false;
+		}
+
+		try {
+			this.hedgingExecutor.execute(hedgedRequest);
+		} catch (RejectedExecutionException e) {
+			// NB: all threads are busy with hedged requests already; hedging is only an optimization
+			this.releaseHedge();
+			return false;
+		}
+
+		this.internalMetrics.countHedgedRequestIssued();
+		return true;
+	}
+
+	/**
+	 * reports that a hedged request has provided the response before the original request did
+	 */
+	public void recordHedgeWon() {
+		this.internalMetrics.countHedgedRequestWon();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.hedgingTimer.shutdownNow();
+		this.hedgingExecutor.shutdownNow();
+	}
+}
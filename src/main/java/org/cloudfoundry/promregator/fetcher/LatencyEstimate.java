@@ -0,0 +1,67 @@
+package org.cloudfoundry.promregator.fetcher;
+
+/**
+ * A running estimate of the latency of fetching metrics from an application.
+ * It consists of the smoothed mean latency and the smoothed mean deviation from it,
+ * both being exponentially weighted moving averages (in analogy to the round-trip time
+ * estimation of TCP, see RFC 6298).
+ */
+public class LatencyEstimate {
+	/**
+	 * weight of a new observation for the mean
+	 */
+	private static final double ALPHA = 0.125;
+	
+	/**
+	 * weight of a new observation for the deviation
+	 */
+	private static final double BETA = 0.25;
+	
+	private double mean = Double.NaN;
+	private double deviation;
+	
+	/**
+	 * records the latency of a single request
+	 * @param latencyInMillis the latency observed in milliseconds
+	 */
+	public synchronized void observe(long latencyInMillis) {
+		if (Double.isNaN(this.mean)) {
+			this.mean = latencyInMillis;
+			this.deviation = latencyInMillis / 2.0;
+			return;
+		}
+		
+		this.deviation = (1 - BETA) * this.deviation + BETA * Math.abs(this.mean - latencyInMillis);
+		this.mean = (1 - ALPHA) * this.mean + ALPHA * latencyInMillis;
+	}
+	
+	/**
+	 * @return <code>true</code>, if at least one latency has been observed
+	 */
+	public synchronized boolean isAvailable() {
+		return !Double.isNaN(this.mean);
+	}
+	
+	/**
+	 * @return the smoothed mean latency in milliseconds; <code>NaN</code>, if nothing has been observed yet
+	 */
+	public synchronized double getMean() {
+		return this.mean;
+	}
+	
+	/**
+	 * @return an approximation of the 95th percentile of the latency in milliseconds, assuming roughly
+	 * normally distributed latencies; <code>NaN</code>, if nothing has been observed yet
+	 */
+	public synchronized double getTailLatency() {
+		// NB: the mean deviation is about 0.8 standard deviations; the 95th percentile is about 1.65 standard deviations above the mean
+		return this.mean + 2 * this.deviation;
+	}
+	
+	/**
+	 * @return the smoothed mean deviation of the latency in milliseconds
+	 */
+	public synchronized double getDeviation() {
+		return this.deviation;
+	}
+}
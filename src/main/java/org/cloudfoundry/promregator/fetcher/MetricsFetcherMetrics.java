@@ -1,6 +1,9 @@
 package org.cloudfoundry.promregator.fetcher;
 
+import java.util.Arrays;
+
 import org.cloudfoundry.promregator.rewrite.CFAllLabelsMetricFamilySamplesEnricher;
+import org.cloudfoundry.promregator.textformat004.Parser;
 
 import io.prometheus.client.Counter;
 import io.prometheus.client.Histogram;
@@ -26,6 +29,21 @@ public class MetricsFetcherMetrics {
 			.exponentialBuckets(100, 1.5, 16)
 			.register();
 
+	private static Counter droppedSamples = Counter.build("promregator_request_samples_dropped", "The number of samples, which the scraped targets sent to promregator, but which were dropped due to the filter rules of the target")
+			.labelNames(CFAllLabelsMetricFamilySamplesEnricher.getEnrichingLabelNames())
+			.register();
+
+	/**
+	 * the reason label value of <code>promregator_request_limit_exceeded</code>, if the document sent was too large
+	 */
+	public static final String LIMIT_PAYLOAD_SIZE = "payload_size";
+	
+	private static final String[] LIMIT_REASONS = { LIMIT_PAYLOAD_SIZE, Parser.LIMIT_SAMPLES, Parser.LIMIT_SERIES_PER_FAMILY };
+	
+	private static Counter limitExceeded = Counter.build("promregator_request_limit_exceeded", "The number of scrapes, which were aborted, as the scraped target exceeded one of the limits configured for it")
+			.labelNames(appendLabelName(CFAllLabelsMetricFamilySamplesEnricher.getEnrichingLabelNames(), "reason"))
+			.register();
+
 	private String[] ownTelemetryLabels;
 
 	public MetricsFetcherMetrics(String[] ownTelemetryLabels, boolean requestLatencyEnabled) {
@@ -63,6 +81,30 @@ public class MetricsFetcherMetrics {
 		return requestSize.labels(this.ownTelemetryLabels);
 	}
 	
+	private static String[] appendLabelName(String[] labelNames, String labelName) {
+		String[] result = Arrays.copyOf(labelNames, labelNames.length + 1);
+		result[labelNames.length] = labelName;
+		return result;
+	}
+	
+	public Counter.Child getDroppedSamples() {
+		if (droppedSamples == null)
+			return null;
+		
+		return droppedSamples.labels(this.ownTelemetryLabels);
+	}
+	
+	/**
+	 * @param reason the limit, which was exceeded
+	 * @return the counter of scrapes aborted due to the limit provided
+	 */
+	public Counter.Child getLimitExceeded(String reason) {
+		if (limitExceeded == null)
+			return null;
+		
+		return limitExceeded.labels(appendLabelName(this.ownTelemetryLabels, reason));
+	}
+	
 	
 	/**
 	 * deregisters the samples from the (global) CollectorRegistry
@@ -78,5 +120,9 @@ public class MetricsFetcherMetrics {
 		requestLatency.remove(this.ownTelemetryLabels);
 		failedRequests.remove(this.ownTelemetryLabels);
 		requestSize.remove(this.ownTelemetryLabels);
+		droppedSamples.remove(this.ownTelemetryLabels);
+		for (String reason : LIMIT_REASONS) {
+			limitExceeded.remove(appendLabelName(this.ownTelemetryLabels, reason));
+		}
 	}
 }
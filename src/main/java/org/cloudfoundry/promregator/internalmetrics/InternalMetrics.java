@@ -2,10 +2,13 @@ package org.cloudfoundry.promregator.internalmetrics;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 
+import org.cloudfoundry.promregator.textformat004.LabelDictionary;
 import org.springframework.beans.factory.annotation.Value;
 
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
@@ -22,6 +25,7 @@ import io.prometheus.client.cache.caffeine.CacheMetricsCollector;
 
 public class InternalMetrics {
 	private static final String CACHE_MAP_NAME = "cache_map_name";
+	private static final String BULKHEAD = "bulkhead";
 
 	@Value("${promregator.metrics.internal:false}")
 	private boolean enabled;
@@ -42,9 +46,24 @@ public class InternalMetrics {
 	private Histogram rateLimitWaitTime;
 	private AtomicInteger rateLimitQueueSize = new AtomicInteger(0);
 	
+	private Gauge circuitBreakers;
+	private Counter circuitBreakerRejections;
+	
+	private Counter hedgedRequestsIssued;
+	private Counter hedgedRequestsWon;
+	
+	private Gauge bulkheadRunning;
+	private Gauge bulkheadQueued;
+	private Gauge bulkheadSaturation;
+	private Counter bulkheadRejections;
+	
+	private Counter memoryBudgetDrops;
+	
 	private class InternalCollector extends Collector {
 
 		private static final String PROMREGATOR_CFFETCH_RATELIMIT_QUEUE_SIZE = "promregator_cffetch_ratelimit_queue_size";
+		private static final String PROMREGATOR_LABEL_DICTIONARY_LOOKUPS = "promregator_label_dictionary_lookups";
+		private static final String PROMREGATOR_LABEL_DICTIONARY_SIZE = "promregator_label_dictionary_size";
 
 		@Override
 		public List<MetricFamilySamples> collect() {
@@ -54,7 +73,20 @@ public class InternalMetrics {
 			MetricFamilySamples queueSizeMFS = new MetricFamilySamples(PROMREGATOR_CFFETCH_RATELIMIT_QUEUE_SIZE, Type.GAUGE, 
 					"The number of CFCC requests being throttled by rate limiting", Lists.newArrayList(queueSize));
 			
-			return Lists.newArrayList(queueSizeMFS);
+			LabelDictionary labelDictionary = LabelDictionary.getShared();
+			
+			Sample lookupHits = new Sample(PROMREGATOR_LABEL_DICTIONARY_LOOKUPS, Lists.newArrayList("result"), Lists.newArrayList("hit"), labelDictionary.getHits());
+			Sample lookupMisses = new Sample(PROMREGATOR_LABEL_DICTIONARY_LOOKUPS, Lists.newArrayList("result"), Lists.newArrayList("miss"), labelDictionary.getMisses());
+			
+			MetricFamilySamples lookupsMFS = new MetricFamilySamples(PROMREGATOR_LABEL_DICTIONARY_LOOKUPS, Type.COUNTER, 
+					"The number of lookups of label names and values in the label dictionary by their result", Lists.newArrayList(lookupHits, lookupMisses));
+			
+			Sample dictionarySize = new Sample(PROMREGATOR_LABEL_DICTIONARY_SIZE, new ArrayList<>(), new ArrayList<>(), labelDictionary.size());
+			
+			MetricFamilySamples dictionarySizeMFS = new MetricFamilySamples(PROMREGATOR_LABEL_DICTIONARY_SIZE, Type.GAUGE, 
+					"The number of label names and values currently stored in the label dictionary", Lists.newArrayList(dictionarySize));
+			
+			return Lists.newArrayList(queueSizeMFS, lookupsMFS, dictionarySizeMFS);
 		}
 		
 	}
@@ -93,6 +125,33 @@ public class InternalMetrics {
 		this.rateLimitWaitTime = Histogram.build("promregator_cffetch_ratelimit_waittime", "Wait time due to CFCC rate limiting")
 				.labelNames("request_type").linearBuckets(0.0, 0.05, 50).register();
 		
+		this.circuitBreakers = Gauge.build("promregator_circuitbreakers", "The number of circuit breakers of scraped instances by their state")
+				.labelNames("state").register();
+		
+		this.circuitBreakerRejections = Counter.build("promregator_circuitbreaker_rejected", "The number of scraping attempts skipped due to an open circuit breaker")
+				.register();
+		
+		this.hedgedRequestsIssued = Counter.build("promregator_hedged_requests_issued", "The number of hedged requests sent to instances, which were slower than usual")
+				.register();
+		
+		this.hedgedRequestsWon = Counter.build("promregator_hedged_requests_won", "The number of hedged requests, which provided the response before the original request did")
+				.register();
+		
+		this.bulkheadRunning = Gauge.build("promregator_bulkhead_running", "The number of scraping requests currently running in a bulkhead")
+				.labelNames(BULKHEAD).register();
+		
+		this.bulkheadQueued = Gauge.build("promregator_bulkhead_queued", "The number of scraping requests currently waiting in the overflow queue of a bulkhead")
+				.labelNames(BULKHEAD).register();
+		
+		this.bulkheadSaturation = Gauge.build("promregator_bulkhead_saturation", "The ratio of the scraping requests running in a bulkhead to its maximal concurrency")
+				.labelNames(BULKHEAD).register();
+		
+		this.bulkheadRejections = Counter.build("promregator_bulkhead_rejected", "The number of scraping requests rejected, as the overflow queue of a bulkhead was full")
+				.labelNames(BULKHEAD).register();
+		
+		this.memoryBudgetDrops = Counter.build("promregator_memory_budget_dropped", "The number of scraping results of instances dropped, as they exceeded the memory budget of the scraping request")
+				.register();
+		
 		CollectorRegistry.defaultRegistry.register(new InternalCollector());
 	}
 
@@ -181,5 +240,62 @@ public class InternalMetrics {
 
 		this.rateLimitQueueSize.decrementAndGet();
 	}
+	
+	public void changeCircuitBreakerState(@Nullable String oldState, @Nullable String newState) {
+		if (!this.enabled)
+			return;
+		
+		if (oldState != null) {
+			this.circuitBreakers.labels(oldState.toLowerCase(Locale.ENGLISH)).dec();
+		}
+		
+		if (newState != null) {
+			this.circuitBreakers.labels(newState.toLowerCase(Locale.ENGLISH)).inc();
+		}
+	}
+	
+	public void countCircuitBreakerRejection() {
+		if (!this.enabled)
+			return;
+		
+		this.circuitBreakerRejections.inc();
+	}
+	
+	public void countHedgedRequestIssued() {
+		if (!this.enabled)
+			return;
+		
+		this.hedgedRequestsIssued.inc();
+	}
+	
+	public void countHedgedRequestWon() {
+		if (!this.enabled)
+			return;
+		
+		this.hedgedRequestsWon.inc();
+	}
+	
+	public void setBulkheadUtilization(String bulkhead, int running, int queued, int maxConcurrency) {
+		if (!this.enabled)
+			return;
+		
+		this.bulkheadRunning.labels(bulkhead).set(running);
+		this.bulkheadQueued.labels(bulkhead).set(queued);
+		this.bulkheadSaturation.labels(bulkhead).set((double) running / maxConcurrency);
+	}
+	
+	public void countBulkheadRejection(String bulkhead) {
+		if (!this.enabled)
+			return;
+		
+		this.bulkheadRejections.labels(bulkhead).inc();
+	}
+	
+	public void countMemoryBudgetDrop() {
+		if (!this.enabled)
+			return;
+		
+		this.memoryBudgetDrops.inc();
+	}
 
 }
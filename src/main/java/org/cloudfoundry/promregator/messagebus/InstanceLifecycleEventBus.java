@@ -0,0 +1,88 @@
+package org.cloudfoundry.promregator.messagebus;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * An in-process dispatcher for events in the lifecycle of instances.
+ * Events are delivered asynchronously to all registered {@link InstanceLifecycleListener}s
+ * on a single dispatching thread, i.e. listeners receive the events in the order in which
+ * they have been published. All listeners available in the application context are
+ * registered automatically.
+ */
+public class InstanceLifecycleEventBus {
+	private static final Logger log = LoggerFactory.getLogger(InstanceLifecycleEventBus.class);
+	
+	@Autowired(required = false)
+	private List<InstanceLifecycleListener> contextListeners = Collections.emptyList();
+	
+	private final List<InstanceLifecycleListener> listeners = new CopyOnWriteArrayList<>();
+	
+	private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "promregator-lifecycle-events");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	@PostConstruct
+	public void registerContextListeners() {
+		this.listeners.addAll(this.contextListeners);
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		this.dispatcher.shutdown();
+	}
+	
+	/**
+	 * registers an additional listener
+	 * @param listener the listener which shall be informed about future events
+	 */
+	public void addListener(InstanceLifecycleListener listener) {
+		this.listeners.add(listener);
+	}
+	
+	/**
+	 * deregisters a listener
+	 * @param listener the listener which shall no longer be informed about events
+	 */
+	public void removeListener(InstanceLifecycleListener listener) {
+		this.listeners.remove(listener);
+	}
+	
+	/**
+	 * publishes the event that an instance has been removed. The method returns immediately;
+	 * the listeners are called asynchronously.
+	 * @param instance the instance which has been removed
+	 */
+	public void publishInstanceRemoved(Instance instance) {
+		for (InstanceLifecycleListener listener : this.listeners) {
+			try {
+				this.dispatcher.execute(() -> deliverInstanceRemoved(listener, instance));
+			} catch (RejectedExecutionException e) {
+				log.warn(String.format("Unable to dispatch removal of instance %s, as the event bus has already been shut down", instance));
+				return;
+			}
+		}
+	}
+	
+	private static void deliverInstanceRemoved(InstanceLifecycleListener listener, Instance instance) {
+		try {
+			listener.instanceRemoved(instance);
+		} catch (RuntimeException e) {
+			log.warn(String.format("Listener %s failed to handle removal of instance %s", listener, instance), e);
+		}
+	}
+}
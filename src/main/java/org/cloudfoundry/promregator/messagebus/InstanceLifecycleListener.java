@@ -0,0 +1,17 @@
+package org.cloudfoundry.promregator.messagebus;
+
+import org.cloudfoundry.promregator.scanner.Instance;
+
+/**
+ * A listener, which gets informed about changes in the lifecycle of instances
+ * via the {@link InstanceLifecycleEventBus}.
+ */
+public interface InstanceLifecycleListener {
+	/**
+	 * called after an instance has been removed from the set of instances known to the discoverer
+	 * (e.g. because it has timed out or the application has been stopped).
+	 * The method is called asynchronously, i.e. not on the thread having removed the instance.
+	 * @param instance the instance which has been removed
+	 */
+	void instanceRemoved(Instance instance);
+}
@@ -0,0 +1,21 @@
+package org.cloudfoundry.promregator.messagebus;
+
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jms.core.JmsTemplate;
+
+/**
+ * Forwards the events of the {@link InstanceLifecycleEventBus} to the JMS topics 
+ * listed in {@link MessageBusDestination}.
+ */
+public class JmsInstanceLifecycleAdapter implements InstanceLifecycleListener {
+
+	@Autowired
+	private JmsTemplate jmsTemplate;
+	
+	@Override
+	public void instanceRemoved(Instance instance) {
+		this.jmsTemplate.convertAndSend(MessageBusDestination.DISCOVERER_INSTANCE_REMOVED, instance);
+	}
+
+}
@@ -0,0 +1,59 @@
+package org.cloudfoundry.promregator.openmetrics;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * An exemplar as defined by OpenMetrics: a reference to data outside of the metric set 
+ * (e.g. a trace id), which is attached to a sample of a counter or of a histogram bucket.
+ */
+public class Exemplar {
+	private final List<String> labelNames;
+	private final List<String> labelValues;
+	private final double value;
+	private final Long timestampMs;
+
+	/**
+	 * creates a new exemplar
+	 * @param labelNames the names of the labels of the exemplar
+	 * @param labelValues the values of the labels of the exemplar (in the same order as the names)
+	 * @param value the value of the exemplar
+	 * @param timestampMs the timestamp of the exemplar in milliseconds; may be <code>null</code>, if the exemplar has no timestamp
+	 */
+	public Exemplar(List<String> labelNames, List<String> labelValues, double value, @Nullable Long timestampMs) {
+		this.labelNames = labelNames;
+		this.labelValues = labelValues;
+		this.value = value;
+		this.timestampMs = timestampMs;
+	}
+
+	/**
+	 * @return the labelNames
+	 */
+	public List<String> getLabelNames() {
+		return labelNames;
+	}
+
+	/**
+	 * @return the labelValues
+	 */
+	public List<String> getLabelValues() {
+		return labelValues;
+	}
+
+	/**
+	 * @return the value
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the timestamp in milliseconds; <code>null</code>, if the exemplar has no timestamp
+	 */
+	@Nullable
+	public Long getTimestampMs() {
+		return timestampMs;
+	}
+}
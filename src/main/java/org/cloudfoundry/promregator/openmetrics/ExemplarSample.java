@@ -0,0 +1,30 @@
+package org.cloudfoundry.promregator.openmetrics;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+
+/**
+ * A sample carrying an exemplar. 
+ * 
+ * The simpleclient we are using does not know exemplars yet; thus, they are attached to
+ * the samples using this subclass. Serializers not aware of exemplars (such as text format 0.0.4)
+ * simply ignore them.
+ */
+public class ExemplarSample extends Sample {
+	private final Exemplar exemplar;
+
+	public ExemplarSample(String name, List<String> labelNames, List<String> labelValues, double value, @Nullable Long timestampMs, Exemplar exemplar) {
+		super(name, labelNames, labelValues, value, timestampMs);
+		this.exemplar = exemplar;
+	}
+
+	/**
+	 * @return the exemplar
+	 */
+	public Exemplar getExemplar() {
+		return exemplar;
+	}
+}
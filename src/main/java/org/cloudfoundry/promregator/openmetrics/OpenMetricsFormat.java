@@ -0,0 +1,227 @@
+package org.cloudfoundry.promregator.openmetrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+/*
+ * The simpleclient we are using only supports writing text format 0.0.4.
+ * Details of the OpenMetrics format are described at https://github.com/OpenObservability/OpenMetrics/blob/main/specification/OpenMetrics.md
+ */
+public class OpenMetricsFormat {
+	/**
+	 * Content-type for OpenMetrics text format version 1.0.0.
+	 */
+	public static final String CONTENT_TYPE_OPENMETRICS_100 = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+	private static final String SUFFIX_TOTAL = "_total";
+	private static final String SUFFIX_CREATED = "_created";
+	private static final String SUFFIX_BUCKET = "_bucket";
+	private static final String SUFFIX_COUNT = "_count";
+	private static final String SUFFIX_SUM = "_sum";
+
+	private OpenMetricsFormat() {
+		throw new IllegalStateException("This class shall never be instantiated");
+	}
+
+	/**
+	 * writes the metric family samples provided in OpenMetrics text format 1.0.0, including the
+	 * terminating <code># EOF</code> line.
+	 *
+	 * Samples, whose names are not permitted for the type of their metric family by OpenMetrics
+	 * (e.g. the <code>_max</code> samples of histograms provided by micrometer or counters
+	 * whose name does not end with <code>_total</code>), are written as metric families of type <code>unknown</code>
+	 * instead, such that the names of all samples remain unchanged.
+	 * @param writer the writer to which the data shall be written
+	 * @param mfs the metric family samples to write
+	 * @throws IOException if writing to the writer failed
+	 */
+	public static void write100(Writer writer, Enumeration<MetricFamilySamples> mfs) throws IOException {
+		while (mfs.hasMoreElements()) {
+			writeMetricFamilySamples(writer, mfs.nextElement());
+		}
+
+		writer.write("# EOF\n");
+	}
+
+	private static void writeMetricFamilySamples(Writer writer, MetricFamilySamples metricFamilySamples) throws IOException {
+		String name = metricFamilySamples.name;
+		if (metricFamilySamples.type == Type.COUNTER && name.endsWith(SUFFIX_TOTAL)) {
+			name = name.substring(0, name.length() - SUFFIX_TOTAL.length());
+		}
+
+		List<Sample> conformingSamples = new ArrayList<>(metricFamilySamples.samples.size());
+		Map<String, List<Sample>> nonConformingSamples = new LinkedHashMap<>();
+		for (Sample sample : metricFamilySamples.samples) {
+			if (isSampleNamePermitted(metricFamilySamples.type, name, sample.name)) {
+				conformingSamples.add(sample);
+			} else {
+				nonConformingSamples.computeIfAbsent(sample.name, key -> new ArrayList<>()).add(sample);
+			}
+		}
+
+		if (!conformingSamples.isEmpty() || nonConformingSamples.isEmpty()) {
+			// NB: OpenMetrics only permits exemplars on counters and histogram buckets
+			boolean exemplarsPermitted = metricFamilySamples.type == Type.COUNTER || metricFamilySamples.type == Type.HISTOGRAM;
+			writeMetricFamily(writer, name, typeString(metricFamilySamples.type), metricFamilySamples.help, conformingSamples, exemplarsPermitted);
+		}
+
+		for (Map.Entry<String, List<Sample>> entry : nonConformingSamples.entrySet()) {
+			writeMetricFamily(writer, entry.getKey(), "unknown", metricFamilySamples.help, entry.getValue(), false);
+		}
+	}
+
+	private static boolean isSampleNamePermitted(Type type, String familyName, String sampleName) {
+		if (!sampleName.startsWith(familyName)) {
+			return false;
+		}
+
+		String suffix = sampleName.substring(familyName.length());
+		switch (type) {
+		case COUNTER:
+			return SUFFIX_TOTAL.equals(suffix) || SUFFIX_CREATED.equals(suffix);
+		case HISTOGRAM:
+			return SUFFIX_BUCKET.equals(suffix) || SUFFIX_COUNT.equals(suffix) || SUFFIX_SUM.equals(suffix) || SUFFIX_CREATED.equals(suffix);
+		case SUMMARY:
+			return suffix.isEmpty() || SUFFIX_COUNT.equals(suffix) || SUFFIX_SUM.equals(suffix) || SUFFIX_CREATED.equals(suffix);
+		default:
+			return suffix.isEmpty();
+		}
+	}
+
+	private static String typeString(Type type) {
+		switch (type) {
+		case COUNTER:
+			return "counter";
+		case GAUGE:
+			return "gauge";
+		case HISTOGRAM:
+			return "histogram";
+		case SUMMARY:
+			return "summary";
+		default:
+			return "unknown";
+		}
+	}
+
+	private static void writeMetricFamily(Writer writer, String name, String type, String help, List<Sample> samples, boolean exemplarsPermitted) throws IOException {
+		writer.write("# TYPE ");
+		writer.write(name);
+		writer.write(' ');
+		writer.write(type);
+		writer.write('\n');
+
+		if (help != null && !help.isEmpty()) {
+			writer.write("# HELP ");
+			writer.write(name);
+			writer.write(' ');
+			writeEscaped(writer, help);
+			writer.write('\n');
+		}
+
+		for (Sample sample : samples) {
+			writeSample(writer, sample, exemplarsPermitted);
+		}
+	}
+
+	private static void writeSample(Writer writer, Sample sample, boolean exemplarsPermitted) throws IOException {
+		writer.write(sample.name);
+		writeLabels(writer, sample.labelNames, sample.labelValues);
+
+		writer.write(' ');
+		writer.write(Collector.doubleToGoString(sample.value));
+
+		if (sample.timestampMs != null) {
+			writer.write(' ');
+			writeTimestamp(writer, sample.timestampMs);
+		}
+
+		if (exemplarsPermitted && sample instanceof ExemplarSample) {
+			Exemplar exemplar = ((ExemplarSample) sample).getExemplar();
+			writer.write(" # {");
+			writeLabelList(writer, exemplar.getLabelNames(), exemplar.getLabelValues());
+			writer.write("} ");
+			writer.write(Collector.doubleToGoString(exemplar.getValue()));
+
+			if (exemplar.getTimestampMs() != null) {
+				writer.write(' ');
+				writeTimestamp(writer, exemplar.getTimestampMs());
+			}
+		}
+
+		writer.write('\n');
+	}
+
+	private static void writeLabels(Writer writer, List<String> labelNames, List<String> labelValues) throws IOException {
+		if (labelNames.isEmpty()) {
+			return;
+		}
+
+		writer.write('{');
+		writeLabelList(writer, labelNames, labelValues);
+		writer.write('}');
+	}
+
+	private static void writeLabelList(Writer writer, List<String> labelNames, List<String> labelValues) throws IOException {
+		for (int i = 0; i < labelNames.size(); i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writer.write(labelNames.get(i));
+			writer.write("=\"");
+			writeEscaped(writer, labelValues.get(i));
+			writer.write('"');
+		}
+	}
+
+	private static void writeTimestamp(Writer writer, long timestampMs) throws IOException {
+		// NB: OpenMetrics expects seconds
+		long seconds = timestampMs / 1000L;
+		long millis = timestampMs % 1000L;
+		if (timestampMs < 0) {
+			// NB: both parts have the sign of the timestamp; it must only be written once (e.g. -1500 is -1.500)
+			writer.write('-');
+			seconds = -seconds;
+			millis = -millis;
+		}
+
+		writer.write(Long.toString(seconds));
+		writer.write('.');
+
+		if (millis < 100) {
+			writer.write('0');
+		}
+		if (millis < 10) {
+			writer.write('0');
+		}
+		writer.write(Long.toString(millis));
+	}
+
+	private static void writeEscaped(Writer writer, String s) throws IOException {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '\\':
+				writer.write("\\\\");
+				break;
+			case '\"':
+				writer.write("\\\"");
+				break;
+			case '\n':
+				writer.write("\\n");
+				break;
+			default:
+				writer.write(c);
+			}
+		}
+	}
+}
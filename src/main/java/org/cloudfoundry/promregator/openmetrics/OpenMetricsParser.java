@@ -0,0 +1,512 @@
+package org.cloudfoundry.promregator.openmetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.textformat004.LabelDictionary;
+import org.cloudfoundry.promregator.textformat004.MetricFilter;
+import org.cloudfoundry.promregator.textformat004.Parser;
+import org.cloudfoundry.promregator.textformat004.SeriesCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+/**
+ * Parses data provided in OpenMetrics text format (version 1.0.0 and 0.0.1).
+ *
+ * The result is compatible to the one of {@link Parser}, i.e. it may be merged with data which
+ * was provided in text format 0.0.4 by other targets:
+ * <ul>
+ * <li>Counters are stored with the name of their <code>_total</code> sample (the <code>_created</code> samples are kept in the same family).</li>
+ * <li>Types unknown to text format 0.0.4 (<code>gaugehistogram</code>, <code>info</code> and <code>stateset</code>) are treated as gauges.</li>
+ * <li>Exemplars are kept by providing the sample as {@link ExemplarSample}.</li>
+ * <li>Units are ignored, as the simpleclient has no means to carry them.</li>
+ * </ul>
+ *
+ * The data is scanned character by character without using regular expressions and without
+ * creating intermediate strings except for the names and values which are kept in the result.
+ * Details of the format are described at https://github.com/OpenObservability/OpenMetrics/blob/main/specification/OpenMetrics.md
+ */
+public class OpenMetricsParser {
+	private static final Logger log = LoggerFactory.getLogger(OpenMetricsParser.class);
+
+	private static final String PREFIX_TYPE = "# TYPE ";
+	private static final String PREFIX_HELP = "# HELP ";
+	private static final String PREFIX_UNIT = "# UNIT ";
+	private static final String LINE_EOF = "# EOF";
+	private static final String EXEMPLAR_SEPARATOR = " # ";
+
+	private static final String SUFFIX_TOTAL = "_total";
+
+	private final String openMetricsData;
+	private final MetricFilter metricFilter;
+	private final int maxSamples;
+	private final SeriesCounter seriesCounter;
+	private final boolean dropTimestamps;
+
+	private HashMap<String, Collector.MetricFamilySamples> mapMFS = new HashMap<>();
+
+	/* metadata of the metric family currently being parsed */
+	private String familyName;
+	private String familyType;
+	private String familyHelp;
+	private MetricFamilySamples familyMFS;
+
+	private int droppedSamples;
+	private int samples;
+	private String exceededLimit;
+	private boolean eofDetected;
+
+	/* position of the scanner within the current line */
+	private int pos;
+	private int lineEnd;
+
+	public OpenMetricsParser(String openMetricsData) {
+		this(openMetricsData, null, 0, 0);
+	}
+
+	/**
+	 * creates a parser, which drops all samples not accepted by a filter and which stops parsing
+	 * as soon as a limit is exceeded (see also {@link Parser#Parser(String, MetricFilter, int, int)}).
+	 * @param openMetricsData the data to parse
+	 * @param metricFilter the filter to apply; may be <code>null</code>, if all samples shall be kept
+	 * @param maxSamples the maximal number of samples to accept; <code>0</code>, if unlimited
+	 * @param maxSeriesPerFamily the maximal number of distinct series to accept per metric family (see {@link SeriesCounter}); <code>0</code>, if unlimited
+	 */
+	public OpenMetricsParser(String openMetricsData, @Nullable MetricFilter metricFilter, int maxSamples, int maxSeriesPerFamily) {
+		this(openMetricsData, metricFilter, maxSamples, maxSeriesPerFamily, false);
+	}
+
+	/**
+	 * creates a parser, which drops all samples not accepted by a filter, which stops parsing
+	 * as soon as a limit is exceeded and which optionally discards the timestamps of the samples
+	 * (see also {@link Parser#Parser(String, MetricFilter, int, int, boolean)}).
+	 * @param openMetricsData the data to parse
+	 * @param metricFilter the filter to apply; may be <code>null</code>, if all samples shall be kept
+	 * @param maxSamples the maximal number of samples to accept; <code>0</code>, if unlimited
+	 * @param maxSeriesPerFamily the maximal number of distinct series to accept per metric family (see {@link SeriesCounter}); <code>0</code>, if unlimited
+	 * @param dropTimestamps <code>true</code>, if the timestamps provided with the samples shall be discarded
+	 */
+	public OpenMetricsParser(String openMetricsData, @Nullable MetricFilter metricFilter, int maxSamples, int maxSeriesPerFamily, boolean dropTimestamps) {
+		this.openMetricsData = openMetricsData;
+		this.metricFilter = metricFilter;
+		this.maxSamples = maxSamples;
+		this.seriesCounter = new SeriesCounter(maxSeriesPerFamily);
+		this.dropTimestamps = dropTimestamps;
+	}
+
+	public HashMap<String, Collector.MetricFamilySamples> parse() {
+		this.reset();
+
+		final String data = this.openMetricsData;
+		int lineStart = 0;
+		while (lineStart < data.length() && this.exceededLimit == null && !this.eofDetected) {
+			int end = data.indexOf('\n', lineStart);
+			if (end == -1) {
+				end = data.length();
+			}
+
+			this.pos = lineStart;
+			this.lineEnd = end;
+
+			if (this.lineEnd > this.pos && data.charAt(this.lineEnd - 1) == '\r') {
+				this.lineEnd--;
+			}
+
+			if (this.lineEnd > this.pos) {
+				this.parseLine();
+			}
+
+			lineStart = end + 1;
+		}
+
+		if (!this.eofDetected && this.exceededLimit == null) {
+			log.warn("OpenMetrics data is not terminated by '# EOF'; the data might be incomplete");
+		}
+
+		return this.mapMFS;
+	}
+
+	private void parseLine() {
+		final String data = this.openMetricsData;
+
+		if (data.charAt(this.pos) != '#') {
+			final int lineStart = this.pos;
+			try {
+				this.parseSample();
+			} catch (IllegalArgumentException e) {
+				log.warn(String.format("Detected non-parsable metric line '%s'", data.substring(lineStart, this.lineEnd)), e);
+			}
+			return;
+		}
+
+		if (data.startsWith(LINE_EOF, this.pos) && this.lineEnd - this.pos == LINE_EOF.length()) {
+			this.eofDetected = true;
+		} else if (data.startsWith(PREFIX_TYPE, this.pos)) {
+			this.pos += PREFIX_TYPE.length();
+			String name = this.scanUntil(' ');
+			this.pos++;
+			this.startFamily(name);
+			if (this.pos < this.lineEnd) {
+				this.familyType = data.substring(this.pos, this.lineEnd);
+			}
+			// NB: a family without a type remains of type unknown
+		} else if (data.startsWith(PREFIX_HELP, this.pos)) {
+			this.pos += PREFIX_HELP.length();
+			String name = this.scanUntil(' ');
+			this.pos++;
+			this.startFamily(name);
+			this.familyHelp = this.pos < this.lineEnd ? unescape(data, this.pos, this.lineEnd) : "";
+		} else if (data.startsWith(PREFIX_UNIT, this.pos)) {
+			// NB: units cannot be represented by the simpleclient; only the family is started
+			this.pos += PREFIX_UNIT.length();
+			this.startFamily(this.scanUntil(' '));
+		}
+		// all other comments are ignored
+	}
+
+	private void startFamily(String name) {
+		if (name.equals(this.familyName)) {
+			return;
+		}
+
+		this.familyName = name;
+		this.familyType = "unknown";
+		this.familyHelp = "";
+		this.familyMFS = null;
+	}
+
+	private void parseSample() {
+		final String data = this.openMetricsData;
+
+		final String sampleName = this.scanName();
+		if (sampleName.isEmpty()) {
+			throw new IllegalArgumentException("Missing metric name");
+		}
+
+		if (this.familyName == null || !isSampleOfFamily(sampleName, this.familyName, this.familyType)) {
+			// a sample without metadata forms a metric family of type unknown on its own
+			this.startFamily(sampleName);
+		}
+
+		if (this.metricFilter != null && !this.metricFilter.isMetricNameAccepted(sampleName)) {
+			// NB: the line does not need to be parsed any further
+			this.droppedSamples++;
+			return;
+		}
+
+		List<String> labelNames = Collections.emptyList();
+		List<String> labelValues = Collections.emptyList();
+		if (this.pos < this.lineEnd && data.charAt(this.pos) == '{') {
+			labelNames = new ArrayList<>(4);
+			labelValues = new ArrayList<>(4);
+			this.parseLabels(labelNames, labelValues, true);
+
+			if (this.metricFilter != null && !this.metricFilter.isLabelSetAccepted(labelNames, labelValues)) {
+				this.droppedSamples++;
+				return;
+			}
+		}
+
+		this.expect(' ');
+		final double value = parseDouble(this.scanUntil(' '));
+
+		/*
+		 * The timestamp is optional.
+		 * Note that OpenMetrics provides timestamps in seconds (and not in milliseconds).
+		 */
+		Long timestampMs = null;
+		if (this.pos < this.lineEnd && !data.startsWith(EXEMPLAR_SEPARATOR, this.pos)) {
+			this.expect(' ');
+			final long parsedTimestampMs = toMilliseconds(parseDouble(this.scanUntil(' ')));
+			if (!this.dropTimestamps) {
+				timestampMs = parsedTimestampMs;
+			}
+		}
+
+		Exemplar exemplar = null;
+		if (data.startsWith(EXEMPLAR_SEPARATOR, this.pos)) {
+			this.pos += EXEMPLAR_SEPARATOR.length();
+			exemplar = this.parseExemplar();
+		}
+
+		if (this.maxSamples > 0 && this.samples >= this.maxSamples) {
+			// NB: stop here; the remainder of the document does not need to be kept in memory
+			this.exceededLimit = Parser.LIMIT_SAMPLES;
+			return;
+		}
+
+		Sample sample = null;
+		if (exemplar == null) {
+			sample = new Sample(sampleName, labelNames, labelValues, value, timestampMs);
+		} else {
+			sample = new ExemplarSample(sampleName, labelNames, labelValues, value, timestampMs, exemplar);
+		}
+
+		this.storeSample(sample);
+	}
+
+	private Exemplar parseExemplar() {
+		final String data = this.openMetricsData;
+
+		List<String> labelNames = new ArrayList<>(2);
+		List<String> labelValues = new ArrayList<>(2);
+		if (this.pos >= this.lineEnd || data.charAt(this.pos) != '{') {
+			throw new IllegalArgumentException("Missing label set of exemplar");
+		}
+		this.parseLabels(labelNames, labelValues, false);
+
+		this.expect(' ');
+		final double value = parseDouble(this.scanUntil(' '));
+
+		Long timestampMs = null;
+		if (this.pos < this.lineEnd) {
+			this.expect(' ');
+			timestampMs = toMilliseconds(parseDouble(this.scanUntil(' ')));
+		}
+
+		return new Exemplar(labelNames, labelValues, value, timestampMs);
+	}
+
+	private void storeSample(Sample sample) {
+		if (this.familyMFS == null) {
+			String mfsName = this.familyName;
+			if ("counter".equals(this.familyType)) {
+				// same name as if the counter was provided in text format 0.0.4
+				mfsName = this.familyName + SUFFIX_TOTAL;
+			}
+
+			this.familyMFS = this.mapMFS.get(mfsName);
+			if (this.familyMFS == null) {
+				this.familyMFS = new MetricFamilySamples(mfsName, determineType(this.familyType), this.familyHelp, new ArrayList<>());
+				this.mapMFS.put(mfsName, this.familyMFS);
+			}
+		}
+
+		if (!this.seriesCounter.add(this.familyMFS.name, this.familyMFS.type, sample)) {
+			this.exceededLimit = Parser.LIMIT_SERIES_PER_FAMILY;
+			return;
+		}
+
+		this.familyMFS.samples.add(sample);
+		this.samples++;
+	}
+
+	private static Type determineType(String omType) {
+		switch (omType) {
+		case "counter":
+			return Type.COUNTER;
+		case "gauge":
+		case "gaugehistogram":
+		case "info":
+		case "stateset":
+			return Type.GAUGE;
+		case "histogram":
+			return Type.HISTOGRAM;
+		case "summary":
+			return Type.SUMMARY;
+		default:
+			return Type.UNTYPED;
+		}
+	}
+
+	private static boolean isSampleOfFamily(String sampleName, String familyName, String familyType) {
+		if (!sampleName.startsWith(familyName)) {
+			return false;
+		}
+
+		final int suffixStart = familyName.length();
+		switch (familyType) {
+		case "counter":
+			return isSuffix(sampleName, suffixStart, SUFFIX_TOTAL, "_created");
+		case "histogram":
+			return isSuffix(sampleName, suffixStart, "_bucket", "_count", "_sum", "_created");
+		case "gaugehistogram":
+			return isSuffix(sampleName, suffixStart, "_bucket", "_gcount", "_gsum");
+		case "summary":
+			return sampleName.length() == suffixStart || isSuffix(sampleName, suffixStart, "_count", "_sum", "_created");
+		case "info":
+			return isSuffix(sampleName, suffixStart, "_info");
+		default:
+			return sampleName.length() == suffixStart;
+		}
+	}
+
+	private static boolean isSuffix(String sampleName, int suffixStart, String... suffixes) {
+		final int suffixLength = sampleName.length() - suffixStart;
+		for (String suffix : suffixes) {
+			if (suffix.length() == suffixLength && sampleName.startsWith(suffix, suffixStart)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * parses a label set
+	 * @param labelNames the list to which the names of the labels are added
+	 * @param labelValues the list to which the values of the labels are added
+	 * @param deduplicate <code>true</code>, if names and values shall be looked up in the {@link LabelDictionary};
+	 * this is not useful for label sets which change with every scrape (such as the ones of exemplars)
+	 */
+	private void parseLabels(List<String> labelNames, List<String> labelValues, boolean deduplicate) {
+		final String data = this.openMetricsData;
+		final LabelDictionary labelDictionary = LabelDictionary.getShared();
+
+		this.expect('{');
+		while (this.pos < this.lineEnd && data.charAt(this.pos) != '}') {
+			int nameStart = this.pos;
+			this.skipUntil('=');
+			// NB: label names cannot contain escape sequences
+			String labelName = deduplicate ? labelDictionary.intern(data, nameStart, this.pos) : data.substring(nameStart, this.pos);
+			this.expect('=');
+			this.expect('"');
+
+			int valueStart = this.pos;
+			boolean escaped = false;
+			while (this.pos < this.lineEnd && data.charAt(this.pos) != '"') {
+				if (data.charAt(this.pos) == '\\') {
+					escaped = true;
+					this.pos++;
+				}
+				this.pos++;
+			}
+			if (this.pos >= this.lineEnd) {
+				throw new IllegalArgumentException("Missing termination of label value");
+			}
+
+			String labelValue;
+			if (escaped) {
+				labelValue = unescape(data, valueStart, this.pos);
+				if (deduplicate) {
+					labelValue = labelDictionary.intern(labelValue);
+				}
+			} else {
+				// NB: if the value is found in the dictionary, no string needs to be created
+				labelValue = deduplicate ? labelDictionary.intern(data, valueStart, this.pos) : data.substring(valueStart, this.pos);
+			}
+			labelNames.add(labelName);
+			labelValues.add(labelValue);
+			this.pos++; // skip the terminating quote
+
+			if (this.pos < this.lineEnd && data.charAt(this.pos) == ',') {
+				this.pos++;
+			}
+		}
+		this.expect('}');
+	}
+
+	private String scanName() {
+		final String data = this.openMetricsData;
+		int start = this.pos;
+		while (this.pos < this.lineEnd) {
+			char c = data.charAt(this.pos);
+			if (c == '{' || c == ' ') {
+				break;
+			}
+			this.pos++;
+		}
+		return data.substring(start, this.pos);
+	}
+
+	private String scanUntil(char terminator) {
+		int start = this.pos;
+		this.skipUntil(terminator);
+		return this.openMetricsData.substring(start, this.pos);
+	}
+
+	private void skipUntil(char terminator) {
+		final String data = this.openMetricsData;
+		while (this.pos < this.lineEnd && data.charAt(this.pos) != terminator) {
+			this.pos++;
+		}
+	}
+
+	private void expect(char c) {
+		if (this.pos >= this.lineEnd || this.openMetricsData.charAt(this.pos) != c) {
+			throw new IllegalArgumentException(String.format("Expected '%c' at position %d", c, this.pos));
+		}
+		this.pos++;
+	}
+
+	private static double parseDouble(String s) {
+		if (s.isEmpty()) {
+			throw new IllegalArgumentException("Missing value");
+		}
+
+		if ("NaN".equalsIgnoreCase(s)) {
+			return Double.NaN;
+		} else if ("+Inf".equalsIgnoreCase(s) || "Inf".equalsIgnoreCase(s)) {
+			return Double.POSITIVE_INFINITY;
+		} else if ("-Inf".equalsIgnoreCase(s)) {
+			return Double.NEGATIVE_INFINITY;
+		}
+
+		// NB: NumberFormatException is an IllegalArgumentException
+		return Double.parseDouble(s);
+	}
+
+	/**
+	 * converts a timestamp in seconds (as used by OpenMetrics) to milliseconds (as used by the Simpleclient)
+	 * @param seconds the timestamp in seconds since epoch
+	 * @return the timestamp in milliseconds since epoch; rounded to avoid artifacts of the binary representation (e.g. 1.001s)
+	 */
+	private static long toMilliseconds(double seconds) {
+		return Math.round(seconds * 1000.0);
+	}
+
+	private static String unescape(String data, int start, int end) {
+		StringBuilder sb = new StringBuilder(end - start);
+		for (int i = start; i < end; i++) {
+			char c = data.charAt(i);
+			if (c == '\\' && i + 1 < end) {
+				char next = data.charAt(++i);
+				if (next == 'n') {
+					sb.append('\n');
+				} else {
+					sb.append(next);
+				}
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	private void reset() {
+		this.mapMFS.clear();
+		this.familyName = null;
+		this.familyType = null;
+		this.familyHelp = null;
+		this.familyMFS = null;
+		this.droppedSamples = 0;
+		this.samples = 0;
+		this.seriesCounter.reset();
+		this.exceededLimit = null;
+		this.eofDetected = false;
+	}
+
+	/**
+	 * @return the number of samples dropped by the metric filter during the last parsing
+	 */
+	public int getDroppedSamples() {
+		return droppedSamples;
+	}
+
+	/**
+	 * @return the limit, which was exceeded during the last parsing (see {@link Parser#getExceededLimit()});
+	 * <code>null</code>, if no limit was exceeded.
+	 */
+	@Nullable
+	public String getExceededLimit() {
+		return exceededLimit;
+	}
+}
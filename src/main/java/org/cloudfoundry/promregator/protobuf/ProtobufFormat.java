@@ -0,0 +1,404 @@
+package org.cloudfoundry.promregator.protobuf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudfoundry.promregator.openmetrics.Exemplar;
+import org.cloudfoundry.promregator.openmetrics.ExemplarSample;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+/*
+ * The simpleclient we are using neither supports the protobuf format nor depends on the protobuf library.
+ * Thus, the messages of io.prometheus.client.MetricFamily are encoded manually here.
+ * The schema is described at https://github.com/prometheus/client_model/blob/master/io/prometheus/client/metrics.proto
+ */
+public class ProtobufFormat {
+	/**
+	 * Content-type for the delimited protobuf format of Prometheus, i.e. a sequence of
+	 * <code>io.prometheus.client.MetricFamily</code> messages, each prefixed by its length.
+	 */
+	public static final String CONTENT_TYPE_PROTOBUF_DELIMITED = "application/vnd.google.protobuf; proto=io.prometheus.client.MetricFamily; encoding=delimited";
+
+	/* field numbers of message MetricFamily */
+	static final int METRICFAMILY_NAME = 1;
+	static final int METRICFAMILY_HELP = 2;
+	static final int METRICFAMILY_TYPE = 3;
+	static final int METRICFAMILY_METRIC = 4;
+
+	/* values of enum MetricType */
+	static final int METRICTYPE_COUNTER = 0;
+	static final int METRICTYPE_GAUGE = 1;
+	static final int METRICTYPE_SUMMARY = 2;
+	static final int METRICTYPE_UNTYPED = 3;
+	static final int METRICTYPE_HISTOGRAM = 4;
+	static final int METRICTYPE_GAUGE_HISTOGRAM = 5;
+
+	/* field numbers of message Metric */
+	static final int METRIC_LABEL = 1;
+	static final int METRIC_GAUGE = 2;
+	static final int METRIC_COUNTER = 3;
+	static final int METRIC_SUMMARY = 4;
+	static final int METRIC_UNTYPED = 5;
+	static final int METRIC_TIMESTAMP_MS = 6;
+	static final int METRIC_HISTOGRAM = 7;
+
+	/* field numbers of message LabelPair */
+	static final int LABELPAIR_NAME = 1;
+	static final int LABELPAIR_VALUE = 2;
+
+	/* field numbers of messages Gauge, Counter and Untyped */
+	static final int VALUE = 1;
+	static final int COUNTER_EXEMPLAR = 2;
+
+	/* field numbers of message Summary */
+	static final int SUMMARY_SAMPLE_COUNT = 1;
+	static final int SUMMARY_SAMPLE_SUM = 2;
+	static final int SUMMARY_QUANTILE = 3;
+
+	/* field numbers of message Quantile */
+	static final int QUANTILE_QUANTILE = 1;
+	static final int QUANTILE_VALUE = 2;
+
+	/* field numbers of message Histogram */
+	static final int HISTOGRAM_SAMPLE_COUNT = 1;
+	static final int HISTOGRAM_SAMPLE_SUM = 2;
+	static final int HISTOGRAM_BUCKET = 3;
+	static final int HISTOGRAM_SAMPLE_COUNT_FLOAT = 4;
+
+	/* field numbers of message Bucket */
+	static final int BUCKET_CUMULATIVE_COUNT = 1;
+	static final int BUCKET_UPPER_BOUND = 2;
+	static final int BUCKET_EXEMPLAR = 3;
+	static final int BUCKET_CUMULATIVE_COUNT_FLOAT = 4;
+
+	/* field numbers of message Exemplar */
+	static final int EXEMPLAR_LABEL = 1;
+	static final int EXEMPLAR_VALUE = 2;
+	static final int EXEMPLAR_TIMESTAMP = 3;
+
+	/* field numbers of message google.protobuf.Timestamp */
+	static final int TIMESTAMP_SECONDS = 1;
+	static final int TIMESTAMP_NANOS = 2;
+
+	static final String LABEL_LE = "le";
+	static final String LABEL_QUANTILE = "quantile";
+
+	static final String SUFFIX_TOTAL = "_total";
+	static final String SUFFIX_BUCKET = "_bucket";
+	static final String SUFFIX_COUNT = "_count";
+	static final String SUFFIX_SUM = "_sum";
+
+	private ProtobufFormat() {
+		throw new IllegalStateException("This class shall never be instantiated");
+	}
+
+	/**
+	 * the samples of a histogram or a summary, which share the same label set
+	 * (except for the labels <code>le</code> respectively <code>quantile</code>)
+	 */
+	private static class CompositeMetric {
+		private final List<String> labelNames;
+		private final List<String> labelValues;
+		private Long timestampMs;
+		private double count;
+		private double sum;
+		private final List<Sample> buckets = new ArrayList<>();
+		private final List<Double> bounds = new ArrayList<>();
+
+		public CompositeMetric(List<String> labelNames, List<String> labelValues) {
+			this.labelNames = labelNames;
+			this.labelValues = labelValues;
+		}
+	}
+
+	/**
+	 * writes the metric family samples provided in the delimited protobuf format.
+	 *
+	 * Samples, which cannot be represented as part of their metric family (e.g. the <code>_max</code> samples
+	 * of histograms provided by micrometer), are written as metric families of type <code>UNTYPED</code>
+	 * instead, such that the names of all samples remain unchanged.
+	 * @param os the stream to which the data shall be written
+	 * @param mfs the metric family samples to write
+	 * @throws IOException if writing to the stream failed
+	 */
+	public static void writeDelimited(OutputStream os, Enumeration<MetricFamilySamples> mfs) throws IOException {
+		encode(mfs).writeTo(os);
+	}
+
+	/**
+	 * provides the metric family samples in the delimited protobuf format (see {@link #writeDelimited(OutputStream, Enumeration)}).
+	 * @param mfs the metric family samples to write
+	 * @return the encoded data
+	 */
+	public static byte[] toDelimitedByteArray(Enumeration<MetricFamilySamples> mfs) {
+		return encode(mfs).toByteArray();
+	}
+
+	private static ProtobufWriter encode(Enumeration<MetricFamilySamples> mfs) {
+		ProtobufWriter writer = new ProtobufWriter(64 * 1024);
+		while (mfs.hasMoreElements()) {
+			writeMetricFamilySamples(writer, mfs.nextElement());
+		}
+		return writer;
+	}
+
+	private static void writeMetricFamilySamples(ProtobufWriter writer, MetricFamilySamples metricFamilySamples) {
+		final String name = metricFamilySamples.name;
+
+		Map<String, List<Sample>> simpleMetrics = new LinkedHashMap<>();
+		Map<List<String>, CompositeMetric> compositeMetrics = new LinkedHashMap<>();
+		Map<String, List<Sample>> nonConformingSamples = new LinkedHashMap<>();
+
+		for (Sample sample : metricFamilySamples.samples) {
+			boolean conforming = false;
+			switch (metricFamilySamples.type) {
+			case COUNTER:
+				// NB: depending on the source, the name of the family may or may not contain the suffix
+				conforming = sample.name.equals(name) || (!name.endsWith(SUFFIX_TOTAL) && sample.name.equals(name + SUFFIX_TOTAL));
+				if (conforming) {
+					simpleMetrics.computeIfAbsent(sample.name, key -> new ArrayList<>()).add(sample);
+				}
+				break;
+			case HISTOGRAM:
+				conforming = addToComposite(compositeMetrics, name, sample, SUFFIX_BUCKET, LABEL_LE);
+				break;
+			case SUMMARY:
+				conforming = addToComposite(compositeMetrics, name, sample, "", LABEL_QUANTILE);
+				break;
+			default:
+				conforming = sample.name.equals(name);
+				if (conforming) {
+					simpleMetrics.computeIfAbsent(sample.name, key -> new ArrayList<>()).add(sample);
+				}
+			}
+
+			if (!conforming) {
+				nonConformingSamples.computeIfAbsent(sample.name, key -> new ArrayList<>()).add(sample);
+			}
+		}
+
+		for (Map.Entry<String, List<Sample>> entry : simpleMetrics.entrySet()) {
+			writeSimpleMetricFamily(writer, entry.getKey(), metricFamilySamples.type, metricFamilySamples.help, entry.getValue());
+		}
+
+		if (!compositeMetrics.isEmpty()) {
+			writeCompositeMetricFamily(writer, name, metricFamilySamples.type, metricFamilySamples.help, compositeMetrics.values());
+		}
+
+		for (Map.Entry<String, List<Sample>> entry : nonConformingSamples.entrySet()) {
+			writeSimpleMetricFamily(writer, entry.getKey(), Type.UNTYPED, metricFamilySamples.help, entry.getValue());
+		}
+	}
+
+	private static boolean addToComposite(Map<List<String>, CompositeMetric> compositeMetrics, String name, Sample sample, String partSuffix, String partLabel) {
+		if (!sample.name.startsWith(name)) {
+			return false;
+		}
+
+		final String suffix = sample.name.substring(name.length());
+		final boolean isPart = partSuffix.equals(suffix);
+		if (!isPart && !SUFFIX_COUNT.equals(suffix) && !SUFFIX_SUM.equals(suffix)) {
+			return false;
+		}
+
+		List<String> labelNames = sample.labelNames;
+		List<String> labelValues = sample.labelValues;
+		Double bound = null;
+		if (isPart) {
+			int partLabelIndex = labelNames.indexOf(partLabel);
+			if (partLabelIndex == -1) {
+				return false;
+			}
+
+			try {
+				bound = parseGoDouble(labelValues.get(partLabelIndex));
+			} catch (NumberFormatException e) {
+				return false;
+			}
+
+			labelNames = new ArrayList<>(labelNames);
+			labelNames.remove(partLabelIndex);
+			labelValues = new ArrayList<>(labelValues);
+			labelValues.remove(partLabelIndex);
+		}
+
+		List<String> key = new ArrayList<>(labelNames.size() + labelValues.size());
+		key.addAll(labelNames);
+		key.addAll(labelValues);
+
+		final List<String> finalLabelNames = labelNames;
+		final List<String> finalLabelValues = labelValues;
+		CompositeMetric metric = compositeMetrics.computeIfAbsent(key, k -> new CompositeMetric(finalLabelNames, finalLabelValues));
+		if (metric.timestampMs == null) {
+			metric.timestampMs = sample.timestampMs;
+		}
+
+		if (isPart) {
+			metric.buckets.add(sample);
+			metric.bounds.add(bound);
+		} else if (SUFFIX_COUNT.equals(suffix)) {
+			metric.count = sample.value;
+		} else {
+			metric.sum = sample.value;
+		}
+
+		return true;
+	}
+
+	private static void writeSimpleMetricFamily(ProtobufWriter writer, String name, Type type, String help, List<Sample> samples) {
+		writer.startDelimited();
+		writeMetricFamilyHeader(writer, name, help, type);
+
+		for (Sample sample : samples) {
+			writer.startMessage(METRICFAMILY_METRIC);
+			writeLabels(writer, METRIC_LABEL, sample.labelNames, sample.labelValues);
+
+			switch (type) {
+			case COUNTER:
+				writer.startMessage(METRIC_COUNTER);
+				writer.writeDouble(VALUE, sample.value);
+				if (sample instanceof ExemplarSample) {
+					writeExemplar(writer, COUNTER_EXEMPLAR, ((ExemplarSample) sample).getExemplar());
+				}
+				writer.endMessage();
+				break;
+			case GAUGE:
+				writer.startMessage(METRIC_GAUGE);
+				writer.writeDouble(VALUE, sample.value);
+				writer.endMessage();
+				break;
+			default:
+				writer.startMessage(METRIC_UNTYPED);
+				writer.writeDouble(VALUE, sample.value);
+				writer.endMessage();
+			}
+
+			if (sample.timestampMs != null) {
+				writer.writeInt64(METRIC_TIMESTAMP_MS, sample.timestampMs);
+			}
+			writer.endMessage();
+		}
+
+		writer.endMessage();
+	}
+
+	private static void writeCompositeMetricFamily(ProtobufWriter writer, String name, Type type, String help, Iterable<CompositeMetric> metrics) {
+		writer.startDelimited();
+		writeMetricFamilyHeader(writer, name, help, type);
+
+		for (CompositeMetric metric : metrics) {
+			writer.startMessage(METRICFAMILY_METRIC);
+			writeLabels(writer, METRIC_LABEL, metric.labelNames, metric.labelValues);
+
+			if (type == Type.HISTOGRAM) {
+				writer.startMessage(METRIC_HISTOGRAM);
+				writer.writeUInt64(HISTOGRAM_SAMPLE_COUNT, (long) metric.count);
+				writer.writeDouble(HISTOGRAM_SAMPLE_SUM, metric.sum);
+				for (int i = 0; i < metric.buckets.size(); i++) {
+					Sample bucket = metric.buckets.get(i);
+					writer.startMessage(HISTOGRAM_BUCKET);
+					writer.writeUInt64(BUCKET_CUMULATIVE_COUNT, (long) bucket.value);
+					writer.writeDouble(BUCKET_UPPER_BOUND, metric.bounds.get(i));
+					if (bucket instanceof ExemplarSample) {
+						writeExemplar(writer, BUCKET_EXEMPLAR, ((ExemplarSample) bucket).getExemplar());
+					}
+					writer.endMessage();
+				}
+				writer.endMessage();
+			} else {
+				writer.startMessage(METRIC_SUMMARY);
+				writer.writeUInt64(SUMMARY_SAMPLE_COUNT, (long) metric.count);
+				writer.writeDouble(SUMMARY_SAMPLE_SUM, metric.sum);
+				for (int i = 0; i < metric.buckets.size(); i++) {
+					writer.startMessage(SUMMARY_QUANTILE);
+					writer.writeDouble(QUANTILE_QUANTILE, metric.bounds.get(i));
+					writer.writeDouble(QUANTILE_VALUE, metric.buckets.get(i).value);
+					writer.endMessage();
+				}
+				writer.endMessage();
+			}
+
+			if (metric.timestampMs != null) {
+				writer.writeInt64(METRIC_TIMESTAMP_MS, metric.timestampMs);
+			}
+			writer.endMessage();
+		}
+
+		writer.endMessage();
+	}
+
+	private static void writeMetricFamilyHeader(ProtobufWriter writer, String name, String help, Type type) {
+		writer.writeString(METRICFAMILY_NAME, name);
+		if (help != null && !help.isEmpty()) {
+			writer.writeString(METRICFAMILY_HELP, help);
+		}
+		writer.writeUInt64(METRICFAMILY_TYPE, metricType(type));
+	}
+
+	private static int metricType(Type type) {
+		switch (type) {
+		case COUNTER:
+			return METRICTYPE_COUNTER;
+		case GAUGE:
+			return METRICTYPE_GAUGE;
+		case SUMMARY:
+			return METRICTYPE_SUMMARY;
+		case HISTOGRAM:
+			return METRICTYPE_HISTOGRAM;
+		default:
+			return METRICTYPE_UNTYPED;
+		}
+	}
+
+	private static void writeLabels(ProtobufWriter writer, int fieldNumber, List<String> labelNames, List<String> labelValues) {
+		for (int i = 0; i < labelNames.size(); i++) {
+			writer.startMessage(fieldNumber);
+			writer.writeString(LABELPAIR_NAME, labelNames.get(i));
+			writer.writeString(LABELPAIR_VALUE, labelValues.get(i));
+			writer.endMessage();
+		}
+	}
+
+	private static void writeExemplar(ProtobufWriter writer, int fieldNumber, Exemplar exemplar) {
+		writer.startMessage(fieldNumber);
+		writeLabels(writer, EXEMPLAR_LABEL, exemplar.getLabelNames(), exemplar.getLabelValues());
+		writer.writeDouble(EXEMPLAR_VALUE, exemplar.getValue());
+
+		Long timestampMs = exemplar.getTimestampMs();
+		if (timestampMs != null) {
+			writer.startMessage(EXEMPLAR_TIMESTAMP);
+			writer.writeInt64(TIMESTAMP_SECONDS, Math.floorDiv(timestampMs, 1000L));
+			writer.writeInt32(TIMESTAMP_NANOS, (int) Math.floorMod(timestampMs, 1000L) * 1000000);
+			writer.endMessage();
+		}
+
+		writer.endMessage();
+	}
+
+	/**
+	 * parses a floating point number as it is written by {@link Collector#doubleToGoString(double)}.
+	 * @param s the string to parse
+	 * @return the value of the number
+	 * @throws NumberFormatException if the string does not represent a number
+	 */
+	static double parseGoDouble(String s) {
+		if ("+Inf".equals(s)) {
+			return Double.POSITIVE_INFINITY;
+		} else if ("-Inf".equals(s)) {
+			return Double.NEGATIVE_INFINITY;
+		} else if ("NaN".equals(s)) {
+			return Double.NaN;
+		}
+
+		return Double.parseDouble(s);
+	}
+}
@@ -0,0 +1,515 @@
+package org.cloudfoundry.promregator.protobuf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.openmetrics.Exemplar;
+import org.cloudfoundry.promregator.openmetrics.ExemplarSample;
+import org.cloudfoundry.promregator.textformat004.LabelDictionary;
+import org.cloudfoundry.promregator.textformat004.MetricFilter;
+import org.cloudfoundry.promregator.textformat004.Parser;
+import org.cloudfoundry.promregator.textformat004.SeriesCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+/**
+ * Parses data provided in the delimited protobuf format, i.e. a sequence of
+ * <code>io.prometheus.client.MetricFamily</code> messages, each prefixed by its length.
+ *
+ * The result is compatible to the one of {@link Parser}, i.e. it may be merged with data which
+ * was provided in text format 0.0.4 by other targets:
+ * <ul>
+ * <li>Histograms and summaries are split up into their <code>_bucket</code>, <code>_count</code> and <code>_sum</code> samples
+ * respectively their quantile, <code>_count</code> and <code>_sum</code> samples.</li>
+ * <li>Gauge histograms are treated as gauges with <code>_bucket</code>, <code>_gcount</code> and <code>_gsum</code> samples
+ * (same as OpenMetrics does).</li>
+ * <li>Exemplars of counters and histogram buckets are kept by providing the sample as {@link ExemplarSample}.</li>
+ * <li>The buckets of native histograms cannot be represented by the simpleclient; only the <code>_count</code>
+ * and <code>_sum</code> samples as well as the classic buckets (if any) are kept.</li>
+ * </ul>
+ */
+public class ProtobufParser {
+	private static final Logger log = LoggerFactory.getLogger(ProtobufParser.class);
+
+	private static final String SUFFIX_GCOUNT = "_gcount";
+	private static final String SUFFIX_GSUM = "_gsum";
+
+	private final byte[] protobufData;
+	private final MetricFilter metricFilter;
+	private final int maxSamples;
+	private final SeriesCounter seriesCounter;
+	private final boolean dropTimestamps;
+
+	private HashMap<String, Collector.MetricFamilySamples> mapMFS = new HashMap<>();
+
+	private ProtobufReader reader;
+
+	/* metadata of the metric family currently being parsed */
+	private String familyName;
+	private int familyType;
+	private String familyHelp;
+	private MetricFamilySamples familyMFS;
+
+	private int droppedSamples;
+	private int samples;
+	private String exceededLimit;
+
+	public ProtobufParser(byte[] protobufData) {
+		this(protobufData, null, 0, 0);
+	}
+
+	/**
+	 * creates a parser, which drops all samples not accepted by a filter and which stops parsing
+	 * as soon as a limit is exceeded (see also {@link Parser#Parser(String, MetricFilter, int, int)}).
+	 * @param protobufData the data to parse
+	 * @param metricFilter the filter to apply; may be <code>null</code>, if all samples shall be kept
+	 * @param maxSamples the maximal number of samples to accept; <code>0</code>, if unlimited
+	 * @param maxSeriesPerFamily the maximal number of distinct series to accept per metric family (see {@link SeriesCounter}); <code>0</code>, if unlimited
+	 */
+	public ProtobufParser(byte[] protobufData, @Nullable MetricFilter metricFilter, int maxSamples, int maxSeriesPerFamily) {
+		this(protobufData, metricFilter, maxSamples, maxSeriesPerFamily, false);
+	}
+
+	/**
+	 * creates a parser, which drops all samples not accepted by a filter, which stops parsing
+	 * as soon as a limit is exceeded and which optionally discards the timestamps of the samples
+	 * (see also {@link Parser#Parser(String, MetricFilter, int, int, boolean)}).
+	 * @param protobufData the data to parse
+	 * @param metricFilter the filter to apply; may be <code>null</code>, if all samples shall be kept
+	 * @param maxSamples the maximal number of samples to accept; <code>0</code>, if unlimited
+	 * @param maxSeriesPerFamily the maximal number of distinct series to accept per metric family (see {@link SeriesCounter}); <code>0</code>, if unlimited
+	 * @param dropTimestamps <code>true</code>, if the timestamps provided with the samples shall be discarded
+	 */
+	public ProtobufParser(byte[] protobufData, @Nullable MetricFilter metricFilter, int maxSamples, int maxSeriesPerFamily, boolean dropTimestamps) {
+		this.protobufData = protobufData;
+		this.metricFilter = metricFilter;
+		this.maxSamples = maxSamples;
+		this.seriesCounter = new SeriesCounter(maxSeriesPerFamily);
+		this.dropTimestamps = dropTimestamps;
+	}
+
+	public HashMap<String, Collector.MetricFamilySamples> parse() {
+		this.reset();
+
+		try {
+			while (!this.reader.isAtEnd() && this.exceededLimit == null) {
+				int length = this.reader.readLength();
+				int oldLimit = this.reader.pushLimit(length);
+				this.parseMetricFamily();
+				this.reader.popLimit(oldLimit);
+			}
+		} catch (IllegalArgumentException e) {
+			// NB: as messages are length-delimited, there is no way to resynchronize
+			log.warn(String.format("Detected non-parsable protobuf data at position %d; skipping the remainder", this.reader.getPosition()), e);
+		}
+
+		return this.mapMFS;
+	}
+
+	private void parseMetricFamily() {
+		this.familyName = null;
+		this.familyType = ProtobufFormat.METRICTYPE_UNTYPED;
+		this.familyHelp = "";
+		this.familyMFS = null;
+
+		/*
+		 * NB: The order of the fields is not guaranteed; thus, the metrics are parsed
+		 * only after the metadata of the family is known.
+		 */
+		int[] metricStarts = new int[16];
+		int[] metricLengths = new int[16];
+		int metrics = 0;
+
+		while (!this.reader.isAtEnd()) {
+			int tag = this.reader.readTag();
+			switch (tag >>> 3) {
+			case ProtobufFormat.METRICFAMILY_NAME:
+				this.familyName = this.reader.readString();
+				break;
+			case ProtobufFormat.METRICFAMILY_HELP:
+				this.familyHelp = this.reader.readString();
+				break;
+			case ProtobufFormat.METRICFAMILY_TYPE:
+				this.familyType = (int) this.reader.readVarint();
+				break;
+			case ProtobufFormat.METRICFAMILY_METRIC:
+				if (metrics == metricStarts.length) {
+					metricStarts = Arrays.copyOf(metricStarts, metrics * 2);
+					metricLengths = Arrays.copyOf(metricLengths, metrics * 2);
+				}
+				metricLengths[metrics] = this.reader.readLength();
+				metricStarts[metrics] = this.reader.getPosition();
+				this.reader.skipBytes(metricLengths[metrics]);
+				metrics++;
+				break;
+			default:
+				this.reader.skipField(tag);
+			}
+		}
+
+		if (this.familyName == null || this.familyName.isEmpty()) {
+			throw new IllegalArgumentException("Missing name of metric family");
+		}
+
+		for (int i = 0; i < metrics && this.exceededLimit == null; i++) {
+			ProtobufReader metricReader = this.reader;
+			this.reader = new ProtobufReader(this.protobufData, metricStarts[i], metricLengths[i]);
+			this.parseMetric();
+			this.reader = metricReader;
+		}
+	}
+
+	private void parseMetric() {
+		List<String> labelNames = Collections.emptyList();
+		List<String> labelValues = Collections.emptyList();
+		Long timestampMs = null;
+
+		double value = 0.0;
+		Exemplar exemplar = null;
+		int compositeStart = -1;
+		int compositeLength = 0;
+
+		while (!this.reader.isAtEnd()) {
+			int tag = this.reader.readTag();
+			switch (tag >>> 3) {
+			case ProtobufFormat.METRIC_LABEL:
+				if (labelNames.isEmpty()) {
+					labelNames = new ArrayList<>(4);
+					labelValues = new ArrayList<>(4);
+				}
+				this.parseLabelPair(labelNames, labelValues, true);
+				break;
+			case ProtobufFormat.METRIC_GAUGE:
+			case ProtobufFormat.METRIC_COUNTER:
+			case ProtobufFormat.METRIC_UNTYPED: {
+				int oldLimit = this.reader.pushLimit(this.reader.readLength());
+				while (!this.reader.isAtEnd()) {
+					int valueTag = this.reader.readTag();
+					if (valueTag >>> 3 == ProtobufFormat.VALUE) {
+						value = this.reader.readDouble();
+					} else if ((tag >>> 3) == ProtobufFormat.METRIC_COUNTER && valueTag >>> 3 == ProtobufFormat.COUNTER_EXEMPLAR) {
+						exemplar = this.parseExemplar();
+					} else {
+						this.reader.skipField(valueTag);
+					}
+				}
+				this.reader.popLimit(oldLimit);
+				break;
+			}
+			case ProtobufFormat.METRIC_SUMMARY:
+			case ProtobufFormat.METRIC_HISTOGRAM:
+				compositeLength = this.reader.readLength();
+				compositeStart = this.reader.getPosition();
+				this.reader.skipBytes(compositeLength);
+				break;
+			case ProtobufFormat.METRIC_TIMESTAMP_MS:
+				final long parsedTimestampMs = this.reader.readVarint();
+				if (!this.dropTimestamps) {
+					timestampMs = parsedTimestampMs;
+				}
+				break;
+			default:
+				this.reader.skipField(tag);
+			}
+		}
+
+		switch (this.familyType) {
+		case ProtobufFormat.METRICTYPE_SUMMARY:
+			this.parseComposite(compositeStart, compositeLength, labelNames, labelValues, timestampMs, true);
+			break;
+		case ProtobufFormat.METRICTYPE_HISTOGRAM:
+		case ProtobufFormat.METRICTYPE_GAUGE_HISTOGRAM:
+			this.parseComposite(compositeStart, compositeLength, labelNames, labelValues, timestampMs, false);
+			break;
+		default:
+			this.addSample(this.familyName, labelNames, labelValues, value, timestampMs, exemplar);
+		}
+	}
+
+	private void parseComposite(int start, int length, List<String> labelNames, List<String> labelValues, Long timestampMs, boolean summary) {
+		if (start == -1) {
+			return;
+		}
+
+		ProtobufReader metricReader = this.reader;
+		this.reader = new ProtobufReader(this.protobufData, start, length);
+
+		double count = 0.0;
+		double sum = 0.0;
+		boolean hasInfBucket = false;
+		while (!this.reader.isAtEnd() && this.exceededLimit == null) {
+			int tag = this.reader.readTag();
+			int field = tag >>> 3;
+			if (field == ProtobufFormat.SUMMARY_SAMPLE_COUNT) {
+				// NB: same field number for summaries and histograms
+				count = this.reader.readVarint();
+			} else if (field == ProtobufFormat.SUMMARY_SAMPLE_SUM) {
+				sum = this.reader.readDouble();
+			} else if (field == ProtobufFormat.HISTOGRAM_SAMPLE_COUNT_FLOAT && !summary) {
+				count = this.reader.readDouble();
+			} else if (field == ProtobufFormat.SUMMARY_QUANTILE && summary) {
+				this.parseQuantile(labelNames, labelValues, timestampMs);
+			} else if (field == ProtobufFormat.HISTOGRAM_BUCKET && !summary) {
+				hasInfBucket = this.parseBucket(labelNames, labelValues, timestampMs);
+			} else {
+				this.reader.skipField(tag);
+			}
+		}
+
+		this.reader = metricReader;
+
+		if (!summary && !hasInfBucket) {
+			// NB: the +Inf bucket is implicit in the protobuf format, but must be explicit in the text formats
+			this.addSample(this.familyName + ProtobufFormat.SUFFIX_BUCKET, withLabel(labelNames, ProtobufFormat.LABEL_LE), withLabel(labelValues, "+Inf"), count, timestampMs, null);
+		}
+
+		final boolean gauge = this.familyType == ProtobufFormat.METRICTYPE_GAUGE_HISTOGRAM;
+		this.addSample(this.familyName + (gauge ? SUFFIX_GCOUNT : ProtobufFormat.SUFFIX_COUNT), labelNames, labelValues, count, timestampMs, null);
+		this.addSample(this.familyName + (gauge ? SUFFIX_GSUM : ProtobufFormat.SUFFIX_SUM), labelNames, labelValues, sum, timestampMs, null);
+	}
+
+	private void parseQuantile(List<String> labelNames, List<String> labelValues, Long timestampMs) {
+		int oldLimit = this.reader.pushLimit(this.reader.readLength());
+
+		double quantile = 0.0;
+		double value = 0.0;
+		while (!this.reader.isAtEnd()) {
+			int tag = this.reader.readTag();
+			switch (tag >>> 3) {
+			case ProtobufFormat.QUANTILE_QUANTILE:
+				quantile = this.reader.readDouble();
+				break;
+			case ProtobufFormat.QUANTILE_VALUE:
+				value = this.reader.readDouble();
+				break;
+			default:
+				this.reader.skipField(tag);
+			}
+		}
+		this.reader.popLimit(oldLimit);
+
+		this.addSample(this.familyName, withLabel(labelNames, ProtobufFormat.LABEL_QUANTILE), withLabel(labelValues, LabelDictionary.getShared().intern(Collector.doubleToGoString(quantile))), value, timestampMs, null);
+	}
+
+	private boolean parseBucket(List<String> labelNames, List<String> labelValues, Long timestampMs) {
+		int oldLimit = this.reader.pushLimit(this.reader.readLength());
+
+		double cumulativeCount = 0.0;
+		double upperBound = 0.0;
+		Exemplar exemplar = null;
+		while (!this.reader.isAtEnd()) {
+			int tag = this.reader.readTag();
+			switch (tag >>> 3) {
+			case ProtobufFormat.BUCKET_CUMULATIVE_COUNT:
+				cumulativeCount = this.reader.readVarint();
+				break;
+			case ProtobufFormat.BUCKET_CUMULATIVE_COUNT_FLOAT:
+				cumulativeCount = this.reader.readDouble();
+				break;
+			case ProtobufFormat.BUCKET_UPPER_BOUND:
+				upperBound = this.reader.readDouble();
+				break;
+			case ProtobufFormat.BUCKET_EXEMPLAR:
+				exemplar = this.parseExemplar();
+				break;
+			default:
+				this.reader.skipField(tag);
+			}
+		}
+		this.reader.popLimit(oldLimit);
+
+		this.addSample(this.familyName + ProtobufFormat.SUFFIX_BUCKET, withLabel(labelNames, ProtobufFormat.LABEL_LE), withLabel(labelValues, LabelDictionary.getShared().intern(Collector.doubleToGoString(upperBound))), cumulativeCount, timestampMs, exemplar);
+
+		return upperBound == Double.POSITIVE_INFINITY;
+	}
+
+	private Exemplar parseExemplar() {
+		int oldLimit = this.reader.pushLimit(this.reader.readLength());
+
+		List<String> labelNames = new ArrayList<>(2);
+		List<String> labelValues = new ArrayList<>(2);
+		double value = 0.0;
+		Long timestampMs = null;
+		while (!this.reader.isAtEnd()) {
+			int tag = this.reader.readTag();
+			switch (tag >>> 3) {
+			case ProtobufFormat.EXEMPLAR_LABEL:
+				this.parseLabelPair(labelNames, labelValues, false);
+				break;
+			case ProtobufFormat.EXEMPLAR_VALUE:
+				value = this.reader.readDouble();
+				break;
+			case ProtobufFormat.EXEMPLAR_TIMESTAMP:
+				timestampMs = this.parseTimestamp();
+				break;
+			default:
+				this.reader.skipField(tag);
+			}
+		}
+		this.reader.popLimit(oldLimit);
+
+		return new Exemplar(labelNames, labelValues, value, timestampMs);
+	}
+
+	private long parseTimestamp() {
+		int oldLimit = this.reader.pushLimit(this.reader.readLength());
+
+		long seconds = 0;
+		long nanos = 0;
+		while (!this.reader.isAtEnd()) {
+			int tag = this.reader.readTag();
+			switch (tag >>> 3) {
+			case ProtobufFormat.TIMESTAMP_SECONDS:
+				seconds = this.reader.readVarint();
+				break;
+			case ProtobufFormat.TIMESTAMP_NANOS:
+				nanos = (int) this.reader.readVarint();
+				break;
+			default:
+				this.reader.skipField(tag);
+			}
+		}
+		this.reader.popLimit(oldLimit);
+
+		return seconds * 1000L + nanos / 1000000L;
+	}
+
+	/**
+	 * parses a label pair
+	 * @param labelNames the list to which the name of the label is added
+	 * @param labelValues the list to which the value of the label is added
+	 * @param deduplicate <code>true</code>, if name and value shall be looked up in the {@link LabelDictionary};
+	 * this is not useful for label sets which change with every scrape (such as the ones of exemplars)
+	 */
+	private void parseLabelPair(List<String> labelNames, List<String> labelValues, boolean deduplicate) {
+		int oldLimit = this.reader.pushLimit(this.reader.readLength());
+
+		String name = "";
+		String value = "";
+		while (!this.reader.isAtEnd()) {
+			int tag = this.reader.readTag();
+			switch (tag >>> 3) {
+			case ProtobufFormat.LABELPAIR_NAME:
+				name = this.reader.readString();
+				break;
+			case ProtobufFormat.LABELPAIR_VALUE:
+				value = this.reader.readString();
+				break;
+			default:
+				this.reader.skipField(tag);
+			}
+		}
+		this.reader.popLimit(oldLimit);
+
+		if (deduplicate) {
+			final LabelDictionary labelDictionary = LabelDictionary.getShared();
+			labelNames.add(labelDictionary.intern(name));
+			labelValues.add(labelDictionary.intern(value));
+		} else {
+			labelNames.add(name);
+			labelValues.add(value);
+		}
+	}
+
+	private static List<String> withLabel(List<String> list, String element) {
+		List<String> result = new ArrayList<>(list.size() + 1);
+		result.addAll(list);
+		result.add(element);
+		return result;
+	}
+
+	private void addSample(String sampleName, List<String> labelNames, List<String> labelValues, double value, Long timestampMs, Exemplar exemplar) {
+		if (this.exceededLimit != null) {
+			return;
+		}
+
+		if (this.metricFilter != null &&
+				(!this.metricFilter.isMetricNameAccepted(sampleName) || !this.metricFilter.isLabelSetAccepted(labelNames, labelValues))) {
+			this.droppedSamples++;
+			return;
+		}
+
+		if (this.maxSamples > 0 && this.samples >= this.maxSamples) {
+			this.exceededLimit = Parser.LIMIT_SAMPLES;
+			return;
+		}
+
+		if (this.familyMFS == null) {
+			this.familyMFS = this.mapMFS.get(this.familyName);
+			if (this.familyMFS == null) {
+				this.familyMFS = new MetricFamilySamples(this.familyName, determineType(this.familyType), this.familyHelp, new ArrayList<>());
+				this.mapMFS.put(this.familyName, this.familyMFS);
+			}
+		}
+
+		Sample sample = null;
+		if (exemplar == null) {
+			sample = new Sample(sampleName, labelNames, labelValues, value, timestampMs);
+		} else {
+			sample = new ExemplarSample(sampleName, labelNames, labelValues, value, timestampMs, exemplar);
+		}
+
+		if (!this.seriesCounter.add(this.familyMFS.name, this.familyMFS.type, sample)) {
+			this.exceededLimit = Parser.LIMIT_SERIES_PER_FAMILY;
+			return;
+		}
+
+		this.familyMFS.samples.add(sample);
+		this.samples++;
+	}
+
+	private static Type determineType(int metricType) {
+		switch (metricType) {
+		case ProtobufFormat.METRICTYPE_COUNTER:
+			return Type.COUNTER;
+		case ProtobufFormat.METRICTYPE_GAUGE:
+		case ProtobufFormat.METRICTYPE_GAUGE_HISTOGRAM:
+			return Type.GAUGE;
+		case ProtobufFormat.METRICTYPE_SUMMARY:
+			return Type.SUMMARY;
+		case ProtobufFormat.METRICTYPE_HISTOGRAM:
+			return Type.HISTOGRAM;
+		default:
+			return Type.UNTYPED;
+		}
+	}
+
+	private void reset() {
+		this.mapMFS.clear();
+		this.reader = new ProtobufReader(this.protobufData);
+		this.familyName = null;
+		this.familyType = ProtobufFormat.METRICTYPE_UNTYPED;
+		this.familyHelp = null;
+		this.familyMFS = null;
+		this.droppedSamples = 0;
+		this.samples = 0;
+		this.seriesCounter.reset();
+		this.exceededLimit = null;
+	}
+
+	/**
+	 * @return the number of samples dropped by the metric filter during the last parsing
+	 */
+	public int getDroppedSamples() {
+		return droppedSamples;
+	}
+
+	/**
+	 * @return the limit, which was exceeded during the last parsing (see {@link Parser#getExceededLimit()});
+	 * <code>null</code>, if no limit was exceeded.
+	 */
+	@Nullable
+	public String getExceededLimit() {
+		return exceededLimit;
+	}
+}
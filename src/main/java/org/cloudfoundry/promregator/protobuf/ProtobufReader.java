@@ -0,0 +1,145 @@
+package org.cloudfoundry.promregator.protobuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A minimal decoder for the wire format of Protocol Buffers, which is sufficient to read
+ * the messages of <code>io.prometheus.client.MetricFamily</code>.
+ *
+ * Nested messages are read by restricting the reader to the range of the message
+ * (see {@link #pushLimit(int)}); no data is copied except for strings.
+ * Malformed data is reported by an {@link IllegalArgumentException}.
+ */
+class ProtobufReader {
+	private final byte[] data;
+	private int position;
+	private int limit;
+
+	ProtobufReader(byte[] data) {
+		this(data, 0, data.length);
+	}
+
+	/**
+	 * creates a reader, which is restricted to a range of the data
+	 * @param data the data to read
+	 * @param offset the position of the first byte to read
+	 * @param length the number of bytes to read
+	 */
+	ProtobufReader(byte[] data, int offset, int length) {
+		this.data = data;
+		this.position = offset;
+		this.limit = offset + length;
+	}
+
+	boolean isAtEnd() {
+		return this.position >= this.limit;
+	}
+
+	int getPosition() {
+		return this.position;
+	}
+
+	/**
+	 * restricts the reader to the next bytes
+	 * @param length the number of bytes to which reading is restricted
+	 * @return the previous limit, which needs to be provided to {@link #popLimit(int)}
+	 */
+	int pushLimit(int length) {
+		if (length < 0 || length > this.limit - this.position) {
+			throw new IllegalArgumentException(String.format("Message length %d at position %d exceeds the available data", length, this.position));
+		}
+
+		int oldLimit = this.limit;
+		this.limit = this.position + length;
+		return oldLimit;
+	}
+
+	/**
+	 * skips the remainder of the current message and restores the previous limit
+	 * @param oldLimit the limit as returned by {@link #pushLimit(int)}
+	 */
+	void popLimit(int oldLimit) {
+		this.position = this.limit;
+		this.limit = oldLimit;
+	}
+
+	/**
+	 * @return the tag of the next field; the field number is provided by <code>tag &gt;&gt;&gt; 3</code>,
+	 * the wire type by <code>tag &amp; 7</code>.
+	 */
+	int readTag() {
+		return (int) this.readVarint();
+	}
+
+	long readVarint() {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			if (this.position >= this.limit) {
+				throw new IllegalArgumentException("Truncated varint");
+			}
+
+			byte b = this.data[this.position++];
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	double readDouble() {
+		if (this.limit - this.position < 8) {
+			throw new IllegalArgumentException("Truncated double");
+		}
+
+		long bits = 0;
+		for (int i = 0; i < 8; i++) {
+			bits |= (this.data[this.position++] & 0xFFL) << (8 * i);
+		}
+		return Double.longBitsToDouble(bits);
+	}
+
+	/**
+	 * @return the length of the length-delimited field, which starts at the current position
+	 */
+	int readLength() {
+		long length = this.readVarint();
+		if (length < 0 || length > this.limit - this.position) {
+			throw new IllegalArgumentException(String.format("Field length %d at position %d exceeds the available data", length, this.position));
+		}
+		return (int) length;
+	}
+
+	String readString() {
+		int length = this.readLength();
+		String result = new String(this.data, this.position, length, StandardCharsets.UTF_8);
+		this.position += length;
+		return result;
+	}
+
+	void skipField(int tag) {
+		switch (tag & 7) {
+		case ProtobufWriter.WIRETYPE_VARINT:
+			this.readVarint();
+			break;
+		case ProtobufWriter.WIRETYPE_FIXED64:
+			this.skipBytes(8);
+			break;
+		case ProtobufWriter.WIRETYPE_LENGTH_DELIMITED:
+			this.skipBytes(this.readLength());
+			break;
+		case ProtobufWriter.WIRETYPE_FIXED32:
+			this.skipBytes(4);
+			break;
+		default:
+			throw new IllegalArgumentException(String.format("Unsupported wire type %d at position %d", tag & 7, this.position));
+		}
+	}
+
+	void skipBytes(int length) {
+		if (this.limit - this.position < length) {
+			throw new IllegalArgumentException("Truncated field");
+		}
+		this.position += length;
+	}
+}
@@ -0,0 +1,159 @@
+package org.cloudfoundry.promregator.protobuf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A minimal encoder for the wire format of Protocol Buffers, which is sufficient to write
+ * the messages of <code>io.prometheus.client.MetricFamily</code>.
+ *
+ * Nested messages are written in place: Their length prefix is inserted as soon as the
+ * message is completed. Details of the wire format are described at
+ * https://developers.google.com/protocol-buffers/docs/encoding
+ */
+class ProtobufWriter {
+	static final int WIRETYPE_VARINT = 0;
+	static final int WIRETYPE_FIXED64 = 1;
+	static final int WIRETYPE_LENGTH_DELIMITED = 2;
+	static final int WIRETYPE_FIXED32 = 5;
+
+	private byte[] buffer;
+	private int position;
+
+	private int[] messageStarts = new int[8];
+	private int depth;
+
+	ProtobufWriter(int initialCapacity) {
+		this.buffer = new byte[Math.max(initialCapacity, 64)];
+	}
+
+	/**
+	 * starts a nested message, which is provided as field of the current message
+	 * @param fieldNumber the number of the field
+	 */
+	void startMessage(int fieldNumber) {
+		this.writeTag(fieldNumber, WIRETYPE_LENGTH_DELIMITED);
+		this.startDelimited();
+	}
+
+	/**
+	 * starts a message, which is only prefixed by its length (and not by a tag)
+	 */
+	void startDelimited() {
+		if (this.depth == this.messageStarts.length) {
+			this.messageStarts = Arrays.copyOf(this.messageStarts, this.depth * 2);
+		}
+		this.messageStarts[this.depth++] = this.position;
+	}
+
+	/**
+	 * completes the message, which was started last, by inserting its length prefix
+	 */
+	void endMessage() {
+		final int start = this.messageStarts[--this.depth];
+		final int length = this.position - start;
+		final int prefixSize = varintSize(length);
+
+		this.ensureCapacity(prefixSize);
+		System.arraycopy(this.buffer, start, this.buffer, start + prefixSize, length);
+
+		int end = this.position;
+		this.position = start;
+		this.writeVarint(length);
+		this.position = end + prefixSize;
+	}
+
+	void writeDouble(int fieldNumber, double value) {
+		this.writeTag(fieldNumber, WIRETYPE_FIXED64);
+
+		long bits = Double.doubleToRawLongBits(value);
+		this.ensureCapacity(8);
+		for (int i = 0; i < 8; i++) {
+			this.buffer[this.position++] = (byte) (bits >>> (8 * i));
+		}
+	}
+
+	void writeUInt64(int fieldNumber, long value) {
+		this.writeTag(fieldNumber, WIRETYPE_VARINT);
+		this.writeVarint(value);
+	}
+
+	void writeInt64(int fieldNumber, long value) {
+		// NB: negative values of int64 are encoded in the same way as uint64
+		this.writeUInt64(fieldNumber, value);
+	}
+
+	void writeInt32(int fieldNumber, int value) {
+		// NB: negative values of int32 are sign-extended to ten bytes
+		this.writeUInt64(fieldNumber, value);
+	}
+
+	void writeString(int fieldNumber, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		this.writeTag(fieldNumber, WIRETYPE_LENGTH_DELIMITED);
+		this.writeVarint(bytes.length);
+		this.ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+		this.position += bytes.length;
+	}
+
+	private void writeTag(int fieldNumber, int wireType) {
+		this.writeVarint((fieldNumber << 3) | wireType);
+	}
+
+	private void writeVarint(long value) {
+		this.ensureCapacity(10);
+
+		long v = value;
+		while ((v & ~0x7FL) != 0) {
+			this.buffer[this.position++] = (byte) ((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		this.buffer[this.position++] = (byte) v;
+	}
+
+	private static int varintSize(int value) {
+		int size = 1;
+		int v = value;
+		while ((v & ~0x7F) != 0) {
+			size++;
+			v >>>= 7;
+		}
+		return size;
+	}
+
+	private void ensureCapacity(int additionalBytes) {
+		if (this.position + additionalBytes <= this.buffer.length) {
+			return;
+		}
+
+		int newCapacity = Math.max(this.buffer.length * 2, this.position + additionalBytes);
+		this.buffer = Arrays.copyOf(this.buffer, newCapacity);
+	}
+
+	/**
+	 * @return the number of bytes written so far
+	 */
+	int size() {
+		return this.position;
+	}
+
+	void writeTo(OutputStream os) throws IOException {
+		if (this.depth != 0) {
+			throw new IllegalStateException("There are nested messages which have not been completed");
+		}
+
+		os.write(this.buffer, 0, this.position);
+	}
+
+	byte[] toByteArray() {
+		if (this.depth != 0) {
+			throw new IllegalStateException("There are nested messages which have not been completed");
+		}
+
+		return Arrays.copyOf(this.buffer, this.position);
+	}
+}
@@ -5,6 +5,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
 
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.openmetrics.ExemplarSample;
+import org.cloudfoundry.promregator.textformat004.LabelSuffix;
+import org.cloudfoundry.promregator.textformat004.LabelSuffixSample;
+
 import io.prometheus.client.Collector;
 import io.prometheus.client.Collector.MetricFamilySamples;
 
@@ -22,16 +28,39 @@ public abstract class AbstractMetricFamilySamplesEnricher {
 		
 		HashMap<String, Collector.MetricFamilySamples> newMap = new HashMap<>();
 		
+		final LabelSuffix labelSuffix = this.getLabelSuffix();
+		
 		for (Entry<String, MetricFamilySamples> entry : emfs.entrySet()) {
 			MetricFamilySamples mfs = entry.getValue();
 			
 			List<Collector.MetricFamilySamples.Sample> newSamples = new LinkedList<>();
 			for (Collector.MetricFamilySamples.Sample sample : mfs.samples) {
-				Collector.MetricFamilySamples.Sample newSample = new Collector.MetricFamilySamples.Sample(
+				Collector.MetricFamilySamples.Sample newSample = null;
+				if (sample instanceof ExemplarSample) {
+					// NB: the exemplar refers to data outside of the metric set; thus it is not enriched
+					newSample = new ExemplarSample(
+							sample.name,
+							this.getEnrichedLabelNames(sample.labelNames),
+							this.getEnrichedLabelValues(sample.labelValues),
+							sample.value,
+							sample.timestampMs,
+							((ExemplarSample) sample).getExemplar());
+				} else if (labelSuffix != null) {
+					newSample = new LabelSuffixSample(
+						sample.name,
+						this.getEnrichedLabelNames(sample.labelNames),
+						this.getEnrichedLabelValues(sample.labelValues),
+						sample.value,
+						sample.timestampMs,
+						labelSuffix);
+				} else {
+					newSample = new Collector.MetricFamilySamples.Sample(
 						sample.name,
 						this.getEnrichedLabelNames(sample.labelNames),
 						this.getEnrichedLabelValues(sample.labelValues),
-						sample.value);
+						sample.value,
+						sample.timestampMs);
+				}
 				newSamples.add(newSample);
 			}
 			
@@ -50,6 +79,15 @@ public abstract class AbstractMetricFamilySamplesEnricher {
 	protected abstract List<String> getEnrichedLabelNames(List<String> original);
 	
 	public abstract List<String> getEnrichedLabelValues(List<String> original);
+	
+	/**
+	 * @return the labels added by this enricher, which are pre-rendered for serialization;
+	 * <code>null</code>, if the labels shall not be pre-rendered
+	 */
+	@Nullable
+	protected LabelSuffix getLabelSuffix() {
+		return null;
+	}
 
 
 
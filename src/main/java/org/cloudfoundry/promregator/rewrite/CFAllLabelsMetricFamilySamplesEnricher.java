@@ -1,9 +1,13 @@
 package org.cloudfoundry.promregator.rewrite;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.cloudfoundry.promregator.textformat004.LabelDictionary;
+import org.cloudfoundry.promregator.textformat004.LabelSuffix;
+
 /**
  * A MetricFamilySamplesEnricher which enriches the labels of metrics by 
  * - org_name
@@ -33,12 +37,21 @@ public class CFAllLabelsMetricFamilySamplesEnricher extends AbstractMetricFamily
 	private String spaceName;
 	private String appName;
 	private String instanceId;
+	private String instanceNumber;
+	
+	private LabelSuffix labelSuffix;
 
 	public CFAllLabelsMetricFamilySamplesEnricher(String orgName, String spaceName, String appName, String instanceId) {
-		this.instanceId = instanceId;
-		this.spaceName = spaceName;
-		this.appName = appName;
-		this.orgName = orgName;
+		/*
+		 * NB: these values are added to each sample of the instance; using the instances of the
+		 * dictionary, all scraping results of the instance share the same strings.
+		 */
+		final LabelDictionary labelDictionary = LabelDictionary.getShared();
+		this.instanceId = labelDictionary.intern(instanceId);
+		this.spaceName = labelDictionary.intern(spaceName);
+		this.appName = labelDictionary.intern(appName);
+		this.orgName = labelDictionary.intern(orgName);
+		this.instanceNumber = labelDictionary.intern(getInstanceFromInstanceId(instanceId));
 	}
 	
 	@Override
@@ -57,11 +70,22 @@ public class CFAllLabelsMetricFamilySamplesEnricher extends AbstractMetricFamily
 		clone.add(this.spaceName);
 		clone.add(this.appName);
 		clone.add(this.instanceId);
-		clone.add(getInstanceFromInstanceId(this.instanceId));
+		clone.add(this.instanceNumber);
 		
 		return clone;
 	}
 	
+	@Override
+	protected LabelSuffix getLabelSuffix() {
+		if (this.labelSuffix == null && this.instanceNumber != null 
+				&& this.orgName != null && this.spaceName != null && this.appName != null && this.instanceId != null) {
+			// NB: the suffix is only rendered, if samples are enriched (and not if only the label values are requested)
+			this.labelSuffix = new LabelSuffix(Arrays.asList(labelNames), this.getEnrichedLabelValues(Collections.emptyList()));
+		}
+		
+		return this.labelSuffix;
+	}
+	
 	private static String getInstanceFromInstanceId(String instanceId) {
 		if (instanceId == null)
 			return null;
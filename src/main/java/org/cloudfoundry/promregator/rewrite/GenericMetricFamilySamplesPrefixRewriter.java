@@ -44,7 +44,8 @@ public class GenericMetricFamilySamplesPrefixRewriter {
 						this.ensureWithPrefix(sample.name),
 						sample.labelNames,
 						sample.labelValues,
-						sample.value);
+						sample.value,
+						sample.timestampMs);
 				newSamples.add(newSample);
 			}
 			
@@ -4,6 +4,7 @@ import java.util.Enumeration;
 import java.util.HashMap;
 
 import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
 
 public class MFSUtils {
 
@@ -17,4 +18,35 @@ public class MFSUtils {
 		}
 		return map;
 	}
+	
+	/**
+	 * estimates the size of a set of metric family samples, once they are serialized in text format 0.0.4.
+	 * The estimate is meant to be cheap to compute, not to be exact.
+	 * @param map the metric family samples to estimate, indexed by their names
+	 * @return the estimated size in bytes
+	 */
+	public static long estimateSize(HashMap<String, MetricFamilySamples> map) {
+		long size = 0;
+		
+		for (MetricFamilySamples mfs : map.values()) {
+			if (mfs == null) {
+				continue;
+			}
+			
+			// "# HELP" and "# TYPE" lines
+			size += 2 * mfs.name.length() + (mfs.help == null ? 0 : mfs.help.length()) + 30;
+			
+			for (Sample sample : mfs.samples) {
+				// name, value and line break
+				size += sample.name.length() + 20;
+				
+				for (int i = 0; i < sample.labelNames.size(); i++) {
+					// name, value, quotes, equals sign and separator
+					size += sample.labelNames.get(i).length() + sample.labelValues.get(i).length() + 4;
+				}
+			}
+		}
+		
+		return size;
+	}
 }
@@ -3,6 +3,7 @@ package org.cloudfoundry.promregator.rewrite;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -10,9 +11,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map.Entry;
 
+import org.cloudfoundry.promregator.openmetrics.OpenMetricsFormat;
+import org.cloudfoundry.promregator.protobuf.ProtobufFormat;
+import org.cloudfoundry.promregator.textformat004.TextFormat004Writer;
+
 import io.prometheus.client.Collector.MetricFamilySamples;
 import io.prometheus.client.Collector.Type;
-import io.prometheus.client.exporter.common.TextFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,10 +82,27 @@ public class MergableMetricFamilySamples {
 	}
 	
 	public String toType004String() {
+		return new String(this.toType004Bytes(), StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * @return the merged metric family samples in text format 0.0.4, encoded in UTF-8; 
+	 * the labels added by enrichment are not escaped and encoded again for each sample (see {@link TextFormat004Writer}).
+	 */
+	public byte[] toType004Bytes() {
 		Enumeration<MetricFamilySamples> resultEMFS = this.getEnumerationMetricFamilySamples();
+		return TextFormat004Writer.toText004ByteArray(resultEMFS);
+	}
+	
+	public String toOpenMetrics100String() {
+		/*
+		 * NB: Unlike text format 0.0.4, OpenMetrics supports untyped metrics (as type "unknown"),
+		 * so there is no need to drop them here.
+		 */
+		Enumeration<MetricFamilySamples> resultEMFS = Collections.enumeration(this.map.values());
 		Writer writer = new StringWriter();
 		try {
-			TextFormat.write004(writer, resultEMFS);
+			OpenMetricsFormat.write100(writer, resultEMFS);
 		} catch (IOException e) {
 			log.error("IO Exception on StringWriter; uuuhhh...", e);
 		}
@@ -89,4 +110,19 @@ public class MergableMetricFamilySamples {
 		return writer.toString();
 	}
 	
+	/**
+	 * @return the merged metric family samples in OpenMetrics format 1.0.0, encoded in UTF-8
+	 */
+	public byte[] toOpenMetrics100Bytes() {
+		return this.toOpenMetrics100String().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	public byte[] toProtobufDelimitedBytes() {
+		/*
+		 * NB: Same as OpenMetrics, the protobuf format supports untyped metrics,
+		 * so there is no need to drop them here.
+		 */
+		return ProtobufFormat.toDelimitedByteArray(Collections.enumeration(this.map.values()));
+	}
+	
 }
@@ -5,6 +5,8 @@ import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
 
+import reactor.core.publisher.Flux;
+
 public interface AppInstanceScanner {
 
 	/**
@@ -22,4 +24,26 @@ public interface AppInstanceScanner {
 	 */
 	@Nullable
 	List<Instance> determineInstancesFromTargets(List<ResolvedTarget> targets, @Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter);
+	
+	/**
+	 * determines the instances based on a provided list of targets without blocking the calling thread.
+	 * The instances are emitted as soon as they are available; see also 
+	 * {@link #determineInstancesFromTargets(List, Predicate, Predicate)}.
+	 * The default implementation delegates to the blocking variant on subscription; implementations 
+	 * supporting non-blocking retrieval should override it.
+	 * @param targets the list of targets, for which the properties of instances shall be determined
+	 * @param applicationIdFilter an optional filter function allowing to prefilter results early, indicating whether an application based on its applicationId is in scope or not
+	 * @param instanceFilter an optional filter function allowing to prefilter results early, indicating whether an instance is in scope or not
+	 * @return the instances containing the access URL and the instance identifier
+	 */
+	default Flux<Instance> determineInstancesFromTargetsReactive(List<ResolvedTarget> targets, @Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
+		return Flux.defer(() -> {
+			List<Instance> instances = this.determineInstancesFromTargets(targets, applicationIdFilter, instanceFilter);
+			if (instances == null) {
+				return Flux.error(new IllegalStateException("Unable to determine instances from provided targets"));
+			}
+			
+			return Flux.fromIterable(instances);
+		});
+	}
 }
@@ -1,11 +1,13 @@
 package org.cloudfoundry.promregator.scanner;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import javax.annotation.PostConstruct;
 
@@ -13,13 +15,20 @@ import org.apache.commons.collections4.map.PassiveExpiringMap;
 import org.cloudfoundry.promregator.config.Target;
 import org.springframework.beans.factory.annotation.Value;
 
+import reactor.core.publisher.Flux;
+
 public class CachingTargetResolver implements TargetResolver {
 	@Value("${cf.cache.timeout.resolver:300}")
 	private int timeoutCacheResolverLevel;
 
 	private TargetResolver parentTargetResolver;
 	
+	/*
+	 * NB: PassiveExpiringMap is not thread-safe (even reading may remove expired entries);
+	 * thus, all accesses need to be synchronized on targetResolutionCacheLock.
+	 */
 	private PassiveExpiringMap<Target, List<ResolvedTarget>> targetResolutionCache;
+	private final Object targetResolutionCacheLock = new Object();
 	
 	public CachingTargetResolver(TargetResolver parentTargetResolver) {
 		this.parentTargetResolver = parentTargetResolver;
@@ -40,30 +49,41 @@ public class CachingTargetResolver implements TargetResolver {
 
 	@Override
 	public List<ResolvedTarget> resolveTargets(List<Target> configTargets) {
-		List<Target> toBeLoaded = new LinkedList<>();
-		
-		List<ResolvedTarget> result = new LinkedList<>();
-		
-		for (Target configTarget : configTargets) {
-			List<ResolvedTarget> cached = this.targetResolutionCache.get(configTarget);
-			if (cached != null) {
-				result.addAll(cached);
-			} else {
-				toBeLoaded.add(configTarget);
+		return this.resolveTargetsReactive(configTargets).collectList().block();
+	}
+	
+	@Override
+	public Flux<ResolvedTarget> resolveTargetsReactive(List<Target> configTargets) {
+		return Flux.defer(() -> {
+			List<Target> toBeLoaded = new LinkedList<>();
+			
+			List<ResolvedTarget> cachedResult = new LinkedList<>();
+			
+			synchronized (this.targetResolutionCacheLock) {
+				for (Target configTarget : configTargets) {
+					List<ResolvedTarget> cached = this.targetResolutionCache.get(configTarget);
+					if (cached != null) {
+						cachedResult.addAll(cached);
+					} else {
+						toBeLoaded.add(configTarget);
+					}
+				}
 			}
-		}
-		
-		if (!toBeLoaded.isEmpty()) {
-			List<ResolvedTarget> newlyResolvedTargets = this.parentTargetResolver.resolveTargets(toBeLoaded);
 			
-			result.addAll(newlyResolvedTargets);
+			Flux<ResolvedTarget> result = Flux.fromIterable(cachedResult);
 			
-			updateTargetResolutionCache(newlyResolvedTargets);
-		}
-		
-		/* see also issue #75: the list here might include duplicates, which we need to eliminate */
-		HashSet<ResolvedTarget> hset = new HashSet<>(result);
-		return new LinkedList<>(hset);
+			if (!toBeLoaded.isEmpty()) {
+				Flux<ResolvedTarget> newlyResolvedTargets = this.parentTargetResolver.resolveTargetsReactive(toBeLoaded)
+						.collectList()
+						.doOnNext(this::updateTargetResolutionCache)
+						.flatMapIterable(Function.identity());
+				
+				result = Flux.concat(result, newlyResolvedTargets);
+			}
+			
+			/* see also issue #75: the list here might include duplicates, which we need to eliminate */
+			return result.distinct();
+		});
 	}
 
 	private void updateTargetResolutionCache(List<ResolvedTarget> newlyResolvedTargets) {
@@ -77,10 +97,40 @@ public class CachingTargetResolver implements TargetResolver {
 			map.put(rtarget.getOriginalTarget(), list);
 		}
 		
-		this.targetResolutionCache.putAll(map);
+		synchronized (this.targetResolutionCacheLock) {
+			this.targetResolutionCache.putAll(map);
+		}
 	}
 
 	public void invalidateCache() {
-		this.targetResolutionCache.clear();
+		synchronized (this.targetResolutionCacheLock) {
+			this.targetResolutionCache.clear();
+		}
+	}
+	
+	/**
+	 * invalidates all cached resolutions, which may be affected by a change of a single application.
+	 * @param applicationId the id of the application which has changed
+	 * @param includeUnspecificTargets if <code>true</code>, also the resolutions of all targets, which do not explicitly 
+	 * specify an application name (and thus could also match the changed application), are invalidated.
+	 */
+	public void invalidateCacheForApplication(String applicationId, boolean includeUnspecificTargets) {
+		synchronized (this.targetResolutionCacheLock) {
+			for (Iterator<Entry<Target, List<ResolvedTarget>>> it = this.targetResolutionCache.entrySet().iterator(); it.hasNext();) {
+				Entry<Target, List<ResolvedTarget>> entry = it.next();
+				
+				if (includeUnspecificTargets && entry.getKey().getApplicationName() == null) {
+					it.remove();
+					continue;
+				}
+				
+				for (ResolvedTarget rt : entry.getValue()) {
+					if (applicationId.equals(rt.getApplicationId())) {
+						it.remove();
+						break;
+					}
+				}
+			}
+		}
 	}
 }
@@ -5,13 +5,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
 
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
 import org.cloudfoundry.client.v2.organizations.OrganizationResource;
+import org.cloudfoundry.client.v2.routes.Route;
 import org.cloudfoundry.client.v2.spaces.ListSpacesResponse;
 import org.cloudfoundry.client.v2.spaces.SpaceApplicationSummary;
 import org.cloudfoundry.client.v2.spaces.SpaceResource;
@@ -34,6 +37,12 @@ public class ReactiveAppInstanceScanner implements AppInstanceScanner {
 
 	@Value("${cf.cache.timeout.application:300}")
 	private int timeoutCacheApplicationLevel;
+	
+	@Value("${cf.summary.singleAppThreshold:5}")
+	private int singleAppSummaryThreshold;
+	
+	@Value("${cf.scanner.concurrency:32}")
+	private int concurrency;
 
 	/*
 	 * see also https://github.com/promregator/promregator/issues/76
@@ -135,70 +144,78 @@ public class ReactiveAppInstanceScanner implements AppInstanceScanner {
 	@Autowired
 	private CFAccessor cfAccessor;
 	
-	@Override
-	public List<Instance> determineInstancesFromTargets(List<ResolvedTarget> targets, @Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
-		Flux<ResolvedTarget> targetsFlux = Flux.fromIterable(targets);
+	/**
+	 * The lookups performed during a single scan. Each org, space and summary is requested
+	 * at most once per scan, even if it is referred to by multiple targets.
+	 */
+	private class ScanContext {
+		private final Map<String, Mono<String>> orgIds = new ConcurrentHashMap<>();
+		private final Map<String, Mono<String>> spaceIds = new ConcurrentHashMap<>();
+		private final Map<String, Mono<Map<String, SpaceApplicationSummary>>> spaceSummaries = new ConcurrentHashMap<>();
+		private final Map<String, Mono<Map<String, SpaceApplicationSummary>>> applicationSummaries = new ConcurrentHashMap<>();
 		
-		Flux<OSAVector> initialOSAVectorFlux = targetsFlux.map(target -> {
-			OSAVector v = new OSAVector();
-			v.setTarget(target);
-			v.setApplicationId(target.getApplicationId());
-			
-			return v;
-		});
+		private final Map<String, Integer> targetsWithApplicationIdPerSpace;
 		
-		Flux<String> orgIdFlux = initialOSAVectorFlux.flatMapSequential(v -> this.getOrgId(v.getTarget().getOrgName()));
-		Flux<OSAVector> osaVectorOrgFlux = Flux.zip(initialOSAVectorFlux, orgIdFlux).flatMap(tuple -> {
-			OSAVector v = tuple.getT1();
-			if (INVALID_ORG_ID.equals(tuple.getT2())) {
-				// NB: This drops the current target!
-				return Mono.empty();
-			}
-			v.setOrgId(tuple.getT2());
-			return Mono.just(v);
-		});
+		public ScanContext(List<ResolvedTarget> targets) {
+			this.targetsWithApplicationIdPerSpace = countTargetsWithApplicationIdPerSpace(targets);
+		}
 		
-		Flux<String> spaceIdFlux = osaVectorOrgFlux.flatMapSequential(v -> this.getSpaceId(v.getOrgId(), v.getTarget().getSpaceName()));
-		Flux<OSAVector> osaVectorSpaceFlux = Flux.zip(osaVectorOrgFlux, spaceIdFlux).flatMap(tuple -> {
-			OSAVector v = tuple.getT1();
-			if (INVALID_SPACE_ID.equals(tuple.getT2())) {
-				// NB: This drops the current target!
-				return Mono.empty();
-			}
-			v.setSpaceId(tuple.getT2());
-			return Mono.just(v);
-		});
+		public Mono<String> getOrgId(String orgName) {
+			return this.orgIds.computeIfAbsent(orgName.toLowerCase(LOCALE_OF_LOWER_CASE_CONVERSION_FOR_IDENTIFIER_COMPARISON), 
+					key -> ReactiveAppInstanceScanner.this.getOrgId(orgName));
+		}
 		
-		Flux<Map<String, SpaceApplicationSummary>> spaceSummaryFlux = osaVectorSpaceFlux.flatMapSequential(v -> this.getSpaceSummary(v.getSpaceId()));
-		Flux<OSAVector> osaVectorApplicationFlux = Flux.zip(osaVectorSpaceFlux, spaceSummaryFlux).flatMap(tuple -> {
-			OSAVector v = tuple.getT1();
-			
-			if (INVALID_SUMMARY == tuple.getT2()) {
-				// NB: This drops the current target!
-				return Mono.empty();
-			}
-			
-			Map<String, SpaceApplicationSummary> spaceSummaryMap = tuple.getT2();
-			SpaceApplicationSummary sas = spaceSummaryMap.get(v.getTarget().getApplicationName().toLowerCase(LOCALE_OF_LOWER_CASE_CONVERSION_FOR_IDENTIFIER_COMPARISON));
-			/*
-			 * Due to https://github.com/cloudfoundry/cloud_controller_ng/issues/1523,
-			 * we cannot rely on sas.getId() (i.e. it may contain wrong information)
-			 */
-			
-			if (sas == null) {
-				// NB: This drops the current target!
-				return Mono.empty();
-			}
-
-			List<String> urls = sas.getUrls();
-			if (urls != null && !urls.isEmpty()) {
-				v.setAccessURL(this.determineAccessURL(v.getTarget().getProtocol(), urls, v.getTarget().getOriginalTarget().getPreferredRouteRegexPatterns(), v.getTarget().getPath()));
+		public Mono<String> getSpaceId(String orgId, String spaceName) {
+			final String key = String.format("%s|%s", orgId, spaceName.toLowerCase(LOCALE_OF_LOWER_CASE_CONVERSION_FOR_IDENTIFIER_COMPARISON));
+			return this.spaceIds.computeIfAbsent(key, k -> ReactiveAppInstanceScanner.this.getSpaceId(orgId, spaceName));
+		}
+		
+		public Mono<Map<String, SpaceApplicationSummary>> getSummary(OSAVector v) {
+			if (!isSingleAppSummaryApplicable(v.getTarget(), this.targetsWithApplicationIdPerSpace)) {
+				return this.getSpaceSummary(v.getSpaceId());
 			}
 			
-			v.setNumberOfInstances(sas.getInstances());
-			
-			return Mono.just(v);
-		});
+			return this.applicationSummaries.computeIfAbsent(v.getApplicationId(), key -> ReactiveAppInstanceScanner.this.getApplicationSummary(key).cache())
+				.flatMap(map -> {
+					if (INVALID_SUMMARY == map) {
+						// fall back to the (more expensive) summary of the entire space
+						return this.getSpaceSummary(v.getSpaceId());
+					}
+					return Mono.just(map);
+				});
+		}
+		
+		private Mono<Map<String, SpaceApplicationSummary>> getSpaceSummary(String spaceId) {
+			return this.spaceSummaries.computeIfAbsent(spaceId, key -> ReactiveAppInstanceScanner.this.getSpaceSummary(key).cache());
+		}
+	}
+	
+	@Override
+	public List<Instance> determineInstancesFromTargets(List<ResolvedTarget> targets, @Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
+		Mono<List<Instance>> listInstancesMono = this.determineInstancesFromTargetsReactive(targets, applicationIdFilter, instanceFilter).collectList();
+		
+		List<Instance> result = null;
+		try {
+			result = listInstancesMono.block();
+		} catch (RuntimeException e) {
+			log.error("Error during retrieving the instances of a list of targets", e);
+			result = null;
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public Flux<Instance> determineInstancesFromTargetsReactive(List<ResolvedTarget> targets, @Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
+		final ScanContext context = new ScanContext(targets);
+		
+		/*
+		 * All targets are processed concurrently (bounded by the configured concurrency); 
+		 * lookups shared by multiple targets are deduplicated by the scan context.
+		 * The order of the targets is retained.
+		 */
+		Flux<OSAVector> osaVectorApplicationFlux = Flux.fromIterable(targets)
+				.flatMapSequential(target -> this.determineOSAVector(target, context), this.concurrency);
 		
 		// perform pre-filtering, if available
 		if (applicationIdFilter != null) {
@@ -220,18 +237,50 @@ public class ReactiveAppInstanceScanner implements AppInstanceScanner {
 			instancesFlux = instancesFlux.filter(instanceFilter);
 		}
 		
+		return instancesFlux;
+	}
+	
+	private Mono<OSAVector> determineOSAVector(ResolvedTarget target, ScanContext context) {
+		OSAVector v = new OSAVector();
+		v.setTarget(target);
+		v.setApplicationId(target.getApplicationId());
 		
-		Mono<List<Instance>> listInstancesMono = instancesFlux.collectList();
-		
-		List<Instance> result = null;
-		try {
-			result = listInstancesMono.block();
-		} catch (RuntimeException e) {
-			log.error("Error during retrieving the instances of a list of targets", e);
-			result = null;
-		}
-		
-		return result;
+		return context.getOrgId(target.getOrgName())
+			// NB: This drops the current target, if the org id is invalid!
+			.filter(orgId -> !INVALID_ORG_ID.equals(orgId))
+			.flatMap(orgId -> {
+				v.setOrgId(orgId);
+				return context.getSpaceId(orgId, target.getSpaceName());
+			})
+			// NB: This drops the current target, if the space id is invalid!
+			.filter(spaceId -> !INVALID_SPACE_ID.equals(spaceId))
+			.flatMap(spaceId -> {
+				v.setSpaceId(spaceId);
+				return context.getSummary(v);
+			})
+			// NB: This drops the current target, if the summary is invalid!
+			.filter(summaryMap -> INVALID_SUMMARY != summaryMap)
+			.flatMap(summaryMap -> {
+				SpaceApplicationSummary sas = summaryMap.get(target.getApplicationName().toLowerCase(LOCALE_OF_LOWER_CASE_CONVERSION_FOR_IDENTIFIER_COMPARISON));
+				/*
+				 * Due to https://github.com/cloudfoundry/cloud_controller_ng/issues/1523,
+				 * we cannot rely on sas.getId() (i.e. it may contain wrong information)
+				 */
+				
+				if (sas == null) {
+					// NB: This drops the current target!
+					return Mono.empty();
+				}
+				
+				List<String> urls = sas.getUrls();
+				if (urls != null && !urls.isEmpty()) {
+					v.setAccessURL(this.determineAccessURL(target.getProtocol(), urls, target.getOriginalTarget().getPreferredRouteRegexPatterns(), target.getPath()));
+				}
+				
+				v.setNumberOfInstances(sas.getInstances());
+				
+				return Mono.just(v);
+			});
 	}
 	
 	private Mono<String> getOrgId(String orgNameString) {
@@ -298,6 +347,99 @@ public class ReactiveAppInstanceScanner implements AppInstanceScanner {
 			});
 	}
 	
+	private static String spaceKeyOf(ResolvedTarget target) {
+		return String.format("%s|%s", 
+				target.getOrgName().toLowerCase(LOCALE_OF_LOWER_CASE_CONVERSION_FOR_IDENTIFIER_COMPARISON), 
+				target.getSpaceName().toLowerCase(LOCALE_OF_LOWER_CASE_CONVERSION_FOR_IDENTIFIER_COMPARISON));
+	}
+	
+	private static Map<String, Integer> countTargetsWithApplicationIdPerSpace(List<ResolvedTarget> targets) {
+		Map<String, Integer> result = new HashMap<>();
+		for (ResolvedTarget target : targets) {
+			if (target.getApplicationId() == null) {
+				continue;
+			}
+			
+			result.merge(spaceKeyOf(target), 1, Integer::sum);
+		}
+		return result;
+	}
+	
+	/**
+	 * determines whether the summary of a single application shall be retrieved instead of the summary of the entire space.
+	 * This is only reasonable, if the application's id is already known, and only a few applications
+	 * of the same space are requested. Otherwise, a single request for the space summary is cheaper.
+	 * @param target the target for which the summary shall be retrieved
+	 * @param targetsWithApplicationIdPerSpace the number of targets (having an application id) per space
+	 * @return <code>true</code>, if the summary of the single application shall be requested; <code>false</code> otherwise
+	 */
+	private boolean isSingleAppSummaryApplicable(ResolvedTarget target, Map<String, Integer> targetsWithApplicationIdPerSpace) {
+		if (target.getApplicationId() == null) {
+			return false;
+		}
+		
+		Integer count = targetsWithApplicationIdPerSpace.get(spaceKeyOf(target));
+		return count != null && count <= this.singleAppSummaryThreshold;
+	}
+	
+	private Mono<Map<String, SpaceApplicationSummary>> getApplicationSummary(String applicationIdString) {
+		return this.cfAccessor.retrieveApplicationSummary(applicationIdString)
+			.flatMap(response -> {
+				if (response.getName() == null || response.getInstances() == null) {
+					return Mono.just(INVALID_SUMMARY);
+				}
+				
+				/*
+				 * We only need the name, the number of instances and the URLs of the application.
+				 * Mapping it to a SpaceApplicationSummary allows to process it the same way
+				 * as if it had been retrieved via the summary of the space.
+				 */
+				SpaceApplicationSummary sas = SpaceApplicationSummary.builder()
+						.id(response.getId())
+						.name(response.getName())
+						.instances(response.getInstances())
+						.addAllUrls(determineURLsFromRoutes(response))
+						.build();
+				
+				Map<String, SpaceApplicationSummary> map = new HashMap<>(1);
+				map.put(sas.getName().toLowerCase(LOCALE_OF_LOWER_CASE_CONVERSION_FOR_IDENTIFIER_COMPARISON), sas);
+				
+				return Mono.just(map);
+			}).onErrorResume(e -> {
+				log.warn(String.format("retrieving summary for application id '%s' resulted in an exception; falling back to space summary", applicationIdString), e);
+				return Mono.just(INVALID_SUMMARY);
+			});
+	}
+	
+	private static List<String> determineURLsFromRoutes(SummaryApplicationResponse response) {
+		List<Route> routes = response.getRoutes();
+		if (routes == null) {
+			return new ArrayList<>();
+		}
+		
+		List<String> urls = new ArrayList<>(routes.size());
+		for (Route route : routes) {
+			if (route.getDomain() == null || route.getDomain().getName() == null) {
+				continue;
+			}
+			
+			StringBuilder sb = new StringBuilder();
+			if (route.getHost() != null && !route.getHost().isEmpty()) {
+				sb.append(route.getHost()).append('.');
+			}
+			sb.append(route.getDomain().getName());
+			if (route.getPort() != null) {
+				sb.append(':').append(route.getPort());
+			}
+			if (route.getPath() != null) {
+				sb.append(route.getPath());
+			}
+			urls.add(sb.toString());
+		}
+		
+		return urls;
+	}
+	
 	private String determineAccessURL(final String protocol, final List<String> urls, final List<Pattern> preferredRouteRegex, final String path) {
 		
 		final String url = determineApplicationRoute(urls, preferredRouteRegex);
@@ -1,18 +1,20 @@
 package org.cloudfoundry.promregator.scanner;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
-import java.util.NoSuchElementException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
 
 import org.cloudfoundry.client.v2.applications.ApplicationResource;
 import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
-import org.cloudfoundry.client.v2.organizations.OrganizationResource;
 import org.cloudfoundry.client.v2.spaces.ListSpacesResponse;
-import org.cloudfoundry.client.v2.spaces.SpaceResource;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
+import org.cloudfoundry.promregator.config.PromregatorConfiguration;
 import org.cloudfoundry.promregator.config.Target;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,7 +22,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 public class ReactiveTargetResolver implements TargetResolver {
 	private static final Logger log = LoggerFactory.getLogger(ReactiveTargetResolver.class);
@@ -28,6 +29,14 @@ public class ReactiveTargetResolver implements TargetResolver {
 	
 	@Autowired
 	private CFAccessor cfAccessor;
+	
+	@Autowired(required = false)
+	private PromregatorConfiguration promregatorConfiguration;
+	
+	/**
+	 * the index of all targets configured; it is compiled only once
+	 */
+	private TargetIndex targetIndex;
 
 	private static class IntermediateTarget {
 		private Target configTarget;
@@ -206,200 +215,299 @@ public class ReactiveTargetResolver implements TargetResolver {
 		
 	}
 
+	@PostConstruct
+	public void setupTargetIndex() {
+		List<Target> configTargets = this.promregatorConfiguration == null ? Collections.emptyList() : this.promregatorConfiguration.getTargets();
+		this.targetIndex = new TargetIndex(configTargets);
+	}
+
 	@Override
 	public List<ResolvedTarget> resolveTargets(List<Target> configTargets) {
+		return this.resolveTargetsReactive(configTargets)
+				.collectList()
+				.doOnNext(it -> log.debug("Successfully resolved {} configuration targets to {} resolved targets", configTargets.size(), it.size()))
+				.block();
+	}
+	
+	@Override
+	public Flux<ResolvedTarget> resolveTargetsReactive(List<Target> configTargets) {
+		final TargetIndex index = this.getTargetIndex(configTargets);
+		
 		return Flux.fromIterable(configTargets)
-				.parallel()
-				.runOn(Schedulers.parallel())
 				.map(IntermediateTarget::new)
-				.flatMap(this::resolveOrg)
+				.collectList()
+				.flatMapMany(its -> this.resolveOrgs(its, index.getOrgLevel()))
 				.log(log.getName() + ".resolveOrg")
-				.flatMap(this::resolveSpace)
+				.collectList()
+				.flatMapMany(its -> this.resolveSpaces(its, index.getSpaceLevel()))
 				.log(log.getName() + ".resolveSpace")
-				.flatMap (this::resolveApplication)
+				.collectList()
+				.flatMapMany(its -> this.resolveApplications(its, index.getApplicationLevel()))
 				.log(log.getName() + ".resolveApplication")
 				.map(IntermediateTarget::toResolvedTarget)
-				.sequential()
-				.distinct().collectList()
-				.doOnNext(it -> log.debug("Successfully resolved {} configuration targets to {} resolved targets", configTargets.size(), it.size()))
-				.block();
+				.distinct();
+	}
+	
+	private TargetIndex getTargetIndex(List<Target> configTargets) {
+		/*
+		 * NB: Callers usually only pass a subset of the targets configured (e.g. those,
+		 * which are not cached yet). The index of the configuration covers them; the candidates
+		 * are filtered for each call separately.
+		 */
+		if (this.targetIndex != null && this.targetIndex.covers(configTargets)) {
+			return this.targetIndex;
+		}
+		
+		log.debug("Targets provided are not part of the configuration; creating a separate target index for them");
+		return new TargetIndex(configTargets);
 	}
 
-	private Flux<IntermediateTarget> resolveOrg(IntermediateTarget it) {
+	private Flux<IntermediateTarget> resolveOrgs(List<IntermediateTarget> its, TargetIndex.Level level) {
 		/* NB: Now we have to consider three cases:
 		 * Case 1: both orgName and orgRegex is empty => select all orgs
 		 * Case 2: orgName is null, but orgRegex is filled => filter all orgs with the regex
 		 * Case 3: orgName is filled, but orgRegex is null => select a single org
-		 * In cases 1 and 2, we need the list of all orgs on the platform.
+		 * In cases 1 and 2, we need the list of all orgs on the platform. It is retrieved
+		 * only once and all such targets are evaluated in a single pass over it.
+		 * In case 3, targets referring to the same org only require a single lookup.
 		 */
+		Map<String, List<IntermediateTarget>> literalTargets = new HashMap<>();
+		List<IntermediateTarget> listingTargets = new LinkedList<>();
+		for (IntermediateTarget it : its) {
+			if (level.isLiteral(it.getConfigTarget())) {
+				literalTargets.computeIfAbsent(level.getLiteralName(it.getConfigTarget()), key -> new LinkedList<>()).add(it);
+			} else {
+				listingTargets.add(it);
+			}
+		}
+		
+		// Case 3
+		Flux<IntermediateTarget> literalFlux = Flux.fromIterable(literalTargets.entrySet())
+				.flatMap(entry -> this.resolveOrgByName(entry.getKey(), entry.getValue()));
 		
-		if (it.getConfigTarget().getOrgRegex() == null && it.getConfigTarget().getOrgName() != null) {
-			// Case 3: we have the orgName, but we also need its id
-			Mono<IntermediateTarget> itMono = this.cfAccessor.retrieveOrgId(it.getConfigTarget().getOrgName())
-					.map(ListOrganizationsResponse::getResources)
-					.flatMap(resList -> {
-						if (resList == null || resList.isEmpty()) {
-							return Mono.empty();
-						}
-						
-						return Mono.just(resList.get(0));
-					})
-					.map(res -> {
-						it.setResolvedOrgName(res.getEntity().getName());
-						it.setResolvedOrgId(res.getMetadata().getId());
-						return it;
-					})
-					.doOnError(e -> log.warn(String.format("Error on retrieving org id for org '%s'", it.getConfigTarget().getOrgName()), e))
-					.onErrorResume(__ -> Mono.empty());
-			
-			return itMono.flux();
+		if (listingTargets.isEmpty()) {
+			return literalFlux;
 		}
 		
 		// Case 1 & 2: Get all orgs from the platform
-		Mono<ListOrganizationsResponse> responseMono = this.cfAccessor.retrieveAllOrgIds();
-
-		Flux<OrganizationResource> orgResFlux = responseMono.map(ListOrganizationsResponse::getResources)
-			.flatMapMany(Flux::fromIterable);
+		final Map<Target, List<IntermediateTarget>> candidates = groupByConfigTarget(listingTargets);
+		
+		Flux<IntermediateTarget> listingFlux = this.cfAccessor.retrieveAllOrgIds()
+				.map(ListOrganizationsResponse::getResources)
+				.flatMapMany(Flux::fromIterable)
+				.flatMapIterable(orgRes -> {
+					List<IntermediateTarget> result = new LinkedList<>();
+					for (IntermediateTarget it : selectMatching(level.match(orgRes.getEntity().getName()), candidates)) {
+						IntermediateTarget itnew = new IntermediateTarget(it);
+						itnew.setResolvedOrgId(orgRes.getMetadata().getId());
+						itnew.setResolvedOrgName(orgRes.getEntity().getName());
+						result.add(itnew);
+					}
+					return result;
+				});
 		
-		if (it.getConfigTarget().getOrgRegex() != null) {
-			// Case 2
-			final Pattern filterPattern = Pattern.compile(it.getConfigTarget().getOrgRegex(), Pattern.CASE_INSENSITIVE);
-			
-			orgResFlux = orgResFlux.filter(orgRes -> {
-				Matcher m = filterPattern.matcher(orgRes.getEntity().getName());
-				return m.matches();
-			});
+		return Flux.merge(literalFlux, listingFlux);
+	}
+	
+	private Flux<IntermediateTarget> resolveOrgByName(String orgName, List<IntermediateTarget> its) {
+		return this.cfAccessor.retrieveOrgId(orgName)
+				.map(ListOrganizationsResponse::getResources)
+				.flatMap(resList -> {
+					if (resList == null || resList.isEmpty()) {
+						return Mono.empty();
+					}
+					
+					return Mono.just(resList.get(0));
+				})
+				.doOnError(e -> log.warn(String.format("Error on retrieving org id for org '%s'", orgName), e))
+				.onErrorResume(__ -> Mono.empty())
+				.flatMapIterable(res -> {
+					List<IntermediateTarget> result = new LinkedList<>();
+					for (IntermediateTarget it : its) {
+						IntermediateTarget itnew = new IntermediateTarget(it);
+						itnew.setResolvedOrgName(res.getEntity().getName());
+						itnew.setResolvedOrgId(res.getMetadata().getId());
+						result.add(itnew);
+					}
+					return result;
+				});
+	}
+	
+	private Flux<IntermediateTarget> resolveSpaces(List<IntermediateTarget> its, TargetIndex.Level level) {
+		Map<String, List<IntermediateTarget>> targetsPerOrg = new HashMap<>();
+		for (IntermediateTarget it : its) {
+			targetsPerOrg.computeIfAbsent(it.getResolvedOrgId(), key -> new LinkedList<>()).add(it);
 		}
 		
-		return orgResFlux.map(orgRes -> {
-			IntermediateTarget itnew = new IntermediateTarget(it);
-			itnew.setResolvedOrgId(orgRes.getMetadata().getId());
-			itnew.setResolvedOrgName(orgRes.getEntity().getName());
-			
-			return itnew;
-		});
+		return Flux.fromIterable(targetsPerOrg.values())
+				.flatMap(orgTargets -> this.resolveSpacesInOrg(orgTargets, level));
 	}
 	
-	private Flux<IntermediateTarget> resolveSpace(IntermediateTarget it) {
+	private Flux<IntermediateTarget> resolveSpacesInOrg(List<IntermediateTarget> its, TargetIndex.Level level) {
 		/* NB: Now we have to consider three cases:
 		 * Case 1: both spaceName and spaceRegex is empty => select all spaces (within the org)
 		 * Case 2: spaceName is null, but spaceRegex is filled => filter all spaces with the regex
 		 * Case 3: spaceName is filled, but spaceRegex is null => select a single space
-		 * In cases 1 and 2, we need the list of all spaces in the org.
+		 * In cases 1 and 2, we need the list of all spaces in the org. It is retrieved
+		 * only once per org and all such targets are evaluated in a single pass over it.
+		 * In case 3, targets referring to the same space only require a single lookup.
 		 */
+		final String orgId = its.get(0).getResolvedOrgId();
 		
-		if (it.getConfigTarget().getSpaceRegex() == null && it.getConfigTarget().getSpaceName() != null) {
-			// Case 3: we have the spaceName, but we also need its id
-			Mono<IntermediateTarget> itMono = this.cfAccessor.retrieveSpaceId(it.getResolvedOrgId(), it.getConfigTarget().getSpaceName())
-					.map(ListSpacesResponse::getResources)
-					.flatMap(resList -> {
-						if (resList == null || resList.isEmpty()) {
-							return Mono.empty();
-						}
-						
-						return Mono.just(resList.get(0));
-					})
-					.map(res -> {
-						it.setResolvedSpaceName(res.getEntity().getName());
-						it.setResolvedSpaceId(res.getMetadata().getId());
-						return it;
-					}).doOnError(e -> log.warn(String.format("Error on retrieving space id for org '%s' and space '%s'", it.getResolvedOrgName(), it.getConfigTarget().getSpaceName()), e))
-					.onErrorResume(__ -> Mono.empty());
-			
-			return itMono.flux();
+		Map<String, List<IntermediateTarget>> literalTargets = new HashMap<>();
+		List<IntermediateTarget> listingTargets = new LinkedList<>();
+		for (IntermediateTarget it : its) {
+			if (level.isLiteral(it.getConfigTarget())) {
+				literalTargets.computeIfAbsent(level.getLiteralName(it.getConfigTarget()), key -> new LinkedList<>()).add(it);
+			} else {
+				listingTargets.add(it);
+			}
+		}
+		
+		// Case 3
+		Flux<IntermediateTarget> literalFlux = Flux.fromIterable(literalTargets.entrySet())
+				.flatMap(entry -> this.resolveSpaceByName(entry.getKey(), entry.getValue()));
+		
+		if (listingTargets.isEmpty()) {
+			return literalFlux;
 		}
 		
 		// Case 1 & 2: Get all spaces in the current org
-		Mono<ListSpacesResponse> responseMono = this.cfAccessor.retrieveSpaceIdsInOrg(it.getResolvedOrgId());
-
-		Flux<SpaceResource> spaceResFlux = responseMono.map(ListSpacesResponse::getResources)
-			.flatMapMany(Flux::fromIterable);
+		final Map<Target, List<IntermediateTarget>> candidates = groupByConfigTarget(listingTargets);
+		
+		Flux<IntermediateTarget> listingFlux = this.cfAccessor.retrieveSpaceIdsInOrg(orgId)
+				.map(ListSpacesResponse::getResources)
+				.flatMapMany(Flux::fromIterable)
+				.flatMapIterable(spaceRes -> {
+					List<IntermediateTarget> result = new LinkedList<>();
+					for (IntermediateTarget it : selectMatching(level.match(spaceRes.getEntity().getName()), candidates)) {
+						IntermediateTarget itnew = new IntermediateTarget(it);
+						itnew.setResolvedSpaceId(spaceRes.getMetadata().getId());
+						itnew.setResolvedSpaceName(spaceRes.getEntity().getName());
+						result.add(itnew);
+					}
+					return result;
+				});
+		
+		return Flux.merge(literalFlux, listingFlux);
+	}
+	
+	private Flux<IntermediateTarget> resolveSpaceByName(String spaceName, List<IntermediateTarget> its) {
+		final IntermediateTarget first = its.get(0);
 		
-		if (it.getConfigTarget().getSpaceRegex() != null) {
-			// Case 2
-			final Pattern filterPattern = Pattern.compile(it.getConfigTarget().getSpaceRegex(), Pattern.CASE_INSENSITIVE);
-			
-			spaceResFlux = spaceResFlux.filter(spaceRes -> {
-				Matcher m = filterPattern.matcher(spaceRes.getEntity().getName());
-				return m.matches();
-			});
+		return this.cfAccessor.retrieveSpaceId(first.getResolvedOrgId(), spaceName)
+				.map(ListSpacesResponse::getResources)
+				.flatMap(resList -> {
+					if (resList == null || resList.isEmpty()) {
+						return Mono.empty();
+					}
+					
+					return Mono.just(resList.get(0));
+				})
+				.doOnError(e -> log.warn(String.format("Error on retrieving space id for org '%s' and space '%s'", first.getResolvedOrgName(), spaceName), e))
+				.onErrorResume(__ -> Mono.empty())
+				.flatMapIterable(res -> {
+					List<IntermediateTarget> result = new LinkedList<>();
+					for (IntermediateTarget it : its) {
+						IntermediateTarget itnew = new IntermediateTarget(it);
+						itnew.setResolvedSpaceName(res.getEntity().getName());
+						itnew.setResolvedSpaceId(res.getMetadata().getId());
+						result.add(itnew);
+					}
+					return result;
+				});
+	}
+	
+	private Flux<IntermediateTarget> resolveApplications(List<IntermediateTarget> its, TargetIndex.Level level) {
+		Map<String, List<IntermediateTarget>> targetsPerSpace = new HashMap<>();
+		for (IntermediateTarget it : its) {
+			targetsPerSpace.computeIfAbsent(it.getResolvedSpaceId(), key -> new LinkedList<>()).add(it);
 		}
 		
-		return spaceResFlux.map(spaceRes -> {
-			IntermediateTarget itnew = new IntermediateTarget(it);
-			itnew.setResolvedSpaceId(spaceRes.getMetadata().getId());
-			itnew.setResolvedSpaceName(spaceRes.getEntity().getName());
-			
-			return itnew;
-		});
+		return Flux.fromIterable(targetsPerSpace.values())
+				.flatMap(spaceTargets -> this.resolveApplicationsInSpace(spaceTargets, level));
 	}
 	
-	private Flux<IntermediateTarget> resolveApplication(IntermediateTarget it) {
+	private Flux<IntermediateTarget> resolveApplicationsInSpace(List<IntermediateTarget> its, TargetIndex.Level level) {
 		/* NB: Now we have to consider three cases:
 		 * Case 1: both applicationName and applicationRegex is empty => select all applications (in the space)
 		 * Case 2: applicationName is null, but applicationRegex is filled => filter all applications with the regex
 		 * Case 3: applicationName is filled, but applicationRegex is null => select a single application
-		 * In cases 1 and 2, we need the list of all applications in the space.
+		 * In all cases, we need the list of all applications in the space. It is retrieved
+		 * only once per space and all targets are evaluated in a single pass over it.
 		 */
+		final IntermediateTarget first = its.get(0);
+		final Map<Target, List<IntermediateTarget>> candidates = groupByConfigTarget(its);
 		
-		if (it.getConfigTarget().getApplicationRegex() == null && it.getConfigTarget().getApplicationName() != null) {
-			// Case 3: we have the applicationName, but we also need its id
-			
-			String appNameToSearchFor = it.getConfigTarget().getApplicationName().toLowerCase(Locale.ENGLISH);
-			
-			Mono<IntermediateTarget> itMono = this.cfAccessor.retrieveAllApplicationIdsInSpace(it.getResolvedOrgId(), it.getResolvedSpaceId())
-					.map(ListApplicationsResponse::getResources)
-					.flatMapMany(Flux::fromIterable)
-					.filter(appResource -> appNameToSearchFor.equals(appResource.getEntity().getName().toLowerCase(Locale.ENGLISH)))
-					.single()
-					.doOnError(e -> {
-						if (e instanceof NoSuchElementException) {
-							logEmptyTarget.warn(String.format("Application id could not be found for org '%s', space '%s' and application '%s'. Check your configuration of targets; skipping it for now; this message may be muted by setting the log level of the emitting logger accordingly!", it.getResolvedOrgName(), it.getResolvedSpaceName(), it.getConfigTarget().getApplicationName()));
-						}
-					})
-					.onErrorResume(e -> Mono.empty())
-					.filter( res -> this.isApplicationInScrapableState(res.getEntity().getState()))
-					.map(res -> {
-						it.setResolvedApplicationName(res.getEntity().getName());
-						it.setResolvedApplicationId(res.getMetadata().getId());
-						return it;
-					}).doOnError(e ->
-						log.warn(String.format("Error on retrieving application id for org '%s', space '%s' and application '%s'", it.getResolvedOrgName(), it.getResolvedSpaceName(), it.getConfigTarget().getApplicationName()), e)
-					)
-					.onErrorResume(__ -> Mono.empty());
-			
-			return itMono.flux();
-		}
+		return this.cfAccessor.retrieveAllApplicationIdsInSpace(first.getResolvedOrgId(), first.getResolvedSpaceId())
+				.map(ListApplicationsResponse::getResources)
+				.doOnError(e ->
+					log.warn(String.format("Error on retrieving list of applications in org '%s' and space '%s'", first.getResolvedOrgName(), first.getResolvedSpaceName()), e))
+				.onErrorResume(__ -> Mono.empty())
+				.flatMapIterable(appResources -> this.matchApplications(appResources, candidates, level));
+	}
+	
+	private List<IntermediateTarget> matchApplications(List<ApplicationResource> appResources, Map<Target, List<IntermediateTarget>> candidates, TargetIndex.Level level) {
+		List<IntermediateTarget> result = new LinkedList<>();
 		
-		// Case 1 & 2: Get all applications in the current space
-		Mono<ListApplicationsResponse> responseMono = this.cfAccessor.retrieveAllApplicationIdsInSpace(it.getResolvedOrgId(), it.getResolvedSpaceId());
-
-		Flux<ApplicationResource> appResFlux = responseMono.map(ListApplicationsResponse::getResources)
-			.flatMapMany(Flux::fromIterable)
-			.doOnError(e ->
-				log.warn(String.format("Error on retrieving list of applications in org '%s' and space '%s'", it.getResolvedOrgName(), it.getResolvedSpaceName()), e))
-			.onErrorResume(__ -> Flux.empty());
+		// Case 3 requires exactly one application to match
+		Map<IntermediateTarget, List<ApplicationResource>> literalMatches = new HashMap<>();
 		
-		if (it.getConfigTarget().getApplicationRegex() != null) {
-			// Case 2
-			final Pattern filterPattern = Pattern.compile(it.getConfigTarget().getApplicationRegex(), Pattern.CASE_INSENSITIVE);
-			
-			appResFlux = appResFlux.filter(appRes -> {
-				Matcher m = filterPattern.matcher(appRes.getEntity().getName());
-				return m.matches();
-			});
+		for (ApplicationResource appRes : appResources) {
+			for (IntermediateTarget it : selectMatching(level.match(appRes.getEntity().getName()), candidates)) {
+				if (level.isLiteral(it.getConfigTarget())) {
+					literalMatches.computeIfAbsent(it, key -> new LinkedList<>()).add(appRes);
+				} else if (this.isApplicationInScrapableState(appRes.getEntity().getState())) {
+					result.add(createApplicationTarget(it, appRes));
+				}
+			}
 		}
 		
-		Flux<ApplicationResource> scrapableFlux = appResFlux.filter(appRes ->
-				this.isApplicationInScrapableState(appRes.getEntity().getState()));
+		for (List<IntermediateTarget> list : candidates.values()) {
+			for (IntermediateTarget it : list) {
+				if (!level.isLiteral(it.getConfigTarget())) {
+					continue;
+				}
+				
+				List<ApplicationResource> matches = literalMatches.get(it);
+				if (matches == null) {
+					logEmptyTarget.warn(String.format("Application id could not be found for org '%s', space '%s' and application '%s'. Check your configuration of targets; skipping it for now; this message may be muted by setting the log level of the emitting logger accordingly!", it.getResolvedOrgName(), it.getResolvedSpaceName(), it.getConfigTarget().getApplicationName()));
+				} else if (matches.size() > 1) {
+					log.warn(String.format("Application name '%s' is ambiguous in org '%s' and space '%s'; skipping it", it.getConfigTarget().getApplicationName(), it.getResolvedOrgName(), it.getResolvedSpaceName()));
+				} else if (this.isApplicationInScrapableState(matches.get(0).getEntity().getState())) {
+					result.add(createApplicationTarget(it, matches.get(0)));
+				}
+			}
+		}
 		
-		return scrapableFlux.map(appRes -> {
-			IntermediateTarget itnew = new IntermediateTarget(it);
-			itnew.setResolvedApplicationId(appRes.getMetadata().getId());
-			itnew.setResolvedApplicationName(appRes.getEntity().getName());
-			
-			return itnew;
-		});
+		return result;
+	}
+	
+	private static IntermediateTarget createApplicationTarget(IntermediateTarget it, ApplicationResource appRes) {
+		IntermediateTarget itnew = new IntermediateTarget(it);
+		itnew.setResolvedApplicationId(appRes.getMetadata().getId());
+		itnew.setResolvedApplicationName(appRes.getEntity().getName());
+		
+		return itnew;
+	}
+	
+	private static Map<Target, List<IntermediateTarget>> groupByConfigTarget(List<IntermediateTarget> its) {
+		Map<Target, List<IntermediateTarget>> result = new HashMap<>();
+		for (IntermediateTarget it : its) {
+			result.computeIfAbsent(it.getConfigTarget(), key -> new LinkedList<>()).add(it);
+		}
+		return result;
+	}
+	
+	private static List<IntermediateTarget> selectMatching(Set<Target> matchingTargets, Map<Target, List<IntermediateTarget>> candidates) {
+		List<IntermediateTarget> result = new LinkedList<>();
+		for (Target target : matchingTargets) {
+			List<IntermediateTarget> list = candidates.get(target);
+			if (list != null) {
+				result.addAll(list);
+			}
+		}
+		return result;
 	}
 	
 	private boolean isApplicationInScrapableState(String state) {
@@ -0,0 +1,254 @@
+package org.cloudfoundry.promregator.scanner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.cloudfoundry.promregator.config.Target;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A precompiled index of a list of configuration targets, which allows to evaluate
+ * all targets in a single pass over the list of orgs, spaces or applications of the platform.
+ * The index is immutable and is supposed to be created once per configuration.
+ */
+class TargetIndex {
+	private static final Logger log = LoggerFactory.getLogger(TargetIndex.class);
+
+	/**
+	 * pattern detecting back references (numbered or named), which may not be combined into a single pattern
+	 */
+	private static final Pattern PATTERN_BACKREFERENCE = Pattern.compile("\\\\([1-9]|k<)");
+
+	private final Set<Target> configTargets;
+
+	private final Level orgLevel;
+	private final Level spaceLevel;
+	private final Level applicationLevel;
+
+	public TargetIndex(List<Target> configTargets) {
+		// NB: Target does not override equals; the targets of the configuration are identified by their instance
+		this.configTargets = Collections.newSetFromMap(new IdentityHashMap<>());
+		this.configTargets.addAll(configTargets);
+
+		this.orgLevel = new Level("org", configTargets, Target::getOrgName, Target::getOrgRegex);
+		this.spaceLevel = new Level("space", configTargets, Target::getSpaceName, Target::getSpaceRegex);
+		this.applicationLevel = new Level("application", configTargets, Target::getApplicationName, Target::getApplicationRegex);
+	}
+
+	/**
+	 * checks whether this index contains all configuration targets provided, such that
+	 * it may be used to resolve them (or any subset of them)
+	 * @param otherConfigTargets the list of configuration targets to check
+	 * @return <code>true</code>, if the index may be used for <code>otherConfigTargets</code>
+	 */
+	public boolean covers(List<Target> otherConfigTargets) {
+		return this.configTargets.containsAll(otherConfigTargets);
+	}
+
+	/**
+	 * @return the orgLevel
+	 */
+	public Level getOrgLevel() {
+		return orgLevel;
+	}
+
+	/**
+	 * @return the spaceLevel
+	 */
+	public Level getSpaceLevel() {
+		return spaceLevel;
+	}
+
+	/**
+	 * @return the applicationLevel
+	 */
+	public Level getApplicationLevel() {
+		return applicationLevel;
+	}
+
+	/**
+	 * The compiled matching rules of all targets on one level (org, space or application).
+	 * On each level, a target either is
+	 * <ul>
+	 * <li>literal (only the name is set), </li>
+	 * <li>a regex target (the regex is set), or</li>
+	 * <li>a wildcard target (neither name nor regex is set).</li>
+	 * </ul>
+	 * Literal names are compared case-insensitively using a hash lookup. All regexes
+	 * are combined into a single prefilter pattern, such that names matching none of the targets
+	 * are rejected by a single evaluation. If the prefilter matches, the alternative having matched
+	 * identifies the first matching regex; only the regexes following it are evaluated separately.
+	 */
+	static class Level {
+		private final Map<String, List<Target>> literalTargets = new HashMap<>();
+
+		/**
+		 * the spelling of each literal name, which is used for looking it up, keyed by its normalized form
+		 */
+		private final Map<String, String> literalNames = new HashMap<>();
+
+		private final Map<Target, String> literalTargetNames = new IdentityHashMap<>();
+
+		private final List<Target> wildcardTargets = new LinkedList<>();
+
+		private final List<RegexTarget> regexTargets = new ArrayList<>();
+
+		/**
+		 * the alternation of all regexes on this level; <code>null</code>, if no prefiltering is possible
+		 */
+		private final Pattern prefilter;
+
+		Level(String levelName, List<Target> configTargets, Function<Target, String> nameGetter, Function<Target, String> regexGetter) {
+			boolean combinable = true;
+			int group = 1;
+
+			for (Target target : configTargets) {
+				final String regex = regexGetter.apply(target);
+				final String name = nameGetter.apply(target);
+
+				if (regex != null) {
+					Pattern pattern;
+					try {
+						pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+					} catch (PatternSyntaxException e) {
+						log.warn(String.format("Invalid %s regex '%s' detected in target %s. Fix your configuration; until then, the target will not match anything", levelName, regex, target), e);
+						continue;
+					}
+
+					this.regexTargets.add(new RegexTarget(target, pattern, group));
+					// NB: the regex is wrapped into a group of its own within the prefilter, followed by the groups it contains
+					group += 1 + pattern.matcher("").groupCount();
+
+					if (PATTERN_BACKREFERENCE.matcher(regex).find()) {
+						combinable = false;
+					}
+				} else if (name != null) {
+					final String key = normalize(name);
+					this.literalTargets.computeIfAbsent(key, k -> new LinkedList<>()).add(target);
+					this.literalTargetNames.put(target, this.literalNames.computeIfAbsent(key, k -> name));
+				} else {
+					this.wildcardTargets.add(target);
+				}
+			}
+
+			this.prefilter = combinable && this.regexTargets.size() > 1 ? combinePatterns(this.regexTargets) : null;
+		}
+
+		private static String normalize(String name) {
+			return name.toLowerCase(Locale.ENGLISH);
+		}
+
+		private static Pattern combinePatterns(List<RegexTarget> regexTargets) {
+			StringBuilder sb = new StringBuilder();
+			for (RegexTarget regexTarget : regexTargets) {
+				if (sb.length() > 0) {
+					sb.append('|');
+				}
+				sb.append('(').append(regexTarget.pattern.pattern()).append(')');
+			}
+
+			try {
+				return Pattern.compile(sb.toString(), Pattern.CASE_INSENSITIVE);
+			} catch (PatternSyntaxException e) {
+				log.debug("Unable to combine regexes to a single prefilter pattern; falling back to evaluating each regex separately", e);
+				return null;
+			}
+		}
+
+		/**
+		 * checks whether a target is literal on this level, i.e. only its name is set
+		 * @param target the target to check
+		 * @return <code>true</code>, if the target is literal on this level
+		 */
+		public boolean isLiteral(Target target) {
+			return this.literalTargetNames.containsKey(target);
+		}
+
+		/**
+		 * determines the name, which shall be used to look up a literal target on this level.
+		 * All targets, whose names only differ in case, share the same name.
+		 * @param target the literal target
+		 * @return the name to look up; <code>null</code>, if the target is not literal on this level
+		 */
+		public String getLiteralName(Target target) {
+			return this.literalTargetNames.get(target);
+		}
+
+		/**
+		 * determines all targets of the index, which match a given name on this level.
+		 * @param name the name of the org, space or application
+		 * @return the set of targets matching; never <code>null</code>
+		 */
+		public Set<Target> match(String name) {
+			if (name == null) {
+				return Collections.emptySet();
+			}
+
+			Set<Target> result = new HashSet<>(this.wildcardTargets);
+
+			List<Target> literals = this.literalTargets.get(normalize(name));
+			if (literals != null) {
+				result.addAll(literals);
+			}
+
+			if (this.regexTargets.isEmpty()) {
+				return result;
+			}
+
+			int next = 0;
+			if (this.prefilter != null) {
+				Matcher matcher = this.prefilter.matcher(name);
+				if (!matcher.matches()) {
+					return result;
+				}
+
+				/*
+				 * NB: The alternatives are tried in order; thus, none of the regexes before the one
+				 * having matched matches the name. Only the regexes after it still need to be evaluated.
+				 */
+				while (matcher.start(this.regexTargets.get(next).group) == -1) {
+					next++;
+				}
+				result.add(this.regexTargets.get(next).target);
+				next++;
+			}
+
+			for (RegexTarget regexTarget : this.regexTargets.subList(next, this.regexTargets.size())) {
+				if (regexTarget.pattern.matcher(name).matches()) {
+					result.add(regexTarget.target);
+				}
+			}
+
+			return result;
+		}
+	}
+
+	private static class RegexTarget {
+		private final Target target;
+		private final Pattern pattern;
+
+		/**
+		 * the number of the group within the prefilter, which contains the regex
+		 */
+		private final int group;
+
+		RegexTarget(Target target, Pattern pattern, int group) {
+			this.target = target;
+			this.pattern = pattern;
+			this.group = group;
+		}
+	}
+}
@@ -4,6 +4,26 @@ import java.util.List;
 
 import org.cloudfoundry.promregator.config.Target;
 
+import reactor.core.publisher.Flux;
+
 public interface TargetResolver {
 	List<ResolvedTarget> resolveTargets(List<Target> configTarget);
+	
+	/**
+	 * resolves a list of configuration targets without blocking the calling thread.
+	 * The default implementation delegates to the blocking variant {@link #resolveTargets(List)}
+	 * on subscription; implementations supporting non-blocking resolution should override it.
+	 * @param configTargets the list of configuration targets, which shall be resolved
+	 * @return the resolved targets, emitted as soon as they are available
+	 */
+	default Flux<ResolvedTarget> resolveTargetsReactive(List<Target> configTargets) {
+		return Flux.defer(() -> {
+			List<ResolvedTarget> resolvedTargets = this.resolveTargets(configTargets);
+			if (resolvedTargets == null) {
+				return Flux.empty();
+			}
+			
+			return Flux.fromIterable(resolvedTargets);
+		});
+	}
 }
@@ -2,6 +2,8 @@ package org.cloudfoundry.promregator.springconfig;
 
 import javax.jms.ConnectionFactory;
 
+import org.cloudfoundry.promregator.messagebus.JmsInstanceLifecycleAdapter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,10 +16,16 @@ import org.springframework.jms.support.converter.MessageType;
 
 @Configuration
 @EnableJms
+@ConditionalOnProperty(name="promregator.messagebus.jms.enabled", havingValue="true")
 public class JMSSpringConfiguration {
 	/*
 	 * see also https://spring.io/guides/gs/messaging-jms/ and
 	 * https://stackoverflow.com/a/3519685
+	 * 
+	 * Lifecycle events are dispatched in-process by the InstanceLifecycleEventBus.
+	 * This configuration only forwards them to JMS additionally, if explicitly enabled.
+	 * If disabled, no connection to the (embedded) broker is ever opened and thus 
+	 * the broker is never started.
 	 */
 
 	public static final String BEAN_NAME_JMS_LISTENER_CONTAINER_FACTORY = "jmsListenerContainerFactory";
@@ -37,4 +45,9 @@ public class JMSSpringConfiguration {
 		converter.setTypeIdPropertyName("_type");
 		return converter;
 	}
+
+	@Bean
+	public JmsInstanceLifecycleAdapter jmsInstanceLifecycleAdapter() {
+		return new JmsInstanceLifecycleAdapter();
+	}
 }
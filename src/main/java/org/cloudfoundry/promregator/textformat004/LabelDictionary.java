@@ -0,0 +1,238 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+/**
+ * A dictionary (aka intern pool) of label names and label values, which is shared by all scrapes.
+ *
+ * Scraping the same instances again and again yields the same label names and values (e.g. the names of orgs,
+ * spaces and apps, the instance identifiers and labels such as <code>le</code> or <code>quantile</code>).
+ * Looking them up in the dictionary ensures that only a single copy of each of them is kept in memory,
+ * regardless of how many (cached) scraping results refer to them.
+ *
+ * The entries are only weakly referenced: As soon as no scraping result refers to a string anymore, the
+ * garbage collector may remove it from the dictionary. To protect against targets with unbounded label values
+ * (such as request identifiers), the number of entries is limited; strings not fitting into the dictionary
+ * anymore are simply not deduplicated.
+ *
+ * Parsers may look up a section of the scraped data (see {@link #intern(CharSequence, int, int)}) instead of a string:
+ * If the dictionary already contains it, no string needs to be allocated at all.
+ *
+ * The dictionary is divided into segments to reduce the contention of concurrent scrapes.
+ */
+public class LabelDictionary {
+	public static final int DEFAULT_MAX_SIZE = 100000;
+
+	private static final int SEGMENTS = 16;
+
+	private static final LabelDictionary SHARED = new LabelDictionary(DEFAULT_MAX_SIZE);
+
+	/**
+	 * @return the dictionary, which is shared by all parsers and enrichers
+	 */
+	public static LabelDictionary getShared() {
+		return SHARED;
+	}
+
+	private final Segment[] segments;
+	private volatile int maxSizePerSegment;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private static class Segment {
+		private final Map<String, WeakReference<String>> entries = new WeakHashMap<>();
+	}
+
+	/**
+	 * A key for looking up a section of a character sequence in a segment without creating a string for it.
+	 *
+	 * NB: Its hash code equals the one of the corresponding string, and it is equal to that string
+	 * (but not vice versa). As the maps look up entries by calling <code>equals</code> on the key searched for,
+	 * this is sufficient. Instances of this class are never stored in the maps.
+	 */
+	private static final class SectionKey {
+		private final CharSequence data;
+		private final int start;
+		private final int end;
+		private final int hash;
+
+		SectionKey(CharSequence data, int start, int end) {
+			this.data = data;
+			this.start = start;
+			this.end = end;
+
+			// NB: same algorithm as String.hashCode()
+			int h = 0;
+			for (int i = start; i < end; i++) {
+				h = 31 * h + data.charAt(i);
+			}
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof String)) {
+				return false;
+			}
+
+			final String other = (String) obj;
+			if (other.length() != this.end - this.start) {
+				return false;
+			}
+
+			for (int i = 0; i < other.length(); i++) {
+				if (other.charAt(i) != this.data.charAt(this.start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return this.data.subSequence(this.start, this.end).toString();
+		}
+	}
+
+	/**
+	 * creates a new dictionary
+	 * @param maxSize the maximal number of entries of the dictionary; <code>0</code> disables the dictionary
+	 */
+	public LabelDictionary(int maxSize) {
+		this.segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			this.segments[i] = new Segment();
+		}
+
+		this.setMaxSize(maxSize);
+	}
+
+	/**
+	 * looks up a string in the dictionary
+	 * @param value the string to look up
+	 * @return the instance of the string, which is stored in the dictionary, if there is any.
+	 * Otherwise <code>value</code> is returned (and added to the dictionary, if the dictionary is not full yet).
+	 */
+	@Nullable
+	public String intern(@Nullable String value) {
+		if (value == null || this.maxSizePerSegment == 0) {
+			return value;
+		}
+
+		final Segment segment = this.segments[(value.hashCode() & 0x7FFFFFFF) % SEGMENTS];
+		synchronized (segment) {
+			final String existing = this.lookup(segment, value);
+			if (existing != null) {
+				return existing;
+			}
+
+			this.add(segment, value);
+		}
+
+		return value;
+	}
+
+	/**
+	 * looks up a section of a character sequence in the dictionary. Unlike {@link #intern(String)}, 
+	 * a new string is only created, if the section is not contained in the dictionary yet.
+	 * @param data the character sequence, e.g. the scraped data
+	 * @param start the index of the first character of the section
+	 * @param end the index after the last character of the section
+	 * @return the instance of the string, which is stored in the dictionary, if there is any.
+	 * Otherwise a new string with the contents of the section is returned (and added to the dictionary, if 
+	 * the dictionary is not full yet).
+	 */
+	public String intern(CharSequence data, int start, int end) {
+		if (this.maxSizePerSegment == 0) {
+			return data.subSequence(start, end).toString();
+		}
+
+		final SectionKey key = new SectionKey(data, start, end);
+		final Segment segment = this.segments[(key.hashCode() & 0x7FFFFFFF) % SEGMENTS];
+		synchronized (segment) {
+			final String existing = this.lookup(segment, key);
+			if (existing != null) {
+				return existing;
+			}
+
+			final String value = key.toString();
+			this.add(segment, value);
+			return value;
+		}
+	}
+
+	@Nullable
+	private String lookup(Segment segment, Object key) {
+		final WeakReference<String> ref = segment.entries.get(key);
+		final String existing = ref == null ? null : ref.get();
+		if (existing != null) {
+			this.hits.increment();
+		}
+		return existing;
+	}
+
+	private void add(Segment segment, String value) {
+		this.misses.increment();
+		if (segment.entries.size() < this.maxSizePerSegment) {
+			segment.entries.put(value, new WeakReference<>(value));
+		}
+	}
+
+	/**
+	 * @param maxSize the maximal number of entries of the dictionary; <code>0</code> disables the dictionary
+	 * and removes all of its entries.
+	 */
+	public final void setMaxSize(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("The maximal size of the label dictionary must not be negative");
+		}
+
+		this.maxSizePerSegment = maxSize == 0 ? 0 : Math.max(1, maxSize / SEGMENTS);
+
+		if (maxSize == 0) {
+			for (Segment segment : this.segments) {
+				synchronized (segment) {
+					segment.entries.clear();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of entries currently stored in the dictionary
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : this.segments) {
+			synchronized (segment) {
+				size += segment.entries.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the number of lookups, which found the string in the dictionary
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups, which did not find the string in the dictionary
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+}
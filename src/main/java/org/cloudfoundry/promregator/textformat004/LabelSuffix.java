@@ -0,0 +1,47 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.util.List;
+
+/**
+ * A set of labels, which is appended to the labels of many samples (e.g. the labels added by enrichment,
+ * which are the same for all samples of an instance).
+ *
+ * The labels are escaped and encoded in UTF-8 only once when creating the suffix; {@link TextFormat004Writer}
+ * then copies the bytes for each sample.
+ */
+public class LabelSuffix {
+	private final int labelCount;
+	private final byte[] text004;
+
+	/**
+	 * creates a new suffix
+	 * @param labelNames the names of the labels of the suffix
+	 * @param labelValues the values of the labels of the suffix; none of them may be <code>null</code>
+	 */
+	public LabelSuffix(List<String> labelNames, List<String> labelValues) {
+		if (labelNames.size() != labelValues.size()) {
+			throw new IllegalArgumentException("The number of label names and label values of a label suffix must be the same");
+		}
+
+		this.labelCount = labelNames.size();
+
+		TextFormat004Writer writer = new TextFormat004Writer(64 * this.labelCount);
+		writer.writeLabels(labelNames, labelValues, 0, this.labelCount);
+		this.text004 = writer.toByteArray();
+	}
+
+	/**
+	 * @return the number of labels of the suffix
+	 */
+	public int getLabelCount() {
+		return labelCount;
+	}
+
+	/**
+	 * @return the labels in text format 0.0.4 (e.g. <code>org_name="myorg",space_name="myspace",</code>);
+	 * the array must not be modified.
+	 */
+	byte[] getText004() {
+		return text004;
+	}
+}
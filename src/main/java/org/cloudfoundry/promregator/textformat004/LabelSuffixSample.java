@@ -0,0 +1,40 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+
+/**
+ * A sample, whose last labels are the ones of a {@link LabelSuffix}.
+ *
+ * The labels of the suffix are still part of the label names and values of the sample,
+ * such that all consumers not aware of the suffix (e.g. the OpenMetrics and the protobuf
+ * serializers) continue to work. Only {@link TextFormat004Writer} makes use of the
+ * pre-rendered suffix.
+ */
+public class LabelSuffixSample extends Sample {
+	private final LabelSuffix labelSuffix;
+
+	/**
+	 * creates a new sample
+	 * @param name the name of the sample
+	 * @param labelNames the names of the labels, ending with the names of the labels of the suffix
+	 * @param labelValues the values of the labels, ending with the values of the labels of the suffix
+	 * @param value the value of the sample
+	 * @param timestampMs the timestamp of the sample; <code>null</code>, if there is none
+	 * @param labelSuffix the suffix of the labels
+	 */
+	public LabelSuffixSample(String name, List<String> labelNames, List<String> labelValues, double value, @Nullable Long timestampMs, LabelSuffix labelSuffix) {
+		super(name, labelNames, labelValues, value, timestampMs);
+		this.labelSuffix = labelSuffix;
+	}
+
+	/**
+	 * @return the labelSuffix
+	 */
+	public LabelSuffix getLabelSuffix() {
+		return labelSuffix;
+	}
+}
@@ -0,0 +1,113 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which metric lines shall be dropped while parsing, based on allow and deny rules
+ * on the names of the metrics and the values of their labels.
+ *
+ * Rules on metric names are applied both to the name of the sample and the name of the metric family
+ * it belongs to (e.g. both <code>http_requests_seconds_bucket</code> and <code>http_requests_seconds</code>).
+ * Rules on label values only apply to samples having the label.
+ */
+public class MetricFilter {
+	private final List<Pattern> metricNameAllowPatterns;
+	private final List<Pattern> metricNameDenyPatterns;
+	private final Map<String, Pattern> labelValueAllowPatterns;
+	private final Map<String, Pattern> labelValueDenyPatterns;
+
+	/**
+	 * creates a new filter; all regular expressions must match the entire name respectively value
+	 * @param metricNameAllowRegex the regular expressions on metric names, of which at least one must match; if empty, all metric names are allowed
+	 * @param metricNameDenyRegex the regular expressions on metric names, of which none may match
+	 * @param labelValueAllowRegex the regular expressions on the values of labels (indexed by label name), which must match, if the sample has such a label
+	 * @param labelValueDenyRegex the regular expressions on the values of labels (indexed by label name), which may not match
+	 */
+	public MetricFilter(List<String> metricNameAllowRegex, List<String> metricNameDenyRegex,
+			Map<String, String> labelValueAllowRegex, Map<String, String> labelValueDenyRegex) {
+		this.metricNameAllowPatterns = compilePatterns(metricNameAllowRegex);
+		this.metricNameDenyPatterns = compilePatterns(metricNameDenyRegex);
+		this.labelValueAllowPatterns = compilePatterns(labelValueAllowRegex);
+		this.labelValueDenyPatterns = compilePatterns(labelValueDenyRegex);
+	}
+
+	private static List<Pattern> compilePatterns(List<String> regexList) {
+		if (regexList == null || regexList.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		List<Pattern> patterns = new ArrayList<>(regexList.size());
+		for (String regex : regexList) {
+			patterns.add(Pattern.compile(regex));
+		}
+		return patterns;
+	}
+
+	private static Map<String, Pattern> compilePatterns(Map<String, String> regexMap) {
+		if (regexMap == null || regexMap.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		Map<String, Pattern> patterns = new HashMap<>();
+		for (Entry<String, String> entry : regexMap.entrySet()) {
+			patterns.put(entry.getKey(), Pattern.compile(entry.getValue()));
+		}
+		return patterns;
+	}
+
+	/**
+	 * checks the rules on metric names
+	 * @param metricName the name of the sample
+	 * @return <code>true</code>, if the sample shall be kept; <code>false</code>, if it shall be dropped
+	 */
+	public boolean isMetricNameAccepted(String metricName) {
+		String baseMetricName = Parser.determineBaseMetricName(metricName);
+
+		if (!this.metricNameAllowPatterns.isEmpty() && !matchesAny(this.metricNameAllowPatterns, metricName, baseMetricName)) {
+			return false;
+		}
+
+		return !matchesAny(this.metricNameDenyPatterns, metricName, baseMetricName);
+	}
+
+	private static boolean matchesAny(List<Pattern> patterns, String metricName, String baseMetricName) {
+		for (Pattern pattern : patterns) {
+			if (pattern.matcher(metricName).matches() || pattern.matcher(baseMetricName).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * checks the rules on label values
+	 * @param labelNames the names of the labels of the sample
+	 * @param labelValues the values of the labels of the sample (in the same order as the names)
+	 * @return <code>true</code>, if the sample shall be kept; <code>false</code>, if it shall be dropped
+	 */
+	public boolean isLabelSetAccepted(List<String> labelNames, List<String> labelValues) {
+		Iterator<String> valueIterator = labelValues.iterator();
+		for (String labelName : labelNames) {
+			String labelValue = valueIterator.next();
+
+			Pattern allowPattern = this.labelValueAllowPatterns.get(labelName);
+			if (allowPattern != null && !allowPattern.matcher(labelValue).matches()) {
+				return false;
+			}
+
+			Pattern denyPattern = this.labelValueDenyPatterns.get(labelName);
+			if (denyPattern != null && denyPattern.matcher(labelValue).matches()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
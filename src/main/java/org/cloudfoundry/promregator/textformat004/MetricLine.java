@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.annotation.Nullable;
+
 import io.prometheus.client.Collector.MetricFamilySamples.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,10 +24,22 @@ public class MetricLine {
 
 	private String line;
 	private String rest;
+	
+	private MetricFilter metricFilter;
 
 	public MetricLine(String line) {
 		this.line = line;
 	}
+	
+	/**
+	 * creates a metric line, which is checked against the rules on label values of a filter while parsing
+	 * @param line the metric line to parse
+	 * @param metricFilter the filter to apply; may be <code>null</code>
+	 */
+	public MetricLine(String line, @Nullable MetricFilter metricFilter) {
+		this.line = line;
+		this.metricFilter = metricFilter;
+	}
 
 	public static class ParseException extends Exception {
 
@@ -41,6 +55,12 @@ public class MetricLine {
 		
 	}
 	
+	/**
+	 * parses the metric line
+	 * @return the sample of the line; <code>null</code>, if the sample is dropped due to the metric filter
+	 * @throws ParseException if the line cannot be parsed
+	 */
+	@Nullable
 	public Sample parse() throws ParseException {
 		this.rest = line;
 
@@ -50,18 +70,20 @@ public class MetricLine {
 		// check if the metric has an optional block of labels
 		final Labels labels = this.parseLabels();
 		
+		if (labels != null && this.metricFilter != null && !this.metricFilter.isLabelSetAccepted(labels.getNames(), labels.getValues())) {
+			return null;
+		}
+		
 		final double value = this.parseValue();
 		/*
-		 * The timestamp is optional.
-		 * Note that timestamps for metrics are currently not supported by the java Simpleclient!
-		 * Yet it is defined the official protocol specification. 
+		 * The timestamp is optional (milliseconds since epoch).
 		 */
-		final double timestamp = this.parseTimestamp();
+		final Long timestampMs = this.parseTimestamp();
 		
 		final List<String> labelNames = labels == null ? new LinkedList<>() : labels.getNames();
 		final List<String> labelValues = labels == null ? new LinkedList<>() : labels.getValues();
 		
-		return new Sample(metricName, labelNames, labelValues, value);
+		return new Sample(metricName, labelNames, labelValues, value, timestampMs);
 	}
 	
 	private String parseMetricName() throws ParseException {
@@ -99,13 +121,14 @@ public class MetricLine {
 	}
 	
 	private Labels parseLabelBlock(String block) {
+		final LabelDictionary labelDictionary = LabelDictionary.getShared();
 		String buffer = block;
 		
 		Labels l = new Labels();
 		
 		Matcher mLabelName = PATTERN_LABEL_WITH_STARTING_QUOTES.matcher(buffer);
 		while (mLabelName.find()) {
-			String labelName = Utils.unescapeToken(mLabelName.group(1));
+			String labelName = internToken(labelDictionary, buffer, mLabelName.start(1), mLabelName.end(1));
 			
 			buffer = buffer.substring(mLabelName.end());
 			int endOfValue = indexEndOfValue(buffer);
@@ -114,11 +137,10 @@ public class MetricLine {
 				return l;
 			}
 			
-			String labelValue = buffer.substring(0, endOfValue-1);
+			String labelValue = internToken(labelDictionary, buffer, 0, endOfValue-1);
 			
 			buffer = buffer.substring(endOfValue);
 
-			labelValue = Utils.unescapeToken(labelValue);
 			l.addNameValuePair(labelName, labelValue);
 			
 			while (buffer.startsWith(",")) {
@@ -131,6 +153,24 @@ public class MetricLine {
 		return l;
 	}
 	
+	/**
+	 * unescapes a token and looks it up in the label dictionary
+	 * @param labelDictionary the dictionary to use
+	 * @param buffer the string containing the token
+	 * @param start the index of the first character of the token
+	 * @param end the index after the last character of the token
+	 * @return the unescaped token as stored in the dictionary. If the token does not contain any escape sequence 
+	 * and is already contained in the dictionary, no new string is created.
+	 */
+	private static String internToken(LabelDictionary labelDictionary, String buffer, int start, int end) {
+		final int backslash = buffer.indexOf('\\', start);
+		if (backslash != -1 && backslash < end) {
+			return labelDictionary.intern(Utils.unescapeToken(buffer.substring(start, end)));
+		}
+		
+		return labelDictionary.intern(buffer, start, end);
+	}
+	
 	private static class Labels {
 		private List<String> names = new LinkedList<>();
 		private List<String> values = new LinkedList<>();
@@ -203,19 +243,26 @@ public class MetricLine {
 		return value;
 	}
 
-	private double parseTimestamp() throws ParseException {
-		double timestamp = 0.0;
-		if (!"".equals(rest)) {
-			try {
-				timestamp = this.parseGoDouble(rest);
-			} catch (NumberFormatException nfe) {
-				final String errorMsg = String.format("Unable to parse timestamp in metrics line properly: %s", line);
-				log.warn(errorMsg, nfe);
-				throw new ParseException(errorMsg, nfe);
-			}
+	@Nullable
+	private Long parseTimestamp() throws ParseException {
+		if ("".equals(rest)) {
+			// NB: the usual case, which does not require any additional object
+			return null;
+		}
+		
+		try {
+			return Long.parseLong(rest);
+		} catch (NumberFormatException nfe) {
+			// not an integer (as it should be); tolerate e.g. the scientific notation
 		}
 		
-		return timestamp;
+		try {
+			return (long) this.parseGoDouble(rest);
+		} catch (NumberFormatException nfe) {
+			final String errorMsg = String.format("Unable to parse timestamp in metrics line properly: %s", line);
+			log.warn(errorMsg, nfe);
+			throw new ParseException(errorMsg, nfe);
+		}
 	}
 	
 	private static int indexEndOfValue(String buffer) {
@@ -7,6 +7,8 @@ import java.util.StringTokenizer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.annotation.Nullable;
+
 import io.prometheus.client.Collector;
 import io.prometheus.client.Collector.MetricFamilySamples;
 import io.prometheus.client.Collector.MetricFamilySamples.Sample;
@@ -28,6 +30,27 @@ public class Parser {
 	
 	private HashMap<String, Collector.MetricFamilySamples> mapMFS = new HashMap<>();
 	
+	private final MetricFilter metricFilter;
+	
+	private int droppedSamples;
+	
+	/**
+	 * the reason provided by {@link #getExceededLimit()}, if the maximal number of samples was exceeded
+	 */
+	public static final String LIMIT_SAMPLES = "samples";
+	
+	/**
+	 * the reason provided by {@link #getExceededLimit()}, if the maximal number of series of a metric family was exceeded
+	 */
+	public static final String LIMIT_SERIES_PER_FAMILY = "series_per_family";
+	
+	private final int maxSamples;
+	private final SeriesCounter seriesCounter;
+	private final boolean dropTimestamps;
+	
+	private int samples;
+	private String exceededLimit;
+	
 	private static final Pattern PATTERN_HELP = Pattern.compile("^#[ \t]+HELP[ \t]+");
 	private static final Pattern PATTERN_TYPE = Pattern.compile("^#[ \t]+TYPE[ \t]+");
 	private static final Pattern PATTERN_COMMENT = Pattern.compile("^#");
@@ -37,7 +60,45 @@ public class Parser {
 	private static final Pattern PATTERN_PARSE_TYPE = Pattern.compile("^#[ \t]+TYPE[ \t]+([a-zA-Z0-9:_\\\"]+)[ \\t]+([a-zA-Z]*)$");
 	
 	public Parser(String textFormat004data) {
+		this(textFormat004data, null);
+	}
+	
+	/**
+	 * creates a parser, which drops all samples not accepted by a filter
+	 * @param textFormat004data the data to parse
+	 * @param metricFilter the filter to apply; may be <code>null</code>, if all samples shall be kept
+	 */
+	public Parser(String textFormat004data, @Nullable MetricFilter metricFilter) {
+		this(textFormat004data, metricFilter, 0, 0);
+	}
+	
+	/**
+	 * creates a parser, which drops all samples not accepted by a filter and which stops parsing 
+	 * as soon as a limit is exceeded.
+	 * @param textFormat004data the data to parse
+	 * @param metricFilter the filter to apply; may be <code>null</code>, if all samples shall be kept
+	 * @param maxSamples the maximal number of samples to accept; <code>0</code>, if unlimited
+	 * @param maxSeriesPerFamily the maximal number of distinct series to accept per metric family (see {@link SeriesCounter}); <code>0</code>, if unlimited
+	 */
+	public Parser(String textFormat004data, @Nullable MetricFilter metricFilter, int maxSamples, int maxSeriesPerFamily) {
+		this(textFormat004data, metricFilter, maxSamples, maxSeriesPerFamily, false);
+	}
+	
+	/**
+	 * creates a parser, which drops all samples not accepted by a filter, which stops parsing 
+	 * as soon as a limit is exceeded and which optionally discards the timestamps of the samples.
+	 * @param textFormat004data the data to parse
+	 * @param metricFilter the filter to apply; may be <code>null</code>, if all samples shall be kept
+	 * @param maxSamples the maximal number of samples to accept; <code>0</code>, if unlimited
+	 * @param maxSeriesPerFamily the maximal number of distinct series to accept per metric family (see {@link SeriesCounter}); <code>0</code>, if unlimited
+	 * @param dropTimestamps <code>true</code>, if the timestamps provided with the samples shall be discarded
+	 */
+	public Parser(String textFormat004data, @Nullable MetricFilter metricFilter, int maxSamples, int maxSeriesPerFamily, boolean dropTimestamps) {
 		this.textFormat004data = textFormat004data;
+		this.metricFilter = metricFilter;
+		this.maxSamples = maxSamples;
+		this.seriesCounter = new SeriesCounter(maxSeriesPerFamily);
+		this.dropTimestamps = dropTimestamps;
 	}
 	
 	public HashMap<String, Collector.MetricFamilySamples> parse() {
@@ -45,7 +106,7 @@ public class Parser {
 		
 		StringTokenizer lines = new StringTokenizer(this.textFormat004data, "\n");
 		
-		while(lines.hasMoreTokens()) {
+		while(lines.hasMoreTokens() && this.exceededLimit == null) {
 			String line = lines.nextToken();
 			
 			// warning! Order of IF tests matter!
@@ -69,7 +130,13 @@ public class Parser {
 	}
 	
 	private void parseMetric(String line) {
-		final MetricLine ml = new MetricLine(line);
+		if (this.metricFilter != null && !this.metricFilter.isMetricNameAccepted(extractMetricName(line))) {
+			// NB: the line does not need to be parsed any further
+			this.droppedSamples++;
+			return;
+		}
+		
+		final MetricLine ml = new MetricLine(line, this.metricFilter);
 		
 		Sample sample = null;
 		try {
@@ -79,6 +146,22 @@ public class Parser {
 			return;
 		}
 		
+		if (sample == null) {
+			// dropped due to the rules on label values
+			this.droppedSamples++;
+			return;
+		}
+		
+		if (this.maxSamples > 0 && this.samples >= this.maxSamples) {
+			// NB: stop here; the remainder of the document does not need to be kept in memory
+			this.exceededLimit = LIMIT_SAMPLES;
+			return;
+		}
+		
+		if (this.dropTimestamps && sample.timestampMs != null) {
+			sample = new Sample(sample.name, sample.labelNames, sample.labelValues, sample.value);
+		}
+		
 		final String metricName = sample.name;
 		
 		Collector.Type type = determineType(metricName);
@@ -97,10 +180,15 @@ public class Parser {
 	}
 
 	private void storeSimpleType(Sample sample, final String metricName, Collector.Type type) {
+		if (this.isSeriesPerFamilyLimitExceeded(metricName, type, sample)) {
+			return;
+		}
+		
 		MetricFamilySamples mfsStored = this.mapMFS.get(metricName);
 		if (mfsStored != null) {
 			// we already have created a metric for this line; we just have to add the sample
 			mfsStored.samples.add(sample);
+			this.samples++;
 		} else {
 			// there is no such MFS entry yet; we have to create one
 			List<Sample> samples = new LinkedList<>();
@@ -116,8 +204,18 @@ public class Parser {
 
 			Collector.MetricFamilySamples mfs = new Collector.MetricFamilySamples(metricName, type, docString, samples);
 			this.mapMFS.put(metricName, mfs);
+			this.samples++;
 		}
 	}
+	
+	private boolean isSeriesPerFamilyLimitExceeded(String familyName, Collector.Type type, Sample sample) {
+		if (!this.seriesCounter.add(familyName, type, sample)) {
+			this.exceededLimit = LIMIT_SERIES_PER_FAMILY;
+			return true;
+		}
+		
+		return false;
+	}
 
 	private void storeComplexType(Sample sample, final String metricName, Collector.Type type) {
 		String baseMetricName = determineBaseMetricName(metricName);
@@ -139,7 +237,12 @@ public class Parser {
 			this.mapMFS.put(baseMetricName, mfs);
 		}
 		
+		if (this.isSeriesPerFamilyLimitExceeded(baseMetricName, type, sample)) {
+			return;
+		}
+		
 		mfs.samples.add(sample);
+		this.samples++;
 	}
 	
 	private Type determineType(String metricName) {
@@ -162,7 +265,20 @@ public class Parser {
 		return Collector.Type.UNTYPED;
 	}
 
-	private static String determineBaseMetricName(String metricName) {
+	private static String extractMetricName(String line) {
+		int end = 0;
+		while (end < line.length()) {
+			char c = line.charAt(end);
+			if (c == '{' || c == ' ' || c == '\t') {
+				break;
+			}
+			end++;
+		}
+		
+		return line.substring(0, end);
+	}
+	
+	static String determineBaseMetricName(String metricName) {
 		if (metricName.endsWith("_bucket")) {
 			return metricName.substring(0, metricName.length()-7);
 		} else if (metricName.endsWith("_sum")) {
@@ -249,6 +365,27 @@ public class Parser {
 		this.mapHelps.clear();
 		this.mapTypes.clear();
 		this.mapMFS.clear();
+		this.droppedSamples = 0;
+		this.samples = 0;
+		this.seriesCounter.reset();
+		this.exceededLimit = null;
+	}
+	
+	/**
+	 * @return the number of samples dropped by the metric filter during the last parsing
+	 */
+	public int getDroppedSamples() {
+		return droppedSamples;
+	}
+	
+	/**
+	 * @return the limit, which was exceeded during the last parsing (see <code>LIMIT_*</code>); 
+	 * <code>null</code>, if no limit was exceeded. If a limit was exceeded, parsing has been stopped 
+	 * at that point and the result is incomplete.
+	 */
+	@Nullable
+	public String getExceededLimit() {
+		return exceededLimit;
 	}
 	
 }
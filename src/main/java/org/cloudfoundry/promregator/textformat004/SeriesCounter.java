@@ -0,0 +1,93 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+/**
+ * Counts the distinct series of each metric family while parsing, i.e. the distinct sets of labels of its samples.
+ *
+ * The samples of a histogram or a summary, which only differ in their suffix (e.g. <code>_bucket</code> or <code>_sum</code>)
+ * or in the value of the label <code>le</code> respectively <code>quantile</code>, belong to the same series.
+ * Thus, a histogram with many buckets does not exhaust the limit any faster than a gauge.
+ */
+public class SeriesCounter {
+	private static final String LABEL_LE = "le";
+	private static final String LABEL_QUANTILE = "quantile";
+
+	private final int maxSeriesPerFamily;
+
+	private final Map<String, Set<List<String>>> seriesPerFamily = new HashMap<>();
+
+	/**
+	 * creates a new counter
+	 * @param maxSeriesPerFamily the maximal number of distinct series to accept per metric family; <code>0</code>, if unlimited
+	 */
+	public SeriesCounter(int maxSeriesPerFamily) {
+		this.maxSeriesPerFamily = maxSeriesPerFamily;
+	}
+
+	/**
+	 * registers the series of a sample
+	 * @param familyName the name of the metric family, to which the sample belongs
+	 * @param type the type of the metric family
+	 * @param sample the sample
+	 * @return <code>false</code>, if the sample starts a new series, which would exceed the limit;
+	 * <code>true</code> otherwise
+	 */
+	public boolean add(String familyName, Type type, Sample sample) {
+		if (this.maxSeriesPerFamily <= 0) {
+			return true;
+		}
+
+		Set<List<String>> series = this.seriesPerFamily.computeIfAbsent(familyName, key -> new HashSet<>());
+
+		List<String> seriesKey = determineSeriesKey(type, sample);
+		if (series.contains(seriesKey)) {
+			return true;
+		}
+
+		if (series.size() >= this.maxSeriesPerFamily) {
+			return false;
+		}
+
+		series.add(seriesKey);
+		return true;
+	}
+
+	private static List<String> determineSeriesKey(Type type, Sample sample) {
+		String ignoredLabel = null;
+		if (type == Type.HISTOGRAM) {
+			ignoredLabel = LABEL_LE;
+		} else if (type == Type.SUMMARY) {
+			ignoredLabel = LABEL_QUANTILE;
+		}
+
+		final int labelCount = sample.labelNames.size();
+		List<String> seriesKey = new ArrayList<>(2 * labelCount);
+		for (int i = 0; i < labelCount; i++) {
+			final String labelName = sample.labelNames.get(i);
+			if (labelName.equals(ignoredLabel)) {
+				continue;
+			}
+
+			seriesKey.add(labelName);
+			seriesKey.add(sample.labelValues.get(i));
+		}
+
+		return seriesKey;
+	}
+
+	/**
+	 * forgets all series counted so far
+	 */
+	public void reset() {
+		this.seriesPerFamily.clear();
+	}
+}
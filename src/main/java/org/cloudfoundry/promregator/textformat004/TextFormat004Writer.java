@@ -0,0 +1,230 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+/**
+ * Writes metric family samples in text format 0.0.4 directly into a buffer of UTF-8 encoded bytes.
+ *
+ * The output is the same as the one of the simpleclient's <code>TextFormat.write004</code>. However, the labels
+ * of a {@link LabelSuffixSample}, which are part of its {@link LabelSuffix}, are not escaped and encoded again
+ * for each sample, but the pre-rendered bytes of the suffix are copied instead.
+ * Strings consisting of ASCII characters only (which is the usual case) are written without creating
+ * any intermediate objects.
+ */
+public class TextFormat004Writer {
+	private static final byte[] HELP = "# HELP ".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] TYPE = "# TYPE ".getBytes(StandardCharsets.US_ASCII);
+
+	private byte[] buffer;
+	private int position;
+
+	TextFormat004Writer(int initialCapacity) {
+		this.buffer = new byte[Math.max(initialCapacity, 64)];
+	}
+
+	/**
+	 * writes the metric family samples provided in text format 0.0.4
+	 * @param os the stream to which the data shall be written
+	 * @param mfs the metric family samples to write
+	 * @throws IOException if writing to the stream failed
+	 */
+	public static void write004(OutputStream os, Enumeration<MetricFamilySamples> mfs) throws IOException {
+		TextFormat004Writer writer = new TextFormat004Writer(16 * 1024);
+		writer.writeMetricFamilySamples(mfs);
+		os.write(writer.buffer, 0, writer.position);
+	}
+
+	/**
+	 * @param mfs the metric family samples to write
+	 * @return the metric family samples in text format 0.0.4, encoded in UTF-8
+	 */
+	public static byte[] toText004ByteArray(Enumeration<MetricFamilySamples> mfs) {
+		TextFormat004Writer writer = new TextFormat004Writer(16 * 1024);
+		writer.writeMetricFamilySamples(mfs);
+		return writer.toByteArray();
+	}
+
+	private void writeMetricFamilySamples(Enumeration<MetricFamilySamples> mfs) {
+		while (mfs.hasMoreElements()) {
+			MetricFamilySamples metricFamilySamples = mfs.nextElement();
+
+			this.writeBytes(HELP);
+			this.writeRaw(metricFamilySamples.name);
+			this.writeByte(' ');
+			this.writeEscaped(metricFamilySamples.help, false);
+			this.writeByte('\n');
+
+			this.writeBytes(TYPE);
+			this.writeRaw(metricFamilySamples.name);
+			this.writeByte(' ');
+			this.writeRaw(typeString(metricFamilySamples.type));
+			this.writeByte('\n');
+
+			for (Sample sample : metricFamilySamples.samples) {
+				this.writeSample(sample);
+			}
+		}
+	}
+
+	private void writeSample(Sample sample) {
+		this.writeRaw(sample.name);
+
+		final int labelCount = sample.labelNames.size();
+		if (labelCount > 0) {
+			this.writeByte('{');
+
+			LabelSuffix labelSuffix = sample instanceof LabelSuffixSample ? ((LabelSuffixSample) sample).getLabelSuffix() : null;
+			if (labelSuffix == null || labelSuffix.getLabelCount() > labelCount) {
+				this.writeLabels(sample.labelNames, sample.labelValues, 0, labelCount);
+			} else {
+				this.writeLabels(sample.labelNames, sample.labelValues, 0, labelCount - labelSuffix.getLabelCount());
+				this.writeBytes(labelSuffix.getText004());
+			}
+
+			this.writeByte('}');
+		}
+
+		this.writeByte(' ');
+		this.writeRaw(Collector.doubleToGoString(sample.value));
+		if (sample.timestampMs != null) {
+			this.writeByte(' ');
+			this.writeRaw(sample.timestampMs.toString());
+		}
+		this.writeByte('\n');
+	}
+
+	/**
+	 * writes labels in the form <code>name="value",</code>
+	 * @param labelNames the names of the labels
+	 * @param labelValues the values of the labels
+	 * @param from the index of the first label to write
+	 * @param to the index after the last label to write
+	 */
+	void writeLabels(List<String> labelNames, List<String> labelValues, int from, int to) {
+		for (int i = from; i < to; i++) {
+			this.writeRaw(labelNames.get(i));
+			this.writeByte('=');
+			this.writeByte('"');
+			this.writeEscaped(labelValues.get(i), true);
+			this.writeByte('"');
+			this.writeByte(',');
+		}
+	}
+
+	private void writeByte(char c) {
+		this.ensureCapacity(1);
+		this.buffer[this.position++] = (byte) c;
+	}
+
+	private void writeBytes(byte[] bytes) {
+		this.ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+		this.position += bytes.length;
+	}
+
+	private void writeRaw(String s) {
+		final int length = s.length();
+		this.ensureCapacity(length);
+
+		final int start = this.position;
+		for (int i = 0; i < length; i++) {
+			char c = s.charAt(i);
+			if (c >= 0x80) {
+				// NB: rare case; let the JDK take care of the encoding
+				this.position = start;
+				this.writeBytes(s.getBytes(StandardCharsets.UTF_8));
+				return;
+			}
+			this.buffer[this.position++] = (byte) c;
+		}
+	}
+
+	/**
+	 * writes a string escaping backslashes and line feeds (and optionally double quotes)
+	 * @param s the string to write
+	 * @param escapeQuotes <code>true</code>, if double quotes shall be escaped (as required for label values)
+	 */
+	private void writeEscaped(String s, boolean escapeQuotes) {
+		final int length = s.length();
+		this.ensureCapacity(2 * length);
+
+		final int start = this.position;
+		for (int i = 0; i < length; i++) {
+			char c = s.charAt(i);
+			if (c >= 0x80) {
+				// NB: rare case; let the JDK take care of the encoding
+				this.position = start;
+				this.writeBytes(escape(s, escapeQuotes).getBytes(StandardCharsets.UTF_8));
+				return;
+			}
+
+			if (c == '\\') {
+				this.buffer[this.position++] = '\\';
+				this.buffer[this.position++] = '\\';
+			} else if (c == '\n') {
+				this.buffer[this.position++] = '\\';
+				this.buffer[this.position++] = 'n';
+			} else if (c == '"' && escapeQuotes) {
+				this.buffer[this.position++] = '\\';
+				this.buffer[this.position++] = '"';
+			} else {
+				this.buffer[this.position++] = (byte) c;
+			}
+		}
+	}
+
+	private static String escape(String s, boolean escapeQuotes) {
+		StringBuilder sb = new StringBuilder(s.length() + 8);
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '\\') {
+				sb.append("\\\\");
+			} else if (c == '\n') {
+				sb.append("\\n");
+			} else if (c == '"' && escapeQuotes) {
+				sb.append("\\\"");
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String typeString(Type type) {
+		switch (type) {
+		case GAUGE:
+			return "gauge";
+		case COUNTER:
+			return "counter";
+		case SUMMARY:
+			return "summary";
+		case HISTOGRAM:
+			return "histogram";
+		default:
+			return "untyped";
+		}
+	}
+
+	private void ensureCapacity(int additionalBytes) {
+		if (this.position + additionalBytes <= this.buffer.length) {
+			return;
+		}
+
+		int newCapacity = Math.max(this.buffer.length * 2, this.position + additionalBytes);
+		this.buffer = Arrays.copyOf(this.buffer, newCapacity);
+	}
+
+	byte[] toByteArray() {
+		return Arrays.copyOf(this.buffer, this.position);
+	}
+}
@@ -0,0 +1,52 @@
+package org.cloudfoundry.promregator;
+
+/**
+ * Helpers shared by the benchmarks (which are run manually and not by surefire).
+ */
+public class BenchmarkUtils {
+
+	private BenchmarkUtils() {}
+
+	/**
+	 * creates the metrics document of a single target, which resembles a typical Spring Boot app instrumented
+	 * with micrometer (counters, gauges and histograms with a couple of label sets)
+	 * @return the document in text format 0.0.4
+	 */
+	public static String createTargetDocument() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("# HELP http_server_requests_seconds Duration of HTTP server request handling\n");
+		sb.append("# TYPE http_server_requests_seconds histogram\n");
+		String[] bounds = { "0.001", "0.005", "0.01", "0.05", "0.1", "0.5", "1.0", "5.0", "10.0", "+Inf" };
+		for (int uri = 0; uri < 5; uri++) {
+			String labels = String.format("exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/v1/resource%d\"", uri);
+			for (int b = 0; b < bounds.length; b++) {
+				sb.append(String.format("http_server_requests_seconds_bucket{%s,le=\"%s\"} %d.0%n", labels, bounds[b], b * 10 + uri));
+			}
+			sb.append(String.format("http_server_requests_seconds_count{%s} %d.0%n", labels, 90 + uri));
+			sb.append(String.format("http_server_requests_seconds_sum{%s} %d.123%n", labels, uri));
+		}
+
+		sb.append("# HELP jvm_memory_used_bytes The amount of used memory\n");
+		sb.append("# TYPE jvm_memory_used_bytes gauge\n");
+		String[] areas = { "heap", "nonheap" };
+		String[] ids = { "G1 Eden Space", "G1 Old Gen", "G1 Survivor Space", "Metaspace", "CodeHeap 'non-nmethods'", "Compressed Class Space" };
+		for (String area : areas) {
+			for (String id : ids) {
+				sb.append(String.format("jvm_memory_used_bytes{area=\"%s\",id=\"%s\"} 1.2345678E7%n", area, id));
+			}
+		}
+
+		sb.append("# HELP logback_events_total Number of events that made it to the logs\n");
+		sb.append("# TYPE logback_events_total counter\n");
+		for (String level : new String[] { "trace", "debug", "info", "warn", "error" }) {
+			sb.append(String.format("logback_events_total{level=\"%s\"} 42.0%n", level));
+		}
+
+		sb.append("# HELP process_cpu_usage The recent cpu usage for the JVM process\n");
+		sb.append("# TYPE process_cpu_usage gauge\n");
+		sb.append("process_cpu_usage 0.0123\n");
+
+		return sb.toString();
+	}
+}
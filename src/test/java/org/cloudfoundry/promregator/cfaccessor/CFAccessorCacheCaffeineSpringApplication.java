@@ -1,6 +1,10 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
+import java.util.List;
+
 import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
 import org.cloudfoundry.client.v2.spaces.GetSpaceSummaryResponse;
@@ -53,6 +57,16 @@ public class CFAccessorCacheCaffeineSpringApplication {
 			return Mono.just(GetSpaceSummaryResponse.builder().build());
 		}
 
+		@Override
+		public Mono<SummaryApplicationResponse> retrieveApplicationSummary(String applicationId) {
+			return Mono.just(SummaryApplicationResponse.builder().build());
+		}
+
+		@Override
+		public Mono<ListEventsResponse> retrieveEvents(String sinceTimestamp, List<String> eventTypes) {
+			return Mono.just(ListEventsResponse.builder().build());
+		}
+
 		@Override
 		public Mono<GetInfoResponse> getInfo() {
 			return Mono.just(GetInfoResponse.builder().build());
@@ -1,5 +1,6 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
 import org.cloudfoundry.client.v2.spaces.GetSpaceSummaryResponse;
 import org.cloudfoundry.client.v2.spaces.ListSpacesResponse;
@@ -92,4 +93,14 @@ class CFAccessorCacheCaffeineTest {
 		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveSpaceSummary("dummy");
 	}
 
+	@Test
+	void testRetrieveApplicationSummary() {
+		Mono<SummaryApplicationResponse> response1 = subject.retrieveApplicationSummary("dummy");
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveApplicationSummary("dummy");
+		
+		Mono<SummaryApplicationResponse> response2 = subject.retrieveApplicationSummary("dummy");
+		assertThat(response1.block()).isEqualTo(response2.block());
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveApplicationSummary("dummy");
+	}
+
 }
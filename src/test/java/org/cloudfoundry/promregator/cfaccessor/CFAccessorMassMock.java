@@ -10,10 +10,14 @@ import org.cloudfoundry.client.v2.Metadata;
 import org.cloudfoundry.client.v2.applications.ApplicationEntity;
 import org.cloudfoundry.client.v2.applications.ApplicationResource;
 import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
+import org.cloudfoundry.client.v2.domains.Domain;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
 import org.cloudfoundry.client.v2.organizations.OrganizationEntity;
 import org.cloudfoundry.client.v2.organizations.OrganizationResource;
+import org.cloudfoundry.client.v2.routes.Route;
 import org.cloudfoundry.client.v2.spaces.GetSpaceSummaryResponse;
 import org.cloudfoundry.client.v2.spaces.ListSpacesResponse;
 import org.cloudfoundry.client.v2.spaces.SpaceApplicationSummary;
@@ -136,6 +140,30 @@ public class CFAccessorMassMock implements CFAccessor {
 		return null;
 	}
 
+	@Override
+	public Mono<SummaryApplicationResponse> retrieveApplicationSummary(String applicationId) {
+		if (applicationId.startsWith(UNITTEST_APP_UUID_PREFIX)) {
+			String appNumber = applicationId.substring(UNITTEST_APP_UUID_PREFIX.length());
+			
+			Route route = Route.builder()
+					.host("hostapp"+appNumber)
+					.domain(Domain.builder().name(UNITTEST_SHARED_DOMAIN).build())
+					.build();
+			
+			SummaryApplicationResponse resp = SummaryApplicationResponse.builder()
+					.id(applicationId)
+					.name("testapp"+appNumber)
+					.route(route)
+					.instances(this.amountInstances)
+					.build();
+			
+			return Mono.just(resp).delayElement(this.getSleepRandomDuration());
+		}
+		
+		Assertions.fail("Invalid retrieveApplicationSummary request");
+		return null;
+	}
+
 	public Mono<ListOrganizationsResponse> retrieveAllOrgIds() {
 		return this.retrieveOrgId("unittestorg");
 	}
@@ -145,6 +173,11 @@ public class CFAccessorMassMock implements CFAccessor {
 		return this.retrieveSpaceId(UNITTEST_ORG_UUID, "unittestspace");
 	}
 
+	@Override
+	public Mono<ListEventsResponse> retrieveEvents(String sinceTimestamp, List<String> eventTypes) {
+		return Mono.just(ListEventsResponse.builder().build());
+	}
+
 	@Override
 	public Mono<GetInfoResponse> getInfo() {
 		GetInfoResponse data = GetInfoResponse.builder()
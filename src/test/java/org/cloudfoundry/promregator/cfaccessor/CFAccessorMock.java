@@ -9,10 +9,14 @@ import org.cloudfoundry.client.v2.Metadata;
 import org.cloudfoundry.client.v2.applications.ApplicationEntity;
 import org.cloudfoundry.client.v2.applications.ApplicationResource;
 import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.applications.SummaryApplicationResponse;
+import org.cloudfoundry.client.v2.domains.Domain;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
 import org.cloudfoundry.client.v2.organizations.OrganizationEntity;
 import org.cloudfoundry.client.v2.organizations.OrganizationResource;
+import org.cloudfoundry.client.v2.routes.Route;
 import org.cloudfoundry.client.v2.spaces.GetSpaceSummaryResponse;
 import org.cloudfoundry.client.v2.spaces.ListSpacesResponse;
 import org.cloudfoundry.client.v2.spaces.SpaceApplicationSummary;
@@ -29,10 +33,12 @@ public class CFAccessorMock implements CFAccessor {
 	public static final String UNITTEST_SPACE_UUID_EXCEPTION = "db08be9a-2fa4-11e8-b467-0ed5f89f718b-exception";
 	public static final String UNITTEST_APP1_UUID = "55820b2c-2fa5-11e8-b467-0ed5f89f718b";
 	public static final String UNITTEST_APP2_UUID = "5a0ead6c-2fa5-11e8-b467-0ed5f89f718b";
+	public static final String UNITTEST_APP3_UUID = "63a5f4ce-2fa5-11e8-b467-0ed5f89f718b";
 	public static final String UNITTEST_APP1_ROUTE_UUID = "57ac2ada-2fa6-11e8-b467-0ed5f89f718b";
 	public static final String UNITTEST_APP2_ROUTE_UUID = "5c5b464c-2fa6-11e8-b467-0ed5f89f718b";
 	public static final String UNITTEST_APP1_HOST = "hostapp1";
 	public static final String UNITTEST_APP2_HOST = "hostapp2";
+	public static final String UNITTEST_APP3_HOST = "hostapp3";
 	public static final String UNITTEST_SHARED_DOMAIN_UUID = "be9b8696-2fa6-11e8-b467-0ed5f89f718b";
 	public static final String UNITTEST_SHARED_DOMAIN = "shared.domain.example.org";
 	
@@ -166,6 +172,15 @@ public class CFAccessorMock implements CFAccessor {
 					.build();
 			list.add(sas);
 			
+			final String[] urls3 = { UNITTEST_APP3_HOST + "." + UNITTEST_SHARED_DOMAIN }; 
+			sas =  SpaceApplicationSummary.builder()
+					.id(UNITTEST_APP3_UUID)
+					.name("testapp3")
+					.addAllUrls(Arrays.asList(urls3))
+					.instances(1)
+					.build();
+			list.add(sas);
+			
 			GetSpaceSummaryResponse resp = GetSpaceSummaryResponse.builder().addAllApplications(list).build();
 			
 			return Mono.just(resp);
@@ -179,6 +194,42 @@ public class CFAccessorMock implements CFAccessor {
 		return null;
 	}
 
+	@Override
+	public Mono<SummaryApplicationResponse> retrieveApplicationSummary(String applicationId) {
+		final Domain sharedDomain = Domain.builder().id(UNITTEST_SHARED_DOMAIN_UUID).name(UNITTEST_SHARED_DOMAIN).build();
+		
+		if (applicationId.equals(UNITTEST_APP1_UUID)) {
+			Route route = Route.builder().id(UNITTEST_APP1_ROUTE_UUID).host(UNITTEST_APP1_HOST).domain(sharedDomain).path("").build();
+			
+			SummaryApplicationResponse resp = SummaryApplicationResponse.builder()
+					.id(UNITTEST_APP1_UUID)
+					.name("testapp")
+					.route(route)
+					.instances(2)
+					.build();
+			
+			return Mono.just(resp);
+		} else if (applicationId.equals(UNITTEST_APP2_UUID)) {
+			Route route1 = Route.builder().id(UNITTEST_APP2_ROUTE_UUID).host(UNITTEST_APP2_HOST).domain(sharedDomain).path("/additionalPath").build();
+			Route route2 = Route.builder().host(UNITTEST_APP2_HOST + ".additionalSubdomain").domain(sharedDomain).path("/additionalPath").build();
+			
+			SummaryApplicationResponse resp = SummaryApplicationResponse.builder()
+					.id(UNITTEST_APP2_UUID)
+					.name("testapp2")
+					.route(route1)
+					.route(route2)
+					.instances(1)
+					.build();
+			
+			return Mono.just(resp);
+		} else if (applicationId.equals(UNITTEST_APP3_UUID)) {
+			return Mono.just(SummaryApplicationResponse.builder().build()).map( x-> { throw new Error("exception on single application summary"); });
+		}
+		
+		Assertions.fail("Invalid retrieveApplicationSummary request");
+		return null;
+	}
+
 	public Mono<ListOrganizationsResponse> retrieveAllOrgIds() {
 		return this.retrieveOrgId("unittestorg");
 	}
@@ -188,6 +239,11 @@ public class CFAccessorMock implements CFAccessor {
 		return this.retrieveSpaceId(UNITTEST_ORG_UUID, "unittestspace");
 	}
 
+	@Override
+	public Mono<ListEventsResponse> retrieveEvents(String sinceTimestamp, List<String> eventTypes) {
+		return Mono.just(ListEventsResponse.builder().build());
+	}
+
 	@Override
 	public Mono<GetInfoResponse> getInfo() {
 		GetInfoResponse data = GetInfoResponse.builder()
@@ -0,0 +1,55 @@
+package org.cloudfoundry.promregator.config.validations;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudfoundry.promregator.config.PromregatorConfiguration;
+import org.cloudfoundry.promregator.config.Target;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MetricFilterRegexMustBeCompilableTest {
+
+	@Test
+	void testNoFilterDoesNotCrash() {
+		MetricFilterRegexMustBeCompilable subject = new MetricFilterRegexMustBeCompilable();
+		PromregatorConfiguration promregatorConfiguration = new PromregatorConfiguration();
+		List<Target> targets = new LinkedList<>();
+		Target target = new Target();
+		targets.add(target);
+		promregatorConfiguration.setTargets(targets);
+		
+		Assertions.assertNull(subject.validate(promregatorConfiguration));
+		Assertions.assertNull(target.getMetricFilter());
+	}
+	
+	@Test
+	void testValidDoesNotBreak() {
+		MetricFilterRegexMustBeCompilable subject = new MetricFilterRegexMustBeCompilable();
+		PromregatorConfiguration promregatorConfiguration = new PromregatorConfiguration();
+		List<Target> targets = new LinkedList<>();
+		Target target = new Target();
+		target.setMetricNameDenyRegex(Collections.singletonList("jvm_.*"));
+		target.setLabelValueDenyRegex(Collections.singletonMap("uri", "/actuator/.*"));
+		targets.add(target);
+		promregatorConfiguration.setTargets(targets);
+		
+		Assertions.assertNull(subject.validate(promregatorConfiguration));
+		Assertions.assertNotNull(target.getMetricFilter());
+	}
+	
+	@Test
+	void testInvalidRaisesError() {
+		MetricFilterRegexMustBeCompilable subject = new MetricFilterRegexMustBeCompilable();
+		PromregatorConfiguration promregatorConfiguration = new PromregatorConfiguration();
+		List<Target> targets = new LinkedList<>();
+		Target target = new Target();
+		target.setLabelValueAllowRegex(Collections.singletonMap("status", "["));
+		targets.add(target);
+		promregatorConfiguration.setTargets(targets);
+		
+		Assertions.assertNotNull(subject.validate(promregatorConfiguration));
+	}
+
+}
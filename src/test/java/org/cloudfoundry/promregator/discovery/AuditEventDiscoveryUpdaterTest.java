@@ -0,0 +1,143 @@
+package org.cloudfoundry.promregator.discovery;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.cloudfoundry.client.v2.Metadata;
+import org.cloudfoundry.client.v2.events.EventEntity;
+import org.cloudfoundry.client.v2.events.EventResource;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.cfaccessor.CFAccessorCache;
+import org.cloudfoundry.promregator.cfaccessor.CFAccessorMock;
+import org.cloudfoundry.promregator.scanner.CachingTargetResolver;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.publisher.Mono;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = AuditEventDiscoveryUpdaterTestSpringApplication.class)
+@TestPropertySource(locations="auditEvents.properties")
+class AuditEventDiscoveryUpdaterTest {
+	
+	@AfterAll
+	static void cleanUp() {
+		JUnitTestUtils.cleanUpAll();
+	}
+	
+	@Autowired
+	private AuditEventDiscoveryUpdater subject;
+	
+	@Autowired
+	private CFAccessorCache cfAccessorCache;
+	
+	@Autowired
+	private CachingTargetResolver cachingTargetResolver;
+	
+	@Autowired
+	private CFMultiDiscoverer cfDiscoverer;
+	
+	@BeforeEach
+	void resetMocks() {
+		Mockito.reset(this.cfAccessorCache, this.cachingTargetResolver, this.cfDiscoverer);
+	}
+	
+	private static EventResource createEvent(String eventId, String type, String applicationId, String timestamp) {
+		return EventResource.builder()
+				.metadata(Metadata.builder().id(eventId).createdAt(timestamp).build())
+				.entity(EventEntity.builder()
+						.type(type)
+						.actee(applicationId)
+						.acteeType("app")
+						.acteeName("testapp")
+						.organizationId(CFAccessorMock.UNITTEST_ORG_UUID)
+						.spaceId(CFAccessorMock.UNITTEST_SPACE_UUID)
+						.timestamp(timestamp)
+						.build())
+				.build();
+	}
+	
+	private void mockEventStream(EventResource... events) {
+		ListEventsResponse response = ListEventsResponse.builder().resources(events).build();
+		when(this.cfAccessorCache.retrieveEvents(anyString(), any())).thenReturn(Mono.just(response));
+	}
+	
+	@Test
+	void testStopEventDeregistersApplication() {
+		this.mockEventStream(createEvent("event-stop", "audit.app.stop", CFAccessorMock.UNITTEST_APP1_UUID, "2007-12-03T10:16:00Z"));
+		
+		this.subject.pollEvents();
+		
+		Mockito.verify(this.cfAccessorCache, Mockito.times(1)).invalidateCacheApplication(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID, CFAccessorMock.UNITTEST_APP1_UUID);
+		Mockito.verify(this.cachingTargetResolver, Mockito.times(1)).invalidateCacheForApplication(CFAccessorMock.UNITTEST_APP1_UUID, false);
+		Mockito.verify(this.cfDiscoverer, Mockito.times(1)).deregisterApplication(CFAccessorMock.UNITTEST_APP1_UUID);
+	}
+	
+	@Test
+	void testStartEventInvalidatesUnspecificTargets() {
+		this.mockEventStream(createEvent("event-start", "audit.app.start", CFAccessorMock.UNITTEST_APP2_UUID, "2007-12-03T10:17:00Z"));
+		
+		this.subject.pollEvents();
+		
+		Mockito.verify(this.cfAccessorCache, Mockito.times(1)).invalidateCacheApplication(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID, CFAccessorMock.UNITTEST_APP2_UUID);
+		Mockito.verify(this.cachingTargetResolver, Mockito.times(1)).invalidateCacheForApplication(CFAccessorMock.UNITTEST_APP2_UUID, true);
+		Mockito.verify(this.cfDiscoverer, Mockito.never()).deregisterApplication(anyString());
+	}
+	
+	@Test
+	void testRouteMappingOnlyInvalidatesApplicationCache() {
+		this.mockEventStream(createEvent("event-map-route", "audit.app.map-route", CFAccessorMock.UNITTEST_APP1_UUID, "2007-12-03T10:18:00Z"));
+		
+		this.subject.pollEvents();
+		
+		Mockito.verify(this.cfAccessorCache, Mockito.times(1)).invalidateCacheApplication(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID, CFAccessorMock.UNITTEST_APP1_UUID);
+		Mockito.verify(this.cachingTargetResolver, Mockito.never()).invalidateCacheForApplication(anyString(), anyBoolean());
+		Mockito.verify(this.cfDiscoverer, Mockito.never()).deregisterApplication(anyString());
+	}
+	
+	@Test
+	void testEventsAreOnlyAppliedOnce() {
+		this.mockEventStream(
+				createEvent("event-update1", "audit.app.update", CFAccessorMock.UNITTEST_APP1_UUID, "2007-12-03T10:19:00Z"),
+				createEvent("event-update2", "audit.app.update", CFAccessorMock.UNITTEST_APP2_UUID, "2007-12-03T10:20:00Z"));
+		
+		this.subject.pollEvents();
+		Assertions.assertEquals(Instant.parse("2007-12-03T10:20:00Z"), this.subject.getLastTimestamp());
+		
+		// the Cloud Controller filters with "greater or equal", so the latest event is reported again
+		this.mockEventStream(
+				createEvent("event-update2", "audit.app.update", CFAccessorMock.UNITTEST_APP2_UUID, "2007-12-03T10:20:00Z"),
+				createEvent("event-update3", "audit.app.update", CFAccessorMock.UNITTEST_APP2_UUID, "2007-12-03T10:20:00Z"));
+		
+		this.subject.pollEvents();
+		
+		Mockito.verify(this.cfAccessorCache, Mockito.times(1)).invalidateCacheApplication(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID, CFAccessorMock.UNITTEST_APP1_UUID);
+		Mockito.verify(this.cfAccessorCache, Mockito.times(2)).invalidateCacheApplication(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID, CFAccessorMock.UNITTEST_APP2_UUID);
+		Mockito.verify(this.cfAccessorCache, Mockito.times(2)).retrieveEvents(anyString(), any());
+	}
+	
+	@Test
+	void testErroneousRetrievalIsIgnored() {
+		when(this.cfAccessorCache.retrieveEvents(anyString(), any())).thenReturn(Mono.error(new IllegalStateException("unit test")));
+		
+		Instant before = this.subject.getLastTimestamp();
+		
+		Assertions.assertDoesNotThrow(() -> this.subject.pollEvents());
+		
+		Assertions.assertEquals(before, this.subject.getLastTimestamp());
+		Mockito.verify(this.cfAccessorCache, Mockito.never()).invalidateCacheApplication(anyString(), anyString(), anyString());
+	}
+}
@@ -0,0 +1,41 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import org.cloudfoundry.promregator.cfaccessor.CFAccessorCache;
+import org.cloudfoundry.promregator.scanner.CachingTargetResolver;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AuditEventDiscoveryUpdaterTestSpringApplication {
+	
+	@Bean
+	public CFAccessorCache cfAccessorCache() {
+		return Mockito.mock(CFAccessorCache.class);
+	}
+	
+	@Bean
+	public CachingTargetResolver cachingTargetResolver() {
+		return Mockito.mock(CachingTargetResolver.class);
+	}
+	
+	@Bean
+	public CFMultiDiscoverer cfDiscoverer() {
+		return Mockito.mock(CFMultiDiscoverer.class);
+	}
+	
+	@Bean
+	public Clock clock() {
+		return Clock.fixed(Instant.parse("2007-12-03T10:15:30.00Z"), ZoneId.of("UTC"));
+	}
+	
+	@Bean
+	public AuditEventDiscoveryUpdater auditEventDiscoveryUpdater() {
+		return new AuditEventDiscoveryUpdater();
+	}
+	
+}
@@ -8,22 +8,20 @@ import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessorMock;
 import org.cloudfoundry.promregator.config.PromregatorConfiguration;
 import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.cloudfoundry.promregator.messagebus.InstanceLifecycleEventBus;
 import org.cloudfoundry.promregator.scanner.AppInstanceScanner;
 import org.cloudfoundry.promregator.scanner.ReactiveAppInstanceScanner;
 import org.cloudfoundry.promregator.scanner.TargetResolver;
-import org.cloudfoundry.promregator.springconfig.JMSSpringConfiguration;
 import org.mockito.Mockito;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
-@Import({JMSSpringConfiguration.class})
 public class CFDiscovererTestSpringApplication {
 	
 	@Bean
 	public TargetResolver targetResolver() {
-		return Mockito.mock(TargetResolver.class);
+		return Mockito.mock(TargetResolver.class, Mockito.CALLS_REAL_METHODS);
 	}
 
 	
@@ -53,6 +51,11 @@ public class CFDiscovererTestSpringApplication {
 		return new PromregatorConfiguration();
 	}
 	
+	@Bean
+	public InstanceLifecycleEventBus instanceLifecycleEventBus() {
+		return new InstanceLifecycleEventBus();
+	}
+	
 	@Bean
 	public CFMultiDiscoverer cfDiscoverer() {
 		return new CFMultiDiscoverer();
@@ -6,27 +6,35 @@ import static org.mockito.Mockito.when;
 import java.time.Clock;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.cloudfoundry.promregator.JUnitTestUtils;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessorMock;
 import org.cloudfoundry.promregator.config.Target;
-import org.cloudfoundry.promregator.messagebus.MessageBusDestination;
+import org.cloudfoundry.promregator.messagebus.InstanceLifecycleEventBus;
+import org.cloudfoundry.promregator.messagebus.InstanceLifecycleListener;
 import org.cloudfoundry.promregator.scanner.Instance;
 import org.cloudfoundry.promregator.scanner.ResolvedTarget;
 import org.cloudfoundry.promregator.scanner.TargetResolver;
-import org.cloudfoundry.promregator.springconfig.JMSSpringConfiguration;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.jms.annotation.JmsListener;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = CFDiscovererTestSpringApplication.class)
 @TestPropertySource(locations="default.properties")
@@ -46,11 +54,26 @@ class CFMultiDiscovererTest {
 	@Autowired
 	private Clock clock;
 	
-	private List<Instance> removerTriggerForInstances = new LinkedList<>();
+	@Autowired
+	private InstanceLifecycleEventBus instanceLifecycleEventBus;
 	
-	@JmsListener(destination=MessageBusDestination.DISCOVERER_INSTANCE_REMOVED, containerFactory=JMSSpringConfiguration.BEAN_NAME_JMS_LISTENER_CONTAINER_FACTORY)
-	public void receiver(Instance instance) {
-		this.removerTriggerForInstances.add(instance);
+	@AfterEach
+	void resetTargetResolverMock() {
+		Mockito.reset(this.targetResolver);
+	}
+	
+	private List<Instance> removerTriggerForInstances = Collections.synchronizedList(new LinkedList<>());
+	
+	private InstanceLifecycleListener receiver = this.removerTriggerForInstances::add;
+	
+	@BeforeEach
+	void registerReceiver() {
+		this.instanceLifecycleEventBus.addListener(this.receiver);
+	}
+	
+	@AfterEach
+	void deregisterReceiver() {
+		this.instanceLifecycleEventBus.removeListener(this.receiver);
 	}
 	
 	@Test
@@ -107,7 +130,7 @@ class CFMultiDiscovererTest {
 		Assertions.assertTrue(this.cfDiscoverer.isInstanceRegistered(i1));
 		Assertions.assertTrue(this.cfDiscoverer.isInstanceRegistered(i2));
 		
-		// Wait a little to allow JMX do its job... (if it really did something)
+		// Wait a little to allow the event bus do its job... (if it really did something)
 		for (int i = 0;i<10;i++) {
 			if (!this.removerTriggerForInstances.isEmpty()) {
 				Thread.sleep(100);
@@ -133,4 +156,118 @@ class CFMultiDiscovererTest {
 		}
 	}
 
+	@Test
+	void testDiscoverReactive() {
+		List<ResolvedTarget> resolvedTargets = new ArrayList<>();
+		ResolvedTarget aTarget = new ResolvedTarget();
+		aTarget.setOrgName("unittestorg");
+		aTarget.setSpaceName("unittestspace");
+		aTarget.setApplicationName("testapp2");
+		aTarget.setApplicationId(CFAccessorMock.UNITTEST_APP2_UUID);
+		aTarget.setProtocol("https");
+		aTarget.setPath("/metrics");
+		aTarget.setOriginalTarget(new Target());
+		resolvedTargets.add(aTarget);
+		when(targetResolver.resolveTargets(any())).thenReturn(resolvedTargets);
+		
+		Flux<Instance> resultFlux = this.cfDiscoverer.discoverReactive(null, null);
+		
+		Instance instance = resultFlux.blockFirst();
+		Assertions.assertNotNull(instance);
+		Assertions.assertEquals(CFAccessorMock.UNITTEST_APP2_UUID+":0", instance.getInstanceId());
+		Assertions.assertEquals("https://hostapp2.shared.domain.example.org/additionalPath/metrics", instance.getAccessUrl());
+		
+		// the instance is registered as soon as it is emitted
+		Assertions.assertTrue(this.cfDiscoverer.isInstanceRegistered(instance));
+	}
+	
+	@Test
+	void testDiscoverReactiveWithFailingTargetResolver() {
+		Mockito.doThrow(new IllegalStateException("unit test")).when(targetResolver).resolveTargets(any());
+		
+		List<Instance> result = this.cfDiscoverer.discoverReactive(null, null).collectList().block();
+		
+		Assertions.assertNotNull(result);
+		Assertions.assertTrue(result.isEmpty());
+	}
+	
+	@Test
+	void testInstanceSetVersion() {
+		List<ResolvedTarget> resolvedTargets = new ArrayList<>();
+		ResolvedTarget aTarget = new ResolvedTarget();
+		aTarget.setOrgName("unittestorg");
+		aTarget.setSpaceName("unittestspace");
+		aTarget.setApplicationName("testapp2");
+		aTarget.setApplicationId(CFAccessorMock.UNITTEST_APP2_UUID);
+		aTarget.setProtocol("https");
+		aTarget.setPath("/metrics");
+		aTarget.setOriginalTarget(new Target());
+		resolvedTargets.add(aTarget);
+		when(targetResolver.resolveTargets(any())).thenReturn(resolvedTargets);
+		
+		// ensure that no instance of the application is registered yet
+		this.cfDiscoverer.deregisterApplication(CFAccessorMock.UNITTEST_APP2_UUID);
+		final long initialVersion = this.cfDiscoverer.getInstanceSetVersion();
+		
+		this.cfDiscoverer.discover(null, null);
+		final long versionAfterDiscovery = this.cfDiscoverer.getInstanceSetVersion();
+		Assertions.assertTrue(versionAfterDiscovery > initialVersion);
+		
+		// refreshing already known instances does not change the set
+		this.cfDiscoverer.discover(null, null);
+		Assertions.assertEquals(versionAfterDiscovery, this.cfDiscoverer.getInstanceSetVersion());
+		
+		this.cfDiscoverer.deregisterApplication(CFAccessorMock.UNITTEST_APP2_UUID);
+		Assertions.assertTrue(this.cfDiscoverer.getInstanceSetVersion() > versionAfterDiscovery);
+	}
+
+	@Test
+	void testAwaitInstanceSetChange() {
+		List<ResolvedTarget> resolvedTargets = new ArrayList<>();
+		ResolvedTarget aTarget = new ResolvedTarget();
+		aTarget.setOrgName("unittestorg");
+		aTarget.setSpaceName("unittestspace");
+		aTarget.setApplicationName("testapp2");
+		aTarget.setApplicationId(CFAccessorMock.UNITTEST_APP2_UUID);
+		aTarget.setProtocol("https");
+		aTarget.setPath("/metrics");
+		aTarget.setOriginalTarget(new Target());
+		resolvedTargets.add(aTarget);
+		when(targetResolver.resolveTargets(any())).thenReturn(resolvedTargets);
+		
+		this.cfDiscoverer.discover(null, null);
+		final long knownVersion = this.cfDiscoverer.getInstanceSetVersion();
+		
+		// an outdated version is reported immediately
+		Assertions.assertEquals(Long.valueOf(knownVersion), this.cfDiscoverer.awaitInstanceSetChange(knownVersion - 1).block(Duration.ofSeconds(1)));
+		
+		// the current version is only reported after a change
+		CompletableFuture<Long> change = this.cfDiscoverer.awaitInstanceSetChange(knownVersion).toFuture();
+		Assertions.assertFalse(change.isDone());
+		
+		this.cfDiscoverer.deregisterApplication(CFAccessorMock.UNITTEST_APP2_UUID);
+		Assertions.assertTrue(change.isDone());
+		Assertions.assertTrue(change.join() > knownVersion);
+	}
+
+	@Test
+	void testAwaitInstanceSetChangeDetachesOnCancel() {
+		final long knownVersion = this.cfDiscoverer.getInstanceSetVersion();
+		final int initialWatcherCount = this.cfDiscoverer.getInstanceSetWatcherCount();
+		
+		// a timed-out wait must not remain registered
+		Long timedOut = this.cfDiscoverer.awaitInstanceSetChange(knownVersion)
+				.timeout(Duration.ofMillis(50), Mono.empty())
+				.block(Duration.ofSeconds(1));
+		Assertions.assertNull(timedOut);
+		Assertions.assertEquals(initialWatcherCount, this.cfDiscoverer.getInstanceSetWatcherCount());
+		
+		// neither must a cancelled one
+		Disposable subscription = this.cfDiscoverer.awaitInstanceSetChange(knownVersion).subscribe();
+		Assertions.assertEquals(initialWatcherCount + 1, this.cfDiscoverer.getInstanceSetWatcherCount());
+		
+		subscription.dispose();
+		Assertions.assertEquals(initialWatcherCount, this.cfDiscoverer.getInstanceSetWatcherCount());
+	}
+
 }
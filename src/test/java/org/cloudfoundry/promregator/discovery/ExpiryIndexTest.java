@@ -0,0 +1,89 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ExpiryIndexTest {
+	private static final Instant NOW = Instant.parse("2007-12-03T10:15:30.00Z");
+
+	@Test
+	void testTouchReportsNewKeys() {
+		ExpiryIndex<String> subject = new ExpiryIndex<>();
+		
+		Assertions.assertTrue(subject.touch("a", NOW.plusSeconds(10)));
+		Assertions.assertFalse(subject.touch("a", NOW.plusSeconds(20)));
+		Assertions.assertTrue(subject.touch("b", NOW.plusSeconds(10)));
+		
+		Assertions.assertEquals(2, subject.size());
+		Assertions.assertTrue(subject.contains("a"));
+		Assertions.assertFalse(subject.contains("c"));
+	}
+	
+	@Test
+	void testRemoveExpiredOnlyRemovesDueKeys() {
+		ExpiryIndex<String> subject = new ExpiryIndex<>();
+		subject.touch("a", NOW.plusSeconds(10));
+		subject.touch("b", NOW.plusSeconds(20));
+		subject.touch("c", NOW.plusMillis(10500));
+		
+		Assertions.assertTrue(subject.removeExpired(NOW.plusSeconds(9)).isEmpty());
+		
+		List<String> removed = subject.removeExpired(NOW.plusSeconds(10));
+		Assertions.assertEquals(Arrays.asList("a"), removed);
+		Assertions.assertTrue(subject.contains("c"));
+		
+		removed = subject.removeExpired(NOW.plusSeconds(11));
+		Assertions.assertEquals(Arrays.asList("c"), removed);
+		
+		removed = subject.removeExpired(NOW.plusSeconds(60));
+		Assertions.assertEquals(Arrays.asList("b"), removed);
+		Assertions.assertEquals(0, subject.size());
+	}
+	
+	@Test
+	void testTouchedKeysDoNotExpire() {
+		ExpiryIndex<String> subject = new ExpiryIndex<>();
+		subject.touch("a", NOW.plusSeconds(10));
+		subject.touch("a", NOW.plusSeconds(30));
+		
+		Assertions.assertTrue(subject.removeExpired(NOW.plusSeconds(10)).isEmpty());
+		Assertions.assertTrue(subject.removeExpired(NOW.plusSeconds(29)).isEmpty());
+		Assertions.assertTrue(subject.contains("a"));
+		
+		Assertions.assertEquals(Arrays.asList("a"), subject.removeExpired(NOW.plusSeconds(30)));
+	}
+	
+	@Test
+	void testRemoveIf() {
+		ExpiryIndex<String> subject = new ExpiryIndex<>();
+		subject.touch("a1", NOW.plusSeconds(10));
+		subject.touch("a2", NOW.plusSeconds(10));
+		subject.touch("b1", NOW.plusSeconds(10));
+		
+		List<String> removed = subject.removeIf(key -> key.startsWith("a"));
+		Assertions.assertEquals(new HashSet<>(Arrays.asList("a1", "a2")), new HashSet<>(removed));
+		Assertions.assertEquals(1, subject.size());
+		
+		// removed keys are not reported again on expiry
+		Assertions.assertEquals(Arrays.asList("b1"), subject.removeExpired(NOW.plusSeconds(10)));
+	}
+	
+	@Test
+	void testReregisteredKeyUsesNewExpiry() {
+		ExpiryIndex<String> subject = new ExpiryIndex<>();
+		subject.touch("a", NOW.plusSeconds(10));
+		subject.removeIf(key -> true);
+		
+		Assertions.assertTrue(subject.touch("a", NOW.plusSeconds(20)));
+		
+		// the stale filing of the first registration is ignored
+		Assertions.assertTrue(subject.removeExpired(NOW.plusSeconds(10)).isEmpty());
+		Assertions.assertTrue(subject.contains("a"));
+		Assertions.assertEquals(Arrays.asList("a"), subject.removeExpired(NOW.plusSeconds(20)));
+	}
+}
@@ -0,0 +1,93 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RendezvousShardingTest {
+
+	private static List<String> generateApplicationIds(int count) {
+		Random random = new Random(4711);
+		
+		List<String> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(new UUID(random.nextLong(), random.nextLong()).toString());
+		}
+		return result;
+	}
+	
+	@Test
+	void testSingleShardIsResponsibleForEverything() {
+		RendezvousSharding subject = new RendezvousSharding(0, 1);
+		
+		for (String applicationId : generateApplicationIds(100)) {
+			Assertions.assertTrue(subject.isResponsibleFor(applicationId));
+		}
+	}
+	
+	@Test
+	void testReplicasCoverEachApplicationExactlyOnceWithEvenDistribution() {
+		final int shardCount = 4;
+		final int applicationCount = 20000;
+		
+		// simulates a setup with several Promregator instances, each knowing only its own index
+		List<RendezvousSharding> replicas = new ArrayList<>();
+		for (int i = 0; i < shardCount; i++) {
+			replicas.add(new RendezvousSharding(i, shardCount));
+		}
+		
+		int[] assigned = new int[shardCount];
+		for (String applicationId : generateApplicationIds(applicationCount)) {
+			int responsible = 0;
+			for (RendezvousSharding replica : replicas) {
+				if (replica.isResponsibleFor(applicationId)) {
+					responsible++;
+					assigned[replica.getShardIndex()]++;
+				}
+			}
+			Assertions.assertEquals(1, responsible);
+		}
+		
+		final int expected = applicationCount / shardCount;
+		for (int i = 0; i < shardCount; i++) {
+			Assertions.assertTrue(Math.abs(assigned[i] - expected) < expected * 0.05, String.format("Shard %d has %d applications assigned", i, assigned[i]));
+		}
+	}
+	
+	@Test
+	void testAddingShardOnlyMovesApplicationsToNewShard() {
+		final int applicationCount = 20000;
+		
+		int moved = 0;
+		for (String applicationId : generateApplicationIds(applicationCount)) {
+			int before = RendezvousSharding.determineShard(applicationId, 4);
+			int after = RendezvousSharding.determineShard(applicationId, 5);
+			
+			if (before != after) {
+				Assertions.assertEquals(4, after);
+				moved++;
+			}
+		}
+		
+		// ideally, a fifth of all applications is moved to the new shard
+		Assertions.assertTrue(Math.abs(moved - applicationCount / 5) < applicationCount / 5 * 0.05, String.format("%d applications were moved", moved));
+	}
+	
+	@Test
+	void testAssignmentIsStable() {
+		for (String applicationId : generateApplicationIds(100)) {
+			Assertions.assertEquals(RendezvousSharding.determineShard(applicationId, 7), RendezvousSharding.determineShard(applicationId, 7));
+		}
+	}
+	
+	@Test
+	void testInvalidConfiguration() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new RendezvousSharding(0, 0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new RendezvousSharding(3, 3));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new RendezvousSharding(-1, 3));
+	}
+}
@@ -0,0 +1,91 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cloudfoundry.promregator.rewrite.MFSUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+import io.prometheus.client.Gauge;
+
+class BudgetedMetricsMergerTest {
+
+	private static HashMap<String, MetricFamilySamples> createResult(String instanceId) {
+		List<String> labelNames = Collections.singletonList("instance");
+		List<String> labelValues = Collections.singletonList(instanceId);
+
+		Sample sample = new Sample("metric_name", labelNames, labelValues, 1.0);
+		MetricFamilySamples mfs = new MetricFamilySamples("metric_name", Type.GAUGE, "help", new ArrayList<>(Collections.singletonList(sample)));
+
+		HashMap<String, MetricFamilySamples> result = new HashMap<>();
+		result.put(mfs.name, mfs);
+		return result;
+	}
+
+	@Test
+	void testUnlimitedBudget() {
+		BudgetedMetricsMerger subject = new BudgetedMetricsMerger(0);
+
+		for (int i = 0; i < 100; i++) {
+			Assertions.assertTrue(subject.merge(createResult("instance" + i)));
+		}
+
+		Assertions.assertEquals(0, subject.getDroppedResults());
+		Assertions.assertEquals(100, subject.getMergableMetricFamilySamples().getEnumerationMetricFamilySamplesInHashMap().get("metric_name").samples.size());
+	}
+
+	@Test
+	void testResultsExceedingBudgetAreDropped() {
+		long size = MFSUtils.estimateSize(createResult("instance0"));
+
+		BudgetedMetricsMerger subject = new BudgetedMetricsMerger(2 * size + size / 2);
+
+		Assertions.assertTrue(subject.merge(createResult("instance0")));
+		Assertions.assertTrue(subject.merge(createResult("instance1")));
+		Assertions.assertFalse(subject.merge(createResult("instance2")));
+		Assertions.assertFalse(subject.merge(createResult("instance3")));
+
+		Assertions.assertEquals(2, subject.getDroppedResults());
+		Assertions.assertEquals(2 * size, subject.getMergedSize());
+
+		// results of an instance are never merged partially
+		List<Sample> samples = subject.getMergableMetricFamilySamples().getEnumerationMetricFamilySamplesInHashMap().get("metric_name").samples;
+		Assertions.assertEquals(2, samples.size());
+	}
+
+	@Test
+	void testDroppedInstanceIsReportedAsUnavailable() {
+		long size = MFSUtils.estimateSize(createResult("instance0"));
+
+		BudgetedMetricsMerger subject = new BudgetedMetricsMerger(size + size / 2);
+
+		Gauge.Child up0 = new Gauge.Child();
+		up0.set(1.0);
+		Gauge.Child up1 = new Gauge.Child();
+		up1.set(1.0);
+
+		subject.merge(new FetcherResult(createResult("instance0"), up0));
+		subject.merge(new FetcherResult(createResult("instance1"), up1));
+		subject.merge(new FetcherResult(null, null));
+
+		Assertions.assertEquals(1.0, up0.get(), 0.001);
+		Assertions.assertEquals(0.0, up1.get(), 0.001);
+		Assertions.assertEquals(1, subject.getDroppedResults());
+	}
+
+	@Test
+	void testEstimatedSizeFollowsSerialization() {
+		HashMap<String, MetricFamilySamples> small = createResult("a");
+		HashMap<String, MetricFamilySamples> large = createResult("a-very-long-instance-identifier");
+
+		Assertions.assertTrue(MFSUtils.estimateSize(small) > 0);
+		Assertions.assertTrue(MFSUtils.estimateSize(large) > MFSUtils.estimateSize(small));
+		Assertions.assertEquals(0, MFSUtils.estimateSize(new HashMap<>()));
+	}
+}
@@ -1,6 +1,7 @@
 package org.cloudfoundry.promregator.endpoint;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 
 import org.cloudfoundry.promregator.JUnitTestUtils;
@@ -69,7 +70,7 @@ class DisabledEnrichmentMetricsEndpointTest {
 	void testEnrichmentStillTakesPlaceForSingleEndpointScrapingEvenIfDisabledInConfig() {
 		Assertions.assertNotNull(subject);
 		
-		String response = subject.getMetrics().getBody();
+		String response = new String(subject.getMetrics().getBody(), StandardCharsets.UTF_8);
 		
 		Assertions.assertNotNull(response);
 		Assertions.assertNotEquals("", response);
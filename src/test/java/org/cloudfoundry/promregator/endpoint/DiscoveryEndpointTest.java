@@ -1,5 +1,7 @@
 package org.cloudfoundry.promregator.endpoint;
 
+import java.time.Duration;
+
 import javax.servlet.http.HttpServletRequest;
 
 import org.cloudfoundry.promregator.JUnitTestUtils;
@@ -12,10 +14,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = MockedMetricsEndpointSpringApplication.class)
@@ -90,5 +96,63 @@ class DiscoveryEndpointTest {
 		Assertions.assertEquals(EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS, label.getTargetPath());
 		
 	}
+	
+	@Test
+	void testDiscoveryDocumentWithETag() throws Exception {
+		HttpServletRequest requestMock = Mockito.mock(HttpServletRequest.class);
+		
+		ResponseEntity<byte[]> response = this.subject.getDiscoveryDocument(requestMock, null);
+		Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+		
+		String etag = response.getHeaders().getETag();
+		Assertions.assertNotNull(etag);
+		
+		JsonNode document = new ObjectMapper().readTree(response.getBody());
+		Assertions.assertEquals(4, document.size());
+		Assertions.assertEquals("discovery-hostname:1234", document.get(0).get("targets").get(0).asText());
+		Assertions.assertEquals(EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS, document.get(3).get("labels").get("__metrics_path__").asText());
+		
+		// unchanged document is not sent again
+		ResponseEntity<byte[]> notModifiedResponse = this.subject.getDiscoveryDocument(requestMock, etag);
+		Assertions.assertEquals(HttpStatus.NOT_MODIFIED, notModifiedResponse.getStatusCode());
+		Assertions.assertNull(notModifiedResponse.getBody());
+		Assertions.assertEquals(etag, notModifiedResponse.getHeaders().getETag());
+		
+		ResponseEntity<byte[]> otherETagResponse = this.subject.getDiscoveryDocument(requestMock, "\"someOtherETag\"");
+		Assertions.assertEquals(HttpStatus.OK, otherETagResponse.getStatusCode());
+		Assertions.assertArrayEquals(response.getBody(), otherETagResponse.getBody());
+	}
+	
+	@Test
+	void testWatchDiscoveryDocumentWithOutdatedETag() {
+		HttpServletRequest requestMock = Mockito.mock(HttpServletRequest.class);
+		
+		ResponseEntity<byte[]> current = this.subject.getDiscoveryDocument(requestMock, null);
+		
+		// a client without an up-to-date document is answered immediately
+		ResponseEntity<byte[]> response = this.subject.watchDiscoveryDocument(requestMock, "\"someOtherETag\"").block(Duration.ofSeconds(5));
+		Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+		Assertions.assertEquals(current.getHeaders().getETag(), response.getHeaders().getETag());
+		Assertions.assertArrayEquals(current.getBody(), response.getBody());
+		
+		response = this.subject.watchDiscoveryDocument(requestMock, null).block(Duration.ofSeconds(5));
+		Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+		Assertions.assertArrayEquals(current.getBody(), response.getBody());
+	}
+	
+	@Test
+	void testFingerprintIsIndependentOfOrder() {
+		HttpServletRequest requestMock = Mockito.mock(HttpServletRequest.class);
+		
+		DiscoveryResponse[] response = this.subject.getDiscovery(requestMock).getBody();
+		DiscoveryResponse[] reversed = new DiscoveryResponse[response.length];
+		for (int i = 0; i < response.length; i++) {
+			reversed[response.length - 1 - i] = response[i];
+		}
+		
+		Assertions.assertEquals(DiscoveryDocumentCache.determineFingerprint(response), DiscoveryDocumentCache.determineFingerprint(reversed));
+		Assertions.assertNotEquals(DiscoveryDocumentCache.determineFingerprint(response), 
+				DiscoveryDocumentCache.determineFingerprint(new DiscoveryResponse[] { response[0] }));
+	}
 
 }
@@ -1,6 +1,7 @@
 package org.cloudfoundry.promregator.endpoint;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 
 import org.cloudfoundry.promregator.JUnitTestUtils;
@@ -59,7 +60,7 @@ class EnabledEnrichmentSingleTargetMetricsEndpointTest {
 	void testGetMetricsLabelsAreCorrectIfLabelEnrichmentIsEnabled() {
 		Assertions.assertNotNull(subject);
 		
-		String response = subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0").getBody();
+		String response = new String(subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0").getBody(), StandardCharsets.UTF_8);
 		
 		Assertions.assertNotNull(response);
 		Assertions.assertNotEquals("", response);
@@ -0,0 +1,35 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ExpositionFormatTest {
+
+	@Test
+	void testNoAcceptHeader() {
+		Assertions.assertEquals(ExpositionFormat.TEXT_004, ExpositionFormat.negotiate(null));
+		Assertions.assertEquals(ExpositionFormat.TEXT_004, ExpositionFormat.negotiate(""));
+	}
+
+	@Test
+	void testAnyMediaType() {
+		Assertions.assertEquals(ExpositionFormat.TEXT_004, ExpositionFormat.negotiate("*/*"));
+	}
+
+	@Test
+	void testPrometheusPrefersOpenMetrics() {
+		String accept = "application/openmetrics-text;version=1.0.0,application/openmetrics-text;version=0.0.1;q=0.75,text/plain;version=0.0.4;q=0.5,*/*;q=0.1";
+		Assertions.assertEquals(ExpositionFormat.OPENMETRICS_100, ExpositionFormat.negotiate(accept));
+	}
+
+	@Test
+	void testTextFormatPreferred() {
+		String accept = "text/plain;version=0.0.4,application/openmetrics-text;version=1.0.0;q=0.5";
+		Assertions.assertEquals(ExpositionFormat.TEXT_004, ExpositionFormat.negotiate(accept));
+	}
+
+	@Test
+	void testInvalidAcceptHeader() {
+		Assertions.assertEquals(ExpositionFormat.TEXT_004, ExpositionFormat.negotiate("this is not a media type;;"));
+	}
+}
@@ -1,9 +1,11 @@
 package org.cloudfoundry.promregator.endpoint;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.UUID;
 
 import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.protobuf.ProtobufParser;
 import org.cloudfoundry.promregator.textformat004.Parser;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -47,7 +49,7 @@ class MetricsEndpointTest {
 	void testGetMetrics() {
 		Assertions.assertNotNull(subject);
 		
-		String response = subject.getMetrics().getBody();
+		String response = new String(subject.getMetrics().getBody(), StandardCharsets.UTF_8);
 		
 		Assertions.assertNotNull(response);
 		Assertions.assertNotEquals("", response);
@@ -63,7 +65,7 @@ class MetricsEndpointTest {
 	void testIssue52() {
 		Assertions.assertNotNull(subject);
 		
-		String response = subject.getMetrics().getBody();
+		String response = new String(subject.getMetrics().getBody(), StandardCharsets.UTF_8);
 		
 		Assertions.assertNotNull(response);
 		Assertions.assertNotEquals("", response);
@@ -83,6 +85,21 @@ class MetricsEndpointTest {
 		Assertions.assertTrue(sample.labelValues.isEmpty());
 	}
 
+	@Test
+	void testGetMetricsProtobuf() {
+		byte[] response = subject.getMetricsProtobuf().getBody();
+		
+		Assertions.assertNotNull(response);
+		Assertions.assertNotEquals(0, response.length);
+		
+		ProtobufParser parser = new ProtobufParser(response);
+		HashMap<String, MetricFamilySamples> mapMFS = parser.parse();
+		
+		Assertions.assertNotNull(mapMFS.get("metric_unittestapp"));
+		Assertions.assertNotNull(mapMFS.get("metric_unittestapp2"));
+		Assertions.assertNotNull(mapMFS.get("promregator_scrape_duration_seconds"));
+	}
+
 	@Test
 	void testNegativeIsLoopbackScrapingRequest() {
 		Mockito.when(MockedMetricsEndpointSpringApplication.mockedHttpServletRequest.getHeader(EndpointConstants.HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER))
@@ -98,8 +115,29 @@ class MetricsEndpointTest {
 		Mockito.when(MockedMetricsEndpointSpringApplication.mockedHttpServletRequest.getHeader(EndpointConstants.HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER))
 		.thenReturn(UUID.randomUUID().toString());
 		
-		ResponseEntity<String> result = subject.getMetrics(); // real test: no exception is raised
+		ResponseEntity<byte[]> result = subject.getMetrics(); // real test: no exception is raised
 		
 		Assertions.assertNotNull(result); // trivial assertion to ensure that unit test is providing an assertion
 	}
+	
+	@Test
+	void testHandleRequestReactive() {
+		String response = new String(subject.handleRequestReactive(null, null).block(), StandardCharsets.UTF_8);
+		
+		Assertions.assertNotNull(response);
+		
+		Parser parser = new Parser(response);
+		HashMap<String, MetricFamilySamples> mapMFS = parser.parse();
+		
+		Assertions.assertNotNull(mapMFS.get("metric_unittestapp"));
+		Assertions.assertNotNull(mapMFS.get("metric_unittestapp2"));
+		Assertions.assertNotNull(mapMFS.get("promregator_scrape_duration_seconds"));
+	}
+	
+	@Test
+	void testIsLoopbackRequestByHeaderValue() {
+		Assertions.assertTrue(subject.isLoopbackRequest(MockedMetricsEndpointSpringApplication.currentPromregatorInstanceIdentifier.toString()));
+		Assertions.assertFalse(subject.isLoopbackRequest(UUID.randomUUID().toString()));
+		Assertions.assertFalse(subject.isLoopbackRequest((String) null));
+	}
 }
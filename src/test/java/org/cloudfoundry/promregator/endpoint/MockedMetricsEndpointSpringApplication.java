@@ -17,6 +17,12 @@ import org.cloudfoundry.promregator.auth.AuthenticatorController;
 import org.cloudfoundry.promregator.auth.NullEnricher;
 import org.cloudfoundry.promregator.config.PromregatorConfiguration;
 import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer;
+import org.cloudfoundry.promregator.fetcher.AdaptiveTimeoutPolicy;
+import org.cloudfoundry.promregator.fetcher.BulkheadRegistry;
+import org.cloudfoundry.promregator.fetcher.CircuitBreakerRegistry;
+import org.cloudfoundry.promregator.fetcher.HedgingPolicy;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.cloudfoundry.promregator.messagebus.InstanceLifecycleEventBus;
 import org.cloudfoundry.promregator.scanner.AppInstanceScanner;
 import org.cloudfoundry.promregator.scanner.Instance;
 import org.cloudfoundry.promregator.scanner.ResolvedTarget;
@@ -104,7 +110,12 @@ public class MockedMetricsEndpointSpringApplication {
 	
 	@Bean
 	public TargetResolver targetResolver() {
-		return Mockito.mock(TargetResolver.class);
+		return Mockito.mock(TargetResolver.class, Mockito.CALLS_REAL_METHODS);
+	}
+	
+	@Bean
+	public InstanceLifecycleEventBus instanceLifecycleEventBus() {
+		return new InstanceLifecycleEventBus();
 	}
 	
 	@Bean
@@ -112,10 +123,40 @@ public class MockedMetricsEndpointSpringApplication {
 		return new CFMultiDiscoverer();
 	}
 	
+	@Bean
+	public DiscoveryDocumentCache discoveryDocumentCache() {
+		return new DiscoveryDocumentCache();
+	}
+	
 	@Bean
 	public ExecutorService metricsFetcherPool() {
 		return Executors.newSingleThreadExecutor();
 	}
+	
+	@Bean
+	public InternalMetrics internalMetrics() {
+		return new InternalMetrics();
+	}
+	
+	@Bean
+	public CircuitBreakerRegistry circuitBreakerRegistry() {
+		return new CircuitBreakerRegistry();
+	}
+	
+	@Bean
+	public AdaptiveTimeoutPolicy adaptiveTimeoutPolicy() {
+		return new AdaptiveTimeoutPolicy();
+	}
+
+	@Bean
+	public HedgingPolicy hedgingPolicy() {
+		return new HedgingPolicy();
+	}
+
+	@Bean
+	public BulkheadRegistry bulkheadRegistry() {
+		return new BulkheadRegistry();
+	}
 
 	@Bean
 	public CollectorRegistry collectorRegistry() {
@@ -9,7 +9,7 @@ import org.springframework.http.ResponseEntity;
 
 class SingleTargetMetricsEndpointInternalTestNegative extends SingleTargetMetricsEndpoint {
 	@Override
-	public String handleRequest(Predicate<? super String> applicationIdFilter, Predicate<? super Instance> instanceFilter) {
+	public byte[] handleRequest(Predicate<? super String> applicationIdFilter, Predicate<? super Instance> instanceFilter) {
 		Assertions.assertFalse(applicationIdFilter.test("229856d2-c53b-4971-b100-4ce371b78070"));
 		
 		Instance i = new Instance(null, "129856d2-c53b-4971-b100-4ce371b78070:41", "https://someurl");
@@ -23,7 +23,7 @@ class SingleTargetMetricsEndpointInternalTestNegative extends SingleTargetMetric
 
 	@Test
 	void testfilterInstanceListPositive() {
-		ResponseEntity<String> result = this.getMetrics("129856d2-c53b-4971-b100-4ce371b78070", "42"); // real test: no exception is raised
+		ResponseEntity<byte[]> result = this.getMetrics("129856d2-c53b-4971-b100-4ce371b78070", "42"); // real test: no exception is raised
 		Assertions.assertNotNull(result); // trivial assertion to ensure that unit test is providing an assertion
 	}
 	
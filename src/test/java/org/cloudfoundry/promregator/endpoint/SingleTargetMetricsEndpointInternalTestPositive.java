@@ -10,7 +10,7 @@ import org.springframework.http.ResponseEntity;
 class SingleTargetMetricsEndpointInternalTestPositive extends SingleTargetMetricsEndpoint {
 
 	@Override
-	public String handleRequest(Predicate<? super String> applicationIdFilter, Predicate<? super Instance> instanceFilter) {
+	public byte[] handleRequest(Predicate<? super String> applicationIdFilter, Predicate<? super Instance> instanceFilter) {
 		Assertions.assertTrue(applicationIdFilter.test("129856d2-c53b-4971-b100-4ce371b78070"));
 		
 		Instance i = new Instance(null, "129856d2-c53b-4971-b100-4ce371b78070:42", "https://someurl");
@@ -21,7 +21,7 @@ class SingleTargetMetricsEndpointInternalTestPositive extends SingleTargetMetric
 
 	@Test
 	void testfilterInstanceListPositive() {
-		ResponseEntity<String> result = this.getMetrics("129856d2-c53b-4971-b100-4ce371b78070", "42");  // real test: no exception is raised
+		ResponseEntity<byte[]> result = this.getMetrics("129856d2-c53b-4971-b100-4ce371b78070", "42");  // real test: no exception is raised
 		Assertions.assertNotNull(result); // trivial assertion to ensure that unit test is providing an assertion
 	}
 
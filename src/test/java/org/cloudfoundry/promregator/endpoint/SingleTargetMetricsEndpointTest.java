@@ -1,5 +1,6 @@
 package org.cloudfoundry.promregator.endpoint;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.UUID;
 import java.util.regex.Matcher;
@@ -22,6 +23,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import io.prometheus.client.Collector.MetricFamilySamples;
 import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import reactor.core.Exceptions;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = MockedMetricsEndpointSpringApplication.class)
@@ -46,7 +48,7 @@ class SingleTargetMetricsEndpointTest {
 	void testGetMetrics() {
 		Assertions.assertNotNull(subject);
 		
-		String response = subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0").getBody();
+		String response = new String(subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0").getBody(), StandardCharsets.UTF_8);
 		
 		Assertions.assertNotNull(response);
 		Assertions.assertNotEquals("", response);
@@ -62,7 +64,7 @@ class SingleTargetMetricsEndpointTest {
 	void testIssue52() {
 		Assertions.assertNotNull(subject);
 		
-		String response = subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0").getBody();
+		String response = new String(subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0").getBody(), StandardCharsets.UTF_8);
 		
 		Assertions.assertNotNull(response);
 		Assertions.assertNotEquals("", response);
@@ -86,7 +88,7 @@ class SingleTargetMetricsEndpointTest {
 	void testIssue51() {
 		Assertions.assertNotNull(subject);
 		
-		String response = subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0").getBody();
+		String response = new String(subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0").getBody(), StandardCharsets.UTF_8);
 		
 		Assertions.assertNotNull(response);
 		Assertions.assertNotEquals("", response);
@@ -118,9 +120,40 @@ class SingleTargetMetricsEndpointTest {
 		Mockito.when(MockedMetricsEndpointSpringApplication.mockedHttpServletRequest.getHeader(EndpointConstants.HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER))
 		.thenReturn(UUID.randomUUID().toString());
 		
-		ResponseEntity<String> result = subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0"); // real test: no exception is raised
+		ResponseEntity<byte[]> result = subject.getMetrics("faedbb0a-2273-4cb4-a659-bd31331f7daf", "0"); // real test: no exception is raised
 		
 		Assertions.assertNotNull(result); // trivial assertion to ensure that unit test is providing an assertion
 	}
 
+	@Test
+	void testHandleRequestReactive() {
+		String response = new String(subject.handleRequestReactive(appId -> "faedbb0a-2273-4cb4-a659-bd31331f7daf".equals(appId), 
+				instance -> "faedbb0a-2273-4cb4-a659-bd31331f7daf:0".equals(instance.getInstanceId())).block(), StandardCharsets.UTF_8);
+		
+		Assertions.assertNotNull(response);
+		
+		Parser parser = new Parser(response);
+		HashMap<String, MetricFamilySamples> mapMFS = parser.parse();
+		
+		Assertions.assertNotNull(mapMFS.get("metric_unittestapp"));
+		Assertions.assertNull(mapMFS.get("metric_unittestapp2"));
+		
+		MetricFamilySamples mfs = mapMFS.get("promregator_scrape_duration_seconds");
+		Assertions.assertNotNull(mfs);
+		Assertions.assertEquals(1, mfs.samples.size());
+		Assertions.assertEquals("[unittestorg, unittestspace, unittestapp, faedbb0a-2273-4cb4-a659-bd31331f7daf:0, 0]", mfs.samples.get(0).labelValues.toString());
+	}
+	
+	@Test
+	void testHandleRequestReactiveWithUnknownInstance() {
+		Assertions.assertThrows(ScrapingException.class, () -> {
+			try {
+				subject.handleRequestReactive(appId -> "faedbb0a-2273-4cb4-a659-bd31331f7daf".equals(appId), 
+						instance -> "faedbb0a-2273-4cb4-a659-bd31331f7daf:42".equals(instance.getInstanceId())).block();
+			} catch (RuntimeException e) {
+				throw Exceptions.unwrap(e);
+			}
+		});
+	}
+
 }
@@ -23,7 +23,7 @@ import org.springframework.web.context.WebApplicationContext;
 public class TestableSingleTargetMetricsEndpoint extends SingleTargetMetricsEndpoint {
 
 	@Override
-	protected List<MetricsFetcher> createMetricsFetchers(List<Instance> instanceList) {
+	protected List<MetricsFetcher> createMetricsFetchers(List<Instance> instanceList, UpMetricSamples up) {
 		List<MetricsFetcher> list = new LinkedList<>();
 		
 		for (Instance instance : instanceList) {
@@ -0,0 +1,73 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+import io.prometheus.client.Gauge;
+
+class UpMetricSamplesTest {
+
+	@Test
+	void testToMetricFamilySamples() {
+		UpMetricSamples subject = new UpMetricSamples(new String[] { "app_name", "cf_instance_id" });
+		
+		subject.labels("app1", "id1:0").set(1.0);
+		subject.labels("app1", "id1:1"); // not set: target unavailable
+		
+		MetricFamilySamples mfs = subject.toMetricFamilySamples();
+		Assertions.assertEquals("promregator_up", mfs.name);
+		Assertions.assertEquals(Type.GAUGE, mfs.type);
+		Assertions.assertEquals(2, mfs.samples.size());
+		
+		for (Sample sample : mfs.samples) {
+			Assertions.assertEquals("promregator_up", sample.name);
+			Assertions.assertEquals("[app_name, cf_instance_id]", sample.labelNames.toString());
+			
+			if (sample.labelValues.get(1).equals("id1:0")) {
+				Assertions.assertEquals(1.0, sample.value, 0.001);
+			} else {
+				Assertions.assertEquals("[app1, id1:1]", sample.labelValues.toString());
+				Assertions.assertEquals(0.0, sample.value, 0.001);
+			}
+		}
+	}
+	
+	@Test
+	void testSameLabelValuesProvideSameChild() {
+		UpMetricSamples subject = new UpMetricSamples(new String[] { "app_name" });
+		
+		Gauge.Child child = subject.labels("app1");
+		Assertions.assertSame(child, subject.labels("app1"));
+		Assertions.assertNotSame(child, subject.labels("app2"));
+	}
+	
+	@Test
+	void testLimitExceeded() {
+		UpMetricSamples subject = new UpMetricSamples(new String[] { "app_name", "cf_instance_id" });
+		
+		subject.labels("app1", "id1:0").set(1.0);
+		Assertions.assertNull(subject.toLimitExceededMetricFamilySamples());
+		
+		Gauge.Child child = subject.labels("app1", "id1:1");
+		subject.setLimitExceeded(child, "samples");
+		
+		MetricFamilySamples mfs = subject.toLimitExceededMetricFamilySamples();
+		Assertions.assertEquals("promregator_scrape_limit_exceeded", mfs.name);
+		Assertions.assertEquals(1, mfs.samples.size());
+		
+		Sample sample = mfs.samples.get(0);
+		Assertions.assertEquals("[app_name, cf_instance_id, reason]", sample.labelNames.toString());
+		Assertions.assertEquals("[app1, id1:1, samples]", sample.labelValues.toString());
+		Assertions.assertEquals(1.0, sample.value, 0.001);
+	}
+	
+	@Test
+	void testIncorrectNumberOfLabelValues() {
+		UpMetricSamples subject = new UpMetricSamples(new String[] { "app_name" });
+		
+		Assertions.assertThrows(IllegalArgumentException.class, () -> subject.labels("app1", "superfluous"));
+	}
+}
@@ -0,0 +1,84 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = AdaptiveTimeoutPolicy.class)
+@TestPropertySource(properties = { "promregator.scraping.adaptiveTimeout.enabled=true", 
+		"promregator.scraping.adaptiveTimeout.factor=3.0", "promregator.scraping.adaptiveTimeout.minimum=500" })
+class AdaptiveTimeoutPolicyTest {
+	
+	@Autowired
+	private AdaptiveTimeoutPolicy subject;
+	
+	private static Instance createInstance(String instanceId) {
+		return new Instance(null, instanceId, "http://localhost/metrics");
+	}
+	
+	@Test
+	void testUnknownLatencyUsesMaximum() {
+		LatencyEstimate estimate = this.subject.getLatencyEstimate(createInstance("unknownApp:0"));
+		Assertions.assertNotNull(estimate);
+		Assertions.assertFalse(estimate.isAvailable());
+		
+		Assertions.assertEquals(5000, this.subject.determineSocketReadTimeout(estimate, 5000));
+		Assertions.assertEquals(5000, this.subject.determineSocketReadTimeout(null, 5000));
+	}
+	
+	@Test
+	void testTimeoutIsMultipleOfLatency() {
+		LatencyEstimate estimate = this.subject.getLatencyEstimate(createInstance("fastApp:0"));
+		estimate.observe(400);
+		
+		Assertions.assertEquals(1200, this.subject.determineSocketReadTimeout(estimate, 5000));
+		Assertions.assertSame(estimate, this.subject.getLatencyEstimate(createInstance("fastApp:0")));
+	}
+	
+	@Test
+	void testTimeoutIsBounded() {
+		LatencyEstimate veryFast = this.subject.getLatencyEstimate(createInstance("veryFastApp:0"));
+		veryFast.observe(10);
+		Assertions.assertEquals(500, this.subject.determineSocketReadTimeout(veryFast, 5000));
+		
+		LatencyEstimate slow = this.subject.getLatencyEstimate(createInstance("slowApp:0"));
+		slow.observe(3000);
+		Assertions.assertEquals(5000, this.subject.determineSocketReadTimeout(slow, 5000));
+	}
+	
+	@Test
+	void testEstimateIsDroppedWithLastInstance() {
+		LatencyEstimate estimate = this.subject.getLatencyEstimate(createInstance("removedApp:0"));
+		Assertions.assertSame(estimate, this.subject.getLatencyEstimate(createInstance("removedApp:1")));
+		
+		this.subject.instanceRemoved(createInstance("removedApp:0"));
+		Assertions.assertSame(estimate, this.subject.getLatencyEstimate(createInstance("removedApp:1")));
+		
+		this.subject.instanceRemoved(createInstance("removedApp:1"));
+		Assertions.assertNotSame(estimate, this.subject.getLatencyEstimate(createInstance("removedApp:1")));
+	}
+	
+	@Test
+	void testEstimateFollowsObservations() {
+		LatencyEstimate estimate = new LatencyEstimate();
+		estimate.observe(100);
+		Assertions.assertEquals(100.0, estimate.getMean(), 0.001);
+		
+		for (int i = 0; i < 100; i++) {
+			estimate.observe(1000);
+		}
+		Assertions.assertEquals(1000.0, estimate.getMean(), 1.0);
+		Assertions.assertEquals(0.0, estimate.getDeviation(), 1.0);
+		
+		// a single outlier only has limited influence
+		estimate.observe(5000);
+		Assertions.assertEquals(1500.0, estimate.getMean(), 0.1);
+		Assertions.assertEquals(1000.0, estimate.getDeviation(), 1.0);
+	}
+}
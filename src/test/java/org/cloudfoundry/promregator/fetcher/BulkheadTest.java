@@ -0,0 +1,179 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkheadTest {
+
+	private ExecutorService pool;
+
+	private final AtomicInteger maxRunningObserved = new AtomicInteger(0);
+	private final AtomicInteger rejections = new AtomicInteger(0);
+
+	private final Bulkhead.Listener listener = new Bulkhead.Listener() {
+		@Override
+		public void utilizationChanged(Bulkhead bulkhead, int running, int queued) {
+			maxRunningObserved.accumulateAndGet(running, Math::max);
+		}
+
+		@Override
+		public void rejected(Bulkhead bulkhead) {
+			rejections.incrementAndGet();
+		}
+	};
+
+	@BeforeEach
+	void setupPool() {
+		this.pool = Executors.newFixedThreadPool(10);
+	}
+
+	@AfterEach
+	void shutdownPool() {
+		this.pool.shutdownNow();
+	}
+
+	@Test
+	void testConcurrencyIsLimited() throws InterruptedException {
+		Bulkhead subject = new Bulkhead("unittest", 2, 10, this.pool, this.listener);
+
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch completed = new CountDownLatch(5);
+		for (int i = 0; i < 5; i++) {
+			subject.execute(() -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				completed.countDown();
+			});
+		}
+
+		Assertions.assertEquals(2, subject.getRunning());
+		Assertions.assertEquals(3, subject.getQueued());
+
+		release.countDown();
+		Assertions.assertTrue(completed.await(5, TimeUnit.SECONDS));
+
+		Assertions.assertEquals(2, this.maxRunningObserved.get());
+		Assertions.assertEquals(0, this.rejections.get());
+	}
+
+	@Test
+	void testQueuedTasksAreRunAfterCompletion() throws InterruptedException {
+		Bulkhead subject = new Bulkhead("unittest", 1, 10, this.pool, this.listener);
+
+		CountDownLatch completed = new CountDownLatch(3);
+		for (int i = 0; i < 3; i++) {
+			subject.execute(completed::countDown);
+		}
+
+		Assertions.assertTrue(completed.await(5, TimeUnit.SECONDS));
+
+		// NB: the bookkeeping happens after the task itself has completed
+		for (int i = 0; i < 50 && subject.getRunning() > 0; i++) {
+			Thread.sleep(10);
+		}
+		Assertions.assertEquals(0, subject.getRunning());
+		Assertions.assertEquals(0, subject.getQueued());
+	}
+
+	@Test
+	void testOverflowIsRejected() {
+		Bulkhead subject = new Bulkhead("unittest", 1, 1, this.pool, this.listener);
+
+		CountDownLatch release = new CountDownLatch(1);
+		Runnable blocking = () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		subject.execute(blocking);
+		subject.execute(blocking);
+
+		Assertions.assertThrows(RejectedExecutionException.class, () -> subject.execute(blocking));
+		Assertions.assertEquals(1, this.rejections.get());
+
+		release.countDown();
+	}
+
+	@Test
+	void testQueuedTaskRejectedByDelegateIsCancelled() throws Exception {
+		AtomicBoolean rejecting = new AtomicBoolean(false);
+		Executor delegate = command -> {
+			if (rejecting.get()) {
+				throw new RejectedExecutionException("unittest");
+			}
+			this.pool.execute(command);
+		};
+
+		Bulkhead subject = new Bulkhead("unittest", 1, 1, delegate, this.listener);
+
+		CountDownLatch release = new CountDownLatch(1);
+		FutureTask<Void> running = new FutureTask<>(() -> {
+			release.await();
+			return null;
+		});
+		FutureTask<Void> queued = new FutureTask<>(() -> null);
+
+		subject.execute(running);
+		subject.execute(queued);
+		Assertions.assertEquals(1, subject.getQueued());
+
+		// the queued task is dispatched by the worker having completed the running task, but the delegate rejects it
+		rejecting.set(true);
+		release.countDown();
+
+		running.get(5, TimeUnit.SECONDS);
+		Assertions.assertThrows(CancellationException.class, () -> queued.get(5, TimeUnit.SECONDS));
+
+		for (int i = 0; i < 50 && subject.getRunning() > 0; i++) {
+			Thread.sleep(10);
+		}
+		Assertions.assertEquals(0, subject.getRunning());
+		Assertions.assertEquals(0, subject.getQueued());
+	}
+
+	@Test
+	void testBulkheadsAreIsolated() throws InterruptedException {
+		Bulkhead slow = new Bulkhead("slow", 2, 10, this.pool, this.listener);
+		Bulkhead fast = new Bulkhead("fast", 2, 10, this.pool, this.listener);
+
+		CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < 10; i++) {
+			slow.execute(() -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+
+		CountDownLatch fastCompleted = new CountDownLatch(5);
+		for (int i = 0; i < 5; i++) {
+			fast.execute(fastCompleted::countDown);
+		}
+
+		// the slow targets only block their own slice of the pool
+		Assertions.assertTrue(fastCompleted.await(5, TimeUnit.SECONDS));
+
+		release.countDown();
+	}
+}
@@ -0,0 +1,163 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudfoundry.promregator.fetcher.CircuitBreaker.State;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+
+class CircuitBreakerTest {
+	private static final Instant START = Instant.parse("2007-12-03T10:15:30.00Z");
+	
+	private Clock clock = Clock.fixed(START, ZoneId.of("UTC"));
+	
+	private List<State> transitions = new LinkedList<>();
+	
+	private CircuitBreaker createSubject() {
+		return new CircuitBreaker(3, Duration.ofSeconds(60), new Clock() {
+			@Override
+			public ZoneId getZone() {
+				return clock.getZone();
+			}
+
+			@Override
+			public Clock withZone(ZoneId zone) {
+				return clock.withZone(zone);
+			}
+
+			@Override
+			public Instant instant() {
+				return clock.instant();
+			}
+		}, (oldState, newState) -> this.transitions.add(newState));
+	}
+	
+	private void advance(int seconds) {
+		this.clock = Clock.offset(this.clock, Duration.ofSeconds(seconds));
+	}
+	
+	@Test
+	void testOpensAfterConsecutiveFailures() {
+		CircuitBreaker subject = this.createSubject();
+		
+		Assertions.assertTrue(subject.tryAcquire());
+		subject.recordFailure();
+		subject.recordFailure();
+		Assertions.assertEquals(State.CLOSED, subject.getState());
+		
+		subject.recordFailure();
+		Assertions.assertEquals(State.OPEN, subject.getState());
+		Assertions.assertFalse(subject.tryAcquire());
+		
+		advance(59);
+		Assertions.assertFalse(subject.tryAcquire());
+	}
+	
+	@Test
+	void testSuccessResetsFailureCount() {
+		CircuitBreaker subject = this.createSubject();
+		
+		subject.recordFailure();
+		subject.recordFailure();
+		subject.recordSuccess();
+		subject.recordFailure();
+		subject.recordFailure();
+		
+		Assertions.assertEquals(State.CLOSED, subject.getState());
+		Assertions.assertTrue(subject.tryAcquire());
+		Assertions.assertTrue(this.transitions.isEmpty());
+	}
+	
+	@Test
+	void testHalfOpenPermitsSingleProbe() {
+		CircuitBreaker subject = this.createSubject();
+		subject.recordFailure();
+		subject.recordFailure();
+		subject.recordFailure();
+		
+		advance(60);
+		Assertions.assertTrue(subject.tryAcquire());
+		Assertions.assertEquals(State.HALF_OPEN, subject.getState());
+		
+		// the probe is still running
+		Assertions.assertFalse(subject.tryAcquire());
+		
+		subject.recordSuccess();
+		Assertions.assertEquals(State.CLOSED, subject.getState());
+		Assertions.assertTrue(subject.tryAcquire());
+		
+		Assertions.assertEquals(3, this.transitions.size());
+		Assertions.assertEquals(State.OPEN, this.transitions.get(0));
+		Assertions.assertEquals(State.HALF_OPEN, this.transitions.get(1));
+		Assertions.assertEquals(State.CLOSED, this.transitions.get(2));
+	}
+	
+	@Test
+	void testFailingProbeOpensAgain() {
+		CircuitBreaker subject = this.createSubject();
+		subject.recordFailure();
+		subject.recordFailure();
+		subject.recordFailure();
+		
+		advance(60);
+		Assertions.assertTrue(subject.tryAcquire());
+		subject.recordFailure();
+		
+		Assertions.assertEquals(State.OPEN, subject.getState());
+		Assertions.assertFalse(subject.tryAcquire());
+		
+		advance(60);
+		Assertions.assertTrue(subject.tryAcquire());
+	}
+	
+	@Test
+	void testLostProbeIsReplaced() {
+		CircuitBreaker subject = this.createSubject();
+		subject.recordFailure();
+		subject.recordFailure();
+		subject.recordFailure();
+		
+		advance(60);
+		Assertions.assertTrue(subject.tryAcquire());
+		
+		// the probe never reports back
+		advance(60);
+		Assertions.assertTrue(subject.tryAcquire());
+		Assertions.assertEquals(State.HALF_OPEN, subject.getState());
+	}
+	
+	@Test
+	void testCircuitBreakingMetricsFetcherReportsOutcome() throws Exception {
+		CircuitBreaker subject = this.createSubject();
+		
+		MetricsFetcher failing = new CircuitBreakingMetricsFetcher(() -> null, subject);
+		for (int i = 0; i < 3; i++) {
+			Assertions.assertNull(failing.call());
+		}
+		Assertions.assertEquals(State.OPEN, subject.getState());
+		
+		advance(60);
+		Assertions.assertTrue(subject.tryAcquire());
+		
+		HashMap<String, MetricFamilySamples> result = new HashMap<>();
+		MetricsFetcher succeeding = new CircuitBreakingMetricsFetcher(() -> result, subject);
+		Assertions.assertSame(result, succeeding.call());
+		Assertions.assertEquals(State.CLOSED, subject.getState());
+		
+		MetricsFetcher throwing = new CircuitBreakingMetricsFetcher(() -> {
+			throw new IllegalStateException("unit test");
+		}, subject);
+		for (int i = 0; i < 3; i++) {
+			Assertions.assertThrows(IllegalStateException.class, throwing::call);
+		}
+		Assertions.assertEquals(State.OPEN, subject.getState());
+	}
+}
@@ -0,0 +1,167 @@
+package org.cloudfoundry.promregator.fetcher;
+
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.MethodMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Gauge;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { HedgingPolicy.class, InternalMetrics.class })
+@TestPropertySource(properties = { "promregator.scraping.hedging.enabled=true", "promregator.scraping.hedging.maxRatio=0.5" })
+class HedgedMetricsFetcherTest {
+
+	@Autowired
+	private HedgingPolicy hedgingPolicy;
+
+	private static class TestableMetricsFetcher implements HedgeableMetricsFetcher {
+		private final long delay;
+		private final HashMap<String, MetricFamilySamples> result;
+		private final AtomicInteger calls = new AtomicInteger(0);
+		private final AtomicInteger recordings = new AtomicInteger(0);
+		private final CountDownLatch aborted = new CountDownLatch(1);
+
+		public TestableMetricsFetcher(long delay, HashMap<String, MetricFamilySamples> result) {
+			this.delay = delay;
+			this.result = result;
+		}
+
+		@Override
+		public HashMap<String, MetricFamilySamples> call() throws Exception {
+			this.calls.incrementAndGet();
+			if (this.aborted.await(this.delay, TimeUnit.MILLISECONDS)) {
+				return null;
+			}
+			return this.result;
+		}
+
+		@Override
+		public void abort() {
+			this.aborted.countDown();
+		}
+
+		@Override
+		public void recordOutcome() {
+			this.recordings.incrementAndGet();
+		}
+
+		public boolean isAborted() {
+			return this.aborted.getCount() == 0;
+		}
+	}
+
+	private static HashMap<String, MetricFamilySamples> createResult(String name) {
+		HashMap<String, MetricFamilySamples> result = new HashMap<>();
+		result.put(name, null);
+		return result;
+	}
+
+	private static Gauge.Child createUpChild() {
+		return Gauge.build("up_hedging_test", "Test gauge for up").create().labels();
+	}
+
+	@Test
+	void testFastOriginalIsNotHedged() throws Exception {
+		HashMap<String, MetricFamilySamples> originalResult = createResult("original");
+		TestableMetricsFetcher original = new TestableMetricsFetcher(0, originalResult);
+		TestableMetricsFetcher hedge = new TestableMetricsFetcher(0, createResult("hedge"));
+		Gauge.Child up = createUpChild();
+
+		HedgedMetricsFetcher subject = new HedgedMetricsFetcher(original, hedge, 1000, up, this.hedgingPolicy);
+
+		Assertions.assertSame(originalResult, subject.call());
+		Assertions.assertEquals(0, hedge.calls.get());
+		Assertions.assertEquals(1.0, up.get(), 0.001);
+		Assertions.assertEquals(1, original.recordings.get());
+	}
+
+	@Test
+	void testSlowOriginalIsHedged() throws Exception {
+		HashMap<String, MetricFamilySamples> hedgeResult = createResult("hedge");
+		TestableMetricsFetcher original = new TestableMetricsFetcher(5000, createResult("original"));
+		TestableMetricsFetcher hedge = new TestableMetricsFetcher(0, hedgeResult);
+
+		HedgedMetricsFetcher subject = new HedgedMetricsFetcher(original, hedge, 50, null, this.hedgingPolicy);
+
+		long startTime = System.currentTimeMillis();
+		Assertions.assertSame(hedgeResult, subject.call());
+		Assertions.assertTrue(System.currentTimeMillis() - startTime < 2000);
+		Assertions.assertEquals(1, hedge.calls.get());
+		
+		// only the winner is recorded; the loser is aborted
+		Assertions.assertEquals(1, hedge.recordings.get());
+		Assertions.assertTrue(original.isAborted());
+		Assertions.assertEquals(0, original.recordings.get());
+	}
+
+	@Test
+	void testFailingHedgeWaitsForOriginal() throws Exception {
+		HashMap<String, MetricFamilySamples> originalResult = createResult("original");
+		TestableMetricsFetcher original = new TestableMetricsFetcher(200, originalResult);
+		TestableMetricsFetcher hedge = new TestableMetricsFetcher(0, null);
+
+		HedgedMetricsFetcher subject = new HedgedMetricsFetcher(original, hedge, 20, null, this.hedgingPolicy);
+
+		Assertions.assertSame(originalResult, subject.call());
+		Assertions.assertEquals(1, hedge.calls.get());
+		Assertions.assertEquals(1, original.recordings.get());
+		Assertions.assertEquals(0, hedge.recordings.get());
+	}
+
+	@Test
+	void testAllRequestsFailing() throws Exception {
+		TestableMetricsFetcher original = new TestableMetricsFetcher(100, null);
+		TestableMetricsFetcher hedge = new TestableMetricsFetcher(0, null);
+		Gauge.Child up = createUpChild();
+		up.set(1.0);
+
+		HedgedMetricsFetcher subject = new HedgedMetricsFetcher(original, hedge, 20, up, this.hedgingPolicy);
+
+		Assertions.assertNull(subject.call());
+		Assertions.assertEquals(0.0, up.get(), 0.001);
+		
+		// the failure is recorded only once
+		Assertions.assertEquals(1, original.recordings.get() + hedge.recordings.get());
+	}
+
+	@Test
+	void testHedgeDelayFollowsLatency() {
+		Assertions.assertNull(this.hedgingPolicy.determineHedgeDelay(null));
+
+		LatencyEstimate estimate = new LatencyEstimate();
+		Assertions.assertNull(this.hedgingPolicy.determineHedgeDelay(estimate));
+
+		estimate.observe(400);
+		Assertions.assertEquals(Long.valueOf(800), this.hedgingPolicy.determineHedgeDelay(estimate));
+	}
+
+	@Test
+	@DirtiesContext(methodMode = MethodMode.BEFORE_METHOD)
+	void testHedgingIsLimitedByBudget() {
+		// a burst of hedges is permitted
+		for (int i = 0; i < 10; i++) {
+			Assertions.assertTrue(this.hedgingPolicy.tryAcquireHedge());
+		}
+		Assertions.assertFalse(this.hedgingPolicy.tryAcquireHedge());
+
+		this.hedgingPolicy.recordFetch();
+		Assertions.assertFalse(this.hedgingPolicy.tryAcquireHedge());
+
+		this.hedgingPolicy.recordFetch();
+		Assertions.assertTrue(this.hedgingPolicy.tryAcquireHedge());
+		Assertions.assertFalse(this.hedgingPolicy.tryAcquireHedge());
+	}
+}
@@ -13,6 +13,7 @@ import org.cloudfoundry.promregator.JUnitTestUtils;
 import org.cloudfoundry.promregator.auth.AuthenticationEnricher;
 import org.cloudfoundry.promregator.endpoint.EndpointConstants;
 import org.cloudfoundry.promregator.mockServer.MetricsEndpointMockServer;
+import org.cloudfoundry.promregator.protobuf.ProtobufFormat;
 import org.cloudfoundry.promregator.rewrite.CFAllLabelsMetricFamilySamplesEnricher;
 import org.cloudfoundry.promregator.textformat004.Parser;
 import org.cloudfoundry.promregator.textformat004.ParserCompareUtils;
@@ -169,6 +170,51 @@ class MetricsFetcherTest {
 		Assertions.assertNull(response);
 	}
 	
+	@Test
+	void testAbortUnblocksSocketRead() throws Exception {
+		String instanceId = "abcd:12";
+		NullMetricFamilySamplesEnricher dummymfse = new NullMetricFamilySamplesEnricher("dummy", "dummy", "dummy", "dummy:0");
+		List<String> labelValues = dummymfse.getEnrichedLabelValues(new LinkedList<>());
+		String[] ownTelemetryLabelValues = labelValues.toArray(new String[0]);
+		
+		MetricsFetcherMetrics mfm = new MetricsFetcherMetrics(ownTelemetryLabelValues, false);
+		LatencyEstimate latencyEstimate = new LatencyEstimate();
+		
+		CFMetricsFetcherConfig config = new CFMetricsFetcherConfig();
+		config.setMetricFamilySamplesEnricher(dummymfse);
+		config.setMetricsFetcherMetrics(mfm);
+		config.setPromregatorInstanceIdentifier(UUID.randomUUID());
+		config.setConnectionTimeoutInMillis(5000);
+		config.setSocketReadTimeoutInMillis(10000);
+		config.setLatencyEstimate(latencyEstimate);
+		config.setRecordingDeferred(true);
+		
+		CFMetricsFetcher subject = new CFMetricsFetcher("http://localhost:9002/metrics", instanceId, config);
+		
+		this.mems.getMetricsEndpointHandler().setResponse(DUMMY_METRICS_LIST);
+		this.mems.getMetricsEndpointHandler().setDelayInMillis(3000);
+		
+		Thread aborter = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			subject.abort();
+		});
+		aborter.start();
+		
+		long startTime = System.currentTimeMillis();
+		HashMap<String, MetricFamilySamples> response = subject.call();
+		aborter.join();
+		
+		Assertions.assertNull(response);
+		Assertions.assertTrue(System.currentTimeMillis() - startTime < 2000);
+		
+		// the outcome of the request is only recorded on demand
+		Assertions.assertFalse(latencyEstimate.isAvailable());
+	}
+	
 	@Test
 	void testInvalidEndpointURL() throws Exception {
 		String instanceId = "abcd:8";
@@ -195,6 +241,90 @@ class MetricsFetcherTest {
 		
 		Assertions.assertNull(response);
 	}
-
+	
+	@Test
+	void testPayloadSizeLimitExceeded() throws Exception {
+		String instanceId = "abcd:9";
+		NullMetricFamilySamplesEnricher dummymfse = new NullMetricFamilySamplesEnricher("dummy", "dummy", "dummy", "dummy:0");
+		List<String> labelValues = dummymfse.getEnrichedLabelValues(new LinkedList<>());
+		String[] ownTelemetryLabelValues = labelValues.toArray(new String[0]);
+		
+		MetricsFetcherMetrics mfm = new MetricsFetcherMetrics(ownTelemetryLabelValues, false);
+		
+		CFMetricsFetcherConfig config = new CFMetricsFetcherConfig();
+		config.setMetricFamilySamplesEnricher(dummymfse);
+		config.setMetricsFetcherMetrics(mfm);
+		config.setPromregatorInstanceIdentifier(UUID.randomUUID());
+		config.setConnectionTimeoutInMillis(5000);
+		config.setSocketReadTimeoutInMillis(5000);
+		config.setMaxPayloadSize(20);
+		
+		CFMetricsFetcher subject = new CFMetricsFetcher("http://localhost:9002/metrics", instanceId, config);
+		
+		this.mems.getMetricsEndpointHandler().setResponse(DUMMY_METRICS_LIST);
+		
+		HashMap<String, MetricFamilySamples> response = subject.call();
+		
+		Assertions.assertNull(response);
+		Assertions.assertEquals(1.0, mfm.getLimitExceeded(MetricsFetcherMetrics.LIMIT_PAYLOAD_SIZE).get(), 0.001);
+	}
+	
+	@Test
+	void testSampleLimitExceeded() throws Exception {
+		String instanceId = "abcd:10";
+		NullMetricFamilySamplesEnricher dummymfse = new NullMetricFamilySamplesEnricher("dummy", "dummy", "dummy", "dummy:0");
+		List<String> labelValues = dummymfse.getEnrichedLabelValues(new LinkedList<>());
+		String[] ownTelemetryLabelValues = labelValues.toArray(new String[0]);
+		
+		MetricsFetcherMetrics mfm = new MetricsFetcherMetrics(ownTelemetryLabelValues, false);
+		
+		CFMetricsFetcherConfig config = new CFMetricsFetcherConfig();
+		config.setMetricFamilySamplesEnricher(dummymfse);
+		config.setMetricsFetcherMetrics(mfm);
+		config.setPromregatorInstanceIdentifier(UUID.randomUUID());
+		config.setConnectionTimeoutInMillis(5000);
+		config.setSocketReadTimeoutInMillis(5000);
+		config.setMaxSamples(1);
+		List<String> reasons = new LinkedList<>();
+		config.setLimitExceededListener(reasons::add);
+		
+		CFMetricsFetcher subject = new CFMetricsFetcher("http://localhost:9002/metrics", instanceId, config);
+		
+		this.mems.getMetricsEndpointHandler().setResponse(DUMMY_METRICS_LIST + "\nanother_dummy 43\n");
+		
+		HashMap<String, MetricFamilySamples> response = subject.call();
+		
+		Assertions.assertNull(response);
+		Assertions.assertEquals(1.0, mfm.getLimitExceeded(Parser.LIMIT_SAMPLES).get(), 0.001);
+		Assertions.assertEquals(Collections.singletonList(Parser.LIMIT_SAMPLES), reasons);
+	}
+	
+	@Test
+	void testProtobuf() throws Exception {
+		String instanceId = "abcd:11";
+		NullMetricFamilySamplesEnricher dummymfse = new NullMetricFamilySamplesEnricher("dummy", "dummy", "dummy", "dummy:0");
+		List<String> labelValues = dummymfse.getEnrichedLabelValues(new LinkedList<>());
+		String[] ownTelemetryLabelValues = labelValues.toArray(new String[0]);
+		
+		MetricsFetcherMetrics mfm = new MetricsFetcherMetrics(ownTelemetryLabelValues, false);
+		
+		CFMetricsFetcherConfig config = new CFMetricsFetcherConfig();
+		config.setMetricFamilySamplesEnricher(dummymfse);
+		config.setMetricsFetcherMetrics(mfm);
+		config.setPromregatorInstanceIdentifier(UUID.randomUUID());
+		config.setConnectionTimeoutInMillis(5000);
+		config.setSocketReadTimeoutInMillis(5000);
+		config.setProtobufEnabled(true);
+		
+		CFMetricsFetcher subject = new CFMetricsFetcher("http://localhost:9002/metrics", instanceId, config);
+		
+		byte[] protobufData = ProtobufFormat.toDelimitedByteArray(Collections.enumeration(new Parser(DUMMY_METRICS_LIST).parse().values()));
+		this.mems.getMetricsEndpointHandler().setBinaryResponse(protobufData, ProtobufFormat.CONTENT_TYPE_PROTOBUF_DELIMITED);
+		
+		HashMap<String, MetricFamilySamples> response = subject.call();
+		
+		ParserCompareUtils.compareEMFS(this.expectedResult, Collections.enumeration(response.values()));
+		Assertions.assertTrue(this.mems.getMetricsEndpointHandler().getHeaders().getFirst("Accept").startsWith("application/vnd.google.protobuf"));
+	}
 
 }
@@ -55,7 +55,7 @@ class InstanceLifecycleHandlerTest {
 		mfm.getRequestSize().observe(2000);
 		
 		// trigger cleanup now
-		subject.receiver(i);
+		subject.instanceRemoved(i);
 		
 		Enumeration<MetricFamilySamples> mfs = CollectorRegistry.defaultRegistry.metricFamilySamples();
 		
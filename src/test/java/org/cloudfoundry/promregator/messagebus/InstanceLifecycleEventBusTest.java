@@ -0,0 +1,94 @@
+package org.cloudfoundry.promregator.messagebus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.cloudfoundry.promregator.scanner.ResolvedTarget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class InstanceLifecycleEventBusTest {
+
+	private InstanceLifecycleEventBus subject = new InstanceLifecycleEventBus();
+	
+	@AfterEach
+	void shutdownBus() {
+		this.subject.shutdown();
+	}
+	
+	private static Instance createInstance(String instanceId) {
+		ResolvedTarget rt = new ResolvedTarget();
+		rt.setOrgName("testOrgName");
+		rt.setSpaceName("testSpaceName");
+		rt.setApplicationName("testapp");
+		
+		return new Instance(rt, instanceId, "access.url.bogus");
+	}
+	
+	@Test
+	void testEventsAreDeliveredAsynchronouslyInOrder() throws InterruptedException {
+		final Thread publishingThread = Thread.currentThread();
+		List<String> received = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(3);
+		
+		this.subject.addListener(instance -> {
+			Assertions.assertNotSame(publishingThread, Thread.currentThread());
+			received.add(instance.getInstanceId());
+			latch.countDown();
+		});
+		
+		this.subject.publishInstanceRemoved(createInstance("55820b2c-2fa5-11e8-b467-0ed5f89f718b:0"));
+		this.subject.publishInstanceRemoved(createInstance("55820b2c-2fa5-11e8-b467-0ed5f89f718b:1"));
+		this.subject.publishInstanceRemoved(createInstance("55820b2c-2fa5-11e8-b467-0ed5f89f718b:2"));
+		
+		Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(3, received.size());
+		Assertions.assertEquals("55820b2c-2fa5-11e8-b467-0ed5f89f718b:0", received.get(0));
+		Assertions.assertEquals("55820b2c-2fa5-11e8-b467-0ed5f89f718b:1", received.get(1));
+		Assertions.assertEquals("55820b2c-2fa5-11e8-b467-0ed5f89f718b:2", received.get(2));
+	}
+	
+	@Test
+	void testFailingListenerDoesNotAffectOthers() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(2);
+		
+		this.subject.addListener(instance -> {
+			throw new IllegalStateException("unit test");
+		});
+		this.subject.addListener(instance -> latch.countDown());
+		
+		this.subject.publishInstanceRemoved(createInstance("55820b2c-2fa5-11e8-b467-0ed5f89f718b:0"));
+		this.subject.publishInstanceRemoved(createInstance("55820b2c-2fa5-11e8-b467-0ed5f89f718b:1"));
+		
+		Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+	
+	@Test
+	void testRemovedListenerIsNotCalled() throws InterruptedException {
+		List<Instance> received = Collections.synchronizedList(new ArrayList<>());
+		InstanceLifecycleListener listener = received::add;
+		CountDownLatch latch = new CountDownLatch(1);
+		
+		this.subject.addListener(listener);
+		this.subject.removeListener(listener);
+		this.subject.addListener(instance -> latch.countDown());
+		
+		this.subject.publishInstanceRemoved(createInstance("55820b2c-2fa5-11e8-b467-0ed5f89f718b:0"));
+		
+		Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		Assertions.assertTrue(received.isEmpty());
+	}
+	
+	@Test
+	void testPublishingAfterShutdownDoesNotFail() {
+		this.subject.addListener(instance -> Assertions.fail("must not be called"));
+		this.subject.shutdown();
+		
+		Assertions.assertDoesNotThrow(() -> this.subject.publishInstanceRemoved(createInstance("55820b2c-2fa5-11e8-b467-0ed5f89f718b:0")));
+	}
+}
@@ -15,6 +15,10 @@ public class DefaultMetricsEndpointHttpHandler implements HttpHandler {
 	
 	private String response = "";
 	
+	private byte[] binaryResponse;
+	
+	private String contentType;
+	
 	private int delayInMillis = 0;
 	
 	@Override
@@ -34,10 +38,14 @@ public class DefaultMetricsEndpointHttpHandler implements HttpHandler {
 		}
 		
 		// send response
-		he.sendResponseHeaders(200, this.response.length());
+		byte[] body = this.binaryResponse != null ? this.binaryResponse : this.response.getBytes();
+		if (this.contentType != null) {
+			he.getResponseHeaders().set("Content-Type", this.contentType);
+		}
+		he.sendResponseHeaders(200, body.length);
 		
 		OutputStream os = he.getResponseBody();
-		os.write(response.getBytes());
+		os.write(body);
 		os.flush();
 	}
 
@@ -55,6 +63,18 @@ public class DefaultMetricsEndpointHttpHandler implements HttpHandler {
 
 	public void setResponse(String response) {
 		this.response = response;
+		this.binaryResponse = null;
+		this.contentType = null;
+	}
+
+	/**
+	 * sets a response, which is sent as is with the content type provided
+	 * @param binaryResponse the body of the response
+	 * @param contentType the value of the Content-Type header of the response
+	 */
+	public void setBinaryResponse(byte[] binaryResponse, String contentType) {
+		this.binaryResponse = binaryResponse;
+		this.contentType = contentType;
 	}
 
 	/**
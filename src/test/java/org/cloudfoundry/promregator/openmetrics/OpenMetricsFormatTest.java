@@ -0,0 +1,104 @@
+package org.cloudfoundry.promregator.openmetrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cloudfoundry.promregator.textformat004.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+class OpenMetricsFormatTest {
+
+	private static String write(MetricFamilySamples... mfs) throws IOException {
+		StringWriter writer = new StringWriter();
+		OpenMetricsFormat.write100(writer, Collections.enumeration(Arrays.asList(mfs)));
+		return writer.toString();
+	}
+
+	@Test
+	void testEmptyIsTerminatedWithEOF() throws IOException {
+		Assertions.assertEquals("# EOF\n", write());
+	}
+
+	@Test
+	void testGaugeWithLabelsAndTimestamp() throws IOException {
+		List<Sample> samples = Collections.singletonList(new Sample("temperature", Arrays.asList("room", "note"), Arrays.asList("kitchen", "a \"quoted\"\nvalue"), 21.5, 1395066363001L));
+		MetricFamilySamples mfs = new MetricFamilySamples("temperature", Type.GAUGE, "The temperature\\in the room", samples);
+
+		String expected = "# TYPE temperature gauge\n" +
+				"# HELP temperature The temperature\\\\in the room\n" +
+				"temperature{room=\"kitchen\",note=\"a \\\"quoted\\\"\\nvalue\"} 21.5 1395066363.001\n" +
+				"# EOF\n";
+		Assertions.assertEquals(expected, write(mfs));
+	}
+
+	@Test
+	void testNegativeTimestamps() throws IOException {
+		List<Sample> samples = Arrays.asList(new Sample("temperature", Collections.emptyList(), Collections.emptyList(), 1.0, -1500L),
+				new Sample("temperature", Collections.emptyList(), Collections.emptyList(), 2.0, -5L),
+				new Sample("temperature", Collections.emptyList(), Collections.emptyList(), 3.0, -2000L));
+		MetricFamilySamples mfs = new MetricFamilySamples("temperature", Type.GAUGE, "The temperature", samples);
+
+		String expected = "# TYPE temperature gauge\n" +
+				"# HELP temperature The temperature\n" +
+				"temperature 1.0 -1.500\n" +
+				"temperature 2.0 -0.005\n" +
+				"temperature 3.0 -2.000\n" +
+				"# EOF\n";
+		Assertions.assertEquals(expected, write(mfs));
+	}
+
+	@Test
+	void testCounterWithTotalSuffix() throws IOException {
+		List<Sample> samples = Arrays.asList(new Sample("http_requests_total", Collections.emptyList(), Collections.emptyList(), 42.0),
+				new Sample("http_requests_created", Collections.emptyList(), Collections.emptyList(), 1.6E9));
+		MetricFamilySamples mfs = new MetricFamilySamples("http_requests_total", Type.COUNTER, "", samples);
+
+		String expected = "# TYPE http_requests counter\n" +
+				"http_requests_total 42.0\n" +
+				"http_requests_created 1.6E9\n" +
+				"# EOF\n";
+		Assertions.assertEquals(expected, write(mfs));
+	}
+
+	@Test
+	void testCounterWithoutTotalSuffixIsUnknown() throws IOException {
+		List<Sample> samples = Collections.singletonList(new Sample("app_requests", Collections.emptyList(), Collections.emptyList(), 12.0));
+		MetricFamilySamples mfs = new MetricFamilySamples("app_requests", Type.COUNTER, "", samples);
+
+		// NB: the name of the sample must not be changed
+		String expected = "# TYPE app_requests unknown\n" +
+				"app_requests 12.0\n" +
+				"# EOF\n";
+		Assertions.assertEquals(expected, write(mfs));
+	}
+
+	@Test
+	void testHistogramWithMicrometerMax() throws IOException {
+		String textToParse = "# TYPE http_seconds histogram\n" +
+				"http_seconds_bucket{le=\"0.1\"} 1.0\n" +
+				"http_seconds_bucket{le=\"+Inf\"} 2.0\n" +
+				"http_seconds_count 2.0\n" +
+				"http_seconds_sum 0.3\n" +
+				"http_seconds_max 0.25\n";
+		HashMap<String, MetricFamilySamples> map = new Parser(textToParse).parse();
+
+		String expected = "# TYPE http_seconds histogram\n" +
+				"http_seconds_bucket{le=\"0.1\"} 1.0\n" +
+				"http_seconds_bucket{le=\"+Inf\"} 2.0\n" +
+				"http_seconds_count 2.0\n" +
+				"http_seconds_sum 0.3\n" +
+				"# TYPE http_seconds_max unknown\n" +
+				"http_seconds_max 0.25\n" +
+				"# EOF\n";
+		Assertions.assertEquals(expected, write(map.get("http_seconds")));
+	}
+}
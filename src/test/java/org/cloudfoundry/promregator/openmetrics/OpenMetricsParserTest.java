@@ -0,0 +1,205 @@
+package org.cloudfoundry.promregator.openmetrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cloudfoundry.promregator.textformat004.MetricFilter;
+import org.cloudfoundry.promregator.textformat004.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+class OpenMetricsParserTest {
+
+	private static final String MICROMETER_EXAMPLE = "# TYPE http_requests counter\n" +
+			"# HELP http_requests The number of \\\"requests\\\"\n" +
+			"http_requests_total{uri=\"/api\",status=\"200\"} 42.0 # {trace_id=\"abc\"} 1.0 1600000000.5\n" +
+			"http_requests_created{uri=\"/api\",status=\"200\"} 1.6E9\n" +
+			"# TYPE http_seconds histogram\n" +
+			"# UNIT http_seconds seconds\n" +
+			"http_seconds_bucket{le=\"0.1\"} 1.0\n" +
+			"http_seconds_bucket{le=\"+Inf\"} 2.0 # {trace_id=\"def\"} 0.25\n" +
+			"http_seconds_count 2.0\n" +
+			"http_seconds_sum 0.3\n" +
+			"# TYPE temperature gauge\n" +
+			"temperature{room=\"line\\nbreak\"} -Inf 1600000000\n" +
+			"# EOF\n";
+
+	@Test
+	void testCounterIsCompatibleToTextFormat004() {
+		OpenMetricsParser subject = new OpenMetricsParser(MICROMETER_EXAMPLE);
+		HashMap<String, MetricFamilySamples> resultMap = subject.parse();
+
+		MetricFamilySamples mfs = resultMap.get("http_requests_total");
+		Assertions.assertNotNull(mfs);
+		Assertions.assertEquals(Type.COUNTER, mfs.type);
+		Assertions.assertEquals("The number of \"requests\"", mfs.help);
+		Assertions.assertEquals(2, mfs.samples.size());
+		Assertions.assertEquals("http_requests_total", mfs.samples.get(0).name);
+		Assertions.assertEquals("http_requests_created", mfs.samples.get(1).name);
+		Assertions.assertEquals(42.0, mfs.samples.get(0).value, 0.001);
+	}
+
+	@Test
+	void testExemplars() {
+		OpenMetricsParser subject = new OpenMetricsParser(MICROMETER_EXAMPLE);
+		HashMap<String, MetricFamilySamples> resultMap = subject.parse();
+
+		Sample sample = resultMap.get("http_requests_total").samples.get(0);
+		Assertions.assertTrue(sample instanceof ExemplarSample);
+		Exemplar exemplar = ((ExemplarSample) sample).getExemplar();
+		Assertions.assertEquals(Collections.singletonList("trace_id"), exemplar.getLabelNames());
+		Assertions.assertEquals(Collections.singletonList("abc"), exemplar.getLabelValues());
+		Assertions.assertEquals(1.0, exemplar.getValue(), 0.001);
+		Assertions.assertEquals(1600000000500L, exemplar.getTimestampMs().longValue());
+
+		List<Sample> buckets = resultMap.get("http_seconds").samples;
+		Assertions.assertFalse(buckets.get(0) instanceof ExemplarSample);
+		Assertions.assertTrue(buckets.get(1) instanceof ExemplarSample);
+		Assertions.assertNull(((ExemplarSample) buckets.get(1)).getExemplar().getTimestampMs());
+	}
+
+	@Test
+	void testHistogramAndGauge() {
+		OpenMetricsParser subject = new OpenMetricsParser(MICROMETER_EXAMPLE);
+		HashMap<String, MetricFamilySamples> resultMap = subject.parse();
+
+		Assertions.assertEquals(3, resultMap.size());
+
+		MetricFamilySamples histogram = resultMap.get("http_seconds");
+		Assertions.assertEquals(Type.HISTOGRAM, histogram.type);
+		Assertions.assertEquals(4, histogram.samples.size());
+		Assertions.assertEquals("+Inf", histogram.samples.get(1).labelValues.get(0));
+
+		MetricFamilySamples gauge = resultMap.get("temperature");
+		Assertions.assertEquals(Type.GAUGE, gauge.type);
+		Assertions.assertEquals("line\nbreak", gauge.samples.get(0).labelValues.get(0));
+		Assertions.assertEquals(Double.NEGATIVE_INFINITY, gauge.samples.get(0).value);
+	}
+
+	@Test
+	void testTimestampsAreConvertedToMilliseconds() {
+		OpenMetricsParser subject = new OpenMetricsParser(MICROMETER_EXAMPLE);
+		HashMap<String, MetricFamilySamples> resultMap = subject.parse();
+
+		Assertions.assertEquals(1600000000000L, resultMap.get("temperature").samples.get(0).timestampMs.longValue());
+		Assertions.assertNull(resultMap.get("http_seconds").samples.get(0).timestampMs);
+
+		subject = new OpenMetricsParser("# TYPE temperature gauge\ntemperature 21.5 1395066363.001\n# EOF\n", null, 0, 0, false);
+		Assertions.assertEquals(1395066363001L, subject.parse().get("temperature").samples.get(0).timestampMs.longValue());
+	}
+
+	@Test
+	void testTimestampsAreDropped() {
+		OpenMetricsParser subject = new OpenMetricsParser(MICROMETER_EXAMPLE, null, 0, 0, true);
+		HashMap<String, MetricFamilySamples> resultMap = subject.parse();
+
+		Assertions.assertNull(resultMap.get("temperature").samples.get(0).timestampMs);
+		// NB: the timestamps of exemplars are not affected
+		Sample sample = resultMap.get("http_requests_total").samples.get(0);
+		Assertions.assertEquals(1600000000500L, ((ExemplarSample) sample).getExemplar().getTimestampMs().longValue());
+	}
+
+	@Test
+	void testSamplesWithoutMetadataAreUnknown() {
+		String textToParse = "# TYPE temperature gauge\n" +
+				"temperature 21.0\n" +
+				"humidity 0.4\n" +
+				"# EOF\n";
+
+		HashMap<String, MetricFamilySamples> resultMap = new OpenMetricsParser(textToParse).parse();
+
+		Assertions.assertEquals(Type.GAUGE, resultMap.get("temperature").type);
+		Assertions.assertEquals(Type.UNTYPED, resultMap.get("humidity").type);
+	}
+
+	@Test
+	void testMetadataWithoutTypeOrHelp() {
+		String textToParse = "# TYPE temperature\n" +
+				"# HELP temperature\n" +
+				"temperature 21.0\n" +
+				"# TYPE humidity gauge\n" +
+				"humidity 0.4\n" +
+				"# EOF\n";
+
+		HashMap<String, MetricFamilySamples> resultMap = new OpenMetricsParser(textToParse).parse();
+
+		Assertions.assertEquals(Type.UNTYPED, resultMap.get("temperature").type);
+		Assertions.assertEquals("", resultMap.get("temperature").help);
+		Assertions.assertEquals(21.0, resultMap.get("temperature").samples.get(0).value, 0.001);
+		Assertions.assertEquals(Type.GAUGE, resultMap.get("humidity").type);
+	}
+
+	@Test
+	void testParsingStopsAtEOF() {
+		String textToParse = "# TYPE temperature gauge\n" +
+				"temperature 21.0\n" +
+				"# EOF\n" +
+				"humidity 0.4\n";
+
+		HashMap<String, MetricFamilySamples> resultMap = new OpenMetricsParser(textToParse).parse();
+
+		Assertions.assertEquals(1, resultMap.size());
+	}
+
+	@Test
+	void testNonParsableLineIsSkipped() {
+		String textToParse = "# TYPE temperature gauge\n" +
+				"temperature{room=\"kitchen} 21.0\n" +
+				"temperature{room=\"bath\"} 23.0\n" +
+				"# EOF\n";
+
+		HashMap<String, MetricFamilySamples> resultMap = new OpenMetricsParser(textToParse).parse();
+
+		Assertions.assertEquals(1, resultMap.get("temperature").samples.size());
+	}
+
+	@Test
+	void testFilterAndLimits() {
+		MetricFilter filter = new MetricFilter(Collections.emptyList(), Collections.singletonList("temperature"), Collections.emptyMap(), Collections.emptyMap());
+
+		OpenMetricsParser subject = new OpenMetricsParser(MICROMETER_EXAMPLE, filter, 0, 0);
+		HashMap<String, MetricFamilySamples> resultMap = subject.parse();
+		Assertions.assertNull(resultMap.get("temperature"));
+		Assertions.assertEquals(1, subject.getDroppedSamples());
+		Assertions.assertNull(subject.getExceededLimit());
+
+		// NB: the samples of the counter and the histogram only form a single series each
+		subject = new OpenMetricsParser(MICROMETER_EXAMPLE, null, 0, 1);
+		subject.parse();
+		Assertions.assertNull(subject.getExceededLimit());
+
+		String textToParse = "# TYPE temperature gauge\n" +
+				"temperature{room=\"kitchen\"} 21.0\n" +
+				"temperature{room=\"bath\"} 23.0\n" +
+				"# EOF\n";
+		subject = new OpenMetricsParser(textToParse, null, 0, 1);
+		subject.parse();
+		Assertions.assertEquals(Parser.LIMIT_SERIES_PER_FAMILY, subject.getExceededLimit());
+
+		subject = new OpenMetricsParser(MICROMETER_EXAMPLE, null, 2, 0);
+		subject.parse();
+		Assertions.assertEquals(Parser.LIMIT_SAMPLES, subject.getExceededLimit());
+	}
+
+	@Test
+	void testRoundtripKeepsExemplars() throws IOException {
+		HashMap<String, MetricFamilySamples> resultMap = new OpenMetricsParser(MICROMETER_EXAMPLE).parse();
+
+		StringWriter writer = new StringWriter();
+		OpenMetricsFormat.write100(writer, Collections.enumeration(Collections.singletonList(resultMap.get("http_requests_total"))));
+
+		String expected = "# TYPE http_requests counter\n" +
+				"# HELP http_requests The number of \\\"requests\\\"\n" +
+				"http_requests_total{uri=\"/api\",status=\"200\"} 42.0 # {trace_id=\"abc\"} 1.0 1600000000.500\n" +
+				"http_requests_created{uri=\"/api\",status=\"200\"} 1.6E9\n" +
+				"# EOF\n";
+		Assertions.assertEquals(expected, writer.toString());
+	}
+}
@@ -0,0 +1,118 @@
+package org.cloudfoundry.promregator.protobuf;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cloudfoundry.promregator.openmetrics.Exemplar;
+import org.cloudfoundry.promregator.openmetrics.ExemplarSample;
+import org.cloudfoundry.promregator.textformat004.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+class ProtobufFormatTest {
+
+	private static byte[] write(MetricFamilySamples... mfs) {
+		return ProtobufFormat.toDelimitedByteArray(Collections.enumeration(Arrays.asList(mfs)));
+	}
+
+	private static HashMap<String, MetricFamilySamples> roundtrip(HashMap<String, MetricFamilySamples> map) {
+		byte[] data = ProtobufFormat.toDelimitedByteArray(Collections.enumeration(map.values()));
+		return new ProtobufParser(data).parse();
+	}
+
+	@Test
+	void testGaugeMatchesReferenceEncoding() {
+		List<Sample> samples = Collections.singletonList(new Sample("up", Collections.emptyList(), Collections.emptyList(), 1.0));
+		MetricFamilySamples mfs = new MetricFamilySamples("up", Type.GAUGE, "", samples);
+
+		byte[] expected = new byte[] {
+				0x13, // length of MetricFamily
+				0x0A, 0x02, 'u', 'p', // name
+				0x18, 0x01, // type GAUGE
+				0x22, 0x0B, // metric
+				0x12, 0x09, // gauge
+				0x09, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xF0, 0x3F // value 1.0
+		};
+		Assertions.assertArrayEquals(expected, write(mfs));
+	}
+
+	@Test
+	void testEmpty() {
+		Assertions.assertEquals(0, write().length);
+	}
+
+	@Test
+	void testHistogramRoundtrip() {
+		String textToParse = "# HELP http_seconds The latency\n" +
+				"# TYPE http_seconds histogram\n" +
+				"http_seconds_bucket{uri=\"/a\",le=\"0.1\"} 1.0\n" +
+				"http_seconds_bucket{uri=\"/a\",le=\"+Inf\"} 2.0\n" +
+				"http_seconds_count{uri=\"/a\"} 2.0\n" +
+				"http_seconds_sum{uri=\"/a\"} 0.3\n" +
+				"http_seconds_bucket{uri=\"/b\",le=\"0.1\"} 0.0\n" +
+				"http_seconds_bucket{uri=\"/b\",le=\"+Inf\"} 1.0\n" +
+				"http_seconds_count{uri=\"/b\"} 1.0\n" +
+				"http_seconds_sum{uri=\"/b\"} 0.5\n";
+		HashMap<String, MetricFamilySamples> map = new Parser(textToParse).parse();
+
+		Assertions.assertEquals(map, roundtrip(map));
+	}
+
+	@Test
+	void testSummaryAndCounterRoundtrip() {
+		String textToParse = "# TYPE rpc_seconds summary\n" +
+				"rpc_seconds{quantile=\"0.5\"} 0.05\n" +
+				"rpc_seconds{quantile=\"0.99\"} 0.5\n" +
+				"rpc_seconds_count 100.0\n" +
+				"rpc_seconds_sum 8.0\n" +
+				"# TYPE requests_total counter\n" +
+				"requests_total{status=\"200\",path=\"/\\\"quoted\\\"\"} 42.0\n" +
+				"# TYPE temperature gauge\n" +
+				"temperature -1.5\n";
+		HashMap<String, MetricFamilySamples> map = new Parser(textToParse).parse();
+
+		Assertions.assertEquals(map, roundtrip(map));
+	}
+
+	@Test
+	void testNonConformingSamplesAreUntyped() {
+		String textToParse = "# TYPE http_seconds histogram\n" +
+				"http_seconds_bucket{le=\"+Inf\"} 2.0\n" +
+				"http_seconds_count 2.0\n" +
+				"http_seconds_sum 0.3\n" +
+				"http_seconds_max 0.25\n";
+		HashMap<String, MetricFamilySamples> map = roundtrip(new Parser(textToParse).parse());
+
+		Assertions.assertEquals(Type.HISTOGRAM, map.get("http_seconds").type);
+		Assertions.assertEquals(3, map.get("http_seconds").samples.size());
+
+		MetricFamilySamples max = map.get("http_seconds_max");
+		Assertions.assertEquals(Type.UNTYPED, max.type);
+		Assertions.assertEquals(0.25, max.samples.get(0).value, 0.001);
+	}
+
+	@Test
+	void testExemplarsAndTimestamps() {
+		Exemplar exemplar = new Exemplar(Collections.singletonList("trace_id"), Collections.singletonList("abc"), 1.0, 1600000000500L);
+		List<Sample> samples = Collections.singletonList(new ExemplarSample("requests_total", Collections.emptyList(), Collections.emptyList(), 42.0, 1395066363001L, exemplar));
+		MetricFamilySamples mfs = new MetricFamilySamples("requests_total", Type.COUNTER, "help", samples);
+
+		HashMap<String, MetricFamilySamples> map = new ProtobufParser(write(mfs)).parse();
+
+		Sample sample = map.get("requests_total").samples.get(0);
+		Assertions.assertEquals(1395066363001L, sample.timestampMs.longValue());
+		Assertions.assertTrue(sample instanceof ExemplarSample);
+
+		Exemplar actual = ((ExemplarSample) sample).getExemplar();
+		Assertions.assertEquals(exemplar.getLabelNames(), actual.getLabelNames());
+		Assertions.assertEquals(exemplar.getLabelValues(), actual.getLabelValues());
+		Assertions.assertEquals(1.0, actual.getValue(), 0.001);
+		Assertions.assertEquals(1600000000500L, actual.getTimestampMs().longValue());
+	}
+}
@@ -0,0 +1,125 @@
+package org.cloudfoundry.promregator.protobuf;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cloudfoundry.promregator.textformat004.MetricFilter;
+import org.cloudfoundry.promregator.textformat004.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+class ProtobufParserTest {
+
+	private static final String TEXT_EXAMPLE = "# TYPE temperature gauge\n" +
+			"temperature{room=\"kitchen\"} 21.0\n" +
+			"temperature{room=\"bath\"} 23.0\n" +
+			"temperature{room=\"hall\"} 19.0\n" +
+			"# TYPE humidity gauge\n" +
+			"humidity{room=\"kitchen\"} 0.4\n";
+
+	private static byte[] encode(String textToParse) {
+		return ProtobufFormat.toDelimitedByteArray(Collections.enumeration(new Parser(textToParse).parse().values()));
+	}
+
+	/**
+	 * writes a histogram as provided by a client supporting native histograms: The +Inf bucket is implicit,
+	 * and there are fields which are unknown to us.
+	 */
+	private static byte[] createNativeHistogram() {
+		ProtobufWriter writer = new ProtobufWriter(256);
+		writer.startDelimited();
+		writer.writeString(ProtobufFormat.METRICFAMILY_NAME, "rpc_seconds");
+		writer.writeString(ProtobufFormat.METRICFAMILY_HELP, "The latency");
+		writer.writeUInt64(ProtobufFormat.METRICFAMILY_TYPE, ProtobufFormat.METRICTYPE_HISTOGRAM);
+		writer.writeString(5, "seconds"); // unit
+
+		writer.startMessage(ProtobufFormat.METRICFAMILY_METRIC);
+		writer.startMessage(ProtobufFormat.METRIC_LABEL);
+		writer.writeString(ProtobufFormat.LABELPAIR_NAME, "service");
+		writer.writeString(ProtobufFormat.LABELPAIR_VALUE, "auth");
+		writer.endMessage();
+
+		writer.startMessage(ProtobufFormat.METRIC_HISTOGRAM);
+		writer.writeUInt64(ProtobufFormat.HISTOGRAM_SAMPLE_COUNT, 3);
+		writer.writeDouble(ProtobufFormat.HISTOGRAM_SAMPLE_SUM, 1.5);
+		writer.startMessage(ProtobufFormat.HISTOGRAM_BUCKET);
+		writer.writeUInt64(ProtobufFormat.BUCKET_CUMULATIVE_COUNT, 1);
+		writer.writeDouble(ProtobufFormat.BUCKET_UPPER_BOUND, 0.5);
+		writer.endMessage();
+		writer.writeUInt64(5, 6); // schema of the native histogram (zigzag encoded)
+		writer.writeDouble(6, 0.001); // zero threshold of the native histogram
+		writer.endMessage();
+
+		writer.writeInt64(ProtobufFormat.METRIC_TIMESTAMP_MS, 1395066363000L);
+		writer.endMessage();
+
+		writer.endMessage();
+		return writer.toByteArray();
+	}
+
+	@Test
+	void testHistogramWithImplicitInfBucket() {
+		HashMap<String, MetricFamilySamples> resultMap = new ProtobufParser(createNativeHistogram()).parse();
+
+		MetricFamilySamples mfs = resultMap.get("rpc_seconds");
+		Assertions.assertEquals(Type.HISTOGRAM, mfs.type);
+		Assertions.assertEquals("The latency", mfs.help);
+
+		List<Sample> expected = Arrays.asList(
+				new Sample("rpc_seconds_bucket", Arrays.asList("service", "le"), Arrays.asList("auth", "0.5"), 1.0, 1395066363000L),
+				new Sample("rpc_seconds_bucket", Arrays.asList("service", "le"), Arrays.asList("auth", "+Inf"), 3.0, 1395066363000L),
+				new Sample("rpc_seconds_count", Collections.singletonList("service"), Collections.singletonList("auth"), 3.0, 1395066363000L),
+				new Sample("rpc_seconds_sum", Collections.singletonList("service"), Collections.singletonList("auth"), 1.5, 1395066363000L));
+		Assertions.assertEquals(expected, mfs.samples);
+	}
+
+	@Test
+	void testFilter() {
+		MetricFilter filter = new MetricFilter(Collections.emptyList(), Collections.singletonList("humidity"),
+				Collections.emptyMap(), Collections.singletonMap("room", "bath"));
+
+		ProtobufParser subject = new ProtobufParser(encode(TEXT_EXAMPLE), filter, 0, 0);
+		HashMap<String, MetricFamilySamples> resultMap = subject.parse();
+
+		Assertions.assertNull(resultMap.get("humidity"));
+		Assertions.assertEquals(2, resultMap.get("temperature").samples.size());
+		Assertions.assertEquals(2, subject.getDroppedSamples());
+		Assertions.assertNull(subject.getExceededLimit());
+	}
+
+	@Test
+	void testLimits() {
+		ProtobufParser subject = new ProtobufParser(encode(TEXT_EXAMPLE), null, 0, 2);
+		subject.parse();
+		Assertions.assertEquals(Parser.LIMIT_SERIES_PER_FAMILY, subject.getExceededLimit());
+
+		subject = new ProtobufParser(encode(TEXT_EXAMPLE), null, 3, 0);
+		subject.parse();
+		Assertions.assertEquals(Parser.LIMIT_SAMPLES, subject.getExceededLimit());
+
+		subject = new ProtobufParser(encode(TEXT_EXAMPLE), null, 4, 3);
+		subject.parse();
+		Assertions.assertNull(subject.getExceededLimit());
+	}
+
+	@Test
+	void testTruncatedDataKeepsCompleteFamilies() {
+		byte[] first = encode("# TYPE temperature gauge\ntemperature 21.0\n");
+		byte[] second = encode("# TYPE humidity gauge\nhumidity 0.4\n");
+
+		byte[] data = new byte[first.length + second.length - 3];
+		System.arraycopy(first, 0, data, 0, first.length);
+		System.arraycopy(second, 0, data, first.length, second.length - 3);
+
+		HashMap<String, MetricFamilySamples> resultMap = new ProtobufParser(data).parse();
+
+		Assertions.assertEquals(1, resultMap.size());
+		Assertions.assertNotNull(resultMap.get("temperature"));
+	}
+}
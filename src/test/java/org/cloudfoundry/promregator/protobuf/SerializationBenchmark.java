@@ -0,0 +1,90 @@
+package org.cloudfoundry.promregator.protobuf;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.function.Supplier;
+
+import org.cloudfoundry.promregator.BenchmarkUtils;
+import org.cloudfoundry.promregator.rewrite.CFAllLabelsMetricFamilySamplesEnricher;
+import org.cloudfoundry.promregator.rewrite.MergableMetricFamilySamples;
+import org.cloudfoundry.promregator.textformat004.Parser;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.exporter.common.TextFormat;
+
+/**
+ * Compares the cost of serializing a merged scraping response in text format 0.0.4 (using the simpleclient
+ * and using the pre-rendered labels of enrichment), OpenMetrics and the delimited protobuf format, as well as
+ * the cost of parsing the document of a single target.
+ *
+ * The payload resembles a typical Spring Boot app instrumented with micrometer (counters, gauges and
+ * histograms with a couple of label sets), scraped from many instances and enriched with the CF labels.
+ *
+ * This is not a unit test (and thus not run by surefire); run its main method manually, e.g. from the IDE.
+ * Optional arguments: the number of instances (default: 50) and the number of measured iterations (default: 200).
+ */
+public class SerializationBenchmark {
+
+	private static final int WARMUP_ITERATIONS = 50;
+
+	private static long measure(String name, int iterations, Supplier<Object> operation) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			operation.get();
+		}
+
+		long start = System.nanoTime();
+		int size = 0;
+		for (int i = 0; i < iterations; i++) {
+			Object result = operation.get();
+			size = result instanceof String ? ((String) result).length() : ((byte[]) result).length;
+		}
+		long nanosPerOperation = (System.nanoTime() - start) / iterations;
+
+		System.out.println(String.format("%-36s %10d us/op %10d bytes", name, nanosPerOperation / 1000, size));
+		return nanosPerOperation;
+	}
+
+	public static void main(String[] args) {
+		int instances = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+		String document = BenchmarkUtils.createTargetDocument();
+		byte[] protobufDocument = ProtobufFormat.toDelimitedByteArray(Collections.enumeration(new Parser(document).parse().values()));
+
+		MergableMetricFamilySamples mmfs = new MergableMetricFamilySamples();
+		for (int i = 0; i < instances; i++) {
+			CFAllLabelsMetricFamilySamplesEnricher enricher = new CFAllLabelsMetricFamilySamplesEnricher("unittestorg", "unittestspace",
+					"unittestapp" + (i / 10), String.format("%08x-2273-4cb4-a659-bd31331f7daf:%d", i / 10, i % 10));
+			HashMap<String, MetricFamilySamples> enriched = enricher.determineEnumerationOfMetricFamilySamples(new Parser(document).parse());
+			mmfs.merge(enriched);
+		}
+
+		System.out.println(String.format("Merged response of %d instances", instances));
+		measure("serialize text 0.0.4 (simpleclient)", iterations, () -> {
+			StringWriter writer = new StringWriter();
+			try {
+				TextFormat.write004(writer, Collections.enumeration(mmfs.getEnumerationMetricFamilySamplesInHashMap().values()));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return writer.toString();
+		});
+		long text004 = measure("serialize text 0.0.4", iterations, mmfs::toType004Bytes);
+		measure("serialize OpenMetrics 1.0.0", iterations, mmfs::toOpenMetrics100Bytes);
+		long protobuf = measure("serialize protobuf", iterations, mmfs::toProtobufDelimitedBytes);
+		System.out.println(String.format("protobuf/text 0.0.4 serialization cost ratio: %.2f", (double) protobuf / text004));
+
+		System.out.println("Document of a single target");
+		measure("parse text 0.0.4", iterations * 10, () -> {
+			new Parser(document).parse();
+			return document;
+		});
+		measure("parse protobuf", iterations * 10, () -> {
+			new ProtobufParser(protobufDocument).parse();
+			return protobufDocument;
+		});
+	}
+}
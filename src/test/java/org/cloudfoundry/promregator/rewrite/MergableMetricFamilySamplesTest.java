@@ -131,4 +131,24 @@ class MergableMetricFamilySamplesTest {
 	}
 
 
+	
+	@Test
+	void testTimestampsAreForwarded() {
+		String textToParse = "# TYPE http_requests counter\n" + 
+				"http_requests{uri=\"/a\"} 1.0 1395066363000\n" +
+				"http_requests{uri=\"/b\"} 2.0\n";
+		
+		AbstractMetricFamilySamplesEnricher enricher = new CFAllLabelsMetricFamilySamplesEnricher("testOrgName", "testSpaceName", "testComponent", "testInstance:42");
+		HashMap<String, MetricFamilySamples> enriched = enricher.determineEnumerationOfMetricFamilySamples(new Parser(textToParse).parse());
+		
+		MergableMetricFamilySamples subject = new MergableMetricFamilySamples();
+		subject.merge(enriched);
+		
+		String text004 = subject.toType004String();
+		Assertions.assertTrue(text004.contains("cf_instance_number=\"42\",} 1.0 1395066363000\n"));
+		Assertions.assertTrue(text004.contains("cf_instance_number=\"42\",} 2.0\n"));
+		
+		String openMetrics = subject.toOpenMetrics100String();
+		Assertions.assertTrue(openMetrics.contains("cf_instance_number=\"42\"} 1.0 1395066363.000\n"));
+	}
 }
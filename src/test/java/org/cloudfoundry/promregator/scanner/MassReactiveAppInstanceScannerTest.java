@@ -8,11 +8,15 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
+import org.cloudfoundry.promregator.cfaccessor.CFAccessorMassMock;
 import org.cloudfoundry.promregator.config.Target;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
@@ -26,11 +30,19 @@ class MassReactiveAppInstanceScannerTest {
 	@Autowired
 	private AppInstanceScanner appInstanceScanner;
 	
+	@Autowired
+	private CFAccessor cfAccessor;
+	
 	@AfterAll
 	static void cleanUp() {
 		JUnitTestUtils.cleanUpAll();
 	}
 	
+	@AfterEach
+	void resetCFAccessorMock() {
+		Mockito.reset(this.cfAccessor);
+	}
+	
 	@Test
 	void testPerformance() {
 		List<ResolvedTarget> targets = new LinkedList<>();
@@ -184,4 +196,46 @@ class MassReactiveAppInstanceScannerTest {
 			Assertions.assertTrue(instance.getAccessUrl().endsWith(targetNumber));
 		}
 	}
+
+	@Test
+	void testPerformanceWithDuplicateLookups() {
+		/*
+		 * Benchmark: 1,000 targets all referring to the same org and space;
+		 * each org, space and summary must only be requested once per scan.
+		 */
+		List<ResolvedTarget> targets = new LinkedList<>();
+		
+		final int numberOfApps = 100;
+		final int numberOfPaths = 10;
+		
+		final Target emptyTarget = new Target();
+		for (int p = 0;p<numberOfPaths;p++) {
+			for (int i = 0;i<numberOfApps;i++) {
+				ResolvedTarget t = new ResolvedTarget();
+				t.setOrgName("unittestorg");
+				t.setSpaceName("unittestspace");
+				t.setApplicationName("testapp"+i);
+				t.setPath("/testpath"+p);
+				t.setProtocol("http");
+				t.setOriginalTarget(emptyTarget);
+				targets.add(t);
+			}
+		}
+		
+		Instant start = Instant.now();
+		
+		List<Instance> result = this.appInstanceScanner.determineInstancesFromTargets(targets, null, null);
+		
+		Instant stop = Instant.now();
+		
+		Assertions.assertEquals(numberOfPaths*numberOfApps*10, result.size());
+		
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveOrgId("unittestorg");
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveSpaceId(CFAccessorMassMock.UNITTEST_ORG_UUID, "unittestspace");
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveSpaceSummary(CFAccessorMassMock.UNITTEST_SPACE_UUID);
+		
+		// test to be faster than 3 seconds
+		Duration d = Duration.between(start, stop);
+		Assertions.assertTrue(d.minusSeconds(3).isNegative());
+	}
 }
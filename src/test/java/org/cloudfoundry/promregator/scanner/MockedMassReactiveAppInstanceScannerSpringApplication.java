@@ -3,6 +3,7 @@ package org.cloudfoundry.promregator.scanner;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessorMassMock;
 import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.mockito.Mockito;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,7 +17,7 @@ public class MockedMassReactiveAppInstanceScannerSpringApplication {
 
 	@Bean
 	public CFAccessor cfAccessor() {
-		return new CFAccessorMassMock(10);
+		return Mockito.spy(new CFAccessorMassMock(10));
 	}
 	
 	@Bean
@@ -597,4 +597,58 @@ class ReactiveTargetResolverTest {
 		Assertions.assertEquals(0, actualList.size());
 	}
 
+	@Test
+	void testTargetsOfSameSpaceAreResolvedWithSingleRequestPerLevel() {
+		List<Target> list = new LinkedList<>();
+		
+		Target t1 = new Target();
+		t1.setOrgName("unittestorg");
+		t1.setSpaceName("unittestspace");
+		t1.setApplicationName("testapp");
+		t1.setPath("path");
+		t1.setProtocol("https");
+		list.add(t1);
+		
+		Target t2 = new Target();
+		t2.setOrgName("UnitTestOrg");
+		t2.setSpaceName("unittestspace");
+		t2.setApplicationRegex("testapp2.*");
+		t2.setPath("path");
+		t2.setProtocol("https");
+		list.add(t2);
+		
+		Target t3 = new Target();
+		t3.setOrgName("unittestorg");
+		t3.setSpaceName("unittestspace");
+		t3.setApplicationRegex("doesnotmatch.*");
+		t3.setPath("path");
+		t3.setProtocol("https");
+		list.add(t3);
+		
+		List<ResolvedTarget> actualList = this.targetResolver.resolveTargets(list);
+		
+		Assertions.assertEquals(2, actualList.size());
+		
+		boolean testappFound = false;
+		boolean testapp2Found = false;
+		for (ResolvedTarget rt : actualList) {
+			if (rt.getApplicationName().equals("testapp")) {
+				Assertions.assertEquals(t1, rt.getOriginalTarget());
+				testappFound = true;
+			} else if (rt.getApplicationName().equals("testapp2")) {
+				Assertions.assertEquals(t2, rt.getOriginalTarget());
+				testapp2Found = true;
+			} else {
+				Assertions.fail("Unknown application name returned");
+			}
+		}
+		
+		Assertions.assertTrue(testappFound);
+		Assertions.assertTrue(testapp2Found);
+		
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveOrgId(Mockito.anyString());
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveSpaceId(CFAccessorMock.UNITTEST_ORG_UUID, "unittestspace");
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveAllApplicationIdsInSpace(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID);
+	}
+
 }
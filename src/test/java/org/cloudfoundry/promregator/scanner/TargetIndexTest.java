@@ -0,0 +1,125 @@
+package org.cloudfoundry.promregator.scanner;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.cloudfoundry.promregator.config.Target;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TargetIndexTest {
+
+	private static Target createTarget(String applicationName, String applicationRegex) {
+		Target t = new Target();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName(applicationName);
+		t.setApplicationRegex(applicationRegex);
+		return t;
+	}
+
+	@Test
+	void testLiteralNamesAreMatchedCaseInsensitively() {
+		Target t = createTarget("testApp", null);
+		TargetIndex subject = new TargetIndex(Arrays.asList(t));
+		
+		Assertions.assertTrue(subject.getApplicationLevel().isLiteral(t));
+		Assertions.assertTrue(subject.getApplicationLevel().match("TESTAPP").contains(t));
+		Assertions.assertTrue(subject.getApplicationLevel().match("testapp2").isEmpty());
+		
+		Assertions.assertTrue(subject.getOrgLevel().isLiteral(t));
+		Assertions.assertTrue(subject.getOrgLevel().match("UnitTestOrg").contains(t));
+	}
+
+	@Test
+	void testWildcardTargetMatchesEverything() {
+		Target t = createTarget(null, null);
+		TargetIndex subject = new TargetIndex(Arrays.asList(t));
+		
+		Assertions.assertFalse(subject.getApplicationLevel().isLiteral(t));
+		Assertions.assertTrue(subject.getApplicationLevel().match("anything").contains(t));
+		Assertions.assertTrue(subject.getApplicationLevel().match(null).isEmpty());
+	}
+
+	@Test
+	void testMultipleRegexesAreEvaluatedInSinglePass() {
+		Target t1 = createTarget(null, "test.*");
+		Target t2 = createTarget(null, "testapp[0-9]");
+		Target t3 = createTarget(null, "other.*");
+		Target t4 = createTarget("testapp2", null);
+		
+		List<Target> list = new LinkedList<>(Arrays.asList(t1, t2, t3, t4));
+		TargetIndex subject = new TargetIndex(list);
+		
+		Set<Target> matching = subject.getApplicationLevel().match("TestApp2");
+		Assertions.assertEquals(3, matching.size());
+		Assertions.assertTrue(matching.contains(t1));
+		Assertions.assertTrue(matching.contains(t2));
+		Assertions.assertTrue(matching.contains(t4));
+		
+		Assertions.assertTrue(subject.getApplicationLevel().match("unknown").isEmpty());
+		Assertions.assertTrue(subject.getApplicationLevel().match("otherapp").contains(t3));
+		
+		Assertions.assertTrue(subject.covers(list));
+		Assertions.assertTrue(subject.covers(Arrays.asList(t1, t2)));
+		Assertions.assertFalse(subject.covers(Arrays.asList(t1, createTarget(null, "test.*"))));
+	}
+
+	@Test
+	void testRegexesAfterFirstMatchingOneAreEvaluated() {
+		// NB: the capturing groups within the regexes must not confuse the detection of the alternative having matched
+		Target t1 = createTarget(null, "(x)(y)z");
+		Target t2 = createTarget(null, "(test)app([0-9])");
+		Target t3 = createTarget(null, "other.*");
+		Target t4 = createTarget(null, "test(.*)");
+		TargetIndex subject = new TargetIndex(Arrays.asList(t1, t2, t3, t4));
+		
+		Set<Target> matching = subject.getApplicationLevel().match("testapp1");
+		Assertions.assertEquals(2, matching.size());
+		Assertions.assertTrue(matching.contains(t2));
+		Assertions.assertTrue(matching.contains(t4));
+		
+		matching = subject.getApplicationLevel().match("testother");
+		Assertions.assertEquals(1, matching.size());
+		Assertions.assertTrue(matching.contains(t4));
+		
+		Assertions.assertTrue(subject.getApplicationLevel().match("xyz").contains(t1));
+	}
+
+	@Test
+	void testLiteralNamesDifferingInCaseShareLookupName() {
+		Target t1 = createTarget("testApp", null);
+		Target t2 = createTarget("TESTAPP", null);
+		Target t3 = createTarget("otherApp", null);
+		TargetIndex subject = new TargetIndex(Arrays.asList(t1, t2, t3));
+		
+		Assertions.assertEquals("testApp", subject.getApplicationLevel().getLiteralName(t1));
+		Assertions.assertEquals("testApp", subject.getApplicationLevel().getLiteralName(t2));
+		Assertions.assertEquals("otherApp", subject.getApplicationLevel().getLiteralName(t3));
+		Assertions.assertNull(subject.getApplicationLevel().getLiteralName(createTarget(null, "test.*")));
+	}
+
+	@Test
+	void testRegexesWithBackReferencesAreNotCombined() {
+		Target t1 = createTarget(null, "(a)\\1");
+		Target t2 = createTarget(null, "(b)\\1");
+		TargetIndex subject = new TargetIndex(Arrays.asList(t1, t2));
+		
+		Assertions.assertTrue(subject.getApplicationLevel().match("aa").contains(t1));
+		Assertions.assertTrue(subject.getApplicationLevel().match("bb").contains(t2));
+		Assertions.assertTrue(subject.getApplicationLevel().match("ab").isEmpty());
+	}
+
+	@Test
+	void testInvalidRegexDoesNotMatch() {
+		Target t1 = createTarget(null, "invalid[");
+		Target t2 = createTarget(null, "valid.*");
+		TargetIndex subject = new TargetIndex(Arrays.asList(t1, t2));
+		
+		Assertions.assertFalse(subject.getApplicationLevel().isLiteral(t1));
+		Assertions.assertTrue(subject.getApplicationLevel().match("invalid[").isEmpty());
+		Assertions.assertTrue(subject.getApplicationLevel().match("validapp").contains(t2));
+	}
+}
@@ -1,14 +1,12 @@
 package org.cloudfoundry.promregator.scanner;
 
-import org.cloudfoundry.promregator.messagebus.MessageBusDestination;
-import org.cloudfoundry.promregator.springconfig.JMSSpringConfiguration;
-import org.springframework.jms.annotation.JmsListener;
+import org.cloudfoundry.promregator.messagebus.InstanceLifecycleListener;
 
-public class TestableResolvedTargetManagerReceiver {
+public class TestableResolvedTargetManagerReceiver implements InstanceLifecycleListener {
 	private Instance lastInstance;
 	
-	@JmsListener(destination=MessageBusDestination.DISCOVERER_INSTANCE_REMOVED, containerFactory=JMSSpringConfiguration.BEAN_NAME_JMS_LISTENER_CONTAINER_FACTORY)
-	public void receiver(Instance instance) {
+	@Override
+	public void instanceRemoved(Instance instance) {
 		this.lastInstance = instance;
 	}
 
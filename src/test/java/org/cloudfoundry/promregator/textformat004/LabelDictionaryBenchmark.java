@@ -0,0 +1,78 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cloudfoundry.promregator.BenchmarkUtils;
+import org.cloudfoundry.promregator.rewrite.CFAllLabelsMetricFamilySamplesEnricher;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+
+/**
+ * Compares the heap retained by many cached scraping results with and without the {@link LabelDictionary}.
+ *
+ * Each snapshot consists of the parsed and enriched documents of all instances, as it is kept
+ * when scraping results are cached between two requests of Prometheus.
+ *
+ * This is not a unit test (and thus not run by surefire); run its main method manually, e.g. from the IDE.
+ * Optional arguments: the number of instances (default: 50) and the number of snapshots kept (default: 20).
+ */
+public class LabelDictionaryBenchmark {
+
+	private static long usedHeapAfterGC() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long measureRetainedHeap(String document, int instances, int snapshots) {
+		long before = usedHeapAfterGC();
+
+		List<HashMap<String, MetricFamilySamples>> cache = new ArrayList<>(instances * snapshots);
+		for (int s = 0; s < snapshots; s++) {
+			for (int i = 0; i < instances; i++) {
+				// NB: the names are provided as new strings by each scrape, as they are read from the responses of the CF API
+				CFAllLabelsMetricFamilySamplesEnricher enricher = new CFAllLabelsMetricFamilySamplesEnricher(String.format("unittestorg%d", 0),
+						String.format("unittestspace%d", 0), String.format("unittestapp%d", i / 10),
+						String.format("%08x-2273-4cb4-a659-bd31331f7daf:%d", i / 10, i % 10));
+				cache.add(enricher.determineEnumerationOfMetricFamilySamples(new Parser(document).parse()));
+			}
+		}
+
+		long retained = usedHeapAfterGC() - before;
+		if (cache.size() != instances * snapshots) {
+			// NB: keeps the cache reachable until after the measurement
+			throw new IllegalStateException();
+		}
+		return retained;
+	}
+
+	public static void main(String[] args) {
+		int instances = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		int snapshots = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		String document = BenchmarkUtils.createTargetDocument();
+		LabelDictionary labelDictionary = LabelDictionary.getShared();
+
+		System.out.println(String.format("Retained heap of %d snapshots of %d instances", snapshots, instances));
+
+		labelDictionary.setMaxSize(0);
+		long withoutDictionary = measureRetainedHeap(document, instances, snapshots);
+		System.out.println(String.format("%-28s %10d KiB", "without label dictionary", withoutDictionary / 1024));
+
+		labelDictionary.setMaxSize(LabelDictionary.DEFAULT_MAX_SIZE);
+		long withDictionary = measureRetainedHeap(document, instances, snapshots);
+		System.out.println(String.format("%-28s %10d KiB", "with label dictionary", withDictionary / 1024));
+
+		System.out.println(String.format("retained heap ratio: %.2f; dictionary hit rate: %.3f", (double) withDictionary / withoutDictionary,
+				(double) labelDictionary.getHits() / (labelDictionary.getHits() + labelDictionary.getMisses())));
+	}
+}
@@ -0,0 +1,119 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.util.HashMap;
+
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.rewrite.CFAllLabelsMetricFamilySamplesEnricher;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+
+class LabelDictionaryTest {
+	@AfterAll
+	static void cleanupEnvironment() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	@Test
+	void testInternReturnsSameInstance() {
+		LabelDictionary subject = new LabelDictionary(100);
+
+		String first = new String("org_name");
+		String second = new String("org_name");
+		Assertions.assertNotSame(first, second);
+
+		Assertions.assertSame(first, subject.intern(first));
+		Assertions.assertSame(first, subject.intern(second));
+		Assertions.assertNull(subject.intern(null));
+
+		Assertions.assertEquals(1, subject.getHits());
+		Assertions.assertEquals(1, subject.getMisses());
+		Assertions.assertEquals(1, subject.size());
+	}
+
+	@Test
+	void testInternSection() {
+		LabelDictionary subject = new LabelDictionary(100);
+
+		final String data = "org_name=\"unittestorg\",space_name=\"unittestorg\"";
+
+		String first = subject.intern(data, 10, 21);
+		Assertions.assertEquals("unittestorg", first);
+		Assertions.assertEquals(0, subject.getHits());
+		Assertions.assertEquals(1, subject.getMisses());
+
+		// the second occurrence is taken from the dictionary
+		Assertions.assertSame(first, subject.intern(data, 35, 46));
+		Assertions.assertSame(first, subject.intern(new String("unittestorg")));
+		Assertions.assertEquals(2, subject.getHits());
+
+		Assertions.assertEquals("org_name", subject.intern(data, 0, 8));
+		Assertions.assertEquals("", subject.intern(data, 3, 3));
+		Assertions.assertEquals(3, subject.size());
+	}
+
+	@Test
+	void testSizeIsBounded() {
+		LabelDictionary subject = new LabelDictionary(16);
+
+		for (int i = 0; i < 1000; i++) {
+			subject.intern("value" + i);
+		}
+
+		Assertions.assertTrue(subject.size() <= 16);
+		Assertions.assertEquals(1000, subject.getMisses());
+
+		// values which did not fit anymore are returned unchanged
+		String notStored = new String("value999");
+		String result = subject.intern(notStored);
+		Assertions.assertEquals("value999", result);
+	}
+
+	@Test
+	void testDisabled() {
+		LabelDictionary subject = new LabelDictionary(100);
+		subject.intern("abc");
+		Assertions.assertEquals(1, subject.size());
+
+		subject.setMaxSize(0);
+		Assertions.assertEquals(0, subject.size());
+
+		String value = new String("abc");
+		Assertions.assertSame(value, subject.intern(value));
+		Assertions.assertEquals(0, subject.size());
+	}
+
+	@Test
+	void testNegativeMaxSizeIsRejected() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new LabelDictionary(-1));
+	}
+
+	@Test
+	void testParserAndEnricherShareLabelValues() {
+		String textToParse = "# TYPE http_requests counter\n" +
+				"http_requests{uri=\"/api/orders\"} 1.0\n";
+
+		Sample first = new Parser(textToParse).parse().get("http_requests").samples.get(0);
+		Sample second = new Parser(textToParse).parse().get("http_requests").samples.get(0);
+
+		Assertions.assertNotSame(first, second);
+		Assertions.assertSame(first.labelNames.get(0), second.labelNames.get(0));
+		Assertions.assertSame(first.labelValues.get(0), second.labelValues.get(0));
+
+		HashMap<String, MetricFamilySamples> enrichedFirst = new CFAllLabelsMetricFamilySamplesEnricher("testOrgName", "testSpaceName", "testComponent", new String("testInstance:42"))
+				.determineEnumerationOfMetricFamilySamples(new Parser(textToParse).parse());
+		HashMap<String, MetricFamilySamples> enrichedSecond = new CFAllLabelsMetricFamilySamplesEnricher("testOrgName", "testSpaceName", "testComponent", new String("testInstance:42"))
+				.determineEnumerationOfMetricFamilySamples(new Parser(textToParse).parse());
+
+		Sample enrichedFirstSample = enrichedFirst.get("http_requests").samples.get(0);
+		Sample enrichedSecondSample = enrichedSecond.get("http_requests").samples.get(0);
+
+		// the instance identifier and the instance number
+		Assertions.assertSame(enrichedFirstSample.labelValues.get(4), enrichedSecondSample.labelValues.get(4));
+		Assertions.assertSame(enrichedFirstSample.labelValues.get(5), enrichedSecondSample.labelValues.get(5));
+		Assertions.assertEquals("42", enrichedFirstSample.labelValues.get(5));
+	}
+}
@@ -65,7 +65,7 @@ class ParserTest {
 		LinkedList<Collector.MetricFamilySamples> expectedList = new LinkedList<>();
 
 		List<Sample> samples = new LinkedList<>();
-		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47);
+		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47, 123456789012345600L);
 		samples.add(sample);
 		
 		Collector.MetricFamilySamples expectedMFS = new Collector.MetricFamilySamples("metric_without_labels", Type.UNTYPED, "", samples);
@@ -117,7 +117,7 @@ class ParserTest {
 		LinkedList<Collector.MetricFamilySamples> expectedList = new LinkedList<>();
 
 		List<Sample> samples = new LinkedList<>();
-		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), Double.POSITIVE_INFINITY);
+		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), Double.POSITIVE_INFINITY, 123456789012345600L);
 		samples.add(sample);
 		
 		Collector.MetricFamilySamples expectedMFS = new Collector.MetricFamilySamples("metric_without_labels", Type.UNTYPED, "", samples);
@@ -143,7 +143,7 @@ class ParserTest {
 		LinkedList<Collector.MetricFamilySamples> expectedList = new LinkedList<>();
 
 		List<Sample> samples = new LinkedList<>();
-		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), Double.NEGATIVE_INFINITY);
+		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), Double.NEGATIVE_INFINITY, 123456789012345600L);
 		samples.add(sample);
 		
 		Collector.MetricFamilySamples expectedMFS = new Collector.MetricFamilySamples("metric_without_labels", Type.UNTYPED, "", samples);
@@ -218,7 +218,7 @@ class ParserTest {
 		LinkedList<Collector.MetricFamilySamples> expectedList = new LinkedList<>();
 
 		List<Sample> samples = new LinkedList<>();
-		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47);
+		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47, 123456789012345600L);
 		samples.add(sample);
 		
 		Collector.MetricFamilySamples expectedMFS = new Collector.MetricFamilySamples("metric_without_labels", Type.GAUGE, "", samples);
@@ -245,7 +245,7 @@ class ParserTest {
 		LinkedList<Collector.MetricFamilySamples> expectedList = new LinkedList<>();
 
 		List<Sample> samples = new LinkedList<>();
-		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47);
+		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47, 123456789012345600L);
 		samples.add(sample);
 		
 		Collector.MetricFamilySamples expectedMFS = new Collector.MetricFamilySamples("metric_without_labels", Type.COUNTER, "", samples);
@@ -272,7 +272,7 @@ class ParserTest {
 		LinkedList<Collector.MetricFamilySamples> expectedList = new LinkedList<>();
 
 		List<Sample> samples = new LinkedList<>();
-		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47);
+		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47, 123456789012345600L);
 		samples.add(sample);
 		
 		Collector.MetricFamilySamples expectedMFS = new Collector.MetricFamilySamples("metric_without_labels", Type.COUNTER, "this is my help text", samples);
@@ -299,7 +299,7 @@ class ParserTest {
 		LinkedList<Collector.MetricFamilySamples> expectedList = new LinkedList<>();
 
 		List<Sample> samples = new LinkedList<>();
-		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47);
+		Sample sample = new Sample("metric_without_labels", new LinkedList<String>(), new LinkedList<String>(), 12.47, 123456789012345600L);
 		samples.add(sample);
 		
 		Collector.MetricFamilySamples expectedMFS = new Collector.MetricFamilySamples("metric_without_labels", Type.COUNTER, "this is my help text with \\ backslashes escaped \\ and escaped newline \n", samples);
@@ -873,4 +873,162 @@ class ParserTest {
 		// compare
 		ParserCompareUtils.compareEMFS(expected, result);
 	}
+	
+	@Test
+	void testMetricNameDenyRules() {
+		String textToParse = "# TYPE jvm_memory_used_bytes gauge\n" + 
+				"jvm_memory_used_bytes{area=\"heap\"} 1.0\n" +
+				"# TYPE http_requests_seconds histogram\n" +
+				"http_requests_seconds_bucket{le=\"0.1\"} 3.0\n" +
+				"http_requests_seconds_bucket{le=\"+Inf\"} 4.0\n" +
+				"http_requests_seconds_count 4.0\n" +
+				"http_requests_seconds_sum 0.5\n" +
+				"# TYPE app_requests counter\n" +
+				"app_requests 12.0\n";
+		
+		MetricFilter filter = new MetricFilter(Collections.emptyList(), Collections.singletonList("jvm_.*|http_requests_seconds"), Collections.emptyMap(), Collections.emptyMap());
+		
+		Parser subject = new Parser(textToParse, filter);
+		HashMap<String, Collector.MetricFamilySamples> resultMap = subject.parse();
+		
+		Assertions.assertEquals(1, resultMap.size());
+		Assertions.assertNotNull(resultMap.get("app_requests"));
+		Assertions.assertEquals(5, subject.getDroppedSamples());
+	}
+	
+	@Test
+	void testMetricNameAllowRules() {
+		String textToParse = "# TYPE jvm_memory_used_bytes gauge\n" + 
+				"jvm_memory_used_bytes{area=\"heap\"} 1.0\n" +
+				"# TYPE http_requests_seconds summary\n" +
+				"http_requests_seconds_count 4.0\n" +
+				"http_requests_seconds_sum 0.5\n";
+		
+		MetricFilter filter = new MetricFilter(Collections.singletonList("http_.*"), Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap());
+		
+		Parser subject = new Parser(textToParse, filter);
+		HashMap<String, Collector.MetricFamilySamples> resultMap = subject.parse();
+		
+		Assertions.assertEquals(1, resultMap.size());
+		Assertions.assertEquals(2, resultMap.get("http_requests_seconds").samples.size());
+		Assertions.assertEquals(1, subject.getDroppedSamples());
+	}
+	
+	@Test
+	void testLabelValueRules() {
+		String textToParse = "# TYPE http_requests counter\n" + 
+				"http_requests{uri=\"/api/orders\",status=\"200\"} 10.0\n" +
+				"http_requests{uri=\"/actuator/health\",status=\"200\"} 20.0\n" +
+				"http_requests{uri=\"/api/orders\",status=\"500\"} 1.0\n" +
+				"http_requests_without_labels 5.0\n";
+		
+		HashMap<String, String> allow = new HashMap<>();
+		allow.put("status", "2..");
+		HashMap<String, String> deny = new HashMap<>();
+		deny.put("uri", "/actuator/.*");
+		MetricFilter filter = new MetricFilter(Collections.emptyList(), Collections.emptyList(), allow, deny);
+		
+		Parser subject = new Parser(textToParse, filter);
+		HashMap<String, Collector.MetricFamilySamples> resultMap = subject.parse();
+		
+		List<Sample> samples = resultMap.get("http_requests").samples;
+		Assertions.assertEquals(1, samples.size());
+		Assertions.assertEquals("/api/orders", samples.get(0).labelValues.get(0));
+		Assertions.assertEquals(10.0, samples.get(0).value, 0.001);
+		
+		// rules on labels do not apply to samples without that label
+		Assertions.assertNotNull(resultMap.get("http_requests_without_labels"));
+		Assertions.assertEquals(2, subject.getDroppedSamples());
+	}
+	
+	@Test
+	void testSampleLimitStopsParsing() {
+		String textToParse = "# TYPE http_requests counter\n" + 
+				"http_requests{uri=\"/a\"} 1.0\n" +
+				"http_requests{uri=\"/b\"} 2.0\n" +
+				"http_requests{uri=\"/c\"} 3.0\n" +
+				"app_requests 12.0\n";
+		
+		Parser subject = new Parser(textToParse, null, 2, 0);
+		HashMap<String, Collector.MetricFamilySamples> resultMap = subject.parse();
+		
+		Assertions.assertEquals(Parser.LIMIT_SAMPLES, subject.getExceededLimit());
+		Assertions.assertEquals(2, resultMap.get("http_requests").samples.size());
+		Assertions.assertNull(resultMap.get("app_requests"));
+	}
+	
+	@Test
+	void testSeriesPerFamilyLimit() {
+		String textToParse = "# TYPE http_requests_seconds histogram\n" +
+				"http_requests_seconds_bucket{uri=\"/a\",le=\"0.1\"} 1.0\n" +
+				"http_requests_seconds_bucket{uri=\"/a\",le=\"+Inf\"} 2.0\n" +
+				"http_requests_seconds_count{uri=\"/a\"} 2.0\n" +
+				"http_requests_seconds_sum{uri=\"/a\"} 0.3\n" +
+				"http_requests_seconds_bucket{uri=\"/b\",le=\"0.1\"} 1.0\n" +
+				"http_requests_seconds_bucket{uri=\"/b\",le=\"+Inf\"} 1.0\n" +
+				"http_requests_seconds_count{uri=\"/b\"} 1.0\n" +
+				"http_requests_seconds_sum{uri=\"/b\"} 0.05\n" +
+				"# TYPE http_requests counter\n" + 
+				"http_requests{uri=\"/a\"} 1.0\n" +
+				"http_requests{uri=\"/b\"} 2.0\n" +
+				"http_requests{uri=\"/c\"} 3.0\n";
+		
+		Parser subject = new Parser(textToParse, null, 0, 2);
+		HashMap<String, Collector.MetricFamilySamples> resultMap = subject.parse();
+		
+		Assertions.assertEquals(Parser.LIMIT_SERIES_PER_FAMILY, subject.getExceededLimit());
+		// NB: all samples of the histogram only form two series
+		Assertions.assertEquals(8, resultMap.get("http_requests_seconds").samples.size());
+		Assertions.assertEquals(2, resultMap.get("http_requests").samples.size());
+	}
+	
+	@Test
+	void testLimitsNotExceeded() {
+		String textToParse = "# TYPE http_requests counter\n" + 
+				"http_requests{uri=\"/a\"} 1.0\n" +
+				"http_requests{uri=\"/b\"} 2.0\n";
+		
+		Parser subject = new Parser(textToParse, null, 2, 2);
+		HashMap<String, Collector.MetricFamilySamples> resultMap = subject.parse();
+		
+		Assertions.assertNull(subject.getExceededLimit());
+		Assertions.assertEquals(2, resultMap.get("http_requests").samples.size());
+	}
+	
+	@Test
+	void testTimestampsArePreserved() {
+		String textToParse = "# TYPE http_requests counter\n" + 
+				"http_requests{uri=\"/a\"} 1.0 1395066363000\n" +
+				"http_requests{uri=\"/b\"} 2.0\n";
+		
+		Parser subject = new Parser(textToParse);
+		HashMap<String, Collector.MetricFamilySamples> resultMap = subject.parse();
+		
+		List<Sample> samples = resultMap.get("http_requests").samples;
+		Assertions.assertEquals(1395066363000L, samples.get(0).timestampMs.longValue());
+		Assertions.assertNull(samples.get(1).timestampMs);
+	}
+	
+	@Test
+	void testTimestampInScientificNotation() {
+		String textToParse = "metric_without_labels 12.47 1.395066363E12\n";
+		
+		Parser subject = new Parser(textToParse);
+		HashMap<String, Collector.MetricFamilySamples> resultMap = subject.parse();
+		
+		Assertions.assertEquals(1395066363000L, resultMap.get("metric_without_labels").samples.get(0).timestampMs.longValue());
+	}
+	
+	@Test
+	void testTimestampsAreDropped() {
+		String textToParse = "# TYPE http_requests counter\n" + 
+				"http_requests{uri=\"/a\"} 1.0 1395066363000\n";
+		
+		Parser subject = new Parser(textToParse, null, 0, 0, true);
+		HashMap<String, Collector.MetricFamilySamples> resultMap = subject.parse();
+		
+		Sample sample = resultMap.get("http_requests").samples.get(0);
+		Assertions.assertEquals(1.0, sample.value, 0.001);
+		Assertions.assertNull(sample.timestampMs);
+	}
 }
@@ -0,0 +1,50 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+
+class SeriesCounterTest {
+
+	private static Sample createSample(String name, String labelName, String labelValue) {
+		return new Sample(name, Arrays.asList("uri", labelName), Arrays.asList("/a", labelValue), 1.0);
+	}
+
+	@Test
+	void testBucketsAndQuantilesBelongToSameSeries() {
+		SeriesCounter subject = new SeriesCounter(1);
+		
+		Assertions.assertTrue(subject.add("latency", Type.HISTOGRAM, createSample("latency_bucket", "le", "0.1")));
+		Assertions.assertTrue(subject.add("latency", Type.HISTOGRAM, createSample("latency_bucket", "le", "+Inf")));
+		Assertions.assertTrue(subject.add("latency", Type.HISTOGRAM, new Sample("latency_count", Collections.singletonList("uri"), Collections.singletonList("/a"), 2.0)));
+		
+		Assertions.assertTrue(subject.add("duration", Type.SUMMARY, createSample("duration", "quantile", "0.5")));
+		Assertions.assertTrue(subject.add("duration", Type.SUMMARY, createSample("duration", "quantile", "0.99")));
+	}
+
+	@Test
+	void testLabelLeOfGaugeStartsNewSeries() {
+		SeriesCounter subject = new SeriesCounter(1);
+		
+		Assertions.assertTrue(subject.add("temperature", Type.GAUGE, createSample("temperature", "le", "0.1")));
+		Assertions.assertTrue(subject.add("temperature", Type.GAUGE, createSample("temperature", "le", "0.1")));
+		Assertions.assertFalse(subject.add("temperature", Type.GAUGE, createSample("temperature", "le", "0.2")));
+		
+		subject.reset();
+		Assertions.assertTrue(subject.add("temperature", Type.GAUGE, createSample("temperature", "le", "0.2")));
+	}
+
+	@Test
+	void testUnlimited() {
+		SeriesCounter subject = new SeriesCounter(0);
+		
+		for (int i = 0; i < 100; i++) {
+			Assertions.assertTrue(subject.add("temperature", Type.GAUGE, createSample("temperature", "room", Integer.toString(i))));
+		}
+	}
+}
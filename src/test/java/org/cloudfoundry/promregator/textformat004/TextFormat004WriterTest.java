@@ -0,0 +1,96 @@
+package org.cloudfoundry.promregator.textformat004;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.rewrite.CFAllLabelsMetricFamilySamplesEnricher;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+import io.prometheus.client.exporter.common.TextFormat;
+
+class TextFormat004WriterTest {
+	@AfterAll
+	static void cleanupEnvironment() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	private static String writeWithSimpleclient(List<MetricFamilySamples> list) throws IOException {
+		StringWriter writer = new StringWriter();
+		TextFormat.write004(writer, Collections.enumeration(list));
+		return writer.toString();
+	}
+
+	private static String writeWithSubject(List<MetricFamilySamples> list) {
+		return new String(TextFormat004Writer.toText004ByteArray(Collections.enumeration(list)), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void testSameOutputAsSimpleclient() throws IOException {
+		List<MetricFamilySamples> list = new ArrayList<>();
+
+		List<Sample> samples = new ArrayList<>();
+		samples.add(new Sample("metric_without_labels", Collections.emptyList(), Collections.emptyList(), 12.47));
+		samples.add(new Sample("metric_without_labels", Arrays.asList("path"), Arrays.asList("C:\\temp\n\"quoted\""), Double.NaN));
+		samples.add(new Sample("metric_without_labels", Arrays.asList("city"), Arrays.asList("Zürich 東京 \uD83D\uDE00"), Double.POSITIVE_INFINITY, 1395066363000L));
+		list.add(new MetricFamilySamples("metric_without_labels", Type.GAUGE, "Help with \\ backslash,\nline feed and \"quotes\" ä", samples));
+
+		List<Sample> untypedSamples = new ArrayList<>();
+		untypedSamples.add(new Sample("untyped_metric", Arrays.asList("a", "b"), Arrays.asList("1", ""), Double.NEGATIVE_INFINITY));
+		list.add(new MetricFamilySamples("untyped_metric", Type.UNTYPED, "", untypedSamples));
+
+		list.add(new MetricFamilySamples("empty_counter", Type.COUNTER, "no samples", new ArrayList<>()));
+
+		Assertions.assertEquals(writeWithSimpleclient(list), writeWithSubject(list));
+	}
+
+	@Test
+	void testEnrichedSamplesUseLabelSuffix() throws IOException {
+		String textToParse = "# HELP http_requests The number of requests\n" +
+				"# TYPE http_requests counter\n" +
+				"http_requests{uri=\"/a\",method=\"GET\"} 1.0 1395066363000\n" +
+				"http_requests 2.0\n" +
+				"# TYPE http_seconds histogram\n" +
+				"http_seconds_bucket{le=\"0.1\"} 1.0\n" +
+				"http_seconds_bucket{le=\"+Inf\"} 2.0\n" +
+				"http_seconds_count 2.0\n" +
+				"http_seconds_sum 0.3\n";
+
+		CFAllLabelsMetricFamilySamplesEnricher enricher = new CFAllLabelsMetricFamilySamplesEnricher("test\"Org", "testSpaceName", "täst\\App", "testInstance:42");
+		HashMap<String, MetricFamilySamples> enriched = enricher.determineEnumerationOfMetricFamilySamples(new Parser(textToParse).parse());
+
+		Sample sample = enriched.get("http_requests").samples.get(0);
+		Assertions.assertTrue(sample instanceof LabelSuffixSample);
+		Assertions.assertEquals(5, ((LabelSuffixSample) sample).getLabelSuffix().getLabelCount());
+
+		List<MetricFamilySamples> list = new ArrayList<>(enriched.values());
+		String expected = writeWithSimpleclient(list);
+		Assertions.assertEquals(expected, writeWithSubject(list));
+		Assertions.assertTrue(expected.contains("http_requests{uri=\"/a\",method=\"GET\",org_name=\"test\\\"Org\",space_name=\"testSpaceName\",app_name=\"täst\\\\App\",cf_instance_id=\"testInstance:42\",cf_instance_number=\"42\",} 1.0 1395066363000\n"));
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		TextFormat004Writer.write004(baos, Collections.enumeration(list));
+		Assertions.assertEquals(expected, new String(baos.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testLabelSuffixOfInvalidInstanceIdIsNotRendered() {
+		// NB: the instance number cannot be determined; the (null) label value must be handled as before
+		CFAllLabelsMetricFamilySamplesEnricher enricher = new CFAllLabelsMetricFamilySamplesEnricher("testOrgName", "testSpaceName", "testComponent", "invalidInstanceId");
+		HashMap<String, MetricFamilySamples> enriched = enricher.determineEnumerationOfMetricFamilySamples(new Parser("metric 1.0\n").parse());
+
+		Assertions.assertFalse(enriched.get("metric").samples.get(0) instanceof LabelSuffixSample);
+	}
+}